@@ -16,11 +16,11 @@ import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
 import java.util.Arrays;
-import java.util.concurrent.BlockingQueue;
+import java.util.List;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -36,9 +36,16 @@ import fi.vrk.xroad.catalog.collector.tasks.FetchWsdlsTask;
 import fi.vrk.xroad.catalog.collector.tasks.ListClientsTask;
 import fi.vrk.xroad.catalog.collector.tasks.ListMethodsTask;
 import fi.vrk.xroad.catalog.collector.tasks.UpdateExternalsTask;
+import fi.vrk.xroad.catalog.collector.util.ClientTypeUtil;
+import fi.vrk.xroad.catalog.collector.util.CollectorHttpClients;
+import fi.vrk.xroad.catalog.collector.util.CollectorQueues;
+import fi.vrk.xroad.catalog.collector.util.DeduplicatingQueue;
+import fi.vrk.xroad.catalog.collector.util.ErrorLogWriter;
 import fi.vrk.xroad.catalog.collector.util.XRoadRestServiceIdentifierType;
 import fi.vrk.xroad.catalog.collector.wsimport.ClientType;
 import fi.vrk.xroad.catalog.collector.wsimport.XRoadServiceIdentifierType;
+import fi.vrk.xroad.catalog.persistence.CatalogService;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -47,6 +54,14 @@ public class XRoadCatalogCollector {
 
     private static final String FI_PROFILE = "fi";
 
+    private static final String LIST_METHODS_QUEUE = "list-methods";
+
+    private static final String FETCH_WSDLS_QUEUE = "fetch-wsdls";
+
+    private static final String FETCH_REST_QUEUE = "fetch-rest";
+
+    private static final String FETCH_OPENAPI_QUEUE = "fetch-openapi";
+
     public static void main(String[] args) throws MalformedURLException, URISyntaxException {
 
         ApplicationContext context = SpringApplication.run(XRoadCatalogCollector.class, args);
@@ -67,17 +82,39 @@ public class XRoadCatalogCollector {
         }
 
         final TaskPoolConfiguration taskPoolConfiguration = context.getBean(TaskPoolConfiguration.class);
+        final MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+
+        // the pooled connections to the security server pick up the keystore set above
+        CollectorHttpClients.configure(taskPoolConfiguration);
+        CollectorHttpClients.bindTo(meterRegistry);
+
+        // errors are written in batches in the background, not by the fetching threads
+        final ErrorLogWriter errorLogWriter = ErrorLogWriter.create(context.getBean(CatalogService.class),
+                taskPoolConfiguration);
+        errorLogWriter.bindTo(meterRegistry);
+        ErrorLogWriter.install(errorLogWriter);
+        Thread.ofVirtual().start(errorLogWriter);
 
         final boolean isFIProfile = Arrays.stream(env.getActiveProfiles())
                 .anyMatch(str -> str.equalsIgnoreCase(FI_PROFILE));
 
-        final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
-        final BlockingQueue<ClientType> listMethodsQueue = new LinkedBlockingQueue<>();
-        final BlockingQueue<String> fetchCompaniesQueue = isFIProfile ? new LinkedBlockingQueue<>() : null;
-        final BlockingQueue<String> fetchOrganizationsQueue = isFIProfile ? new LinkedBlockingQueue<>() : null;
-        final BlockingQueue<XRoadServiceIdentifierType> fetchWsdlsQueue = new LinkedBlockingQueue<>();
-        final BlockingQueue<XRoadRestServiceIdentifierType> fetchRestQueue = new LinkedBlockingQueue<>();
-        final BlockingQueue<XRoadRestServiceIdentifierType> fetchOpenApiQueue = new LinkedBlockingQueue<>();
+        // a thread per scheduled task, since a task blocks while the queue it fills is full
+        final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+        final CollectorQueues collectorQueues = new CollectorQueues(meterRegistry);
+        // the queues are keyed by identity so that the same client, service or member is not queued twice
+        final DeduplicatingQueue<ClientType> listMethodsQueue = collectorQueues.create(LIST_METHODS_QUEUE,
+                taskPoolConfiguration.getListMethodsQueueCapacity(), client -> ClientTypeUtil.toKey(client.getId()));
+        final DeduplicatingQueue<String> fetchCompaniesQueue = isFIProfile ? collectorQueues.create("fetch-companies",
+                taskPoolConfiguration.getFetchCompaniesQueueCapacity(), Function.identity()) : null;
+        final DeduplicatingQueue<String> fetchOrganizationsQueue = isFIProfile ? collectorQueues.create(
+                "fetch-organizations", taskPoolConfiguration.getFetchOrganizationsQueueCapacity(), Function.identity())
+                : null;
+        final DeduplicatingQueue<XRoadServiceIdentifierType> fetchWsdlsQueue = collectorQueues.create(FETCH_WSDLS_QUEUE,
+                taskPoolConfiguration.getFetchWsdlQueueCapacity(), ClientTypeUtil::toKey);
+        final DeduplicatingQueue<XRoadRestServiceIdentifierType> fetchRestQueue = collectorQueues.create(FETCH_REST_QUEUE,
+                taskPoolConfiguration.getFetchRestQueueCapacity(), ClientTypeUtil::toKey);
+        final DeduplicatingQueue<XRoadRestServiceIdentifierType> fetchOpenApiQueue = collectorQueues.create(
+                FETCH_OPENAPI_QUEUE, taskPoolConfiguration.getFetchOpenapiQueueCapacity(), ClientTypeUtil::toKey);
 
         if (isFIProfile) {
             log.info("FI profile detected, starting up organizations and companies fetchers");
@@ -112,8 +149,11 @@ public class XRoadCatalogCollector {
 
         // The ListClientsTask is the main task that starts the whole process and
         // gathers information that the other tasks will react on to do work
+        // Only the queues filled by the collection cycle decide whether the next one may start, the
+        // companies and organizations queues are also filled by the UpdateExternalsTask
         final ListClientsTask listClientsTask = new ListClientsTask(context, listMethodsQueue, fetchCompaniesQueue,
-                fetchOrganizationsQueue);
+                fetchOrganizationsQueue, collectorQueues,
+                List.of(LIST_METHODS_QUEUE, FETCH_WSDLS_QUEUE, FETCH_REST_QUEUE, FETCH_OPENAPI_QUEUE));
 
 
         long collectorInterval = taskPoolConfiguration.getCollectorInterval();
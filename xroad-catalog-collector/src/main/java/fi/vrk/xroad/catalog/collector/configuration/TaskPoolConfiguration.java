@@ -27,8 +27,10 @@
 package fi.vrk.xroad.catalog.collector.configuration;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import fi.vrk.xroad.catalog.collector.util.AdaptiveConcurrencyLimiter;
 import lombok.Getter;
 
 @Getter
@@ -109,6 +111,15 @@ public class TaskPoolConfiguration {
     @Value("${xroad-catalog.error-log-length-in-days:90}")
     private int errorLogLengthInDays;
 
+    @Value("${xroad-catalog.error-log-buffer-capacity:10000}")
+    private int errorLogBufferCapacity;
+
+    @Value("${xroad-catalog.error-log-batch-size:100}")
+    private int errorLogBatchSize;
+
+    @Value("${xroad-catalog.error-log-flush-interval-ms:1000}")
+    private long errorLogFlushIntervalMs;
+
     // Parameters controlling how often data is collected from the X-Road instance
 
     @Value("${xroad-catalog.fetch-run-unlimited:false}")
@@ -137,4 +148,71 @@ public class TaskPoolConfiguration {
     @Value("${xroad-catalog.fetch-rest-pool-size:10}")
     private int fetchRestPoolSize;
 
+    // Adaptive per target concurrency limits, shared by all tasks sending requests to the same target
+
+    @Value("${xroad-catalog.adaptive-limit-initial:2}")
+    private int adaptiveLimitInitial;
+
+    @Value("${xroad-catalog.adaptive-limit-max:10}")
+    private int adaptiveLimitMax;
+
+    @Value("${xroad-catalog.adaptive-limit-backoff-ratio:0.5}")
+    private double adaptiveLimitBackoffRatio;
+
+    @Value("${xroad-catalog.adaptive-limit-latency-threshold-ms:20000}")
+    private long adaptiveLimitLatencyThresholdMs;
+
+    // Shared HTTP connection pools of the REST clients, one for the security server and one for the external APIs
+
+    @Value("${xroad-catalog.http-max-connections:200}")
+    private int httpMaxConnections;
+
+    @Value("${xroad-catalog.http-max-connections-per-route:100}")
+    private int httpMaxConnectionsPerRoute;
+
+    @Value("${xroad-catalog.http-connect-timeout-ms:30000}")
+    private long httpConnectTimeoutMs;
+
+    @Value("${xroad-catalog.http-socket-timeout-ms:120000}")
+    private long httpSocketTimeoutMs;
+
+    @Value("${xroad-catalog.http-keep-alive-ms:60000}")
+    private long httpKeepAliveMs;
+
+    @Value("${xroad-catalog.http-compression-enabled:true}")
+    private boolean httpCompressionEnabled;
+
+    // Collector queue capacities, producers block when a queue is full
+
+    @Value("${xroad-catalog.list-methods-queue-capacity:1000}")
+    private int listMethodsQueueCapacity;
+
+    @Value("${xroad-catalog.fetch-wsdl-queue-capacity:1000}")
+    private int fetchWsdlQueueCapacity;
+
+    @Value("${xroad-catalog.fetch-openapi-queue-capacity:1000}")
+    private int fetchOpenapiQueueCapacity;
+
+    @Value("${xroad-catalog.fetch-rest-queue-capacity:1000}")
+    private int fetchRestQueueCapacity;
+
+    @Value("${xroad-catalog.fetch-organizations-queue-capacity:1000}")
+    private int fetchOrganizationsQueueCapacity;
+
+    @Value("${xroad-catalog.fetch-companies-queue-capacity:1000}")
+    private int fetchCompaniesQueueCapacity;
+
+    // Elements taken from a queue but not marked done within this time no longer block new collection cycles
+
+    @Value("${xroad-catalog.collector-queue-stale-timeout-min:60}")
+    private long collectorQueueStaleTimeout;
+
+    /**
+     * @return limiter shared by the collector tasks, so that the requests of all the tasks to the
+     *         security servers of a member count against the same limit
+     */
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter() {
+        return AdaptiveConcurrencyLimiter.create(this);
+    }
 }
@@ -26,12 +26,15 @@
  */
 package fi.vrk.xroad.catalog.collector.tasks;
 
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Semaphore;
 
 import org.springframework.context.ApplicationContext;
 
+import fi.vrk.xroad.catalog.collector.util.AdaptiveConcurrencyLimiter;
+import fi.vrk.xroad.catalog.collector.util.ClientTypeUtil;
+import fi.vrk.xroad.catalog.collector.util.DeduplicatingQueue;
 import fi.vrk.xroad.catalog.collector.util.XRoadRestServiceIdentifierType;
+import fi.vrk.xroad.catalog.collector.wsimport.XRoadIdentifierType;
 import fi.vrk.xroad.catalog.collector.wsimport.XRoadServiceIdentifierType;
 import fi.vrk.xroad.catalog.persistence.CatalogService;
 import fi.vrk.xroad.catalog.persistence.entity.ServiceId;
@@ -39,32 +42,45 @@ import fi.vrk.xroad.catalog.persistence.entity.SubsystemId;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
-public abstract class BaseFetchTask<T> implements Runnable {
+public abstract class BaseFetchTask<T extends XRoadIdentifierType> implements Runnable {
 
     protected final CatalogService catalogService;
 
-    private final BlockingQueue<T> inputQueue;
+    private final DeduplicatingQueue<T> inputQueue;
 
+    // upper bound for the requests in flight, to all targets together
     private final Semaphore semaphore;
 
-    protected BaseFetchTask(final ApplicationContext applicationContext, final BlockingQueue<T> inputQueue,
+    // upper bound for the inputs taken from the queue and not yet handled, including the ones
+    // waiting for their member, so that taking inputs still blocks while the members are busy
+    private final Semaphore admitted;
+
+    // adaptive limit for the requests in flight to the security servers of each member
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    protected BaseFetchTask(final ApplicationContext applicationContext, final DeduplicatingQueue<T> inputQueue,
             final int poolSize) {
         this.catalogService = applicationContext.getBean(CatalogService.class);
 
         this.inputQueue = inputQueue;
 
         this.semaphore = new Semaphore(poolSize);
+
+        this.admitted = new Semaphore(Math.max(poolSize, inputQueue.remainingCapacity()));
+
+        this.limiter = applicationContext.getBean(AdaptiveConcurrencyLimiter.class);
     }
 
     public void run() {
-        log.info("Starting {} with pool size {}", getClass().getSimpleName(), semaphore.availablePermits());
+        log.info("Starting {} with pool size {} and adaptive per member limits", getClass().getSimpleName(),
+                semaphore.availablePermits());
         try {
             while (true) {
                 log.debug("Polling for input ... ");
 
+                admitted.acquire();
                 // take() blocks until an element becomes available or it gets interrupted
                 T input = inputQueue.take();
-                semaphore.acquire();
                 Thread.ofVirtual().start(() -> wrappedFetch(input));
             }
         } catch (InterruptedException e) {
@@ -74,16 +90,43 @@ public abstract class BaseFetchTask<T> implements Runnable {
     }
 
     private void wrappedFetch(final T input) {
+        AdaptiveConcurrencyLimiter.Permit permit = null;
+        boolean pooled = false;
+        boolean success = false;
         try {
-            fetch(input);
+            // the member permit is taken first, so that inputs waiting for a busy member do not
+            // hold the pool permits needed by the inputs of other members
+            permit = limiter.acquire(ClientTypeUtil.toMemberKey(input));
+            semaphore.acquire();
+            pooled = true;
+            // waiting for the pool is not latency of the member
+            permit.start();
+            success = fetch(input);
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while waiting to fetch data for {}", ClientTypeUtil.toString(input), e);
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             log.error("Error fetching data", e);
         } finally {
-            semaphore.release();
+            if (pooled) {
+                semaphore.release();
+            }
+            if (permit != null) {
+                permit.release(success);
+            }
+            inputQueue.done(input);
+            admitted.release();
         }
     }
 
-    protected abstract void fetch(T input);
+    /**
+     * Fetches and saves the data of the input
+     *
+     * @param input service to fetch the data for
+     * @return true if the data was fetched successfully, failures make the limiter back off from
+     *         the security server of the service
+     */
+    protected abstract boolean fetch(T input);
 
     protected ServiceId createServiceId(XRoadServiceIdentifierType service) {
         return new ServiceId(service.getServiceCode(),
@@ -29,7 +29,6 @@ package fi.vrk.xroad.catalog.collector.tasks;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Semaphore;
 
 import org.json.JSONArray;
@@ -37,6 +36,8 @@ import org.json.JSONObject;
 import org.springframework.context.ApplicationContext;
 
 import fi.vrk.xroad.catalog.collector.configuration.TaskPoolConfiguration;
+import fi.vrk.xroad.catalog.collector.util.AdaptiveConcurrencyLimiter;
+import fi.vrk.xroad.catalog.collector.util.DeduplicatingQueue;
 import fi.vrk.xroad.catalog.collector.util.OrganizationUtil;
 import fi.vrk.xroad.catalog.persistence.CatalogService;
 import fi.vrk.xroad.catalog.persistence.CompanyService;
@@ -63,14 +64,17 @@ public class FetchCompaniesTask implements Runnable {
 
     private final CompanyService companyService;
 
-    private final BlockingQueue<String> fetchCompaniesQueue;
+    private final DeduplicatingQueue<String> fetchCompaniesQueue;
 
     private final TaskPoolConfiguration taskPoolConfiguration;
 
     private final Semaphore semaphore;
 
+    // adaptive limit for the requests in flight to the companies API
+    private final AdaptiveConcurrencyLimiter limiter;
+
     public FetchCompaniesTask(final ApplicationContext applicationContext,
-            final BlockingQueue<String> fetchCompaniesQueue) {
+            final DeduplicatingQueue<String> fetchCompaniesQueue) {
         this.catalogService = applicationContext.getBean(CatalogService.class);
         this.companyService = applicationContext.getBean(CompanyService.class);
 
@@ -80,6 +84,7 @@ public class FetchCompaniesTask implements Runnable {
         this.fetchCompaniesUrl = taskPoolConfiguration.getFetchCompaniesUrl();
 
         this.semaphore = new Semaphore(taskPoolConfiguration.getFetchCompaniesPoolSize());
+        this.limiter = applicationContext.getBean(AdaptiveConcurrencyLimiter.class);
 
     }
 
@@ -104,16 +109,31 @@ public class FetchCompaniesTask implements Runnable {
         try {
             log.info("Fetching company information for member {}", businessId);
 
-            Optional<JSONObject> company = OrganizationUtil.getCompany(fetchCompaniesUrl, businessId,
-                    catalogService);
+            Optional<JSONObject> company = getCompany(businessId);
             company.ifPresent(companyJson -> saveData(companyJson.optJSONArray("results")));
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while fetching company information for member {}", businessId, e);
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             log.error("Error while fetching company information for member {}", businessId, e);
         } finally {
+            fetchCompaniesQueue.done(businessId);
             semaphore.release();
         }
     }
 
+    private Optional<JSONObject> getCompany(final String businessId) throws InterruptedException {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire(fetchCompaniesUrl);
+        boolean success = false;
+        try {
+            Optional<JSONObject> company = OrganizationUtil.getCompany(fetchCompaniesUrl, businessId, catalogService);
+            success = true;
+            return company;
+        } finally {
+            permit.release(success);
+        }
+    }
+
     private void saveData(JSONArray data) {
         for (int i = 0; i < data.length(); i++) {
             Company savedCompany = companyService.saveCompany(OrganizationUtil.createCompany(data.optJSONObject(i)));
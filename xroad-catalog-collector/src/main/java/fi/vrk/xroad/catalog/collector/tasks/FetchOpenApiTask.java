@@ -29,12 +29,12 @@ package fi.vrk.xroad.catalog.collector.tasks;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
 
 import org.springframework.context.ApplicationContext;
 
 import fi.vrk.xroad.catalog.collector.configuration.TaskPoolConfiguration;
 import fi.vrk.xroad.catalog.collector.util.ClientTypeUtil;
+import fi.vrk.xroad.catalog.collector.util.DeduplicatingQueue;
 import fi.vrk.xroad.catalog.collector.util.Endpoint;
 import fi.vrk.xroad.catalog.collector.util.MethodListUtil;
 import fi.vrk.xroad.catalog.collector.util.XRoadClient;
@@ -59,7 +59,7 @@ public class FetchOpenApiTask extends BaseFetchTask<XRoadRestServiceIdentifierTy
     private final XRoadClient xroadClient;
 
     public FetchOpenApiTask(final ApplicationContext applicationContext,
-            final BlockingQueue<XRoadRestServiceIdentifierType> openApiServices) throws URISyntaxException {
+            final DeduplicatingQueue<XRoadRestServiceIdentifierType> openApiServices) throws URISyntaxException {
         super(applicationContext, openApiServices,
                 applicationContext.getBean(TaskPoolConfiguration.class).getFetchOpenapiPoolSize());
 
@@ -77,7 +77,7 @@ public class FetchOpenApiTask extends BaseFetchTask<XRoadRestServiceIdentifierTy
     }
 
     @Override
-    protected void fetch(final XRoadRestServiceIdentifierType service) {
+    protected boolean fetch(final XRoadRestServiceIdentifierType service) {
         try {
             log.info("Fetching OpenApi for {}", ClientTypeUtil.toString(service));
             String openApi = xroadClient.getOpenApi(service, xroadSecurityServerHost, xroadInstance, memberClass,
@@ -90,8 +90,11 @@ public class FetchOpenApiTask extends BaseFetchTask<XRoadRestServiceIdentifierTy
                         endpoint.getPath());
             }
             log.info("Saved OpenApi for {} successfully", ClientTypeUtil.toString(service));
+            // the description is empty when the security server failed to return it
+            return !openApi.isEmpty();
         } catch (Exception e) {
             log.error("Failed to fetch OpenAPI for {}", ClientTypeUtil.toString(service), e);
+            return false;
         }
     }
 }
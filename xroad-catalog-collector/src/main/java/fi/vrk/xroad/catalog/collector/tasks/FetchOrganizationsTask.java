@@ -28,7 +28,6 @@ package fi.vrk.xroad.catalog.collector.tasks;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Semaphore;
 
 import org.json.JSONArray;
@@ -36,6 +35,8 @@ import org.json.JSONObject;
 import org.springframework.context.ApplicationContext;
 
 import fi.vrk.xroad.catalog.collector.configuration.TaskPoolConfiguration;
+import fi.vrk.xroad.catalog.collector.util.AdaptiveConcurrencyLimiter;
+import fi.vrk.xroad.catalog.collector.util.DeduplicatingQueue;
 import fi.vrk.xroad.catalog.collector.util.OrganizationUtil;
 import fi.vrk.xroad.catalog.persistence.CatalogService;
 import fi.vrk.xroad.catalog.persistence.OrganizationService;
@@ -69,14 +70,17 @@ public class FetchOrganizationsTask implements Runnable {
 
     private final OrganizationService organizationService;
 
-    private final BlockingQueue<String> fetchOrganizationsQueue;
+    private final DeduplicatingQueue<String> fetchOrganizationsQueue;
 
     private final TaskPoolConfiguration taskPoolConfiguration;
 
     private final Semaphore semaphore;
 
+    // adaptive limit for the requests in flight to the organizations API
+    private final AdaptiveConcurrencyLimiter limiter;
+
     public FetchOrganizationsTask(final ApplicationContext applicationContext,
-            final BlockingQueue<String> fetchOrganizationsQueue) {
+            final DeduplicatingQueue<String> fetchOrganizationsQueue) {
       
         this.catalogService = applicationContext.getBean(CatalogService.class);
         this.organizationService = applicationContext.getBean(OrganizationService.class);
@@ -87,6 +91,7 @@ public class FetchOrganizationsTask implements Runnable {
         this.fetchOrganizationsUrl = taskPoolConfiguration.getFetchOrganizationsUrl();
 
         this.semaphore = new Semaphore(taskPoolConfiguration.getFetchOrganizationsPoolSize());
+        this.limiter = applicationContext.getBean(AdaptiveConcurrencyLimiter.class);
 
     }
 
@@ -110,17 +115,33 @@ public class FetchOrganizationsTask implements Runnable {
     protected void fetchOrganization(final String businessId) {
         try {
             log.info("Fetching organization information for member {}", businessId);
-            Optional<JSONArray> organization = OrganizationUtil.getOrganization(fetchOrganizationsUrl, businessId,
-                    catalogService);
+            Optional<JSONArray> organization = getOrganization(businessId);
             organization.ifPresent(this::saveOrganization);
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while fetching organizations for member {}", businessId, e);
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             log.error("Error while fetching organizations for member {}", businessId, e);
         } finally {
+            fetchOrganizationsQueue.done(businessId);
             semaphore.release();
         }
 
     }
 
+    private Optional<JSONArray> getOrganization(final String businessId) throws InterruptedException {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire(fetchOrganizationsUrl);
+        boolean success = false;
+        try {
+            Optional<JSONArray> organization = OrganizationUtil.getOrganization(fetchOrganizationsUrl, businessId,
+                    catalogService);
+            success = true;
+            return organization;
+        } finally {
+            permit.release(success);
+        }
+    }
+
     private void saveOrganization(final JSONArray data) {
         for (int i = 0; i < data.length(); i++) {
             Organization organization = OrganizationUtil.createOrganization(data.optJSONObject(i));
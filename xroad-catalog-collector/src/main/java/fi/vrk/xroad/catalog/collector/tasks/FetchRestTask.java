@@ -27,7 +27,6 @@
 package fi.vrk.xroad.catalog.collector.tasks;
 
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -35,6 +34,7 @@ import org.springframework.context.ApplicationContext;
 
 import fi.vrk.xroad.catalog.collector.configuration.TaskPoolConfiguration;
 import fi.vrk.xroad.catalog.collector.util.ClientTypeUtil;
+import fi.vrk.xroad.catalog.collector.util.DeduplicatingQueue;
 import fi.vrk.xroad.catalog.collector.util.Endpoint;
 import fi.vrk.xroad.catalog.collector.util.MethodListUtil;
 import fi.vrk.xroad.catalog.collector.util.XRoadRestServiceIdentifierType;
@@ -48,13 +48,13 @@ public class FetchRestTask extends BaseFetchTask<XRoadRestServiceIdentifierType>
     private static final String PATH = "path";
 
     public FetchRestTask(final ApplicationContext applicationContext,
-            final BlockingQueue<XRoadRestServiceIdentifierType> restServices) {
+            final DeduplicatingQueue<XRoadRestServiceIdentifierType> restServices) {
         super(applicationContext, restServices,
                 applicationContext.getBean(TaskPoolConfiguration.class).getFetchRestPoolSize());
     }
 
     @Override
-    protected void fetch(final XRoadRestServiceIdentifierType service) {
+    protected boolean fetch(final XRoadRestServiceIdentifierType service) {
         try {
             log.info("Fetching REST for {}", ClientTypeUtil.toString(service));
             List<Endpoint> endpointList = MethodListUtil.getEndpointList(service);
@@ -73,8 +73,10 @@ public class FetchRestTask extends BaseFetchTask<XRoadRestServiceIdentifierType>
             endpointData += endPointsJSONArray + "}";
             catalogService.saveRest(createSubsystemId(service), createServiceId(service), endpointData);
             log.info("Saved REST for {} successfully", ClientTypeUtil.toString(service));
+            return true;
         } catch (Exception e) {
             log.error("Failed to fetch REST for {}", ClientTypeUtil.toString(service), e);
+            return false;
         }
     }
 }
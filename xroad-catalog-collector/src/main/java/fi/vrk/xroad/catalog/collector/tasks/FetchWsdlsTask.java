@@ -28,12 +28,12 @@ package fi.vrk.xroad.catalog.collector.tasks;
 
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.concurrent.BlockingQueue;
 
 import org.springframework.context.ApplicationContext;
 
 import fi.vrk.xroad.catalog.collector.configuration.TaskPoolConfiguration;
 import fi.vrk.xroad.catalog.collector.util.ClientTypeUtil;
+import fi.vrk.xroad.catalog.collector.util.DeduplicatingQueue;
 import fi.vrk.xroad.catalog.collector.util.XRoadClient;
 import fi.vrk.xroad.catalog.collector.wsimport.XRoadServiceIdentifierType;
 import lombok.extern.slf4j.Slf4j;
@@ -54,7 +54,7 @@ public class FetchWsdlsTask extends BaseFetchTask<XRoadServiceIdentifierType> {
     private final XRoadClient xroadClient;
 
     public FetchWsdlsTask(final ApplicationContext applicationContext,
-            final BlockingQueue<XRoadServiceIdentifierType> wsdlServices) throws URISyntaxException {
+            final DeduplicatingQueue<XRoadServiceIdentifierType> wsdlServices) throws URISyntaxException {
         super(applicationContext, wsdlServices,
                 applicationContext.getBean(TaskPoolConfiguration.class).getFetchWsdlPoolSize());
 
@@ -71,14 +71,16 @@ public class FetchWsdlsTask extends BaseFetchTask<XRoadServiceIdentifierType> {
     }
 
     @Override
-    protected void fetch(XRoadServiceIdentifierType service) {
+    protected boolean fetch(XRoadServiceIdentifierType service) {
         try {
             log.info("Fetching WSDL for {}", ClientTypeUtil.toString(service));
             String wsdl = xroadClient.getWsdl(service, catalogService);
             catalogService.saveWsdl(createSubsystemId(service), createServiceId(service), wsdl);
             log.info("WSDL for {} saved successfully", ClientTypeUtil.toString(service));
+            return true;
         } catch (Exception e) {
             log.error("Failed to fetch WSDL for {}", ClientTypeUtil.toString(service), e);
+            return false;
         }
     }
 }
@@ -26,18 +26,22 @@
  */
 package fi.vrk.xroad.catalog.collector.tasks;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 
 import org.springframework.context.ApplicationContext;
 
 import fi.vrk.xroad.catalog.collector.configuration.TaskPoolConfiguration;
 import fi.vrk.xroad.catalog.collector.util.ClientListUtil;
 import fi.vrk.xroad.catalog.collector.util.ClientTypeUtil;
+import fi.vrk.xroad.catalog.collector.util.CollectorQueues;
 import fi.vrk.xroad.catalog.collector.util.CollectorUtils;
+import fi.vrk.xroad.catalog.collector.util.ErrorLogWriter;
 import fi.vrk.xroad.catalog.collector.wsimport.ClientList;
 import fi.vrk.xroad.catalog.collector.wsimport.ClientType;
 import fi.vrk.xroad.catalog.collector.wsimport.XRoadObjectType;
@@ -53,17 +57,25 @@ public class ListClientsTask implements Runnable {
 
     private final TaskPoolConfiguration taskPoolConfiguration;
     private final CatalogService catalogService;
-    private final Queue<ClientType> listMethodsQueue;
-    private final Queue<String> fetchCompaniesQueue;
-    private final Queue<String> fetchOrganizationsQueue;
-
-    public ListClientsTask(ApplicationContext applicationContext, Queue<ClientType> listMethodsQueue,
-            Queue<String> fetchCompaniesQueue, Queue<String> fetchOrganizationsQueue) {
+    private final BlockingQueue<ClientType> listMethodsQueue;
+    private final BlockingQueue<String> fetchCompaniesQueue;
+    private final BlockingQueue<String> fetchOrganizationsQueue;
+    private final CollectorQueues collectorQueues;
+    private final List<String> cycleQueueNames;
+    // whether the work queued by the last cycle is still being collected
+    private boolean cycleInProgress;
+    private LocalDate statisticsDate;
+
+    public ListClientsTask(ApplicationContext applicationContext, BlockingQueue<ClientType> listMethodsQueue,
+            BlockingQueue<String> fetchCompaniesQueue, BlockingQueue<String> fetchOrganizationsQueue,
+            CollectorQueues collectorQueues, List<String> cycleQueueNames) {
         this.taskPoolConfiguration = applicationContext.getBean(TaskPoolConfiguration.class);
         this.catalogService = applicationContext.getBean(CatalogService.class);
         this.listMethodsQueue = listMethodsQueue;
         this.fetchCompaniesQueue = fetchCompaniesQueue;
         this.fetchOrganizationsQueue = fetchOrganizationsQueue;
+        this.collectorQueues = collectorQueues;
+        this.cycleQueueNames = cycleQueueNames;
     }
 
     public void run() {
@@ -72,13 +84,40 @@ public class ListClientsTask implements Runnable {
             catalogService.deleteOldErrorLogEntries(taskPoolConfiguration.getErrorLogLengthInDays());
         }
 
+        boolean drained = collectorQueues.isDrained(cycleQueueNames,
+                Duration.ofMinutes(taskPoolConfiguration.getCollectorQueueStaleTimeout()));
+        // The statistics are stored when a cycle completes, and on the first run of each day, whether
+        // or not a new cycle is admitted, so that the row of the day reflects the last completed cycle
+        if (drained && (cycleInProgress || !LocalDate.now().equals(statisticsDate))) {
+            cycleInProgress = false;
+            updateServiceStatistics();
+        }
+
         if (taskPoolConfiguration.isFetchRunUnlimited()
                 || CollectorUtils.isTimeBetweenHours(taskPoolConfiguration.getFetchTimeAfterHour(),
                         taskPoolConfiguration.getFetchTimeBeforeHour())) {
+            // A new cycle is admitted only when the work queued by the previous one has been
+            // handled, otherwise slow security servers would make the queues grow cycle after cycle
+            if (!drained) {
+                log.warn("Previous collection cycle still in progress, skipping this cycle. Queue depths: {}",
+                        collectorQueues.getDepths());
+                return;
+            }
+            cycleInProgress = true;
             fetchClients();
         }
     }
 
+    private void updateServiceStatistics() {
+        try {
+            catalogService.updateServiceStatisticsDaily();
+            statisticsDate = LocalDate.now();
+            log.info("Service statistics updated");
+        } catch (Exception e) {
+            log.error("Error when updating service statistics", e);
+        }
+    }
+
     private void fetchClients() {
         String listClientsUrl = taskPoolConfiguration.getListClientsHost() + "/listClients";
         try {
@@ -91,24 +130,27 @@ public class ListClientsTask implements Runnable {
             List<ClientType> subsystems = clientList.getMember().stream()
                     .filter(client -> XRoadObjectType.SUBSYSTEM.equals(client.getId().getObjectType()))
                     .toList();
-            listMethodsQueue.addAll(subsystems);
+            CollectorQueues.putAll(listMethodsQueue, subsystems);
 
             log.info("All subsystems ({}) sent to ListMethodsTask", subsystems.size());
 
             // The fetchCompaniesQueue and fetchOrganizationsQueue should only be
             // initialized if the FI profile is active.
             if (fetchCompaniesQueue != null) {
-                fetchCompaniesQueue.addAll(newMembers.stream().map(Member::getMemberCode).toList());
+                CollectorQueues.putAll(fetchCompaniesQueue, newMembers.stream().map(Member::getMemberCode).toList());
                 log.info("{} new members sent to the FetchCompaniesTask", newMembers.size());
             }
             if (fetchOrganizationsQueue != null) {
-                fetchOrganizationsQueue.addAll(newMembers.stream().map(Member::getMemberCode).toList());
+                CollectorQueues.putAll(fetchOrganizationsQueue, newMembers.stream().map(Member::getMemberCode).toList());
                 log.info("{} new members sent to the FetchOrganizationsTask", newMembers.size());
             }
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while queueing clients from listClients(url: {})", listClientsUrl, e);
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             ErrorLog errorLog = CollectorUtils.createErrorLog(null,
                     "Error when fetching listClients(url: " + listClientsUrl + "): " + e.getMessage(), "500");
-            catalogService.saveErrorLog(errorLog);
+            ErrorLogWriter.write(catalogService, errorLog);
             log.error("Error when fetching listClients(url: {})", listClientsUrl, e);
         }
 
@@ -30,14 +30,16 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Semaphore;
 
 import org.springframework.context.ApplicationContext;
 
 import fi.vrk.xroad.catalog.collector.configuration.TaskPoolConfiguration;
+import fi.vrk.xroad.catalog.collector.util.AdaptiveConcurrencyLimiter;
 import fi.vrk.xroad.catalog.collector.util.ClientTypeUtil;
+import fi.vrk.xroad.catalog.collector.util.CollectorQueues;
+import fi.vrk.xroad.catalog.collector.util.DeduplicatingQueue;
 import fi.vrk.xroad.catalog.collector.util.MethodListUtil;
 import fi.vrk.xroad.catalog.collector.util.XRoadClient;
 import fi.vrk.xroad.catalog.collector.util.XRoadRestServiceIdentifierType;
@@ -72,19 +74,28 @@ public class ListMethodsTask implements Runnable {
 
     private final XRoadClient xroadClient;
 
+    // upper bound for the clients handled at the same time
     private final Semaphore semaphore;
 
-    private final BlockingQueue<ClientType> clientsQueue;
+    // upper bound for the clients taken from the queue and not yet handled, including the ones
+    // waiting for their member, so that taking clients still blocks while the members are busy
+    private final Semaphore admitted;
 
-    private final Queue<XRoadServiceIdentifierType> wsdlQueue;
+    // adaptive limit for the requests in flight to the security servers of each member
+    private final AdaptiveConcurrencyLimiter limiter;
 
-    private final Queue<XRoadRestServiceIdentifierType> openApiQueue;
+    private final DeduplicatingQueue<ClientType> clientsQueue;
 
-    private final Queue<XRoadRestServiceIdentifierType> restQueue;
+    private final BlockingQueue<XRoadServiceIdentifierType> wsdlQueue;
 
-    public ListMethodsTask(final ApplicationContext applicationContext, final BlockingQueue<ClientType> clientsQueue,
-            final Queue<XRoadServiceIdentifierType> wsdlQueue, final Queue<XRoadRestServiceIdentifierType> restQueue,
-            final Queue<XRoadRestServiceIdentifierType> openApiQueue) throws URISyntaxException {
+    private final BlockingQueue<XRoadRestServiceIdentifierType> openApiQueue;
+
+    private final BlockingQueue<XRoadRestServiceIdentifierType> restQueue;
+
+    public ListMethodsTask(final ApplicationContext applicationContext, final DeduplicatingQueue<ClientType> clientsQueue,
+            final BlockingQueue<XRoadServiceIdentifierType> wsdlQueue,
+            final BlockingQueue<XRoadRestServiceIdentifierType> restQueue,
+            final BlockingQueue<XRoadRestServiceIdentifierType> openApiQueue) throws URISyntaxException {
         this.catalogService = applicationContext.getBean(CatalogService.class);
 
         this.clientsQueue = clientsQueue;
@@ -101,6 +112,9 @@ public class ListMethodsTask implements Runnable {
         this.webservicesEndpoint = taskPoolConfiguration.getWebservicesEndpoint();
 
         this.semaphore = new Semaphore(taskPoolConfiguration.getListMethodsPoolSize());
+        this.admitted = new Semaphore(Math.max(taskPoolConfiguration.getListMethodsPoolSize(),
+                clientsQueue.remainingCapacity()));
+        this.limiter = applicationContext.getBean(AdaptiveConcurrencyLimiter.class);
 
         this.xroadClient = new XRoadClient(
                 ClientTypeUtil.toSubsystem(xroadInstance, memberClass, memberCode, subsystemCode),
@@ -108,14 +122,15 @@ public class ListMethodsTask implements Runnable {
     }
 
     public void run() {
-        log.info("Starting ListMethodsTask with pool size {}", taskPoolConfiguration.getListMethodsPoolSize());
+        log.info("Starting ListMethodsTask with pool size {} and adaptive per member limits",
+                taskPoolConfiguration.getListMethodsPoolSize());
         try {
             while (true) {
                 log.debug("Polling for clients ... ");
 
+                admitted.acquire();
                 // take() blocks until an element becomes available or it gets interrupted
                 ClientType client = clientsQueue.take();
-                semaphore.acquire();
                 Thread.ofVirtual().start(() -> saveSubsystemsAndServices(client));
             }
         } catch (InterruptedException e) {
@@ -125,6 +140,7 @@ public class ListMethodsTask implements Runnable {
     }
 
     private void saveSubsystemsAndServices(final ClientType clientType) {
+        boolean pooled = false;
         try {
             Subsystem subsystem = new Subsystem(
                     new Member(clientType.getId().getXRoadInstance(), clientType.getId().getMemberClass(),
@@ -133,14 +149,29 @@ public class ListMethodsTask implements Runnable {
 
             log.debug("Handling subsystem {} ", subsystem);
 
-            List<XRoadRestServiceIdentifierType> restServices = MethodListUtil.methodListFromResponse(clientType,
-                    xroadSecurityServerHost, xroadInstance, memberClass, memberCode, subsystemCode, catalogService);
-            log.info("Received {} REST methods for client {} ", restServices.size(),
-                    ClientTypeUtil.toString(clientType));
-
-            List<XRoadServiceIdentifierType> soapServices = xroadClient.getMethods(clientType.getId(), catalogService);
-            log.info("Received {} SOAP methods for client {} ", soapServices.size(),
-                    ClientTypeUtil.toString(clientType));
+            List<XRoadRestServiceIdentifierType> restServices;
+            List<XRoadServiceIdentifierType> soapServices;
+            // the member permit is taken first, so that clients waiting for a busy member do not
+            // hold the pool permits needed by the clients of other members
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire(ClientTypeUtil.toMemberKey(clientType.getId()));
+            boolean success = false;
+            try {
+                semaphore.acquire();
+                pooled = true;
+                // waiting for the pool is not latency of the member
+                permit.start();
+                restServices = MethodListUtil.methodListFromResponse(clientType, xroadSecurityServerHost,
+                        xroadInstance, memberClass, memberCode, subsystemCode, catalogService);
+                log.info("Received {} REST methods for client {} ", restServices.size(),
+                        ClientTypeUtil.toString(clientType));
+
+                soapServices = xroadClient.getMethods(clientType.getId(), catalogService);
+                log.info("Received {} SOAP methods for client {} ", soapServices.size(),
+                        ClientTypeUtil.toString(clientType));
+                success = true;
+            } finally {
+                permit.release(success);
+            }
 
             List<Service> services = new ArrayList<>();
             for (XRoadRestServiceIdentifierType service : restServices) {
@@ -152,21 +183,30 @@ public class ListMethodsTask implements Runnable {
 
             catalogService.saveServices(subsystem.createKey(), services);
 
-            this.wsdlQueue.addAll(soapServices);
+            // put() blocks while the fetch queues are full, which also holds back taking new clients
+            // since the permit of this worker is released only after all services have been queued
+            CollectorQueues.putAll(this.wsdlQueue, soapServices);
 
             for (XRoadRestServiceIdentifierType service : restServices) {
                 if (service.getServiceType().equalsIgnoreCase(SERVICE_TYPE_REST)) {
-                    this.restQueue.add(service);
+                    this.restQueue.put(service);
                 } else {
-                    this.openApiQueue.add(service);
+                    this.openApiQueue.put(service);
                 }
             }
 
             log.debug("Subsystem {} handled", subsystem);
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while handling client {}", ClientTypeUtil.toString(clientType), e);
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             log.error("Error while handling client {}", ClientTypeUtil.toString(clientType), e);
         } finally {
-            semaphore.release();
+            if (pooled) {
+                semaphore.release();
+            }
+            clientsQueue.done(clientType);
+            admitted.release();
         }
     }
 }
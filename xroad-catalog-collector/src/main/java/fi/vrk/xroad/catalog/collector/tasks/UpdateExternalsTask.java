@@ -26,13 +26,15 @@
  */
 package fi.vrk.xroad.catalog.collector.tasks;
 
-import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 
 import org.springframework.context.ApplicationContext;
 
 import fi.vrk.xroad.catalog.collector.configuration.TaskPoolConfiguration;
+import fi.vrk.xroad.catalog.collector.util.CollectorQueues;
 import fi.vrk.xroad.catalog.collector.util.CollectorUtils;
+import fi.vrk.xroad.catalog.collector.util.ErrorLogWriter;
 import fi.vrk.xroad.catalog.persistence.CatalogService;
 import fi.vrk.xroad.catalog.persistence.entity.ErrorLog;
 import lombok.extern.slf4j.Slf4j;
@@ -42,11 +44,11 @@ public class UpdateExternalsTask implements Runnable {
 
     private final TaskPoolConfiguration taskPoolConfiguration;
     private final CatalogService catalogService;
-    private final Queue<String> fetchCompaniesQueue;
-    private final Queue<String> fetchOrganizationsQueue;
+    private final BlockingQueue<String> fetchCompaniesQueue;
+    private final BlockingQueue<String> fetchOrganizationsQueue;
 
-    public UpdateExternalsTask(ApplicationContext applicationContext, Queue<String> fetchCompaniesQueue,
-            Queue<String> fetchOrganizationsQueue) {
+    public UpdateExternalsTask(ApplicationContext applicationContext, BlockingQueue<String> fetchCompaniesQueue,
+            BlockingQueue<String> fetchOrganizationsQueue) {
         this.taskPoolConfiguration = applicationContext.getBean(TaskPoolConfiguration.class);
         this.catalogService = applicationContext.getBean(CatalogService.class);
         this.fetchCompaniesQueue = fetchCompaniesQueue;
@@ -70,13 +72,16 @@ public class UpdateExternalsTask implements Runnable {
             log.info("Sending {} members requiring external update to workers, batch limit {}", members.size(),
                     taskPoolConfiguration.getFetchExternalLimit());
 
-            fetchCompaniesQueue.addAll(members);
-            fetchOrganizationsQueue.addAll(members);
+            CollectorQueues.putAll(fetchCompaniesQueue, members);
+            CollectorQueues.putAll(fetchOrganizationsQueue, members);
 
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while sending members requiring external update to workers", e);
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             ErrorLog errorLog = CollectorUtils.createErrorLog(null,
                     "Error when updating member companies and organizations: " + e.getMessage(), "500");
-            catalogService.saveErrorLog(errorLog);
+            ErrorLogWriter.write(catalogService, errorLog);
             log.error("Error when updating member companies and organizations", e);
         }
 
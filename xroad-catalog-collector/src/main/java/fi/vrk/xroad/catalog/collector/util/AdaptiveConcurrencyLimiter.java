@@ -0,0 +1,197 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.collector.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import fi.vrk.xroad.catalog.collector.configuration.TaskPoolConfiguration;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Concurrency limiter keeping a separate, adaptive limit for each target, e.g. the security
+ * server of a member or the host of an external API. The limits follow additive increase /
+ * multiplicative decrease: a successful response within the latency threshold raises the limit
+ * of its target by 1/limit, roughly one per round of requests, while a failed or too slow
+ * response multiplies the limit by the backoff ratio. A healthy target is thus pushed up to the
+ * maximum limit and a struggling one is backed off down to a single request at a time.
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    private static final int MIN_LIMIT = 1;
+
+    private final int initialLimit;
+
+    private final int maxLimit;
+
+    private final double backoffRatio;
+
+    private final long latencyThresholdNanos;
+
+    private final Map<String, TargetLimit> targetLimits = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int maxLimit, double backoffRatio,
+            long latencyThresholdMillis) {
+        if (maxLimit < MIN_LIMIT || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new CatalogCollectorRuntimeException("Invalid adaptive limit parameters, maximum limit " + maxLimit
+                    + ", backoff ratio " + backoffRatio);
+        }
+        this.maxLimit = maxLimit;
+        this.initialLimit = Math.clamp(initialLimit, MIN_LIMIT, maxLimit);
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis);
+    }
+
+    /**
+     * Creates a limiter using the adaptive limit parameters of the collector configuration
+     *
+     * @param configuration collector configuration
+     * @return the limiter
+     */
+    public static AdaptiveConcurrencyLimiter create(TaskPoolConfiguration configuration) {
+        return new AdaptiveConcurrencyLimiter(configuration.getAdaptiveLimitInitial(),
+                configuration.getAdaptiveLimitMax(), configuration.getAdaptiveLimitBackoffRatio(),
+                configuration.getAdaptiveLimitLatencyThresholdMs());
+    }
+
+    /**
+     * Waits until the target has room for one more request. The latency of the request is measured
+     * from here, or from {@link Permit#start()} if the caller still has to wait for other resources.
+     *
+     * @param target key of the target
+     * @return permit which must be released once the request is done
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Permit acquire(String target) throws InterruptedException {
+        TargetLimit targetLimit = targetLimits.computeIfAbsent(target, TargetLimit::new);
+        targetLimit.acquire();
+        return new Permit(targetLimit, System.nanoTime());
+    }
+
+    /**
+     * @param target key of the target
+     * @return current limit of the target
+     */
+    public int getLimit(String target) {
+        TargetLimit targetLimit = targetLimits.get(target);
+        return targetLimit != null ? targetLimit.getLimit() : initialLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    /**
+     * Permit for a single request to a target
+     */
+    public final class Permit {
+
+        private final TargetLimit targetLimit;
+
+        private long startNanos;
+
+        private boolean released;
+
+        private Permit(TargetLimit targetLimit, long startNanos) {
+            this.targetLimit = targetLimit;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Restarts the latency measurement, to be called right before the request when the permit was
+         * acquired before waiting for other resources, so that the wait does not count as latency
+         */
+        public void start() {
+            startNanos = System.nanoTime();
+        }
+
+        /**
+         * Releases the permit and adjusts the limit of the target with the outcome of the request
+         *
+         * @param success whether the request succeeded, failures include errors and rejections
+         *                such as 429 Too Many Requests
+         */
+        public void release(boolean success) {
+            if (released) {
+                return;
+            }
+            released = true;
+            long latency = System.nanoTime() - startNanos;
+            targetLimit.release(success && latency <= latencyThresholdNanos);
+        }
+    }
+
+    private final class TargetLimit {
+
+        private final String target;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Condition available = lock.newCondition();
+
+        private double limit = initialLimit;
+
+        private int inFlight;
+
+        private TargetLimit(String target) {
+            this.target = target;
+        }
+
+        private void acquire() throws InterruptedException {
+            lock.lock();
+            try {
+                while (inFlight >= (int) limit) {
+                    available.await();
+                }
+                inFlight++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void release(boolean healthy) {
+            lock.lock();
+            try {
+                // the limit is raised only when it was actually reached, so that a target
+                // which is never busy does not build up an untested limit
+                boolean limited = inFlight >= (int) limit;
+                inFlight--;
+                if (!healthy) {
+                    double previous = limit;
+                    limit = Math.max(MIN_LIMIT, limit * backoffRatio);
+                    if ((int) limit < (int) previous) {
+                        log.info("Backing off from {}, concurrency limit lowered to {}", target, (int) limit);
+                    }
+                } else if (limited) {
+                    limit = Math.min(maxLimit, limit + 1 / limit);
+                }
+                available.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int getLimit() {
+            lock.lock();
+            try {
+                return (int) limit;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -20,14 +20,11 @@ import java.util.List;
 
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
-import org.springframework.web.client.RestTemplate;
 
 import fi.vrk.xroad.catalog.collector.wsimport.ClientList;
 
 public final class ClientListUtil {
 
-    private static final RestTemplate REST_TEMPLATE = new RestTemplate();
-
     private ClientListUtil() {
         // Private empty constructor
     }
@@ -36,8 +33,8 @@ public final class ClientListUtil {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(List.of(MediaType.TEXT_XML));
         HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
-        ResponseEntity<ClientList> response = REST_TEMPLATE.exchange(url, HttpMethod.GET, requestEntity,
-                ClientList.class);
+        ResponseEntity<ClientList> response = CollectorHttpClients.getSecurityServerTemplate().exchange(url,
+                HttpMethod.GET, requestEntity, ClientList.class);
         return response.getBody();
     }
 
@@ -48,6 +48,28 @@ public final class ClientTypeUtil {
         return sb.toString();
     }
 
+    /**
+     * Identity of a client or a service, used for recognizing the same item being queued again
+     *
+     * @param c client or service identifier
+     * @return key consisting of the identifier parts
+     */
+    public static String toKey(XRoadIdentifierType c) {
+        return String.join("/", c.getXRoadInstance(), c.getMemberClass(), c.getMemberCode(), c.getSubsystemCode(),
+                c.getServiceCode(), c.getServiceVersion());
+    }
+
+    /**
+     * Identity of the member owning a client or a service. Requests to the services of a member are
+     * served by the security servers of that member, so this is used as the concurrency limiting target.
+     *
+     * @param c client or service identifier
+     * @return key consisting of the member identifier parts
+     */
+    public static String toMemberKey(XRoadIdentifierType c) {
+        return String.join("/", c.getXRoadInstance(), c.getMemberClass(), c.getMemberCode());
+    }
+
     public static XRoadClientIdentifierType toSubsystem(String xroadInstance, String memberClass, String memberCode,
             String subsystemCode) {
         XRoadClientIdentifierType xroadId = new XRoadClientIdentifierType();
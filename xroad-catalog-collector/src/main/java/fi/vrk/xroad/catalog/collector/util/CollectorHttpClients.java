@@ -0,0 +1,243 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.collector.util;
+
+import java.security.GeneralSecurityException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+import javax.net.ssl.SSLContext;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ssl.NoopHostnameVerifier;
+import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
+import org.apache.hc.client5.http.ssl.TrustAllStrategy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.ssl.SSLContexts;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import fi.vrk.xroad.catalog.collector.configuration.TaskPoolConfiguration;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Shared, pooled HTTP clients for the REST calls of the collector. Connections are kept alive
+ * and reused between requests, so the TLS handshake with the security server is done once per
+ * pooled connection instead of once per request. There are two pools: one for the security
+ * server, using the keystore given in the javax.net.ssl system properties, and one for the
+ * external company and organization APIs. The pools use the defaults below until
+ * {@link #configure(TaskPoolConfiguration)} is called at startup.
+ */
+@Slf4j
+public final class CollectorHttpClients {
+
+    public static final String SECURITY_SERVER_POOL = "security-server";
+
+    public static final String EXTERNAL_API_POOL = "external-api";
+
+    public static final String POOL_LEASED_METRIC = "xroad.catalog.collector.http.pool.leased";
+
+    public static final String POOL_AVAILABLE_METRIC = "xroad.catalog.collector.http.pool.available";
+
+    public static final String POOL_PENDING_METRIC = "xroad.catalog.collector.http.pool.pending";
+
+    public static final String POOL_MAX_METRIC = "xroad.catalog.collector.http.pool.max";
+
+    private static final String POOL_TAG = "pool";
+
+    private static final int DEFAULT_MAX_CONNECTIONS = 200;
+
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 100;
+
+    private static final long DEFAULT_CONNECT_TIMEOUT_MS = 30000;
+
+    private static final long DEFAULT_SOCKET_TIMEOUT_MS = 120000;
+
+    private static final long DEFAULT_KEEP_ALIVE_MS = 60000;
+
+    private static volatile Pool securityServerPool;
+
+    private static volatile Pool externalApiPool;
+
+    private CollectorHttpClients() {
+        // Private empty constructor
+    }
+
+    /**
+     * Recreates the connection pools with the HTTP parameters of the collector configuration.
+     * Must be called after the keystore system properties have been set.
+     *
+     * @param configuration collector configuration
+     */
+    public static synchronized void configure(TaskPoolConfiguration configuration) {
+        configure(configuration.getHttpMaxConnections(), configuration.getHttpMaxConnectionsPerRoute(),
+                configuration.getHttpConnectTimeoutMs(), configuration.getHttpSocketTimeoutMs(),
+                configuration.getHttpKeepAliveMs(), configuration.isHttpCompressionEnabled());
+    }
+
+    /**
+     * @return rest template using the pooled connections to the security server
+     */
+    public static RestTemplate getSecurityServerTemplate() {
+        ensureConfigured();
+        return securityServerPool.restTemplate;
+    }
+
+    /**
+     * @return rest template using the pooled connections to the external APIs
+     */
+    public static RestTemplate getExternalApiTemplate() {
+        ensureConfigured();
+        return externalApiPool.restTemplate;
+    }
+
+    /**
+     * @return statistics of the connection pools by pool name
+     */
+    public static synchronized Map<String, PoolStats> getStats() {
+        ensureConfigured();
+        Map<String, PoolStats> stats = new LinkedHashMap<>();
+        stats.put(SECURITY_SERVER_POOL, securityServerPool.connectionManager.getTotalStats());
+        stats.put(EXTERNAL_API_POOL, externalApiPool.connectionManager.getTotalStats());
+        return stats;
+    }
+
+    /**
+     * Publishes the connection pool statistics as gauges tagged with the pool name
+     *
+     * @param meterRegistry registry to publish the gauges to
+     */
+    public static void bindTo(MeterRegistry meterRegistry) {
+        for (String pool : new String[] { SECURITY_SERVER_POOL, EXTERNAL_API_POOL }) {
+            registerGauge(meterRegistry, POOL_LEASED_METRIC, pool, PoolStats::getLeased);
+            registerGauge(meterRegistry, POOL_AVAILABLE_METRIC, pool, PoolStats::getAvailable);
+            registerGauge(meterRegistry, POOL_PENDING_METRIC, pool, PoolStats::getPending);
+            registerGauge(meterRegistry, POOL_MAX_METRIC, pool, PoolStats::getMax);
+        }
+    }
+
+    private static void registerGauge(MeterRegistry meterRegistry, String metric, String pool,
+            ToIntFunction<PoolStats> value) {
+        Gauge.builder(metric, () -> value.applyAsInt(getStats().get(pool)))
+                .tag(POOL_TAG, pool)
+                .register(meterRegistry);
+    }
+
+    private static synchronized void ensureConfigured() {
+        if (securityServerPool == null) {
+            configure(DEFAULT_MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS_PER_ROUTE, DEFAULT_CONNECT_TIMEOUT_MS,
+                    DEFAULT_SOCKET_TIMEOUT_MS, DEFAULT_KEEP_ALIVE_MS, true);
+        }
+    }
+
+    private static void configure(int maxConnections, int maxConnectionsPerRoute, long connectTimeoutMs,
+            long socketTimeoutMs, long keepAliveMs, boolean compressionEnabled) {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                .setSocketTimeout(Timeout.ofMilliseconds(socketTimeoutMs))
+                .build();
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionKeepAlive(TimeValue.ofMilliseconds(keepAliveMs))
+                .build();
+
+        PoolingHttpClientConnectionManager securityServerConnections = PoolingHttpClientConnectionManagerBuilder
+                .create()
+                .setSSLSocketFactory(SSLConnectionSocketFactory.getSystemSocketFactory())
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(connectionConfig)
+                .build();
+        // the security server is called with the single client certificate of the catalog, so
+        // the connections are not tied to the TLS principal and every pooled connection is reused
+        Pool newSecurityServerPool = new Pool(securityServerConnections,
+                createClientBuilder(securityServerConnections, requestConfig, keepAliveMs, compressionEnabled)
+                        .useSystemProperties()
+                        .disableConnectionState());
+
+        PoolingHttpClientConnectionManager externalApiConnections = PoolingHttpClientConnectionManagerBuilder
+                .create()
+                .setSSLSocketFactory(new SSLConnectionSocketFactory(createTrustAllContext(),
+                        NoopHostnameVerifier.INSTANCE))
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(connectionConfig)
+                .build();
+        Pool newExternalApiPool = new Pool(externalApiConnections,
+                createClientBuilder(externalApiConnections, requestConfig, keepAliveMs, compressionEnabled));
+
+        if (securityServerPool != null) {
+            securityServerPool.close();
+            externalApiPool.close();
+        }
+        securityServerPool = newSecurityServerPool;
+        externalApiPool = newExternalApiPool;
+        log.info("HTTP connection pools configured with {} connections, {} per route, compression {}",
+                maxConnections, maxConnectionsPerRoute, compressionEnabled ? "enabled" : "disabled");
+    }
+
+    private static HttpClientBuilder createClientBuilder(PoolingHttpClientConnectionManager connectionManager,
+            RequestConfig requestConfig, long keepAliveMs, boolean compressionEnabled) {
+        HttpClientBuilder builder = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(keepAliveMs));
+        if (!compressionEnabled) {
+            // responses are decompressed transparently unless compression is disabled
+            builder.disableContentCompression();
+        }
+        return builder;
+    }
+
+    private static SSLContext createTrustAllContext() {
+        try {
+            return SSLContexts.custom()
+                    .loadTrustMaterial(TrustAllStrategy.INSTANCE)
+                    .build();
+        } catch (GeneralSecurityException e) {
+            throw new CatalogCollectorRuntimeException("Error creating REST client for Company and Organization services",
+                    e);
+        }
+    }
+
+    private static final class Pool {
+
+        private final PoolingHttpClientConnectionManager connectionManager;
+
+        private final CloseableHttpClient httpClient;
+
+        private final RestTemplate restTemplate;
+
+        private Pool(PoolingHttpClientConnectionManager connectionManager, HttpClientBuilder builder) {
+            this.connectionManager = connectionManager;
+            this.httpClient = builder.build();
+            this.restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        }
+
+        private void close() {
+            httpClient.close(CloseMode.GRACEFUL);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.collector.util;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Function;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Registry of the bounded work queues connecting the collector tasks. Producers block with
+ * {@link BlockingQueue#put(Object)} when a queue is full, so the memory used by the pipeline
+ * stays bounded however slowly the security server answers. The queues are deduplicating, so
+ * the same client, service or member is not handled twice at the same time. Queue depths are
+ * published as gauges and used for deciding whether a new collection cycle may be started.
+ */
+@Slf4j
+public class CollectorQueues {
+
+    public static final String QUEUE_DEPTH_METRIC = "xroad.catalog.collector.queue.depth";
+
+    public static final String QUEUE_CAPACITY_METRIC = "xroad.catalog.collector.queue.capacity";
+
+    public static final String QUEUE_PENDING_METRIC = "xroad.catalog.collector.queue.pending";
+
+    public static final String QUEUE_STALLED_METRIC = "xroad.catalog.collector.queue.stalled";
+
+    private static final String QUEUE_TAG = "queue";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, DeduplicatingQueue<?>> queues = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    public CollectorQueues(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Creates a bounded deduplicating queue and registers its gauges
+     *
+     * @param name        name of the queue, used as the metric tag
+     * @param capacity    maximum number of queued elements
+     * @param keyFunction function returning the identity of an element
+     * @param <T>         type of the queued elements
+     * @return the created queue
+     */
+    public <T> DeduplicatingQueue<T> create(String name, int capacity, Function<? super T, ?> keyFunction) {
+        DeduplicatingQueue<T> queue = new DeduplicatingQueue<>(capacity, keyFunction);
+        if (queues.putIfAbsent(name, queue) != null) {
+            throw new CatalogCollectorRuntimeException("Queue " + name + " already exists");
+        }
+        Gauge.builder(QUEUE_DEPTH_METRIC, queue, BlockingQueue::size)
+                .tag(QUEUE_TAG, name)
+                .description("Number of elements waiting in the collector queue")
+                .register(meterRegistry);
+        Gauge.builder(QUEUE_CAPACITY_METRIC, () -> capacity)
+                .tag(QUEUE_TAG, name)
+                .description("Maximum number of elements in the collector queue")
+                .register(meterRegistry);
+        Gauge.builder(QUEUE_PENDING_METRIC, queue, DeduplicatingQueue::getPendingCount)
+                .tag(QUEUE_TAG, name)
+                .description("Number of elements waiting in the collector queue or being handled")
+                .register(meterRegistry);
+        Gauge.builder(QUEUE_STALLED_METRIC, queue, DeduplicatingQueue::getStalledSeconds)
+                .tag(QUEUE_TAG, name)
+                .description("Seconds since an element of the collector queue was last queued or handled while elements are pending")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        return queue;
+    }
+
+    /**
+     * Puts the elements to the queue one by one, waiting for space to become available
+     * whenever the queue is full
+     *
+     * @param queue    target queue
+     * @param elements elements to queue
+     * @param <T>      type of the queued elements
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static <T> void putAll(BlockingQueue<? super T> queue, Collection<? extends T> elements)
+            throws InterruptedException {
+        for (T element : elements) {
+            queue.put(element);
+        }
+    }
+
+    /**
+     * @return current depth of each queue, in the order the queues were created
+     */
+    public Map<String, Integer> getDepths() {
+        Map<String, Integer> depths = new LinkedHashMap<>();
+        synchronized (queues) {
+            queues.forEach((name, queue) -> depths.put(name, queue.size()));
+        }
+        return depths;
+    }
+
+    /**
+     * Checks the given queues for elements waiting or being handled. Elements taken from a queue
+     * but not marked done within the stale timeout are released first, so that a missed
+     * {@link DeduplicatingQueue#done(Object)} cannot block the collection cycles forever.
+     *
+     * @param names        names of the queues to check, names of queues not created are ignored
+     * @param staleTimeout time without progress after which the taken elements of a queue are released
+     * @return true if none of the given queues has elements waiting or being handled
+     */
+    public boolean isDrained(Collection<String> names, Duration staleTimeout) {
+        synchronized (queues) {
+            boolean drained = true;
+            for (String name : names) {
+                DeduplicatingQueue<?> queue = queues.get(name);
+                if (queue == null) {
+                    continue;
+                }
+                int released = queue.releaseStale(staleTimeout);
+                if (released > 0) {
+                    log.warn("Released {} elements of queue {} not handled within {}", released, name, staleTimeout);
+                }
+                drained = drained && queue.getPendingCount() == 0;
+            }
+            return drained;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.collector.util;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Bounded blocking queue which holds each identity only once. The key of an element is reserved
+ * when the element is queued and released only when the consumer calls {@link #done(Object)}, so
+ * an element which is waiting in the queue or being handled is not queued again. Queueing a
+ * duplicate is reported as successful, since the element will be handled anyway.
+ *
+ * @param <T> type of the queued elements
+ */
+@SuppressWarnings("serial")
+public class DeduplicatingQueue<T> extends LinkedBlockingQueue<T> {
+
+    private static final double MILLIS_PER_SECOND = 1000.0;
+
+    private final Function<? super T, ?> keyFunction;
+
+    private final Set<Object> keys = ConcurrentHashMap.newKeySet();
+
+    private volatile long lastProgressNanos = System.nanoTime();
+
+    public DeduplicatingQueue(int capacity, Function<? super T, ?> keyFunction) {
+        super(capacity);
+        this.keyFunction = keyFunction;
+    }
+
+    @Override
+    public void put(T e) throws InterruptedException {
+        Object key = keyFunction.apply(e);
+        if (!keys.add(key)) {
+            return;
+        }
+        try {
+            super.put(e);
+        } catch (InterruptedException ex) {
+            keys.remove(key);
+            throw ex;
+        }
+        lastProgressNanos = System.nanoTime();
+    }
+
+    @Override
+    public boolean offer(T e) {
+        Object key = keyFunction.apply(e);
+        if (!keys.add(key)) {
+            return true;
+        }
+        if (!super.offer(e)) {
+            keys.remove(key);
+            return false;
+        }
+        lastProgressNanos = System.nanoTime();
+        return true;
+    }
+
+    @Override
+    public boolean offer(T e, long timeout, TimeUnit unit) throws InterruptedException {
+        Object key = keyFunction.apply(e);
+        if (!keys.add(key)) {
+            return true;
+        }
+        boolean queued = false;
+        try {
+            queued = super.offer(e, timeout, unit);
+            return queued;
+        } finally {
+            if (queued) {
+                lastProgressNanos = System.nanoTime();
+            } else {
+                keys.remove(key);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (T e : this) {
+            keys.remove(keyFunction.apply(e));
+        }
+        super.clear();
+    }
+
+    /**
+     * Releases the key of an element taken from the queue, after which the same identity can be
+     * queued again. Must be called once the element has been handled, successfully or not.
+     *
+     * @param e handled element
+     */
+    public void done(T e) {
+        keys.remove(keyFunction.apply(e));
+        lastProgressNanos = System.nanoTime();
+    }
+
+    /**
+     * @return number of elements which are either waiting in the queue or being handled
+     */
+    public int getPendingCount() {
+        return keys.size();
+    }
+
+    /**
+     * @return seconds since an element was last queued or handled, zero if nothing is pending
+     */
+    public double getStalledSeconds() {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        return Duration.ofNanos(System.nanoTime() - lastProgressNanos).toMillis() / MILLIS_PER_SECOND;
+    }
+
+    /**
+     * Releases the keys of elements which have been taken from the queue but never marked done,
+     * if nothing has been queued or handled within the timeout. A consumer failing to call
+     * {@link #done(Object)} would otherwise keep the queue pending forever.
+     *
+     * @param timeout time without progress after which the taken elements are considered lost
+     * @return number of released keys
+     */
+    public int releaseStale(Duration timeout) {
+        if (keys.size() <= size() || System.nanoTime() - lastProgressNanos < timeout.toNanos()) {
+            return 0;
+        }
+        Set<Object> queuedKeys = new HashSet<>();
+        for (T e : this) {
+            queuedKeys.add(keyFunction.apply(e));
+        }
+        int pendingCount = keys.size();
+        keys.retainAll(queuedKeys);
+        lastProgressNanos = System.nanoTime();
+        return pendingCount - keys.size();
+    }
+}
@@ -0,0 +1,312 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.collector.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import fi.vrk.xroad.catalog.collector.configuration.TaskPoolConfiguration;
+import fi.vrk.xroad.catalog.persistence.CatalogService;
+import fi.vrk.xroad.catalog.persistence.dto.ErrorLogOccurrences;
+import fi.vrk.xroad.catalog.persistence.entity.ErrorIncident;
+import fi.vrk.xroad.catalog.persistence.entity.ErrorLog;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes the error logs of the collector in batches on a background thread, so that the fetching
+ * threads do not wait for the database when a security server goes down and every request fails.
+ * The buffer is bounded. When it is full, an error of the same incident as one already buffered
+ * is aggregated into it and only counted, then written along as a number of occurrences of the
+ * incident. Any other error is dropped and counted as dropped.
+ */
+@Slf4j
+public class ErrorLogWriter implements Runnable {
+
+    public static final String BUFFERED_METRIC = "xroad.catalog.collector.errorlog.buffered";
+
+    public static final String WRITTEN_METRIC = "xroad.catalog.collector.errorlog.written";
+
+    public static final String AGGREGATED_METRIC = "xroad.catalog.collector.errorlog.aggregated";
+
+    public static final String DROPPED_METRIC = "xroad.catalog.collector.errorlog.dropped";
+
+    private static volatile ErrorLogWriter installed;
+
+    private final CatalogService catalogService;
+
+    private final int capacity;
+
+    private final int batchSize;
+
+    private final long flushIntervalMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notEmpty = lock.newCondition();
+
+    private final Deque<ErrorLog> buffer = new ArrayDeque<>();
+
+    // buffered errors by incident, for recognizing the errors which can be aggregated
+    private final Map<String, BufferedIncident> bufferedIncidents = new HashMap<>();
+
+    private final AtomicLong written = new AtomicLong();
+
+    private final AtomicLong aggregated = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    public ErrorLogWriter(CatalogService catalogService, int capacity, int batchSize, long flushIntervalMillis) {
+        if (capacity < 1 || batchSize < 1) {
+            throw new CatalogCollectorRuntimeException("Invalid error log writer parameters, capacity " + capacity
+                    + ", batch size " + batchSize);
+        }
+        this.catalogService = catalogService;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    /**
+     * Creates a writer using the error log parameters of the collector configuration
+     *
+     * @param catalogService service used for saving the error logs
+     * @param configuration  collector configuration
+     * @return the writer
+     */
+    public static ErrorLogWriter create(CatalogService catalogService, TaskPoolConfiguration configuration) {
+        return new ErrorLogWriter(catalogService, configuration.getErrorLogBufferCapacity(),
+                configuration.getErrorLogBatchSize(), configuration.getErrorLogFlushIntervalMs());
+    }
+
+    /**
+     * Makes the writer the one used by {@link #write(CatalogService, ErrorLog)}
+     *
+     * @param writer the writer, whose {@link #run()} must be started separately
+     */
+    public static void install(ErrorLogWriter writer) {
+        installed = writer;
+    }
+
+    /**
+     * Buffers the error log for the installed writer, or saves it right away if no writer has
+     * been installed, e.g. in tests
+     *
+     * @param catalogService service used when no writer has been installed
+     * @param errorLog       the error log
+     */
+    public static void write(CatalogService catalogService, ErrorLog errorLog) {
+        ErrorLogWriter writer = installed;
+        if (writer != null) {
+            writer.offer(errorLog);
+        } else {
+            try {
+                catalogService.saveErrorLog(errorLog);
+            } catch (RuntimeException e) {
+                // most likely an incident opened by a concurrent save, which the retry counts into
+                log.debug("Retrying to save the error log", e);
+                catalogService.saveErrorLog(errorLog);
+            }
+        }
+    }
+
+    /**
+     * Buffers the error log without blocking
+     *
+     * @param errorLog the error log
+     * @return true if the error log was buffered, false if it was aggregated or dropped
+     */
+    public boolean offer(ErrorLog errorLog) {
+        String incidentKey = ErrorIncident.toIncidentKey(errorLog);
+        lock.lock();
+        try {
+            BufferedIncident incident = bufferedIncidents.get(incidentKey);
+            if (buffer.size() >= capacity) {
+                if (incident != null) {
+                    incident.aggregatedCount++;
+                    incident.latestAggregated = errorLog;
+                    aggregated.incrementAndGet();
+                } else if (dropped.getAndIncrement() == 0) {
+                    log.warn("Error log buffer is full, dropping errors");
+                }
+                return false;
+            }
+            buffer.addLast(errorLog);
+            bufferedIncidents.computeIfAbsent(incidentKey, key -> new BufferedIncident()).buffered++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the buffered error logs in batches
+     *
+     * @return number of buffered error logs written, not including the aggregated ones
+     */
+    public int flush() {
+        int count = 0;
+        Batch batch = drain();
+        while (batch.buffered > 0) {
+            save(batch);
+            count += batch.buffered;
+            batch = drain();
+        }
+        return count;
+    }
+
+    /**
+     * Writes the error logs as they arrive, until interrupted
+     */
+    @Override
+    public void run() {
+        log.info("Starting ErrorLogWriter with buffer capacity {} and batch size {}", capacity, batchSize);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                awaitBatch();
+                flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            flush();
+        }
+        log.info("ErrorLogWriter stopped, {} error logs written, {} aggregated and {} dropped", written.get(),
+                aggregated.get(), dropped.get());
+    }
+
+    /**
+     * Publishes the buffer size and the counters as metrics
+     *
+     * @param meterRegistry registry to publish the metrics to
+     */
+    public void bindTo(MeterRegistry meterRegistry) {
+        Gauge.builder(BUFFERED_METRIC, this, ErrorLogWriter::getBuffered).register(meterRegistry);
+        FunctionCounter.builder(WRITTEN_METRIC, written, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder(AGGREGATED_METRIC, aggregated, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder(DROPPED_METRIC, dropped, AtomicLong::get).register(meterRegistry);
+    }
+
+    public int getBuffered() {
+        lock.lock();
+        try {
+            return buffer.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getAggregated() {
+        return aggregated.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private void awaitBatch() throws InterruptedException {
+        lock.lock();
+        try {
+            while (buffer.isEmpty()) {
+                notEmpty.await();
+            }
+            // give a burst of errors the flush interval to fill up a batch
+            long remaining = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+            while (buffer.size() < batchSize && remaining > 0) {
+                remaining = notEmpty.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Batch drain() {
+        lock.lock();
+        try {
+            Batch batch = new Batch(Math.min(batchSize, buffer.size()));
+            while (batch.buffered < batchSize && !buffer.isEmpty()) {
+                ErrorLog errorLog = buffer.removeFirst();
+                batch.buffered++;
+                batch.occurrences.add(new ErrorLogOccurrences(errorLog, 1));
+                String incidentKey = ErrorIncident.toIncidentKey(errorLog);
+                BufferedIncident incident = bufferedIncidents.get(incidentKey);
+                // the aggregated errors are saved along as a count of occurrences of the latest one,
+                // so a batch holds at most two entries per buffered error
+                if (incident.aggregatedCount > 0) {
+                    batch.occurrences.add(new ErrorLogOccurrences(incident.latestAggregated,
+                            incident.aggregatedCount));
+                    batch.aggregated += incident.aggregatedCount;
+                    incident.aggregatedCount = 0;
+                    incident.latestAggregated = null;
+                }
+                if (--incident.buffered == 0) {
+                    bufferedIncidents.remove(incidentKey);
+                }
+            }
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void save(Batch batch) {
+        try {
+            saveOccurrences(batch.occurrences);
+            written.addAndGet(batch.buffered);
+        } catch (Exception e) {
+            dropped.addAndGet(batch.buffered + batch.aggregated);
+            log.error("Error when saving {} error logs", batch.buffered + batch.aggregated, e);
+        }
+    }
+
+    private void saveOccurrences(List<ErrorLogOccurrences> occurrences) {
+        try {
+            catalogService.saveErrorLogOccurrences(occurrences);
+        } catch (RuntimeException e) {
+            // most likely an incident opened by a concurrent save, which the retry counts into
+            log.debug("Retrying to save {} error logs", occurrences.size(), e);
+            catalogService.saveErrorLogOccurrences(occurrences);
+        }
+    }
+
+    private static final class Batch {
+        private final List<ErrorLogOccurrences> occurrences;
+        private int buffered;
+        private long aggregated;
+
+        private Batch(int capacity) {
+            occurrences = new ArrayList<>(capacity);
+        }
+    }
+
+    private static final class BufferedIncident {
+        private int buffered;
+        private int aggregatedCount;
+        private ErrorLog latestAggregated;
+    }
+}
@@ -24,7 +24,6 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.client.RestTemplate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -32,10 +31,6 @@ import java.util.List;
 @Slf4j
 public final class MethodListUtil {
 
-    private static final RestTemplate REST_TEMPLATE = new RestTemplate();
-
-    private static SecurityServerMetadata securityServerMetadata;
-
     private MethodListUtil() {
         // Private empty constructor
     }
@@ -139,39 +134,28 @@ public final class MethodListUtil {
         headers.set("X-Road-Client", xRoadClientHeader);
         final HttpEntity<String> entity = new HttpEntity<>(headers);
         try {
-            ResponseEntity<String> response = REST_TEMPLATE.exchange(url, HttpMethod.GET, entity,
-                    String.class);
+            ResponseEntity<String> response = CollectorHttpClients.getSecurityServerTemplate().exchange(url,
+                    HttpMethod.GET, entity, String.class);
             return new JSONObject(response.getBody());
         } catch (Exception e) {
-            SecurityServerMetadata newSecurityServerMetadata = SecurityServerMetadata.builder()
+            log.error("Fetch of REST services failed: " + e.getMessage());
+            ErrorLog errorLog = ErrorLog.builder()
+                    .created(LocalDateTime.now())
+                    .message("Fetch of REST services failed(url: " + url + "): "
+                            + e.getMessage())
+                    .code("500")
                     .xRoadInstance(clientType.getId().getXRoadInstance())
                     .memberClass(clientType.getId().getMemberClass())
                     .memberCode(clientType.getId().getMemberCode())
+                    .groupCode(clientType.getId().getGroupCode())
+                    .securityCategoryCode(clientType.getId().getSecurityCategoryCode())
+                    .serverCode(clientType.getId().getServerCode())
+                    .serviceCode(clientType.getId().getServiceCode())
+                    .serviceVersion(clientType.getId().getServiceVersion())
+                    .subsystemCode(clientType.getId().getSubsystemCode())
                     .build();
-            if (!newSecurityServerMetadata.equals(securityServerMetadata)) {
-                log.error("Fetch of REST services failed: " + e.getMessage());
-                ErrorLog errorLog = ErrorLog.builder()
-                        .created(LocalDateTime.now())
-                        .message("Fetch of REST services failed(url: " + url + "): "
-                                + e.getMessage())
-                        .code("500")
-                        .xRoadInstance(clientType.getId().getXRoadInstance())
-                        .memberClass(clientType.getId().getMemberClass())
-                        .memberCode(clientType.getId().getMemberCode())
-                        .groupCode(clientType.getId().getGroupCode())
-                        .securityCategoryCode(clientType.getId().getSecurityCategoryCode())
-                        .serverCode(clientType.getId().getServerCode())
-                        .serviceCode(clientType.getId().getServiceCode())
-                        .serviceVersion(clientType.getId().getServiceVersion())
-                        .subsystemCode(clientType.getId().getSubsystemCode())
-                        .build();
-                catalogService.saveErrorLog(errorLog);
-                securityServerMetadata = SecurityServerMetadata.builder()
-                        .xRoadInstance(clientType.getId().getXRoadInstance())
-                        .memberClass(clientType.getId().getMemberClass())
-                        .memberCode(clientType.getId().getMemberCode())
-                        .build();
-            }
+            // repeated failures are counted into the same error incident
+            ErrorLogWriter.write(catalogService, errorLog);
             return null;
         }
     }
@@ -47,14 +47,6 @@ import fi.vrk.xroad.catalog.persistence.entity.StreetAddressPostOffice;
 import fi.vrk.xroad.catalog.persistence.entity.WebPage;
 import lombok.extern.slf4j.Slf4j;
 
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
-import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
-import org.apache.hc.client5.http.ssl.NoopHostnameVerifier;
-import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
-import org.apache.hc.core5.ssl.SSLContexts;
-import org.apache.hc.core5.ssl.TrustStrategy;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.springframework.http.HttpEntity;
@@ -63,17 +55,9 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
-import javax.net.ssl.SSLContext;
-import java.security.KeyManagementException;
-import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
-import java.security.cert.CertificateException;
-import java.security.cert.X509Certificate;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -83,8 +67,6 @@ import java.util.Optional;
 @Slf4j
 public final class OrganizationUtil {
 
-    private static final RestTemplate REST_TEMPLATE = createTemplate();
-
     private static final String WITH_BUSINESS_CODE = "with businessCode ";
     private static final String DESCRIPTION = "description";
     private static final String LANGUAGE = "language";
@@ -99,8 +81,7 @@ public final class OrganizationUtil {
 
     }
 
-    public static Optional<JSONObject> getCompany(String url, String businessId, CatalogService catalogService)
-            throws KeyManagementException, NoSuchAlgorithmException, KeyStoreException {
+    public static Optional<JSONObject> getCompany(String url, String businessId, CatalogService catalogService) {
         final String fetchCompaniesUrl = UriComponentsBuilder.fromHttpUrl(url).pathSegment(businessId).encode()
                 .build().toString();
         JSONObject jsonObject = new JSONObject();
@@ -119,7 +100,7 @@ public final class OrganizationUtil {
                             + WITH_BUSINESS_CODE
                             + businessId,
                     "500");
-            catalogService.saveErrorLog(errorLog);
+            ErrorLogWriter.write(catalogService, errorLog);
             log.error("HttpClientErrorException occurred when fetching organization from url {} with businessCode {}",
                     url,
                     businessId);
@@ -129,15 +110,14 @@ public final class OrganizationUtil {
                     "Exception occurred when fetching companies from url " + url
                             + WITH_BUSINESS_CODE + businessId,
                     "500");
-            catalogService.saveErrorLog(errorLog);
+            ErrorLogWriter.write(catalogService, errorLog);
             log.error("Exception occurred when fetching companies from url {} with businessCode {}", url,
                     businessId);
             throw e;
         }
     }
 
-    public static Optional<JSONArray> getOrganization(String url, String businessId, CatalogService catalogService)
-            throws KeyManagementException, NoSuchAlgorithmException, KeyStoreException {
+    public static Optional<JSONArray> getOrganization(String url, String businessId, CatalogService catalogService) {
         final String fetchOrganizationUrl = UriComponentsBuilder.fromHttpUrl(url)
                 .pathSegment("businesscode", businessId).encode().build().toString();
         try {
@@ -156,7 +136,7 @@ public final class OrganizationUtil {
                             + WITH_BUSINESS_CODE
                             + businessId,
                     "500");
-            catalogService.saveErrorLog(errorLog);
+            ErrorLogWriter.write(catalogService, errorLog);
             log.error("HttpClientErrorException occurred when fetching organization from url {} with businessCode {}",
                     url,
                     businessId);
@@ -166,7 +146,7 @@ public final class OrganizationUtil {
                     "Exception occurred when fetching organization from url " + url
                             + WITH_BUSINESS_CODE + businessId,
                     "500");
-            catalogService.saveErrorLog(errorLog);
+            ErrorLogWriter.write(catalogService, errorLog);
             log.error("Exception occurred when fetching organization from url {} with businessCode {}", url,
                     businessId);
             throw e;
@@ -588,46 +568,13 @@ public final class OrganizationUtil {
     }
 
     private static <T> T getResponseBody(String url, Class<T> returnType) {
-        if (REST_TEMPLATE == null) {
-            throw new CatalogCollectorRuntimeException(
-                    "OrganizationUtil RestTemplate not initialized, please check startup logs");
-        }
         HttpHeaders headers = new HttpHeaders();
         List<MediaType> mediaTypes = new ArrayList<>();
         mediaTypes.add(MediaType.APPLICATION_JSON);
         headers.setAccept(mediaTypes);
         final HttpEntity<String> entity = new HttpEntity<>(headers);
-        ResponseEntity<T> response = REST_TEMPLATE.exchange(url, HttpMethod.GET, entity, returnType);
+        ResponseEntity<T> response = CollectorHttpClients.getExternalApiTemplate().exchange(url, HttpMethod.GET, entity,
+                returnType);
         return response.getBody();
     }
-
-    private static RestTemplate createTemplate() {
-        try {
-            TrustStrategy acceptingTrustStrategy = new TrustStrategy() {
-                @Override
-                public boolean isTrusted(X509Certificate[] x509Certificates, String s)
-                        throws CertificateException {
-                    return true;
-                }
-            };
-            SSLContext sslContext = SSLContexts.custom()
-                    .loadTrustMaterial(null, acceptingTrustStrategy)
-                    .build();
-            SSLConnectionSocketFactory csf = new SSLConnectionSocketFactory(sslContext,
-                    new NoopHostnameVerifier());
-            PoolingHttpClientConnectionManager cm = PoolingHttpClientConnectionManagerBuilder
-                    .create()
-                    .setSSLSocketFactory(csf)
-                    .build();
-            CloseableHttpClient httpClient = HttpClients.custom().setConnectionManager(cm).build();
-            HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
-            requestFactory.setHttpClient(httpClient);
-            RestTemplate restTemplate = new RestTemplate(requestFactory);
-
-            return restTemplate;
-        } catch (NoSuchAlgorithmException | KeyStoreException | KeyManagementException e) {
-            log.error("Error creating REST client for Company and Organization services", e);
-            return null;
-        }
-    }
 }
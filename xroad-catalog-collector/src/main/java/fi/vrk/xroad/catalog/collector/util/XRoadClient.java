@@ -139,7 +139,7 @@ public class XRoadClient {
                     .serviceVersion(member.getServiceVersion())
                     .subsystemCode(member.getSubsystemCode())
                     .build();
-            catalogService.saveErrorLog(errorLog);
+            ErrorLogWriter.write(catalogService, errorLog);
         }
         return response != null ? response.getService() : new ArrayList<>();
     }
@@ -185,7 +185,7 @@ public class XRoadClient {
                     .serviceVersion(service.getServiceVersion())
                     .subsystemCode(service.getSubsystemCode())
                     .build();
-            catalogService.saveErrorLog(errorLog);
+            ErrorLogWriter.write(catalogService, errorLog);
             throw e;
         }
 
@@ -212,7 +212,7 @@ public class XRoadClient {
                         .serviceVersion(service.getServiceVersion())
                         .subsystemCode(service.getSubsystemCode())
                         .build();
-                catalogService.saveErrorLog(errorLog);
+                ErrorLogWriter.write(catalogService, errorLog);
             }
             try (ByteArrayOutputStream buf = new ByteArrayOutputStream()) {
                 if (dh == null) {
@@ -236,7 +236,7 @@ public class XRoadClient {
                         .serviceVersion(service.getServiceVersion())
                         .subsystemCode(service.getSubsystemCode())
                         .build();
-                catalogService.saveErrorLog(errorLog);
+                ErrorLogWriter.write(catalogService, errorLog);
                 throw e;
             }
         } else {
@@ -38,8 +38,6 @@ import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Semaphore;
 
 import org.awaitility.Awaitility;
@@ -55,6 +53,8 @@ import org.springframework.core.io.Resource;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import fi.vrk.xroad.catalog.collector.configuration.TaskPoolConfiguration;
+import fi.vrk.xroad.catalog.collector.util.ClientTypeUtil;
+import fi.vrk.xroad.catalog.collector.util.DeduplicatingQueue;
 import fi.vrk.xroad.catalog.collector.util.Endpoint;
 import fi.vrk.xroad.catalog.collector.util.MethodListUtil;
 import fi.vrk.xroad.catalog.collector.util.XRoadRestServiceIdentifierType;
@@ -82,7 +82,7 @@ public class FetchOpenApiTaskTest {
          * sure that the task can also be stopped when the program exits. The actual
          * fetch logic is mocked and tested below.
          */
-        BlockingQueue<XRoadRestServiceIdentifierType> queue = new LinkedBlockingQueue<>();
+        DeduplicatingQueue<XRoadRestServiceIdentifierType> queue = new DeduplicatingQueue<>(100, ClientTypeUtil::toKey);
         FetchOpenApiTask fetchOpenApiTask = new FetchOpenApiTask(applicationContext, queue);
         Semaphore semaphore = new Semaphore(1);
         ReflectionTestUtils.setField(fetchOpenApiTask, "semaphore", semaphore);
@@ -105,7 +105,8 @@ public class FetchOpenApiTaskTest {
                     .thenReturn(openApiResponse);
             mock.when(() -> MethodListUtil.getEndpointList(any())).thenCallRealMethod();
 
-            FetchOpenApiTask fetchOpenApiTask = new FetchOpenApiTask(applicationContext, new LinkedBlockingQueue<>());
+            FetchOpenApiTask fetchOpenApiTask = new FetchOpenApiTask(applicationContext,
+                    new DeduplicatingQueue<>(100, ClientTypeUtil::toKey));
 
             XRoadRestServiceIdentifierType service = new XRoadRestServiceIdentifierType();
             service.setObjectType(XRoadObjectType.SERVICE);
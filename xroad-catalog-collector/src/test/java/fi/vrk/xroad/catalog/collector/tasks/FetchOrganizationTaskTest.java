@@ -35,9 +35,8 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Optional;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Semaphore;
+import java.util.function.Function;
 
 import org.awaitility.Awaitility;
 import org.json.JSONArray;
@@ -54,6 +53,7 @@ import org.springframework.core.io.Resource;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import fi.vrk.xroad.catalog.collector.configuration.TaskPoolConfiguration;
+import fi.vrk.xroad.catalog.collector.util.DeduplicatingQueue;
 import fi.vrk.xroad.catalog.collector.util.OrganizationUtil;
 import fi.vrk.xroad.catalog.persistence.CatalogService;
 import fi.vrk.xroad.catalog.persistence.OrganizationService;
@@ -82,7 +82,7 @@ public class FetchOrganizationTaskTest {
          * sure that the task can also be stopped when the program exits. The actual
          * fetch logic is mocked and tested below.
          */
-        BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+        DeduplicatingQueue<String> queue = new DeduplicatingQueue<>(100, Function.identity());
         FetchOrganizationsTask fetchOrganizationsTask = new FetchOrganizationsTask(applicationContext, queue);
         Semaphore semaphore = new Semaphore(1);
         ReflectionTestUtils.setField(fetchOrganizationsTask, "semaphore", semaphore);
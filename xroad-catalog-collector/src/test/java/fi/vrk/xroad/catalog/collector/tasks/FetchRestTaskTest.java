@@ -35,8 +35,6 @@ import java.net.URISyntaxException;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Semaphore;
 
 import org.awaitility.Awaitility;
@@ -48,6 +46,8 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import fi.vrk.xroad.catalog.collector.configuration.TaskPoolConfiguration;
+import fi.vrk.xroad.catalog.collector.util.ClientTypeUtil;
+import fi.vrk.xroad.catalog.collector.util.DeduplicatingQueue;
 import fi.vrk.xroad.catalog.collector.util.Endpoint;
 import fi.vrk.xroad.catalog.collector.util.XRoadRestServiceIdentifierType;
 import fi.vrk.xroad.catalog.collector.wsimport.XRoadObjectType;
@@ -64,7 +64,8 @@ public class FetchRestTaskTest {
 
     @Test
     public void testFetchRestTask() throws MalformedURLException, URISyntaxException, InterruptedException {
-        BlockingQueue<XRoadRestServiceIdentifierType> restServices = new LinkedBlockingQueue<>();
+        DeduplicatingQueue<XRoadRestServiceIdentifierType> restServices = new DeduplicatingQueue<>(100,
+                ClientTypeUtil::toKey);
         FetchRestTask fetchRestTask = new FetchRestTask(applicationContext, restServices);
         Semaphore semaphore = new Semaphore(1);
         ReflectionTestUtils.setField(fetchRestTask, "semaphore", semaphore);
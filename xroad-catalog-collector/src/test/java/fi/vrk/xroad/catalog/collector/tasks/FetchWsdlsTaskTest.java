@@ -33,8 +33,6 @@ import static org.mockito.Mockito.verify;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.time.Duration;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Semaphore;
 
 import org.awaitility.Awaitility;
@@ -48,6 +46,8 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import fi.vrk.xroad.catalog.collector.configuration.DevelopmentConfiguration;
 import fi.vrk.xroad.catalog.collector.configuration.TaskPoolConfiguration;
+import fi.vrk.xroad.catalog.collector.util.ClientTypeUtil;
+import fi.vrk.xroad.catalog.collector.util.DeduplicatingQueue;
 import fi.vrk.xroad.catalog.collector.wsimport.XRoadObjectType;
 import fi.vrk.xroad.catalog.collector.wsimport.XRoadServiceIdentifierType;
 import fi.vrk.xroad.catalog.persistence.CatalogService;
@@ -70,7 +70,8 @@ public class FetchWsdlsTaskTest {
         TaskPoolConfiguration taskPoolConfiguration = applicationContext.getBean(TaskPoolConfiguration.class);
         ReflectionTestUtils.setField(taskPoolConfiguration, "webservicesEndpoint",
                 "http://localhost:" + port + "/metaservices");
-        BlockingQueue<XRoadServiceIdentifierType> wsdlServices = new LinkedBlockingQueue<>();
+        DeduplicatingQueue<XRoadServiceIdentifierType> wsdlServices = new DeduplicatingQueue<>(100,
+                ClientTypeUtil::toKey);
         FetchWsdlsTask fetchWsdlsTask = new FetchWsdlsTask(applicationContext, wsdlServices);
         Semaphore semaphore = new Semaphore(1);
         ReflectionTestUtils.setField(fetchWsdlsTask, "semaphore", semaphore);
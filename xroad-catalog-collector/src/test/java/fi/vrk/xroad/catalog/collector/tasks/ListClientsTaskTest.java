@@ -29,12 +29,14 @@ package fi.vrk.xroad.catalog.collector.tasks;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
-import java.util.Queue;
+import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Function;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
@@ -47,16 +49,22 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import fi.vrk.xroad.catalog.collector.configuration.TaskPoolConfiguration;
 import fi.vrk.xroad.catalog.collector.util.ClientListUtil;
+import fi.vrk.xroad.catalog.collector.util.ClientTypeUtil;
+import fi.vrk.xroad.catalog.collector.util.CollectorQueues;
+import fi.vrk.xroad.catalog.collector.util.DeduplicatingQueue;
 import fi.vrk.xroad.catalog.collector.wsimport.ClientList;
 import fi.vrk.xroad.catalog.collector.wsimport.ClientType;
 import fi.vrk.xroad.catalog.collector.wsimport.XRoadClientIdentifierType;
 import fi.vrk.xroad.catalog.collector.wsimport.XRoadObjectType;
 import fi.vrk.xroad.catalog.persistence.CatalogService;
 import fi.vrk.xroad.catalog.persistence.entity.Member;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @SpringBootTest(classes = TaskPoolConfiguration.class)
 public class ListClientsTaskTest {
 
+    private static final List<String> CYCLE_QUEUES = List.of("list-methods", "fetch-wsdls");
+
     @Autowired
     private ApplicationContext applicationContext;
 
@@ -83,9 +91,13 @@ public class ListClientsTaskTest {
             mocked.when(() -> ClientListUtil.clientListFromResponse(any(String.class)))
                     .thenReturn(clientList);
 
-            final Queue<ClientType> listMethodsQueue = new ConcurrentLinkedQueue<>();
-            final Queue<String> fetchCompaniesQueue = new ConcurrentLinkedQueue<>();
-            final Queue<String> fetchOrganisationsQueue = new ConcurrentLinkedQueue<>();
+            final CollectorQueues collectorQueues = new CollectorQueues(new SimpleMeterRegistry());
+            final BlockingQueue<ClientType> listMethodsQueue = collectorQueues.create("list-methods", 100,
+                    client -> ClientTypeUtil.toKey(client.getId()));
+            final BlockingQueue<String> fetchCompaniesQueue = collectorQueues.create("fetch-companies", 100,
+                    Function.identity());
+            final BlockingQueue<String> fetchOrganisationsQueue = collectorQueues.create("fetch-organizations", 100,
+                    Function.identity());
 
             final Member member1 = new Member();
             member1.setMemberCode("member1");
@@ -94,9 +106,10 @@ public class ListClientsTaskTest {
             Mockito.when(catalogService.saveAllMembersAndSubsystems(any())).thenReturn(Set.of(member1, member2));
 
             ListClientsTask listClientsTask = new ListClientsTask(applicationContext, listMethodsQueue,
-                    fetchCompaniesQueue, fetchOrganisationsQueue);
+                    fetchCompaniesQueue, fetchOrganisationsQueue, collectorQueues, CYCLE_QUEUES);
             listClientsTask.run();
 
+            verify(catalogService, times(1)).updateServiceStatisticsDaily();
             verify(catalogService, times(1)).saveAllMembersAndSubsystems(any());
 
             assertEquals(5, listMethodsQueue.size());
@@ -125,9 +138,13 @@ public class ListClientsTaskTest {
 
             mocked.when(() -> ClientListUtil.clientListFromResponse(any())).thenReturn(clientList);
 
-            final Queue<ClientType> listMethodsQueue = new ConcurrentLinkedQueue<>();
-            final Queue<String> fetchCompaniesQueue = new ConcurrentLinkedQueue<>();
-            final Queue<String> fetchOrganisationsQueue = new ConcurrentLinkedQueue<>();
+            final CollectorQueues collectorQueues = new CollectorQueues(new SimpleMeterRegistry());
+            final BlockingQueue<ClientType> listMethodsQueue = collectorQueues.create("list-methods", 100,
+                    client -> ClientTypeUtil.toKey(client.getId()));
+            final BlockingQueue<String> fetchCompaniesQueue = collectorQueues.create("fetch-companies", 100,
+                    Function.identity());
+            final BlockingQueue<String> fetchOrganisationsQueue = collectorQueues.create("fetch-organizations", 100,
+                    Function.identity());
 
             final Member member1 = new Member();
             member1.setMemberCode("member1");
@@ -136,7 +153,7 @@ public class ListClientsTaskTest {
             Mockito.when(catalogService.saveAllMembersAndSubsystems(any())).thenReturn(Set.of(member1, member2));
 
             ListClientsTask listClientsTask = new ListClientsTask(applicationContext, listMethodsQueue,
-                    fetchCompaniesQueue, fetchOrganisationsQueue);
+                    fetchCompaniesQueue, fetchOrganisationsQueue, collectorQueues, CYCLE_QUEUES);
             listClientsTask.run();
 
             verify(catalogService, times(0)).saveAllMembersAndSubsystems(any());
@@ -167,9 +184,13 @@ public class ListClientsTaskTest {
 
             mocked.when(() -> ClientListUtil.clientListFromResponse(any())).thenReturn(clientList);
 
-            final Queue<ClientType> listMethodsQueue = new ConcurrentLinkedQueue<>();
-            final Queue<String> fetchCompaniesQueue = new ConcurrentLinkedQueue<>();
-            final Queue<String> fetchOrganisationsQueue = new ConcurrentLinkedQueue<>();
+            final CollectorQueues collectorQueues = new CollectorQueues(new SimpleMeterRegistry());
+            final BlockingQueue<ClientType> listMethodsQueue = collectorQueues.create("list-methods", 100,
+                    client -> ClientTypeUtil.toKey(client.getId()));
+            final BlockingQueue<String> fetchCompaniesQueue = collectorQueues.create("fetch-companies", 100,
+                    Function.identity());
+            final BlockingQueue<String> fetchOrganisationsQueue = collectorQueues.create("fetch-organizations", 100,
+                    Function.identity());
 
             final Member member1 = new Member();
             member1.setMemberCode("member1");
@@ -178,7 +199,7 @@ public class ListClientsTaskTest {
             Mockito.when(catalogService.saveAllMembersAndSubsystems(any())).thenReturn(Set.of(member1, member2));
 
             ListClientsTask listClientsTask = new ListClientsTask(applicationContext, listMethodsQueue,
-                    fetchCompaniesQueue, fetchOrganisationsQueue);
+                    fetchCompaniesQueue, fetchOrganisationsQueue, collectorQueues, CYCLE_QUEUES);
             listClientsTask.run();
 
             verify(catalogService, times(1)).saveAllMembersAndSubsystems(any());
@@ -199,14 +220,18 @@ public class ListClientsTaskTest {
             ClientList clientList = new ClientList();
             mocked.when(() -> ClientListUtil.clientListFromResponse(any())).thenReturn(clientList);
 
-            final Queue<ClientType> listMethodsQueue = new ConcurrentLinkedQueue<>();
-            final Queue<String> fetchCompaniesQueue = new ConcurrentLinkedQueue<>();
-            final Queue<String> fetchOrganisationsQueue = new ConcurrentLinkedQueue<>();
+            final CollectorQueues collectorQueues = new CollectorQueues(new SimpleMeterRegistry());
+            final BlockingQueue<ClientType> listMethodsQueue = collectorQueues.create("list-methods", 100,
+                    client -> ClientTypeUtil.toKey(client.getId()));
+            final BlockingQueue<String> fetchCompaniesQueue = collectorQueues.create("fetch-companies", 100,
+                    Function.identity());
+            final BlockingQueue<String> fetchOrganisationsQueue = collectorQueues.create("fetch-organizations", 100,
+                    Function.identity());
 
             Mockito.when(catalogService.saveAllMembersAndSubsystems(any())).thenReturn(Set.of());
 
             ListClientsTask listClientsTask = new ListClientsTask(applicationContext, listMethodsQueue,
-                    fetchCompaniesQueue, fetchOrganisationsQueue);
+                    fetchCompaniesQueue, fetchOrganisationsQueue, collectorQueues, CYCLE_QUEUES);
             listClientsTask.run();
 
             verify(catalogService, times(1)).saveAllMembersAndSubsystems(any());
@@ -216,18 +241,123 @@ public class ListClientsTaskTest {
         }
     }
 
+    @Test
+    public void testCycleSkippedWhilePreviousCycleIsDraining() throws Exception {
+        try (MockedStatic<ClientListUtil> mocked = mockStatic(ClientListUtil.class)) {
+            TaskPoolConfiguration conf = applicationContext.getBean(TaskPoolConfiguration.class);
+
+            ReflectionTestUtils.setField(conf, "fetchRunUnlimited", true);
+
+            final CollectorQueues collectorQueues = new CollectorQueues(new SimpleMeterRegistry());
+            final BlockingQueue<ClientType> listMethodsQueue = collectorQueues.create("list-methods", 100,
+                    client -> ClientTypeUtil.toKey(client.getId()));
+            final BlockingQueue<String> fetchCompaniesQueue = collectorQueues.create("fetch-companies", 100,
+                    Function.identity());
+            final BlockingQueue<String> fetchOrganisationsQueue = collectorQueues.create("fetch-organizations", 100,
+                    Function.identity());
+            final BlockingQueue<String> fetchWsdlsQueue = collectorQueues.create("fetch-wsdls", 100,
+                    Function.identity());
+            fetchWsdlsQueue.put("left over from the previous cycle");
+
+            ListClientsTask listClientsTask = new ListClientsTask(applicationContext, listMethodsQueue,
+                    fetchCompaniesQueue, fetchOrganisationsQueue, collectorQueues, CYCLE_QUEUES);
+            listClientsTask.run();
+
+            mocked.verify(() -> ClientListUtil.clientListFromResponse(any(String.class)), never());
+            verify(catalogService, never()).updateServiceStatisticsDaily();
+            verify(catalogService, never()).saveAllMembersAndSubsystems(any());
+
+            assertEquals(0, listMethodsQueue.size());
+            assertEquals(1, fetchWsdlsQueue.size());
+        }
+    }
+
+    @Test
+    public void testStatisticsUpdatedWhenCycleCompletes() throws Exception {
+        try (MockedStatic<ClientListUtil> mocked = mockStatic(ClientListUtil.class)) {
+            TaskPoolConfiguration conf = applicationContext.getBean(TaskPoolConfiguration.class);
+
+            ReflectionTestUtils.setField(conf, "fetchRunUnlimited", true);
+
+            ClientList clientList = new ClientList();
+            clientList.getMember().add(createClientType(XRoadObjectType.SUBSYSTEM, "member1", "sub1"));
+            mocked.when(() -> ClientListUtil.clientListFromResponse(any())).thenReturn(clientList);
+            Mockito.when(catalogService.saveAllMembersAndSubsystems(any())).thenReturn(Set.of());
+
+            final CollectorQueues collectorQueues = new CollectorQueues(new SimpleMeterRegistry());
+            final DeduplicatingQueue<ClientType> listMethodsQueue = collectorQueues.create("list-methods", 100,
+                    client -> ClientTypeUtil.toKey(client.getId()));
+
+            ListClientsTask listClientsTask = new ListClientsTask(applicationContext, listMethodsQueue,
+                    null, null, collectorQueues, CYCLE_QUEUES);
+            listClientsTask.run();
+            verify(catalogService, times(1)).updateServiceStatisticsDaily();
+            assertEquals(1, listMethodsQueue.size());
+
+            // the cycle is still being collected
+            listClientsTask.run();
+            verify(catalogService, times(1)).updateServiceStatisticsDaily();
+
+            // the cycle completes outside of the fetch hours
+            ReflectionTestUtils.setField(conf, "fetchRunUnlimited", false);
+            ReflectionTestUtils.setField(conf, "fetchTimeAfterHour", 23);
+            ReflectionTestUtils.setField(conf, "fetchTimeBeforeHour", 23);
+            listMethodsQueue.done(listMethodsQueue.take());
+            listClientsTask.run();
+            verify(catalogService, times(2)).updateServiceStatisticsDaily();
+            verify(catalogService, times(1)).saveAllMembersAndSubsystems(any());
+
+            listClientsTask.run();
+            verify(catalogService, times(2)).updateServiceStatisticsDaily();
+        }
+    }
+
+    @Test
+    public void testCycleNotBlockedByExternalsQueues() throws Exception {
+        try (MockedStatic<ClientListUtil> mocked = mockStatic(ClientListUtil.class)) {
+            TaskPoolConfiguration conf = applicationContext.getBean(TaskPoolConfiguration.class);
+
+            ReflectionTestUtils.setField(conf, "fetchRunUnlimited", true);
+
+            ClientList clientList = new ClientList();
+            mocked.when(() -> ClientListUtil.clientListFromResponse(any())).thenReturn(clientList);
+
+            final CollectorQueues collectorQueues = new CollectorQueues(new SimpleMeterRegistry());
+            final BlockingQueue<ClientType> listMethodsQueue = collectorQueues.create("list-methods", 100,
+                    client -> ClientTypeUtil.toKey(client.getId()));
+            final BlockingQueue<String> fetchCompaniesQueue = collectorQueues.create("fetch-companies", 100,
+                    Function.identity());
+            final BlockingQueue<String> fetchOrganisationsQueue = collectorQueues.create("fetch-organizations", 100,
+                    Function.identity());
+            fetchCompaniesQueue.put("queued by the externals update");
+
+            Mockito.when(catalogService.saveAllMembersAndSubsystems(any())).thenReturn(Set.of());
+
+            ListClientsTask listClientsTask = new ListClientsTask(applicationContext, listMethodsQueue,
+                    fetchCompaniesQueue, fetchOrganisationsQueue, collectorQueues, CYCLE_QUEUES);
+            listClientsTask.run();
+
+            verify(catalogService, times(1)).saveAllMembersAndSubsystems(any());
+            assertEquals(1, fetchCompaniesQueue.size());
+        }
+    }
+
     @Test
     public void testSaveErrorLog() {
         TaskPoolConfiguration conf = applicationContext.getBean(TaskPoolConfiguration.class);
 
         ReflectionTestUtils.setField(conf, "fetchRunUnlimited", true);
 
-        final Queue<ClientType> listMethodsQueue = new ConcurrentLinkedQueue<>();
-        final Queue<String> fetchCompaniesQueue = new ConcurrentLinkedQueue<>();
-        final Queue<String> fetchOrganisationsQueue = new ConcurrentLinkedQueue<>();
+        final CollectorQueues collectorQueues = new CollectorQueues(new SimpleMeterRegistry());
+        final BlockingQueue<ClientType> listMethodsQueue = collectorQueues.create("list-methods", 100,
+                    client -> ClientTypeUtil.toKey(client.getId()));
+        final BlockingQueue<String> fetchCompaniesQueue = collectorQueues.create("fetch-companies", 100,
+                    Function.identity());
+        final BlockingQueue<String> fetchOrganisationsQueue = collectorQueues.create("fetch-organizations", 100,
+                    Function.identity());
 
         ListClientsTask listClientsTask = new ListClientsTask(applicationContext, listMethodsQueue,
-                fetchCompaniesQueue, fetchOrganisationsQueue);
+                fetchCompaniesQueue, fetchOrganisationsQueue, collectorQueues, CYCLE_QUEUES);
         listClientsTask.run();
 
         verify(catalogService, times(1)).saveErrorLog(any());
@@ -34,7 +34,6 @@ import static org.mockito.Mockito.verify;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.time.Duration;
-import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Semaphore;
@@ -50,6 +49,8 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import fi.vrk.xroad.catalog.collector.configuration.DevelopmentConfiguration;
 import fi.vrk.xroad.catalog.collector.configuration.TaskPoolConfiguration;
+import fi.vrk.xroad.catalog.collector.util.ClientTypeUtil;
+import fi.vrk.xroad.catalog.collector.util.DeduplicatingQueue;
 import fi.vrk.xroad.catalog.collector.util.XRoadRestServiceIdentifierType;
 import fi.vrk.xroad.catalog.collector.wsimport.ClientType;
 import fi.vrk.xroad.catalog.collector.wsimport.XRoadClientIdentifierType;
@@ -77,10 +78,11 @@ public class ListMethodsTaskTest {
         ReflectionTestUtils.setField(taskPoolConfiguration, "securityServerHost", "http://localhost:" + port);
         ReflectionTestUtils.setField(taskPoolConfiguration, "webservicesEndpoint",
                 "http://localhost:" + port + "/metaservices");
-        BlockingQueue<ClientType> listedClients = new LinkedBlockingQueue<>();
-        Queue<XRoadServiceIdentifierType> wsdlServices = new LinkedBlockingQueue<>();
-        Queue<XRoadRestServiceIdentifierType> restServices = new LinkedBlockingQueue<>();
-        Queue<XRoadRestServiceIdentifierType> openApiServices = new LinkedBlockingQueue<>();
+        DeduplicatingQueue<ClientType> listedClients = new DeduplicatingQueue<>(100,
+                client -> ClientTypeUtil.toKey(client.getId()));
+        BlockingQueue<XRoadServiceIdentifierType> wsdlServices = new LinkedBlockingQueue<>();
+        BlockingQueue<XRoadRestServiceIdentifierType> restServices = new LinkedBlockingQueue<>();
+        BlockingQueue<XRoadRestServiceIdentifierType> openApiServices = new LinkedBlockingQueue<>();
         ListMethodsTask listMethodsTask = new ListMethodsTask(applicationContext, listedClients, wsdlServices,
                 restServices, openApiServices);
         Semaphore semaphore = new Semaphore(1);
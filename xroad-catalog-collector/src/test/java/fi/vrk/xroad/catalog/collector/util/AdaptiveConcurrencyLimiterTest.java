@@ -0,0 +1,109 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.collector.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final String TARGET = "INSTANCE/CLASS/CODE";
+
+    @Test
+    public void testLimitGrowsWhileTargetIsSaturatedAndHealthy() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 3, 0.5, 60000);
+        assertEquals(2, limiter.getLimit(TARGET));
+
+        AdaptiveConcurrencyLimiter.Permit first = limiter.acquire(TARGET);
+        AdaptiveConcurrencyLimiter.Permit second = limiter.acquire(TARGET);
+        for (int i = 0; i < 10; i++) {
+            first.release(true);
+            first = second;
+            second = limiter.acquire(TARGET);
+        }
+        assertEquals(3, limiter.getLimit(TARGET));
+        assertEquals(2, limiter.getLimit("INSTANCE/CLASS/OTHER"));
+    }
+
+    @Test
+    public void testLimitBacksOffOnFailure() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 10, 0.5, 60000);
+
+        limiter.acquire(TARGET).release(false);
+        assertEquals(2, limiter.getLimit(TARGET));
+        limiter.acquire(TARGET).release(false);
+        limiter.acquire(TARGET).release(false);
+        assertEquals(1, limiter.getLimit(TARGET));
+    }
+
+    @Test
+    public void testWaitingForSaturatedPoolDoesNotShrinkLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 10, 0.5, 50);
+        Semaphore pool = new Semaphore(0);
+
+        // the pool is saturated longer than the latency threshold, but the request itself is fast
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire(TARGET);
+        assertFalse(pool.tryAcquire(100, TimeUnit.MILLISECONDS));
+        pool.release();
+        pool.acquire();
+        permit.start();
+        permit.release(true);
+        assertEquals(4, limiter.getLimit(TARGET));
+
+        // without restarting, the wait is counted as latency of the target
+        permit = limiter.acquire(TARGET);
+        Thread.sleep(100);
+        permit.release(true);
+        assertEquals(2, limiter.getLimit(TARGET));
+    }
+
+    @Test
+    public void testAcquireWaitsUntilTargetHasRoom() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 0.5, 60000);
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire(TARGET);
+        limiter.acquire("INSTANCE/CLASS/OTHER").release(true);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> waiting = CompletableFuture.supplyAsync(() -> {
+            started.countDown();
+            try {
+                return limiter.acquire(TARGET);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertFalse(waiting.isDone());
+
+        permit.release(true);
+        waiting.get(1, TimeUnit.SECONDS).release(true);
+        assertEquals(1, limiter.getLimit(TARGET));
+    }
+
+    @Test
+    public void testInvalidParameters() {
+        assertThrows(CatalogCollectorRuntimeException.class, () -> new AdaptiveConcurrencyLimiter(1, 0, 0.5, 1000));
+        assertThrows(CatalogCollectorRuntimeException.class, () -> new AdaptiveConcurrencyLimiter(1, 1, 1.0, 1000));
+    }
+}
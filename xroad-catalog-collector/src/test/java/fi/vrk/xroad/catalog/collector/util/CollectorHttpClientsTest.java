@@ -0,0 +1,68 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.collector.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+
+import org.apache.hc.core5.pool.PoolStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import fi.vrk.xroad.catalog.collector.configuration.TaskPoolConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CollectorHttpClientsTest {
+
+    @Test
+    public void testPoolsAreSharedAndConfigurable() {
+        TaskPoolConfiguration configuration = mock(TaskPoolConfiguration.class);
+        when(configuration.getHttpMaxConnections()).thenReturn(20);
+        when(configuration.getHttpMaxConnectionsPerRoute()).thenReturn(10);
+        when(configuration.getHttpConnectTimeoutMs()).thenReturn(1000L);
+        when(configuration.getHttpSocketTimeoutMs()).thenReturn(1000L);
+        when(configuration.getHttpKeepAliveMs()).thenReturn(1000L);
+        when(configuration.isHttpCompressionEnabled()).thenReturn(false);
+        CollectorHttpClients.configure(configuration);
+
+        RestTemplate securityServerTemplate = CollectorHttpClients.getSecurityServerTemplate();
+        assertSame(securityServerTemplate, CollectorHttpClients.getSecurityServerTemplate());
+        assertNotSame(securityServerTemplate, CollectorHttpClients.getExternalApiTemplate());
+        assertTrue(securityServerTemplate.getRequestFactory() instanceof HttpComponentsClientHttpRequestFactory);
+
+        Map<String, PoolStats> stats = CollectorHttpClients.getStats();
+        assertEquals(20, stats.get(CollectorHttpClients.SECURITY_SERVER_POOL).getMax());
+        assertEquals(0, stats.get(CollectorHttpClients.EXTERNAL_API_POOL).getLeased());
+    }
+
+    @Test
+    public void testPoolStatisticsArePublished() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CollectorHttpClients.bindTo(meterRegistry);
+
+        double max = CollectorHttpClients.getStats().get(CollectorHttpClients.EXTERNAL_API_POOL).getMax();
+        assertEquals(max, meterRegistry.get(CollectorHttpClients.POOL_MAX_METRIC)
+                .tag("pool", CollectorHttpClients.EXTERNAL_API_POOL).gauge().value());
+        assertEquals(0.0, meterRegistry.get(CollectorHttpClients.POOL_LEASED_METRIC)
+                .tag("pool", CollectorHttpClients.SECURITY_SERVER_POOL).gauge().value());
+        assertEquals(0.0, meterRegistry.get(CollectorHttpClients.POOL_PENDING_METRIC)
+                .tag("pool", CollectorHttpClients.SECURITY_SERVER_POOL).gauge().value());
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.collector.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CollectorQueuesTest {
+
+    private static final List<String> QUEUES = List.of("first", "second");
+
+    private static final Duration STALE_TIMEOUT = Duration.ofMinutes(60);
+
+    @Test
+    public void testQueuesAreBoundedAndDepthsPublished() throws InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CollectorQueues collectorQueues = new CollectorQueues(meterRegistry);
+        DeduplicatingQueue<String> first = collectorQueues.create("first", 2, Function.identity());
+        DeduplicatingQueue<String> second = collectorQueues.create("second", 5, Function.identity());
+        assertTrue(collectorQueues.isDrained(QUEUES, STALE_TIMEOUT));
+
+        CollectorQueues.putAll(first, List.of("a", "b"));
+        assertFalse(first.offer("c"));
+        second.put("d");
+
+        assertFalse(collectorQueues.isDrained(QUEUES, STALE_TIMEOUT));
+        assertEquals(Map.of("first", 2, "second", 1), collectorQueues.getDepths());
+        assertEquals(2.0, meterRegistry.get(CollectorQueues.QUEUE_DEPTH_METRIC).tag("queue", "first").gauge().value());
+        assertEquals(5.0, meterRegistry.get(CollectorQueues.QUEUE_CAPACITY_METRIC).tag("queue", "second").gauge().value());
+
+        first.clear();
+        String taken = second.take();
+        assertFalse(collectorQueues.isDrained(QUEUES, STALE_TIMEOUT));
+        assertEquals(0.0, meterRegistry.get(CollectorQueues.QUEUE_DEPTH_METRIC).tag("queue", "second").gauge().value());
+        assertEquals(1.0, meterRegistry.get(CollectorQueues.QUEUE_PENDING_METRIC).tag("queue", "second").gauge().value());
+
+        second.done(taken);
+        assertTrue(collectorQueues.isDrained(QUEUES, STALE_TIMEOUT));
+    }
+
+    @Test
+    public void testOnlyGivenQueuesAreChecked() throws InterruptedException {
+        CollectorQueues collectorQueues = new CollectorQueues(new SimpleMeterRegistry());
+        DeduplicatingQueue<String> first = collectorQueues.create("first", 2, Function.identity());
+        DeduplicatingQueue<String> other = collectorQueues.create("other", 2, Function.identity());
+        other.put("a");
+
+        assertTrue(collectorQueues.isDrained(QUEUES, STALE_TIMEOUT));
+        first.put("b");
+        assertFalse(collectorQueues.isDrained(QUEUES, STALE_TIMEOUT));
+    }
+
+    @Test
+    public void testElementsNotMarkedDoneAreReleasedAfterTimeout() throws InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CollectorQueues collectorQueues = new CollectorQueues(meterRegistry);
+        DeduplicatingQueue<String> first = collectorQueues.create("first", 5, Function.identity());
+        CollectorQueues.putAll(first, List.of("a", "b"));
+        first.take();
+
+        assertFalse(collectorQueues.isDrained(QUEUES, STALE_TIMEOUT));
+        assertFalse(collectorQueues.isDrained(QUEUES, Duration.ZERO));
+        assertEquals(1, first.getPendingCount());
+        assertTrue(meterRegistry.get(CollectorQueues.QUEUE_STALLED_METRIC).tag("queue", "first").gauge().value() >= 0);
+
+        first.take();
+        assertTrue(collectorQueues.isDrained(QUEUES, Duration.ZERO));
+        assertEquals(0.0, meterRegistry.get(CollectorQueues.QUEUE_STALLED_METRIC).tag("queue", "first").gauge().value());
+    }
+
+    @Test
+    public void testDuplicateQueueName() {
+        CollectorQueues collectorQueues = new CollectorQueues(new SimpleMeterRegistry());
+        collectorQueues.create("queue", 1, Function.identity());
+        assertThrows(CatalogCollectorRuntimeException.class, () -> collectorQueues.create("queue", 1, Function.identity()));
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.collector.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import fi.vrk.xroad.catalog.collector.wsimport.XRoadObjectType;
+import fi.vrk.xroad.catalog.collector.wsimport.XRoadServiceIdentifierType;
+
+public class DeduplicatingQueueTest {
+
+    @Test
+    public void testDuplicateIsNotQueuedWhileQueuedOrInFlight() throws InterruptedException {
+        DeduplicatingQueue<XRoadServiceIdentifierType> queue = new DeduplicatingQueue<>(10, ClientTypeUtil::toKey);
+
+        queue.put(createService("getData"));
+        queue.put(createService("getData"));
+        assertTrue(queue.offer(createService("getData")));
+        queue.addAll(List.of(createService("getData"), createService("getOtherData")));
+        assertEquals(2, queue.size());
+        assertEquals(2, queue.getPendingCount());
+
+        XRoadServiceIdentifierType inFlight = queue.take();
+        queue.put(createService("getData"));
+        assertEquals(1, queue.size());
+        assertEquals(2, queue.getPendingCount());
+
+        queue.done(inFlight);
+        queue.put(createService("getData"));
+        assertEquals(2, queue.size());
+        assertEquals(2, queue.getPendingCount());
+    }
+
+    @Test
+    public void testKeyIsReleasedWhenQueueIsFull() throws InterruptedException {
+        DeduplicatingQueue<String> queue = new DeduplicatingQueue<>(1, key -> key);
+
+        queue.put("first");
+        assertFalse(queue.offer("second"));
+        assertFalse(queue.offer("second", 1, TimeUnit.MILLISECONDS));
+        assertEquals(1, queue.getPendingCount());
+
+        queue.clear();
+        assertEquals(0, queue.getPendingCount());
+        assertTrue(queue.offer("second"));
+        assertEquals("second", queue.peek());
+    }
+
+    private XRoadServiceIdentifierType createService(String serviceCode) {
+        XRoadServiceIdentifierType service = new XRoadServiceIdentifierType();
+        service.setObjectType(XRoadObjectType.SERVICE);
+        service.setXRoadInstance("INSTANCE");
+        service.setMemberClass("CLASS");
+        service.setMemberCode("CODE");
+        service.setSubsystemCode("SUBSYSTEM");
+        service.setServiceCode(serviceCode);
+        service.setServiceVersion("v1");
+        return service;
+    }
+}
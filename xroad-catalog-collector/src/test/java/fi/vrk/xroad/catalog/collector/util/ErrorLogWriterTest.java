@@ -0,0 +1,130 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.collector.util;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import fi.vrk.xroad.catalog.persistence.CatalogService;
+import fi.vrk.xroad.catalog.persistence.dto.ErrorLogOccurrences;
+import fi.vrk.xroad.catalog.persistence.entity.ErrorLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ErrorLogWriterTest {
+
+    @Test
+    public void testErrorsAreWrittenInBatches() {
+        CatalogService catalogService = mock(CatalogService.class);
+        ErrorLogWriter writer = new ErrorLogWriter(catalogService, 10, 4, 1000);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(writer.offer(createErrorLog("MEMBER" + i, "Connection refused")));
+        }
+        assertEquals(10, writer.getBuffered());
+
+        assertEquals(10, writer.flush());
+        verify(catalogService, times(3)).saveErrorLogOccurrences(anyCollection());
+        assertEquals(0, writer.getBuffered());
+        assertEquals(10, writer.getWritten());
+    }
+
+    @Test
+    public void testFullBufferAggregatesRepeatsAndDropsOthers() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ErrorLogWriter writer = new ErrorLogWriter(mock(CatalogService.class), 2, 10, 1000);
+        writer.bindTo(meterRegistry);
+
+        assertTrue(writer.offer(createErrorLog("MEMBER1", "Connection refused")));
+        assertTrue(writer.offer(createErrorLog("MEMBER2", "Connection refused")));
+        assertFalse(writer.offer(createErrorLog("MEMBER1", "Connection refused")));
+        assertFalse(writer.offer(createErrorLog("MEMBER1", "Read timed out")));
+        assertFalse(writer.offer(createErrorLog("MEMBER3", "Connection refused")));
+
+        assertEquals(1, writer.getAggregated());
+        assertEquals(2, writer.getDropped());
+        assertEquals(2.0, meterRegistry.get(ErrorLogWriter.BUFFERED_METRIC).gauge().value());
+        assertEquals(2.0, meterRegistry.get(ErrorLogWriter.DROPPED_METRIC).functionCounter().count());
+
+        writer.flush();
+        assertTrue(writer.offer(createErrorLog("MEMBER3", "Connection refused")));
+    }
+
+    @Test
+    public void testAggregatedErrorsAreCountedIntoTheIncident() {
+        CatalogService catalogService = mock(CatalogService.class);
+        ErrorLogWriter writer = new ErrorLogWriter(catalogService, 1, 10, 1000);
+
+        assertTrue(writer.offer(createErrorLog("MEMBER1", "Connection to port 8080 refused")));
+        assertFalse(writer.offer(createErrorLog("MEMBER1", "Connection to port 8443 refused")));
+        assertFalse(writer.offer(createErrorLog("MEMBER1", "Connection to port 9000 refused")));
+        assertEquals(2, writer.getAggregated());
+        assertEquals(0, writer.getDropped());
+
+        assertEquals(1, writer.flush());
+        // the aggregated errors are one entry with their count, not a copy per error
+        verify(catalogService).saveErrorLogOccurrences(argThat(batch -> batch.size() == 2
+                && batch.stream().mapToLong(ErrorLogOccurrences::getCount).sum() == 3));
+        assertEquals(1, writer.getWritten());
+    }
+
+    @Test
+    public void testFailedSaveIsRetriedOnce() {
+        CatalogService catalogService = mock(CatalogService.class);
+        doThrow(new IllegalStateException("duplicate incident key")).doNothing()
+                .when(catalogService).saveErrorLogOccurrences(anyCollection());
+        ErrorLogWriter writer = new ErrorLogWriter(catalogService, 10, 10, 1000);
+
+        assertTrue(writer.offer(createErrorLog("MEMBER1", "Connection refused")));
+        assertEquals(1, writer.flush());
+        verify(catalogService, times(2)).saveErrorLogOccurrences(anyCollection());
+        assertEquals(1, writer.getWritten());
+        assertEquals(0, writer.getDropped());
+    }
+
+    @Test
+    public void testBackgroundWriter() {
+        CatalogService catalogService = mock(CatalogService.class);
+        ErrorLogWriter writer = new ErrorLogWriter(catalogService, 10, 2, 10);
+        Thread thread = Thread.ofVirtual().start(writer);
+        try {
+            writer.offer(createErrorLog("MEMBER1", "Connection refused"));
+            await().atMost(Duration.ofSeconds(5)).until(() -> writer.getWritten() == 1);
+        } finally {
+            thread.interrupt();
+        }
+    }
+
+    private ErrorLog createErrorLog(String memberCode, String message) {
+        return ErrorLog.builder()
+                .created(LocalDateTime.now())
+                .message(message)
+                .code("500")
+                .xRoadInstance("INSTANCE")
+                .memberClass("CLASS")
+                .memberCode(memberCode)
+                .build();
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.lister;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the number of concurrently handled requests of one class of operations, so that a burst of
+ * expensive requests cannot take all the request threads and database connections. A request which
+ * finds all permits taken waits for one in a bounded queue for a bounded time, and is rejected when
+ * the queue is full or the time runs out.
+ */
+public class Bulkhead {
+
+    public static final String ACTIVE_METRIC = "xroad.catalog.lister.bulkhead.active";
+
+    public static final String QUEUED_METRIC = "xroad.catalog.lister.bulkhead.queued";
+
+    public static final String REJECTED_METRIC = "xroad.catalog.lister.bulkhead.rejected";
+
+    private static final String BULKHEAD_TAG = "bulkhead";
+
+    @Getter
+    private final String name;
+
+    @Getter
+    private final int maxConcurrent;
+
+    private final int maxQueued;
+
+    private final long maxWaitMillis;
+
+    // fair, so that the queued requests get the permits in their order of arrival
+    private final Semaphore permits;
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    public Bulkhead(String name, int maxConcurrent, int maxQueued, long maxWaitMillis) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxWaitMillis = maxWaitMillis;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Takes a permit, waiting for one in the queue if all permits are taken. A taken permit must be
+     * given back with {@link #release()}.
+     *
+     * @return true if a permit was taken, false if the request is rejected
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean tryAcquire() throws InterruptedException {
+        // a zero timeout does not overtake the queued requests, unlike tryAcquire()
+        if (permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+            return true;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejected.incrementAndGet();
+            return false;
+        }
+        try {
+            if (permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+            rejected.incrementAndGet();
+            return false;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    /**
+     * Gives back a permit taken with {@link #tryAcquire()}
+     */
+    public void release() {
+        permits.release();
+    }
+
+    public int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Publishes the numbers of active, queued and rejected requests as metrics tagged with the bulkhead name
+     *
+     * @param meterRegistry registry to publish the metrics to
+     */
+    public void bindTo(MeterRegistry meterRegistry) {
+        Gauge.builder(ACTIVE_METRIC, this, Bulkhead::getActive)
+                .tag(BULKHEAD_TAG, name)
+                .description("Number of requests being handled in the bulkhead")
+                .register(meterRegistry);
+        Gauge.builder(QUEUED_METRIC, this, Bulkhead::getQueued)
+                .tag(BULKHEAD_TAG, name)
+                .description("Number of requests waiting for the bulkhead")
+                .register(meterRegistry);
+        FunctionCounter.builder(REJECTED_METRIC, rejected, AtomicLong::get)
+                .tag(BULKHEAD_TAG, name)
+                .description("Number of requests rejected by the bulkhead")
+                .register(meterRegistry);
+    }
+}
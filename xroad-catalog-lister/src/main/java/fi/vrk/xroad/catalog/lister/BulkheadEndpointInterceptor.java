@@ -0,0 +1,91 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.lister;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.EndpointInterceptor;
+import org.springframework.ws.server.endpoint.MethodEndpoint;
+
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.Set;
+
+/**
+ * Admits SOAP requests through the report or the lookup bulkhead, depending on the operation.
+ * A rejected request is answered with a SOAP fault, 503 Service Unavailable and Retry-After.
+ */
+@Slf4j
+public class BulkheadEndpointInterceptor implements EndpointInterceptor {
+
+    // endpoint methods reading large parts of the catalog
+    private static final Set<String> REPORT_METHODS = Set.of("listMembers", "getErrors");
+
+    private static final String PERMIT_PROPERTY = BulkheadEndpointInterceptor.class.getName() + ".permit";
+
+    private final ListerBulkheads bulkheads;
+
+    public BulkheadEndpointInterceptor(ListerBulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    public boolean handleRequest(MessageContext messageContext, Object endpoint) throws Exception {
+        Bulkhead bulkhead = getBulkhead(endpoint);
+        boolean admitted;
+        try {
+            admitted = bulkhead.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            log.warn("Request to {} rejected, the {} bulkhead is full", endpoint, bulkhead.getName());
+            StreamingSoapResponse.getHttpServletResponse().setHeader(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(bulkheads.getRetryAfterSeconds()));
+            StreamingSoapResponse.writeFault(messageContext, HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                    "Service is busy, try again later");
+            return false;
+        }
+        messageContext.setProperty(PERMIT_PROPERTY, bulkhead);
+        return true;
+    }
+
+    @Override
+    public boolean handleResponse(MessageContext messageContext, Object endpoint) {
+        return true;
+    }
+
+    @Override
+    public boolean handleFault(MessageContext messageContext, Object endpoint) {
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(MessageContext messageContext, Object endpoint, Exception ex) {
+        // also called for the interceptor which rejected the request
+        Bulkhead bulkhead = (Bulkhead) messageContext.getProperty(PERMIT_PROPERTY);
+        if (bulkhead != null) {
+            messageContext.removeProperty(PERMIT_PROPERTY);
+            bulkhead.release();
+        }
+    }
+
+    private Bulkhead getBulkhead(Object endpoint) {
+        if (endpoint instanceof MethodEndpoint
+                && REPORT_METHODS.contains(((MethodEndpoint) endpoint).getMethod().getName())) {
+            return bulkheads.getReports();
+        }
+        return bulkheads.getLookups();
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.lister;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Answers conditional GET requests (If-None-Match / If-Modified-Since) of REST responses that only change
+ * when the collector writes, with 304 Not Modified before the controller runs any queries.
+ * The validators are derived from the given change times and the current date, because requests
+ * without a date range default to the current day.
+ */
+@RequiredArgsConstructor
+public class ConditionalRequestInterceptor implements HandlerInterceptor {
+
+    // times of the latest changes to the data the responses are built from, items may be null
+    private final Supplier<List<LocalDateTime>> changeTimes;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        List<LocalDateTime> times = changeTimes.get();
+        if (times.stream().allMatch(Objects::isNull)) {
+            // nothing collected yet, so there is nothing to validate against
+            return true;
+        }
+        LocalDateTime lastModified = LocalDate.now().atStartOfDay();
+        StringBuilder etag = new StringBuilder("\"").append(Long.toHexString(toEpochMilli(lastModified)));
+        for (LocalDateTime time : times) {
+            etag.append('-').append(time == null ? "0" : Long.toHexString(toEpochMilli(time)));
+            if (time != null && time.isAfter(lastModified)) {
+                lastModified = time;
+            }
+        }
+        etag.append('"');
+        return !new ServletWebRequest(request, response).checkNotModified(etag.toString(), toEpochMilli(lastModified));
+    }
+
+    private static long toEpochMilli(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
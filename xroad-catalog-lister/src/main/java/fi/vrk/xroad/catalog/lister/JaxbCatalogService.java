@@ -14,9 +14,11 @@ package fi.vrk.xroad.catalog.lister;
 
 import javax.xml.datatype.XMLGregorianCalendar;
 
-import fi.vrk.xroad.catalog.lister.generated.ErrorLog;
+import fi.vrk.xroad.catalog.lister.generated.GetErrorsResponse;
 import fi.vrk.xroad.catalog.lister.generated.Member;
 
+import java.util.function.Consumer;
+
 public interface JaxbCatalogService {
 
     /**
@@ -37,11 +39,27 @@ public interface JaxbCatalogService {
     Iterable<Member> getAllMembers(XMLGregorianCalendar startDateTime, XMLGregorianCalendar endDateTime);
 
     /**
-     * Returns all errorLog entries
-     * 
+     * Passes the same members as getAllMembers to the consumer one at a time. Members are
+     * read from the database in batches and converted only when consumed, so the whole
+     * result is never held in memory.
+     *
      * @param startDateTime creation datetime from
      * @param endDateTime   creation datetime to
-     * @return Iterable of JAXB generated ErrorLog entries
+     * @param consumer      called once per JAXB generated Member
+     */
+    void streamAllMembers(XMLGregorianCalendar startDateTime, XMLGregorianCalendar endDateTime,
+            Consumer<Member> consumer);
+
+    /**
+     * Returns a page of errorLog entries in the order of their latest occurrence
+     * 
+     * @param startDateTime occurrence datetime from
+     * @param endDateTime   occurrence datetime to
+     * @param cursor        continuation token returned with the previous page, null for the first page
+     * @param limit         maximum number of entries
+     * @param count         whether the total number of entries is returned
+     * @return JAXB generated response with the ErrorLog entries and the continuation token of the next page
      */
-    Iterable<ErrorLog> getErrorLog(XMLGregorianCalendar startDateTime, XMLGregorianCalendar endDateTime);
+    GetErrorsResponse getErrors(XMLGregorianCalendar startDateTime, XMLGregorianCalendar endDateTime, String cursor,
+            int limit, boolean count);
 }
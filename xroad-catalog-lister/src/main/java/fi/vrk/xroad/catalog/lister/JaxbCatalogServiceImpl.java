@@ -12,16 +12,26 @@
  */
 package fi.vrk.xroad.catalog.lister;
 
+import fi.vrk.xroad.catalog.lister.generated.ErrorLogList;
+import fi.vrk.xroad.catalog.lister.generated.GetErrorsResponse;
+import fi.vrk.xroad.catalog.lister.util.ErrorLogCursor;
 import fi.vrk.xroad.catalog.persistence.CatalogService;
 import fi.vrk.xroad.catalog.lister.generated.Member;
+import fi.vrk.xroad.catalog.persistence.dto.XRoadData;
+import fi.vrk.xroad.catalog.persistence.entity.ErrorIncident;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 import javax.xml.datatype.XMLGregorianCalendar;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
 
 @Component
 @Slf4j
+@Transactional(readOnly = true)
 public class JaxbCatalogServiceImpl implements JaxbCatalogService {
 
     @Autowired
@@ -46,12 +56,32 @@ public class JaxbCatalogServiceImpl implements JaxbCatalogService {
     }
 
     @Override
-    public Iterable<fi.vrk.xroad.catalog.lister.generated.ErrorLog> getErrorLog(XMLGregorianCalendar startDateTime,
-            XMLGregorianCalendar endDateTime) {
-        Iterable<fi.vrk.xroad.catalog.persistence.entity.ErrorLog> entities;
-        entities = catalogService.getErrorLog(jaxbServiceConverter.toLocalDateTime(startDateTime),
-                jaxbServiceConverter.toLocalDateTime(endDateTime));
-        return jaxbServiceConverter.convertErrorLog(entities);
+    public void streamAllMembers(XMLGregorianCalendar startDateTime, XMLGregorianCalendar endDateTime,
+            Consumer<Member> consumer) {
+        catalogService.streamAllMembers(jaxbServiceConverter.toLocalDateTime(startDateTime),
+                jaxbServiceConverter.toLocalDateTime(endDateTime),
+                member -> consumer.accept(jaxbServiceConverter.convertMember(member, false)));
+    }
+
+    @Override
+    public GetErrorsResponse getErrors(XMLGregorianCalendar startDateTime, XMLGregorianCalendar endDateTime,
+            String cursor, int limit, boolean count) {
+        LocalDateTime start = jaxbServiceConverter.toLocalDateTime(startDateTime);
+        LocalDateTime end = jaxbServiceConverter.toLocalDateTime(endDateTime);
+        XRoadData allErrors = XRoadData.builder().build();
+        ErrorLogCursor after = ErrorLogCursor.decode(cursor);
+        int pageSize = ErrorLogCursor.pageSize(limit);
+        List<ErrorIncident> entities = catalogService.getErrorIncidentsAfter(allErrors, start, end,
+                after.getId(), pageSize + 1);
+        GetErrorsResponse response = new GetErrorsResponse();
+        response.setErrorLogList(new ErrorLogList());
+        response.getErrorLogList().getErrorLog()
+                .addAll(jaxbServiceConverter.convertErrorLog(ErrorLogCursor.page(entities, pageSize)));
+        response.setNextCursor(ErrorLogCursor.nextPage(entities, pageSize));
+        if (count) {
+            response.setNumberOfErrors(catalogService.countErrorIncidents(allErrors, start, end));
+        }
+        return response;
     }
 
 }
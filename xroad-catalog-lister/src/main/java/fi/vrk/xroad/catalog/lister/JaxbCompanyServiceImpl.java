@@ -30,6 +30,7 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 import javax.xml.datatype.XMLGregorianCalendar;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -39,6 +40,7 @@ import java.util.Set;
 
 @Component
 @Slf4j
+@Transactional(readOnly = true)
 public class JaxbCompanyServiceImpl implements JaxbCompanyService {
 
     private static final String COMPANY = "Company";
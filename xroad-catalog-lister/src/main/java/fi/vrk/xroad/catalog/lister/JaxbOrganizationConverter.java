@@ -23,7 +23,6 @@ import fi.vrk.xroad.catalog.lister.generated.OrganizationNameList;
 import fi.vrk.xroad.catalog.lister.generated.PhoneNumberList;
 import fi.vrk.xroad.catalog.lister.generated.WebPageList;
 import org.springframework.stereotype.Component;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -33,7 +32,7 @@ public class JaxbOrganizationConverter implements JaxbOrganizationConversion {
     @Override
     public Collection<Organization> convertOrganizations(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.Organization> organizations) {
-        List<Organization> converted = new ArrayList<>();
+        List<Organization> converted = JaxbServiceUtil.newConvertedList(organizations);
         for (fi.vrk.xroad.catalog.persistence.entity.Organization organization : organizations) {
             Organization co = new Organization();
             co.setChanged(JaxbServiceUtil.toXmlGregorianCalendar(organization.getStatusInfo().getChanged()));
@@ -94,7 +93,7 @@ public class JaxbOrganizationConverter implements JaxbOrganizationConversion {
     @Override
     public Collection<Company> convertCompanies(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.Company> companies) {
-        List<Company> converted = new ArrayList<>();
+        List<Company> converted = JaxbServiceUtil.newConvertedList(companies);
         for (fi.vrk.xroad.catalog.persistence.entity.Company company : companies) {
             converted.add(JaxbOrganizationUtil.convertCompany(company));
         }
@@ -37,6 +37,7 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 import javax.xml.datatype.XMLGregorianCalendar;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -47,6 +48,7 @@ import java.util.Set;
 
 @Component
 @Slf4j
+@Transactional(readOnly = true)
 public class JaxbOrganizationServiceImpl implements JaxbOrganizationService {
 
     private static final String ORGANIZATION = "Organization";
@@ -14,6 +14,7 @@ package fi.vrk.xroad.catalog.lister;
 
 import fi.vrk.xroad.catalog.lister.generated.ErrorLog;
 import fi.vrk.xroad.catalog.lister.generated.Member;
+import fi.vrk.xroad.catalog.persistence.entity.ErrorIncident;
 import fi.vrk.xroad.catalog.persistence.entity.Service;
 import fi.vrk.xroad.catalog.persistence.entity.Subsystem;
 import org.springframework.context.annotation.Profile;
@@ -35,6 +36,15 @@ public interface JaxbServiceConversion {
     Collection<Member> convertMembers(Iterable<fi.vrk.xroad.catalog.persistence.entity.Member> members,
             boolean onlyActiveChildren);
 
+    /**
+     * Convert entity to XML object
+     *
+     * @param member             Member entity
+     * @param onlyActiveChildren if true, convert only active subsystems
+     * @return Member (JAXB generated)
+     */
+    Member convertMember(fi.vrk.xroad.catalog.persistence.entity.Member member, boolean onlyActiveChildren);
+
     /**
      * Convert entities to XML objects
      * 
@@ -60,9 +70,9 @@ public interface JaxbServiceConversion {
     /**
      * Convert entities to XML objects
      * 
-     * @param errorLogEntries Iterable of ErrorLog entities
+     * @param errorIncidents Iterable of ErrorIncident entities
      * @return Collection of ErrorLog entries (JAXB generated)
      */
-    Collection<ErrorLog> convertErrorLog(Iterable<fi.vrk.xroad.catalog.persistence.entity.ErrorLog> errorLogEntries);
+    Collection<ErrorLog> convertErrorLog(Iterable<ErrorIncident> errorIncidents);
 
 }
@@ -17,12 +17,12 @@ import fi.vrk.xroad.catalog.lister.generated.Member;
 import fi.vrk.xroad.catalog.lister.generated.ServiceList;
 import fi.vrk.xroad.catalog.lister.generated.SubsystemList;
 import fi.vrk.xroad.catalog.lister.util.JaxbServiceUtil;
+import fi.vrk.xroad.catalog.persistence.entity.ErrorIncident;
 import fi.vrk.xroad.catalog.persistence.entity.Service;
 import fi.vrk.xroad.catalog.persistence.entity.Subsystem;
 import org.springframework.stereotype.Component;
 import javax.xml.datatype.XMLGregorianCalendar;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -32,34 +32,39 @@ public class JaxbServiceConverter implements JaxbServiceConversion {
     @Override
     public Collection<Member> convertMembers(Iterable<fi.vrk.xroad.catalog.persistence.entity.Member> members,
             boolean onlyActiveChildren) {
-        List<Member> converted = new ArrayList<>();
+        List<Member> converted = JaxbServiceUtil.newConvertedList(members);
         for (fi.vrk.xroad.catalog.persistence.entity.Member member : members) {
-            Member cm = new Member();
-            cm.setChanged(JaxbServiceUtil.toXmlGregorianCalendar(member.getStatusInfo().getChanged()));
-            cm.setCreated(JaxbServiceUtil.toXmlGregorianCalendar(member.getStatusInfo().getCreated()));
-            cm.setFetched(JaxbServiceUtil.toXmlGregorianCalendar(member.getStatusInfo().getFetched()));
-            cm.setRemoved(JaxbServiceUtil.toXmlGregorianCalendar(member.getStatusInfo().getRemoved()));
-            cm.setMemberCode(member.getMemberCode());
-            cm.setMemberClass(member.getMemberClass());
-            cm.setName(member.getName());
-            cm.setXRoadInstance(member.getXRoadInstance());
-            cm.setSubsystems(new SubsystemList());
-            Iterable<Subsystem> subsystems;
-            if (onlyActiveChildren) {
-                subsystems = member.getActiveSubsystems();
-            } else {
-                subsystems = member.getAllSubsystems();
-            }
-            cm.getSubsystems().getSubsystem().addAll(convertSubsystems(subsystems, onlyActiveChildren));
-            converted.add(cm);
+            converted.add(convertMember(member, onlyActiveChildren));
         }
         return converted;
     }
 
+    @Override
+    public Member convertMember(fi.vrk.xroad.catalog.persistence.entity.Member member, boolean onlyActiveChildren) {
+        Member cm = new Member();
+        cm.setChanged(JaxbServiceUtil.toXmlGregorianCalendar(member.getStatusInfo().getChanged()));
+        cm.setCreated(JaxbServiceUtil.toXmlGregorianCalendar(member.getStatusInfo().getCreated()));
+        cm.setFetched(JaxbServiceUtil.toXmlGregorianCalendar(member.getStatusInfo().getFetched()));
+        cm.setRemoved(JaxbServiceUtil.toXmlGregorianCalendar(member.getStatusInfo().getRemoved()));
+        cm.setMemberCode(member.getMemberCode());
+        cm.setMemberClass(member.getMemberClass());
+        cm.setName(member.getName());
+        cm.setXRoadInstance(member.getXRoadInstance());
+        cm.setSubsystems(new SubsystemList());
+        Iterable<Subsystem> subsystems;
+        if (onlyActiveChildren) {
+            subsystems = member.getActiveSubsystems();
+        } else {
+            subsystems = member.getAllSubsystems();
+        }
+        cm.getSubsystems().getSubsystem().addAll(convertSubsystems(subsystems, onlyActiveChildren));
+        return cm;
+    }
+
     @Override
     public Collection<fi.vrk.xroad.catalog.lister.generated.Subsystem> convertSubsystems(Iterable<Subsystem> subsystems,
             boolean onlyActiveChildren) {
-        List<fi.vrk.xroad.catalog.lister.generated.Subsystem> converted = new ArrayList<>();
+        List<fi.vrk.xroad.catalog.lister.generated.Subsystem> converted = JaxbServiceUtil.newConvertedList(subsystems);
         for (Subsystem subsystem : subsystems) {
             fi.vrk.xroad.catalog.lister.generated.Subsystem cs = new fi.vrk.xroad.catalog.lister.generated.Subsystem();
             cs.setChanged(JaxbServiceUtil.toXmlGregorianCalendar(subsystem.getStatusInfo().getChanged()));
@@ -83,7 +88,7 @@ public class JaxbServiceConverter implements JaxbServiceConversion {
     @Override
     public Collection<fi.vrk.xroad.catalog.lister.generated.Service> convertServices(Iterable<Service> services,
             boolean onlyActiveChildren) {
-        List<fi.vrk.xroad.catalog.lister.generated.Service> converted = new ArrayList<>();
+        List<fi.vrk.xroad.catalog.lister.generated.Service> converted = JaxbServiceUtil.newConvertedList(services);
         for (Service service : services) {
             converted.add(JaxbServiceUtil.convertService(service, onlyActiveChildren));
         }
@@ -96,23 +101,23 @@ public class JaxbServiceConverter implements JaxbServiceConversion {
     }
 
     @Override
-    public Collection<ErrorLog> convertErrorLog(
-            Iterable<fi.vrk.xroad.catalog.persistence.entity.ErrorLog> errorLogEntries) {
-        List<ErrorLog> converted = new ArrayList<>();
-        for (fi.vrk.xroad.catalog.persistence.entity.ErrorLog errorLog : errorLogEntries) {
+    public Collection<ErrorLog> convertErrorLog(Iterable<ErrorIncident> errorIncidents) {
+        List<ErrorLog> converted = JaxbServiceUtil.newConvertedList(errorIncidents);
+        for (ErrorIncident incident : errorIncidents) {
             ErrorLog er = new ErrorLog();
-            er.setCreated(JaxbServiceUtil.toXmlGregorianCalendar(errorLog.getCreated()));
-            er.setMessage(errorLog.getMessage());
-            er.setCode(errorLog.getCode());
-            er.setXRoadInstance(errorLog.getXRoadInstance());
-            er.setMemberClass(errorLog.getMemberClass());
-            er.setMemberCode(errorLog.getMemberCode());
-            er.setSubsystemCode(errorLog.getSubsystemCode());
-            er.setGroupCode(errorLog.getGroupCode());
-            er.setServiceCode(errorLog.getServiceCode());
-            er.setServiceVersion(errorLog.getServiceVersion());
-            er.setSecurityCategoryCode(errorLog.getSecurityCategoryCode());
-            er.setServerCode(errorLog.getServerCode());
+            // created is kept for existing clients and carries the latest occurrence
+            er.setCreated(JaxbServiceUtil.toXmlGregorianCalendar(incident.getLastSeen()));
+            er.setFirstSeen(JaxbServiceUtil.toXmlGregorianCalendar(incident.getFirstSeen()));
+            er.setLastSeen(JaxbServiceUtil.toXmlGregorianCalendar(incident.getLastSeen()));
+            er.setCount(incident.getCount());
+            er.setMessage(incident.getMessage());
+            er.setCode(incident.getCode());
+            er.setXRoadInstance(incident.getXRoadInstance());
+            er.setMemberClass(incident.getMemberClass());
+            er.setMemberCode(incident.getMemberCode());
+            er.setSubsystemCode(incident.getSubsystemCode());
+            er.setServiceCode(incident.getServiceCode());
+            er.setServiceVersion(incident.getServiceVersion());
             converted.add(er);
         }
         return converted;
@@ -0,0 +1,49 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.lister;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The bulkheads of the lister. Reports which read large parts of the catalog are kept apart from
+ * the lookups X-Road clients make, so that a few report downloads cannot starve the lookups.
+ * The limits apply to the REST API and the SOAP services together.
+ */
+@Getter
+@Component
+public class ListerBulkheads {
+
+    private final Bulkhead reports;
+
+    private final Bulkhead lookups;
+
+    private final long retryAfterSeconds;
+
+    public ListerBulkheads(MeterRegistry meterRegistry,
+            @Value("${xroad-catalog.report-bulkhead-max-concurrent:4}") int reportMaxConcurrent,
+            @Value("${xroad-catalog.report-bulkhead-max-queued:20}") int reportMaxQueued,
+            @Value("${xroad-catalog.report-bulkhead-max-wait-ms:10000}") long reportMaxWaitMillis,
+            @Value("${xroad-catalog.lookup-bulkhead-max-concurrent:50}") int lookupMaxConcurrent,
+            @Value("${xroad-catalog.lookup-bulkhead-max-queued:100}") int lookupMaxQueued,
+            @Value("${xroad-catalog.lookup-bulkhead-max-wait-ms:2000}") long lookupMaxWaitMillis,
+            @Value("${xroad-catalog.bulkhead-retry-after-seconds:10}") long retryAfterSeconds) {
+        this.reports = new Bulkhead("reports", reportMaxConcurrent, reportMaxQueued, reportMaxWaitMillis);
+        this.lookups = new Bulkhead("lookups", lookupMaxConcurrent, lookupMaxQueued, lookupMaxWaitMillis);
+        this.retryAfterSeconds = retryAfterSeconds;
+        reports.bindTo(meterRegistry);
+        lookups.bindTo(meterRegistry);
+    }
+}
@@ -0,0 +1,193 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.lister;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import fi.vrk.xroad.catalog.persistence.CatalogService;
+import fi.vrk.xroad.catalog.persistence.dto.LastCollectionData;
+import fi.vrk.xroad.catalog.persistence.dto.MemberData;
+import fi.vrk.xroad.catalog.persistence.dto.MemberDataList;
+import fi.vrk.xroad.catalog.persistence.dto.SubsystemData;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-process cache for the results of the heavy lister report queries. The results only change
+ * when the collector writes, so the whole cache is dropped when the latest fetched times of the collected
+ * data change. These are read at most once per check interval. The entries are keyed by the number of
+ * drops so far, so that a result computed from the data of an earlier collection is never returned, even
+ * if its computation finishes after the drop. The weight of a result is the number of rows in it, a day
+ * of member data counting each member, subsystem and service. Hits and misses are published as the
+ * {@code cache.gets} metric tagged with the cache name {@value #CACHE_NAME}.
+ * <p>
+ * Concurrent identical requests share one computation even when the result is not kept, for example
+ * when the cache is disabled or the result is too heavy, so the database sees one query instead of one
+ * per request.
+ */
+@Slf4j
+@Component
+public class ListerCache {
+
+    public static final String CACHE_NAME = "lister";
+
+    public static final String INVALIDATIONS_METRIC = "xroad.catalog.lister.cache.invalidations";
+
+    private final Cache<List<Object>, Object> cache;
+
+    private final CatalogService catalogService;
+
+    private final long checkIntervalMillis;
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private volatile long nextCheckMillis;
+
+    // written under this
+    private volatile LastCollectionData lastCollectionData;
+
+    public ListerCache(CatalogService catalogService,
+            MeterRegistry meterRegistry,
+            @Value("${xroad-catalog.cache-max-weight:100000}") long maxWeight,
+            @Value("${xroad-catalog.cache-check-interval-ms:60000}") long checkIntervalMillis) {
+        this.catalogService = catalogService;
+        this.checkIntervalMillis = checkIntervalMillis;
+        this.cache = CacheBuilder.newBuilder()
+                // the maximum weight is divided between the segments, so with more than one segment
+                // a result heavier than a part of it would never be kept
+                .concurrencyLevel(1)
+                .maximumWeight(maxWeight)
+                .weigher(ListerCache::weigh)
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        FunctionCounter.builder(INVALIDATIONS_METRIC, invalidations, AtomicLong::get)
+                .description("Number of times the lister cache was dropped after a collection")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached result of an operation, computing it if it is not cached. Concurrent callers
+     * of a result which is being computed wait for that computation instead of starting their own.
+     * The parameters must be normalized by the caller, for example dates resolved to the start of the day.
+     *
+     * @param operation  name of the operation
+     * @param loader     computes the result, must not return null
+     * @param parameters parameters the result depends on
+     * @param <T>        type of the result
+     * @return the result, shared between the callers so it must not be modified
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String operation, Supplier<T> loader, Object... parameters) {
+        checkCollection();
+        long generation = invalidations.get();
+        List<Object> key = new ArrayList<>(parameters.length + 2);
+        key.add(generation);
+        key.add(operation);
+        key.addAll(Arrays.asList(parameters));
+        try {
+            T result = (T) cache.get(key, loader::get);
+            if (generation != invalidations.get()) {
+                // computed from the data of an earlier collection, and no longer reachable by key
+                cache.invalidate(key);
+            }
+            return result;
+        } catch (UncheckedExecutionException | ExecutionError e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        } catch (ExecutionException e) {
+            throw new CatalogListerRuntimeException("Exception computing " + operation + ": " + e.getCause());
+        }
+    }
+
+    /**
+     * Returns the latest fetched times of the collected data, read from the database at most once per
+     * check interval. Used as the validator of conditional requests, so that those do not query the
+     * database either.
+     *
+     * @return the latest fetched times, null if not known
+     */
+    public LastCollectionData getLastCollectionData() {
+        checkCollection();
+        return lastCollectionData;
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    private void checkCollection() {
+        long now = System.currentTimeMillis();
+        if (now < nextCheckMillis) {
+            return;
+        }
+        synchronized (this) {
+            if (now < nextCheckMillis) {
+                return;
+            }
+            LastCollectionData current = catalogService.getLastCollectionData();
+            if (!Objects.equals(current, lastCollectionData)) {
+                if (lastCollectionData != null) {
+                    invalidations.incrementAndGet();
+                    cache.invalidateAll();
+                    log.info("Lister cache dropped, the collected data has changed");
+                }
+                lastCollectionData = current;
+            }
+            nextCheckMillis = now + checkIntervalMillis;
+        }
+    }
+
+    private static int weigh(List<Object> key, Object value) {
+        if (!(value instanceof Collection)) {
+            return 1;
+        }
+        long weight = 1;
+        for (Object item : (Collection<?>) value) {
+            weight += item instanceof MemberDataList ? weighMemberData((MemberDataList) item) : 1;
+        }
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    private static long weighMemberData(MemberDataList memberDataList) {
+        long weight = 1;
+        for (MemberData memberData : nullToEmpty(memberDataList.getMemberDataList())) {
+            weight++;
+            for (SubsystemData subsystemData : nullToEmpty(memberData.getSubsystemList())) {
+                weight += 1 + nullToEmpty(subsystemData.getServiceList()).size();
+            }
+        }
+        return weight;
+    }
+
+    private static <T> List<T> nullToEmpty(List<T> list) {
+        return list != null ? list : Collections.emptyList();
+    }
+}
@@ -12,7 +12,9 @@
  */
 package fi.vrk.xroad.catalog.lister;
 
+import fi.vrk.xroad.catalog.lister.util.ErrorLogCursor;
 import fi.vrk.xroad.catalog.lister.util.ServiceUtil;
+import fi.vrk.xroad.catalog.persistence.dto.DescriptorData;
 import fi.vrk.xroad.catalog.persistence.dto.DescriptorInfo;
 import fi.vrk.xroad.catalog.persistence.dto.DistinctServiceStatistics;
 import fi.vrk.xroad.catalog.persistence.dto.DistinctServiceStatisticsResponse;
@@ -21,6 +23,7 @@ import fi.vrk.xroad.catalog.persistence.dto.ErrorLogResponse;
 import fi.vrk.xroad.catalog.persistence.dto.SecurityServerDataList;
 import fi.vrk.xroad.catalog.persistence.dto.SecurityServerInfo;
 import fi.vrk.xroad.catalog.persistence.CatalogService;
+import fi.vrk.xroad.catalog.persistence.dto.ListOfServicesLine;
 import fi.vrk.xroad.catalog.persistence.dto.ListOfServicesResponse;
 import fi.vrk.xroad.catalog.persistence.dto.MemberDataList;
 import fi.vrk.xroad.catalog.persistence.dto.ServiceEndpointsResponse;
@@ -28,9 +31,10 @@ import fi.vrk.xroad.catalog.persistence.dto.ServiceResponse;
 import fi.vrk.xroad.catalog.persistence.dto.ServiceStatistics;
 import fi.vrk.xroad.catalog.persistence.dto.ServiceStatisticsResponse;
 import fi.vrk.xroad.catalog.persistence.dto.XRoadData;
-import fi.vrk.xroad.catalog.persistence.entity.ErrorLog;
+import fi.vrk.xroad.catalog.persistence.entity.ErrorIncident;
 import fi.vrk.xroad.catalog.persistence.entity.Rest;
 import fi.vrk.xroad.catalog.persistence.entity.Service;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.ws.rs.core.MediaType;
 
 import org.apache.commons.csv.CSVFormat;
@@ -40,14 +44,22 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -82,12 +94,32 @@ public class ServiceController implements ServiceOperations {
     private static final String CSV_SERVICE_ACTIVE_HEADER = "Service active";
 
     private static final String LIST_OF_SERVICES_REPORT_NAME = "list_of_services_";
+    private static final String[] LIST_OF_SERVICES_CSV_HEADERS = { CSV_DATE_HEADER,
+            CSV_XROAD_INSTANCE_HEADER,
+            CSV_MEMBER_CLASS_HEADER,
+            CSV_MEMBER_CODE_HEADER,
+            CSV_MEMBER_NAME_HEADER,
+            CSV_MEMBER_CREATED_HEADER,
+            CSV_SUBSYSTEM_CODE_HEADER,
+            CSV_SUBSYSTEM_CREATED_HEADER,
+            CSV_SUBSYSTEM_ACTIVE_HEADER,
+            CSV_SERVICE_CODE_HEADER,
+            CSV_SERVICE_VERSION_HEADER,
+            CSV_SERVICE_CREATED_HEADER,
+            CSV_SERVICE_ACTIVE_HEADER };
+
     @Autowired
     private CatalogService catalogService;
 
+    @Autowired
+    private ListerCache listerCache;
+
     @Autowired
     private SharedParamsParser sharedParamsParser;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Override
     public ResponseEntity<ErrorLogResponse> listErrors(@PathVariable(required = false) String xRoadInstance,
             @PathVariable(required = false) String memberClass,
@@ -96,22 +128,42 @@ public class ServiceController implements ServiceOperations {
             @RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate,
             @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer limit) {
-        page = (page == null) ? 0 : page;
-        limit = (limit == null) ? 100 : limit;
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Boolean count) {
         LocalDateTime startDateTime;
         LocalDateTime endDateTime;
+        ErrorLogCursor after;
         try {
             startDateTime = ServiceUtil.convertStringToLocalDateTime(startDate);
             endDateTime = ServiceUtil.convertStringToLocalDateTime(endDate);
+            after = ErrorLogCursor.decode(cursor);
+            limit = ErrorLogCursor.pageSize(limit == null ? 100 : limit);
         } catch (CatalogListerRuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
+        if (page != null && page < 0) {
+            return ResponseEntity.badRequest().build();
+        }
         XRoadData xRoadData = XRoadData.builder().xRoadInstance(xRoadInstance).memberClass(memberClass)
                 .memberCode(memberCode).subsystemCode(subsystemCode).build();
-        Page<ErrorLog> errors = catalogService.getErrors(xRoadData, page, limit, startDateTime, endDateTime);
-        return ResponseEntity.ok(ErrorLogResponse.builder().pageNumber(page).pageSize(limit)
-                .numberOfPages(errors.getTotalPages()).errorLogList(errors.getContent()).build());
+        if (page != null && cursor == null) {
+            Page<ErrorIncident> errors = catalogService.getErrorIncidents(xRoadData, page, limit, startDateTime,
+                    endDateTime);
+            return ResponseEntity.ok(ErrorLogResponse.builder().pageNumber(page).pageSize(limit)
+                    .numberOfPages(errors.getTotalPages()).errorLogList(errors.getContent()).build());
+        }
+        // pages after the first one are requested with the continuation token instead of a page number
+        List<ErrorIncident> errors = catalogService.getErrorIncidentsAfter(xRoadData, startDateTime, endDateTime,
+                after.getId(), limit + 1);
+        Integer numberOfPages = null;
+        if (count == null || count) {
+            long numberOfErrors = catalogService.countErrorIncidents(xRoadData, startDateTime, endDateTime);
+            numberOfPages = (int) ((numberOfErrors + limit - 1) / limit);
+        }
+        return ResponseEntity.ok(ErrorLogResponse.builder().pageNumber(cursor == null ? 0 : null).pageSize(limit)
+                .numberOfPages(numberOfPages).errorLogList(ErrorLogCursor.page(errors, limit))
+                .nextCursor(ErrorLogCursor.nextPage(errors, limit)).build());
     }
 
     @Override
@@ -126,8 +178,9 @@ public class ServiceController implements ServiceOperations {
         } catch (CatalogListerRuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
-        List<DistinctServiceStatistics> serviceStatisticsList = catalogService
-                .getDistinctServiceStatistics(startDateTime, endDateTime);
+        List<DistinctServiceStatistics> serviceStatisticsList = listerCache.get("getDistinctServiceStatistics",
+                () -> catalogService.getDistinctServiceStatistics(startDateTime, endDateTime), startDateTime,
+                endDateTime);
         return ResponseEntity.ok(DistinctServiceStatisticsResponse.builder()
                 .distinctServiceStatisticsList(serviceStatisticsList).build());
     }
@@ -144,15 +197,15 @@ public class ServiceController implements ServiceOperations {
         } catch (CatalogListerRuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
-        List<ServiceStatistics> serviceStatisticsList = catalogService.getServiceStatistics(startDateTime,
-                endDateTime);
+        List<ServiceStatistics> serviceStatisticsList = listerCache.get("getServiceStatistics",
+                () -> catalogService.getServiceStatistics(startDateTime, endDateTime), startDateTime, endDateTime);
         return ResponseEntity
                 .ok(ServiceStatisticsResponse.builder().serviceStatisticsList(serviceStatisticsList)
                         .build());
     }
 
     @Override
-    public ResponseEntity<ByteArrayResource> getServiceStatisticsCSV(
+    public ResponseEntity<StreamingResponseBody> getServiceStatisticsCSV(
             @RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate) {
         LocalDateTime startDateTime;
@@ -163,15 +216,14 @@ public class ServiceController implements ServiceOperations {
         } catch (CatalogListerRuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
-        List<ServiceStatistics> serviceStatisticsList = catalogService.getServiceStatistics(startDateTime,
-                endDateTime);
-        try {
-            StringWriter sw = new StringWriter();
-            CSVPrinter csvPrinter = new CSVPrinter(sw,
-                    CSVFormat.Builder.create().setDelimiter(",").setHeader(CSV_DATE_HEADER,
-                            CSV_NUMBER_OF_REST_SERVICES_HEADER,
-                            CSV_NUMBER_OF_SOAP_SERVICES_HEADER,
-                            CSV_NUMBER_OF_OPENAPI_SERVICES_HEADER).build());
+        List<ServiceStatistics> serviceStatisticsList = listerCache.get("getServiceStatistics",
+                () -> catalogService.getServiceStatistics(startDateTime, endDateTime), startDateTime, endDateTime);
+        String reportName = SERVICE_STATISTICS_REPORT_NAME + LocalDateTime.now();
+        StreamingResponseBody body = outputStream -> {
+            CSVPrinter csvPrinter = createCSVPrinter(outputStream, CSV_DATE_HEADER,
+                    CSV_NUMBER_OF_REST_SERVICES_HEADER,
+                    CSV_NUMBER_OF_SOAP_SERVICES_HEADER,
+                    CSV_NUMBER_OF_OPENAPI_SERVICES_HEADER);
             if (serviceStatisticsList != null) {
                 serviceStatisticsList.forEach(serviceStatistics -> ServiceUtil.printCSVRecord(
                         csvPrinter,
@@ -181,16 +233,12 @@ public class ServiceController implements ServiceOperations {
                                 serviceStatistics.getNumberOfOpenApiServices()
                                         .toString())));
             }
-            String reportName = SERVICE_STATISTICS_REPORT_NAME + LocalDateTime.now();
-            sw.close();
-            csvPrinter.close();
-            return ResponseEntity.ok()
-                    .header("Content-Disposition", "attachment; filename=" + reportName + ".csv")
-                    .contentType(org.springframework.http.MediaType.parseMediaType("text/csv"))
-                    .body(new ByteArrayResource(sw.toString().getBytes()));
-        } catch (IOException e) {
-            return ResponseEntity.badRequest().build();
-        }
+            csvPrinter.flush();
+        };
+        return ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=" + reportName + ".csv")
+                .contentType(org.springframework.http.MediaType.parseMediaType("text/csv"))
+                .body(body);
     }
 
     @Override
@@ -207,7 +255,8 @@ public class ServiceController implements ServiceOperations {
         }
         List<SecurityServerInfo> securityServerList = ServiceUtil.getSecurityServerInfoList(sharedParamsParser,
                 sharedParamsFile);
-        List<MemberDataList> memberDataList = catalogService.getMemberData(startDateTime, endDateTime);
+        List<MemberDataList> memberDataList = listerCache.get("getMemberData",
+                () -> catalogService.getMemberData(startDateTime, endDateTime), startDateTime, endDateTime);
         return ResponseEntity.ok(ListOfServicesResponse.builder().memberData(memberDataList)
                 .securityServerData(securityServerList).build());
     }
@@ -225,24 +274,12 @@ public class ServiceController implements ServiceOperations {
         }
         List<SecurityServerInfo> securityServerList = ServiceUtil.getSecurityServerInfoList(sharedParamsParser,
                 sharedParamsFile);
-        List<MemberDataList> memberDataList = catalogService.getMemberData(startDateTime, endDateTime);
+        List<MemberDataList> memberDataList = listerCache.get("getMemberData",
+                () -> catalogService.getMemberData(startDateTime, endDateTime), startDateTime, endDateTime);
         try {
             StringWriter sw = new StringWriter();
             CSVPrinter csvPrinter = new CSVPrinter(sw,
-                    CSVFormat.Builder.create().setDelimiter(",").setHeader(
-                            CSV_DATE_HEADER,
-                            CSV_XROAD_INSTANCE_HEADER,
-                            CSV_MEMBER_CLASS_HEADER,
-                            CSV_MEMBER_CODE_HEADER,
-                            CSV_MEMBER_NAME_HEADER,
-                            CSV_MEMBER_CREATED_HEADER,
-                            CSV_SUBSYSTEM_CODE_HEADER,
-                            CSV_SUBSYSTEM_CREATED_HEADER,
-                            CSV_SUBSYSTEM_ACTIVE_HEADER,
-                            CSV_SERVICE_CODE_HEADER,
-                            CSV_SERVICE_VERSION_HEADER,
-                            CSV_SERVICE_CREATED_HEADER,
-                            CSV_SERVICE_ACTIVE_HEADER).build());
+                    CSVFormat.Builder.create().setDelimiter(",").setHeader(LIST_OF_SERVICES_CSV_HEADERS).build());
             if (memberDataList != null) {
                 ServiceUtil.printListOfServicesCSV(csvPrinter, memberDataList, securityServerList);
             }
@@ -258,6 +295,65 @@ public class ServiceController implements ServiceOperations {
         }
     }
 
+    @Override
+    public ResponseEntity<StreamingResponseBody> getListOfServicesStream(
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate) {
+        LocalDateTime startDateTime;
+        LocalDateTime endDateTime;
+        try {
+            startDateTime = ServiceUtil.convertStringToLocalDateTime(startDate);
+            endDateTime = ServiceUtil.convertStringToLocalDateTime(endDate);
+        } catch (CatalogListerRuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        // one member per line, members are written while they are read from the database
+        StreamingResponseBody body = outputStream -> catalogService.streamMemberData(startDateTime, endDateTime,
+                (date, memberData) -> memberData.forEach(member -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(
+                                ListOfServicesLine.builder().date(date).memberData(member).build()));
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new CatalogListerRuntimeException("Exception writing list of services: "
+                                + e.getMessage());
+                    }
+                }));
+        return ResponseEntity.ok()
+                .contentType(org.springframework.http.MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> getListOfServicesCSVStream(
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate) {
+        LocalDateTime startDateTime;
+        LocalDateTime endDateTime;
+        try {
+            startDateTime = ServiceUtil.convertStringToLocalDateTime(startDate);
+            endDateTime = ServiceUtil.convertStringToLocalDateTime(endDate);
+        } catch (CatalogListerRuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<SecurityServerInfo> securityServerList = ServiceUtil.getSecurityServerInfoList(sharedParamsParser,
+                sharedParamsFile);
+        String reportName = LIST_OF_SERVICES_REPORT_NAME + LocalDateTime.now();
+        StreamingResponseBody body = outputStream -> {
+            CSVPrinter csvPrinter = createCSVPrinter(outputStream, LIST_OF_SERVICES_CSV_HEADERS);
+            catalogService.streamMemberData(startDateTime, endDateTime, (date, memberData) -> {
+                ServiceUtil.printDateCSV(csvPrinter, date);
+                memberData.forEach(member -> ServiceUtil.printMemberDataCSV(csvPrinter, member));
+            });
+            ServiceUtil.printSecurityServersCSV(csvPrinter, securityServerList);
+            csvPrinter.flush();
+        };
+        return ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=" + reportName + ".csv")
+                .contentType(org.springframework.http.MediaType.parseMediaType("text/csv"))
+                .body(body);
+    }
+
     @Override
     public ResponseEntity<SecurityServerDataList> listSecurityServers() {
         return ResponseEntity.ok(ServiceUtil.getSecurityServerDataList(sharedParamsParser, sharedParamsFile));
@@ -285,6 +381,20 @@ public class ServiceController implements ServiceOperations {
         return ResponseEntity.ok(response);
     }
 
+    @Override
+    public ResponseEntity<Resource> getWsdl(@PathVariable String externalId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return getDescriptor(catalogService.getWsdlDescriptor(externalId), acceptEncoding,
+                org.springframework.http.MediaType.TEXT_XML);
+    }
+
+    @Override
+    public ResponseEntity<Resource> getOpenApi(@PathVariable String externalId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return getDescriptor(catalogService.getOpenApiDescriptor(externalId), acceptEncoding,
+                org.springframework.http.MediaType.TEXT_PLAIN);
+    }
+
     @Override
     public ResponseEntity<ServiceResponse> getRest(@PathVariable String xRoadInstance,
             @PathVariable String memberClass,
@@ -306,6 +416,27 @@ public class ServiceController implements ServiceOperations {
         return ResponseEntity.ok(ServiceResponse.builder().listOfServices(listOfServices).build());
     }
 
+    private static ResponseEntity<Resource> getDescriptor(DescriptorData descriptorData, String acceptEncoding,
+            org.springframework.http.MediaType mediaType) {
+        if (descriptorData == null) {
+            return ResponseEntity.notFound().build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(new org.springframework.http.MediaType(mediaType, StandardCharsets.UTF_8))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (ServiceUtil.acceptsGzip(acceptEncoding)) {
+            // the stored bytes as such, without decompressing and compressing them again
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(new ByteArrayResource(descriptorData.getGzip()));
+        }
+        return response.body(new InputStreamResource(descriptorData.openText()));
+    }
+
+    private static CSVPrinter createCSVPrinter(OutputStream outputStream, String... headers) throws IOException {
+        return new CSVPrinter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8),
+                CSVFormat.Builder.create().setDelimiter(",").setHeader(headers).build());
+    }
+
     private ServiceEndpointsResponse getServiceEndpointsResponse(Service service,
             String xRoadInstance,
             String memberClass,
@@ -15,21 +15,22 @@ package fi.vrk.xroad.catalog.lister;
 import fi.vrk.xroad.catalog.lister.generated.GetErrors;
 import fi.vrk.xroad.catalog.lister.generated.GetErrorsResponse;
 import fi.vrk.xroad.catalog.lister.generated.GetOpenAPI;
-import fi.vrk.xroad.catalog.lister.generated.GetOpenAPIResponse;
 import fi.vrk.xroad.catalog.lister.generated.GetServiceType;
 import fi.vrk.xroad.catalog.lister.generated.GetServiceTypeResponse;
 import fi.vrk.xroad.catalog.lister.generated.GetWsdl;
-import fi.vrk.xroad.catalog.lister.generated.GetWsdlResponse;
 import fi.vrk.xroad.catalog.lister.generated.IsProvider;
 import fi.vrk.xroad.catalog.lister.generated.IsProviderResponse;
 import fi.vrk.xroad.catalog.lister.generated.ListMembers;
-import fi.vrk.xroad.catalog.lister.generated.ListMembersResponse;
 import org.springframework.context.annotation.Profile;
+import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.server.endpoint.annotation.Endpoint;
 import org.springframework.ws.server.endpoint.annotation.PayloadRoot;
 import org.springframework.ws.server.endpoint.annotation.RequestPayload;
 import org.springframework.ws.server.endpoint.annotation.ResponsePayload;
 
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+
 @Endpoint
 @Profile({ "default", "fi" })
 public interface ServiceEndpoint {
@@ -38,9 +39,13 @@ public interface ServiceEndpoint {
 
     String NOT_FOUND = " not found";
 
+    // page size of GetErrors when the request has no limit
+    int DEFAULT_ERRORS_LIMIT = 1000;
+
+    // the response is streamed, see StreamingSoapResponse
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "ListMembers")
-    @ResponsePayload
-    ListMembersResponse listMembers(@RequestPayload ListMembers request);
+    void listMembers(@RequestPayload ListMembers request, MessageContext messageContext)
+            throws IOException, XMLStreamException;
 
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "GetServiceType")
     @ResponsePayload
@@ -50,13 +55,15 @@ public interface ServiceEndpoint {
     @ResponsePayload
     IsProviderResponse isProvider(@RequestPayload IsProvider request);
 
+    // the response is streamed, see StreamingSoapResponse
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "GetWsdl")
-    @ResponsePayload
-    GetWsdlResponse getWsdl(@RequestPayload GetWsdl request);
+    void getWsdl(@RequestPayload GetWsdl request, MessageContext messageContext)
+            throws IOException, XMLStreamException;
 
+    // the response is streamed, see StreamingSoapResponse
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "GetOpenAPI")
-    @ResponsePayload
-    GetOpenAPIResponse getOpenApi(@RequestPayload GetOpenAPI request);
+    void getOpenApi(@RequestPayload GetOpenAPI request, MessageContext messageContext)
+            throws IOException, XMLStreamException;
 
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "GetErrors")
     @ResponsePayload
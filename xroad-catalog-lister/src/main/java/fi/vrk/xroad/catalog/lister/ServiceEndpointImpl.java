@@ -12,42 +12,44 @@
  */
 package fi.vrk.xroad.catalog.lister;
 
-import com.google.common.collect.Lists;
-
-import fi.vrk.xroad.catalog.lister.generated.ErrorLog;
-import fi.vrk.xroad.catalog.lister.generated.ErrorLogList;
 import fi.vrk.xroad.catalog.lister.generated.GetErrors;
 import fi.vrk.xroad.catalog.lister.generated.GetErrorsResponse;
 import fi.vrk.xroad.catalog.lister.generated.GetOpenAPI;
-import fi.vrk.xroad.catalog.lister.generated.GetOpenAPIResponse;
 import fi.vrk.xroad.catalog.lister.generated.GetServiceType;
 import fi.vrk.xroad.catalog.lister.generated.GetServiceTypeResponse;
 import fi.vrk.xroad.catalog.lister.generated.GetWsdl;
-import fi.vrk.xroad.catalog.lister.generated.GetWsdlResponse;
 import fi.vrk.xroad.catalog.lister.generated.IsProvider;
 import fi.vrk.xroad.catalog.lister.generated.IsProviderResponse;
 import fi.vrk.xroad.catalog.lister.generated.ListMembers;
-import fi.vrk.xroad.catalog.lister.generated.ListMembersResponse;
 import fi.vrk.xroad.catalog.lister.generated.Member;
-import fi.vrk.xroad.catalog.lister.generated.MemberList;
 import fi.vrk.xroad.catalog.persistence.CatalogService;
-import fi.vrk.xroad.catalog.persistence.entity.OpenApi;
-import fi.vrk.xroad.catalog.persistence.entity.Wsdl;
-import fi.vrk.xroad.catalog.persistence.entity.Service;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
+import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.server.endpoint.annotation.Endpoint;
 import org.springframework.ws.server.endpoint.annotation.PayloadRoot;
 import org.springframework.ws.server.endpoint.annotation.RequestPayload;
 import org.springframework.ws.server.endpoint.annotation.ResponsePayload;
-import java.util.concurrent.atomic.AtomicReference;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
 
 @Endpoint
 @Slf4j
 @Profile({ "default", "fi" })
 public class ServiceEndpointImpl implements ServiceEndpoint {
 
+    private static final QName MEMBER_ELEMENT = new QName(NAMESPACE_URI, "member");
+
+    private static final JAXBContext MEMBER_CONTEXT = newMemberContext();
+
     @Autowired
     private CatalogService catalogService;
 
@@ -56,17 +58,27 @@ public class ServiceEndpointImpl implements ServiceEndpoint {
 
     @Override
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "ListMembers")
-    @ResponsePayload
-    public ListMembersResponse listMembers(@RequestPayload ListMembers request) {
+    public void listMembers(@RequestPayload ListMembers request, MessageContext messageContext)
+            throws IOException, XMLStreamException {
         if (request.getStartDateTime() == null || request.getEndDateTime() == null) {
             throw new CatalogListerRuntimeException("startDateTime and endDateTIme parameters are missing");
         }
-        ListMembersResponse response = new ListMembersResponse();
-        response.setMemberList(new MemberList());
-        Iterable<Member> members = jaxbCatalogService.getAllMembers(request.getStartDateTime(),
-                request.getEndDateTime());
-        response.getMemberList().getMember().addAll(Lists.newArrayList(members));
-        return response;
+        Marshaller marshaller = createMemberMarshaller();
+        // members are written to the response one at a time while they are read from the database
+        StreamingSoapResponse.write(messageContext, writer -> {
+            writer.writeStartElement(XMLConstants.DEFAULT_NS_PREFIX, "ListMembersResponse", NAMESPACE_URI);
+            writer.writeDefaultNamespace(NAMESPACE_URI);
+            writer.writeStartElement(XMLConstants.DEFAULT_NS_PREFIX, "memberList", NAMESPACE_URI);
+            jaxbCatalogService.streamAllMembers(request.getStartDateTime(), request.getEndDateTime(), member -> {
+                try {
+                    marshaller.marshal(new JAXBElement<>(MEMBER_ELEMENT, Member.class, member), writer);
+                } catch (JAXBException e) {
+                    throw new CatalogListerRuntimeException("Exception writing member: " + e.getMessage());
+                }
+            });
+            writer.writeEndElement();
+            writer.writeEndElement();
+        });
     }
 
     @Override
@@ -74,13 +86,13 @@ public class ServiceEndpointImpl implements ServiceEndpoint {
     @ResponsePayload
     public GetServiceTypeResponse getServiceType(@RequestPayload GetServiceType request) {
         GetServiceTypeResponse response = new GetServiceTypeResponse();
-        Service service = catalogService.getService(request.getXRoadInstance(),
+        String serviceType = catalogService.getServiceType(request.getXRoadInstance(),
                 request.getMemberClass(),
                 request.getMemberCode(),
                 request.getServiceCode(),
                 request.getSubsystemCode(),
                 request.getServiceVersion());
-        if (service == null) {
+        if (serviceType == null) {
             throw new CatalogListerRuntimeException("Service with xRoadInstance \"" + request.getXRoadInstance()
                     + "\", memberClass \"" + request.getMemberClass()
                     + "\", memberCode \"" + request.getMemberCode()
@@ -88,13 +100,7 @@ public class ServiceEndpointImpl implements ServiceEndpoint {
                     + "\", serviceCode \"" + request.getServiceCode()
                     + "\" and serviceVersion \"" + request.getServiceVersion() + "\" not found");
         }
-        if (service.hasWsdl()) {
-            response.setType("SOAP");
-        } else if (service.hasOpenApi()) {
-            response.setType("OPENAPI");
-        } else {
-            response.setType("REST");
-        }
+        response.setType(serviceType);
         return response;
     }
 
@@ -102,72 +108,88 @@ public class ServiceEndpointImpl implements ServiceEndpoint {
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "IsProvider")
     @ResponsePayload
     public IsProviderResponse isProvider(@RequestPayload IsProvider request) {
-        AtomicReference<Boolean> isProvider = new AtomicReference<>();
-        isProvider.set(Boolean.FALSE);
-        fi.vrk.xroad.catalog.persistence.entity.Member member = catalogService.getMember(request.getXRoadInstance(),
-                request.getMemberClass(), request.getMemberCode());
+        Boolean isProvider = catalogService.isProvider(request.getXRoadInstance(), request.getMemberClass(),
+                request.getMemberCode());
 
-        if (member == null) {
+        if (isProvider == null) {
             throw new CatalogListerRuntimeException("Member with xRoadInstance \"" + request.getXRoadInstance()
                     + "\", memberClass \"" + request.getMemberClass()
                     + "\" and memberCode \"" + request.getMemberCode() + "\" not found");
         }
 
-        member.getAllSubsystems().forEach(subsystem -> {
-            subsystem.getAllServices().forEach(service -> {
-                if (service.hasWsdl() || service.hasOpenApi() || service.hasRest()) {
-                    isProvider.set(Boolean.TRUE);
-                }
-            });
-        });
-
         IsProviderResponse response = new IsProviderResponse();
-        response.setProvider(isProvider.get());
+        response.setProvider(isProvider);
         return response;
     }
 
     @Override
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "GetWsdl")
-    @ResponsePayload
-    public GetWsdlResponse getWsdl(@RequestPayload GetWsdl request) {
-        GetWsdlResponse response = new GetWsdlResponse();
-        Wsdl wsdl = catalogService.getWsdl(request.getExternalId());
+    public void getWsdl(@RequestPayload GetWsdl request, MessageContext messageContext)
+            throws IOException, XMLStreamException {
+        String wsdl = catalogService.getWsdlData(request.getExternalId());
         if (wsdl == null) {
             throw new CatalogListerRuntimeException("wsdl with external id " + request.getExternalId() + NOT_FOUND);
         }
-        response.setWsdl(wsdl.getData());
-        return response;
+        // the wsdl is written as CDATA while serializing, instead of converting the text node of a SAAJ message
+        StreamingSoapResponse.write(messageContext, writer -> {
+            writer.writeStartElement(XMLConstants.DEFAULT_NS_PREFIX, "GetWsdlResponse", NAMESPACE_URI);
+            writer.writeDefaultNamespace(NAMESPACE_URI);
+            writer.writeStartElement(XMLConstants.DEFAULT_NS_PREFIX, "wsdl", NAMESPACE_URI);
+            StreamingSoapResponse.writeCData(writer, wsdl);
+            writer.writeEndElement();
+            writer.writeEndElement();
+        });
     }
 
     @Override
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "GetOpenAPI")
-    @ResponsePayload
-    public GetOpenAPIResponse getOpenApi(@RequestPayload GetOpenAPI request) {
-        GetOpenAPIResponse response = new GetOpenAPIResponse();
-        OpenApi openApi = catalogService.getOpenApi(request.getExternalId());
+    public void getOpenApi(@RequestPayload GetOpenAPI request, MessageContext messageContext)
+            throws IOException, XMLStreamException {
+        String openApi = catalogService.getOpenApiData(request.getExternalId());
         if (openApi == null) {
             throw new CatalogListerRuntimeException("OpenApi with external id " + request.getExternalId() + NOT_FOUND);
         }
-        response.setOpenapi(openApi.getData());
-        return response;
+        StreamingSoapResponse.write(messageContext, writer -> {
+            writer.writeStartElement(XMLConstants.DEFAULT_NS_PREFIX, "GetOpenAPIResponse", NAMESPACE_URI);
+            writer.writeDefaultNamespace(NAMESPACE_URI);
+            writer.writeStartElement(XMLConstants.DEFAULT_NS_PREFIX, "openapi", NAMESPACE_URI);
+            writer.writeCharacters(openApi);
+            writer.writeEndElement();
+            writer.writeEndElement();
+        });
     }
 
     @Override
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "GetErrors")
     @ResponsePayload
     public GetErrorsResponse getErrors(@RequestPayload GetErrors request) {
-        GetErrorsResponse response = new GetErrorsResponse();
-        response.setErrorLogList(new ErrorLogList());
-        Iterable<ErrorLog> errorLogEntries = jaxbCatalogService.getErrorLog(request.getStartDateTime(),
-                request.getEndDateTime());
-        if (errorLogEntries != null && !errorLogEntries.iterator().hasNext()) {
+        int limit = request.getLimit() != null ? request.getLimit() : DEFAULT_ERRORS_LIMIT;
+        GetErrorsResponse response = jaxbCatalogService.getErrors(request.getStartDateTime(),
+                request.getEndDateTime(), request.getCursor(), limit, Boolean.TRUE.equals(request.isCount()));
+        if (response == null
+                || (request.getCursor() == null && response.getErrorLogList().getErrorLog().isEmpty())) {
             throw new CatalogListerRuntimeException("ErrorLog entries since "
                     + request.getStartDateTime().toString() + " until " + request.getEndDateTime().toString()
                     + NOT_FOUND);
         }
-        response.getErrorLogList().getErrorLog().addAll(errorLogEntries != null
-                ? Lists.newArrayList(errorLogEntries)
-                : Lists.newArrayList());
         return response;
     }
+
+    private static Marshaller createMemberMarshaller() {
+        try {
+            Marshaller marshaller = MEMBER_CONTEXT.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+            return marshaller;
+        } catch (JAXBException e) {
+            throw new CatalogListerRuntimeException("Cannot create Member marshaller");
+        }
+    }
+
+    private static JAXBContext newMemberContext() {
+        try {
+            return JAXBContext.newInstance(Member.class);
+        } catch (JAXBException e) {
+            throw new CatalogListerRuntimeException("Cannot instantiate JAXBContext for Member");
+        }
+    }
 }
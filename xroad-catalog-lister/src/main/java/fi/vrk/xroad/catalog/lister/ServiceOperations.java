@@ -13,9 +13,11 @@
 package fi.vrk.xroad.catalog.lister;
 
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
@@ -35,7 +37,9 @@ public interface ServiceOperations {
             @RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate,
             @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer limit);
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Boolean count);
 
     @GetMapping(path = "/getDistinctServiceStatistics", produces = "application/json")
     ResponseEntity<?> getDistinctServiceStatistics(@RequestParam(required = false) String startDate,
@@ -57,6 +61,14 @@ public interface ServiceOperations {
     ResponseEntity<?> getListOfServicesCSV(@RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate);
 
+    @GetMapping(path = "/getListOfServicesStream", produces = "application/x-ndjson")
+    ResponseEntity<?> getListOfServicesStream(@RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate);
+
+    @GetMapping(path = "/getListOfServicesCSVStream", produces = "text/csv")
+    ResponseEntity<?> getListOfServicesCSVStream(@RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate);
+
     @GetMapping(path = "/listSecurityServers", produces = "application/json")
     ResponseEntity<?> listSecurityServers();
 
@@ -71,6 +83,14 @@ public interface ServiceOperations {
             @PathVariable String subsystemCode,
             @PathVariable String serviceCode);
 
+    @GetMapping(path = "/getWsdl/{externalId}", produces = "text/xml")
+    ResponseEntity<?> getWsdl(@PathVariable String externalId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding);
+
+    @GetMapping(path = "/getOpenApi/{externalId}", produces = "text/plain")
+    ResponseEntity<?> getOpenApi(@PathVariable String externalId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding);
+
     @GetMapping(path = "/getRest/{xRoadInstance}/{memberClass}/{memberCode}/{subsystemCode}/{serviceCode}", produces = "application/json")
     ResponseEntity<?> getRest(@PathVariable String xRoadInstance,
             @PathVariable String memberClass,
@@ -12,7 +12,6 @@
  */
 package fi.vrk.xroad.catalog.lister;
 
-import com.google.common.collect.Lists;
 import fi.vrk.xroad.catalog.persistence.dto.DescriptorInfo;
 import fi.vrk.xroad.catalog.persistence.dto.Email;
 import fi.vrk.xroad.catalog.persistence.dto.MemberInfo;
@@ -20,6 +19,8 @@ import fi.vrk.xroad.catalog.persistence.dto.SecurityServerData;
 import fi.vrk.xroad.catalog.persistence.dto.SecurityServerDataList;
 import fi.vrk.xroad.catalog.persistence.dto.SecurityServerInfo;
 import fi.vrk.xroad.catalog.persistence.dto.SubsystemName;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
@@ -37,8 +38,11 @@ import javax.xml.parsers.ParserConfigurationException;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Slf4j
@@ -67,11 +71,15 @@ public class SharedParamsParser {
     @Autowired
     private Environment environment;
 
+    // parsed content of the file read last, replaced when the file changes
+    private volatile SharedParams sharedParams;
+
     /**
      * Parses security server information from X-Road global configuration
      * shared-params.xml.
      * Matches member elements with securityServer elements to gather the
      * information.
+     * The file is parsed only when it has changed since the previous call.
      *
      * @return list of {@link SecurityServerInfo} objects
      * @throws ParserConfigurationException when there are issues with parsing the
@@ -82,41 +90,7 @@ public class SharedParamsParser {
      */
     public Set<SecurityServerInfo> parseInfo(String sharedParamsFile)
             throws ParserConfigurationException, IOException, SAXException {
-        Document document = parseInputAndConvertToXmlDocument(new File(sharedParamsFile));
-        Element root = document.getDocumentElement();
-        String xRoadInstance = root.getChildNodes().item(1).getFirstChild().getNodeValue();
-        NodeList members = root.getElementsByTagName(MEMBER);
-        NodeList securityServers = root.getElementsByTagName(SECURITY_SERVER);
-        Set<SecurityServerInfo> securityServerInfos = new HashSet<>();
-
-        for (int i = 0; i < securityServers.getLength(); i++) {
-            Node securityServer = securityServers.item(i);
-            if (securityServer.getNodeType() == Node.ELEMENT_NODE) {
-                Element securityServerElement = (Element) securityServer;
-                String owner = securityServerElement.getElementsByTagName(OWNER).item(0).getTextContent();
-                String serverCode = securityServerElement.getElementsByTagName(SERVER_CODE).item(0).getTextContent();
-                String address = securityServerElement.getElementsByTagName(ADDRESS).item(0).getTextContent();
-                for (int j = 0; j < members.getLength(); j++) {
-                    Node member = members.item(j);
-                    if (member.getNodeType() == Node.ELEMENT_NODE) {
-                        Element memberElement = (Element) member;
-                        if (memberElement.getAttribute(ID).equals(owner)) {
-                            Element memberClassElement = (Element) memberElement.getElementsByTagName(MEMBER_CLASS)
-                                    .item(0);
-                            String memberClass = memberClassElement.getElementsByTagName(CODE).item(0).getTextContent();
-                            String memberCode = memberElement.getElementsByTagName(MEMBER_CODE).item(0)
-                                    .getTextContent();
-                            SecurityServerInfo info = new SecurityServerInfo(xRoadInstance, serverCode, address,
-                                    memberClass, memberCode);
-                            securityServerInfos.add(info);
-                            break;
-                        }
-                    }
-                }
-            }
-        }
-        log.debug("Result set: {}", securityServerInfos.toString());
-        return securityServerInfos;
+        return getSharedParams(sharedParamsFile).getSecurityServerInfos();
     }
 
     /**
@@ -124,6 +98,7 @@ public class SharedParamsParser {
      * shared-params.xml.
      * Matches member elements with securityServer elements to gather the
      * information.
+     * The file is parsed only when it has changed since the previous call.
      *
      * @return list of {@link SecurityServerInfo} objects
      * @throws ParserConfigurationException when there are issues with parsing the
@@ -134,11 +109,7 @@ public class SharedParamsParser {
      */
     public SecurityServerDataList parseDetails(String sharedParamsFile)
             throws ParserConfigurationException, IOException, SAXException {
-        Document document = parseInputAndConvertToXmlDocument(new File(sharedParamsFile));
-        Element root = document.getDocumentElement();
-        List<SecurityServerData> securityServerList = getSecurityServerDataList(
-                root.getElementsByTagName(SECURITY_SERVER), root.getElementsByTagName(MEMBER));
-        return SecurityServerDataList.builder().securityServerDataList(securityServerList).build();
+        return getSharedParams(sharedParamsFile).getSecurityServerDataList();
     }
 
     /**
@@ -146,6 +117,7 @@ public class SharedParamsParser {
      * shared-params.xml.
      * Matches member elements with securityServer elements to gather the
      * information.
+     * The file is parsed only when it has changed since the previous call.
      *
      * @return list of {@link SecurityServerInfo} objects
      * @throws ParserConfigurationException when there are issues with parsing the
@@ -156,12 +128,43 @@ public class SharedParamsParser {
      */
     public List<DescriptorInfo> parseDescriptorInfo(String sharedParamsFile)
             throws ParserConfigurationException, IOException, SAXException {
-        Document document = parseInputAndConvertToXmlDocument(new File(sharedParamsFile));
+        return getSharedParams(sharedParamsFile).getDescriptorInfos();
+    }
+
+    private SharedParams getSharedParams(String sharedParamsFile)
+            throws ParserConfigurationException, IOException, SAXException {
+        File file = new File(sharedParamsFile);
+        SharedParams current = sharedParams;
+        if (current != null && current.isReadFrom(file)) {
+            return current;
+        }
+        synchronized (this) {
+            current = sharedParams;
+            if (current == null || !current.isReadFrom(file)) {
+                current = parseSharedParams(file);
+                sharedParams = current;
+                log.info("Parsed {} security servers and {} descriptors from {}",
+                        current.getSecurityServerDataList().getSecurityServerDataList().size(),
+                        current.getDescriptorInfos().size(), sharedParamsFile);
+            }
+            return current;
+        }
+    }
+
+    private SharedParams parseSharedParams(File file)
+            throws ParserConfigurationException, IOException, SAXException {
+        // read before parsing, a change made during parsing is then picked up by the next call
+        long lastModified = file.lastModified();
+        long length = file.length();
+        Document document = parseInputAndConvertToXmlDocument(file);
         Element root = document.getDocumentElement();
         String xRoadInstance = root.getChildNodes().item(1).getFirstChild().getNodeValue();
-        NodeList members = root.getElementsByTagName(MEMBER);
-        List<DescriptorInfo> descriptorInfos = new ArrayList<>();
 
+        // member and subsystem ids are used by the securityServer elements to refer to their owners and clients
+        Map<String, MemberInfo> membersById = new HashMap<>();
+        Map<String, MemberInfo> subsystemsById = new HashMap<>();
+        List<DescriptorInfo> descriptorInfos = new ArrayList<>();
+        NodeList members = root.getElementsByTagName(MEMBER);
         for (int j = 0; j < members.getLength(); j++) {
             Node member = members.item(j);
             if (member.getNodeType() == Node.ELEMENT_NODE) {
@@ -170,35 +173,51 @@ public class SharedParamsParser {
                 String memberClass = memberClassElement.getElementsByTagName(CODE).item(0).getTextContent();
                 String memberCode = memberElement.getElementsByTagName(MEMBER_CODE).item(0).getTextContent();
                 String name = memberElement.getElementsByTagName(NAME).item(0).getTextContent();
+                membersById.putIfAbsent(memberElement.getAttribute(ID), buildMemberInfo(memberClass, memberCode, name));
                 NodeList subsystems = memberElement.getElementsByTagName(SUBSYSTEM);
                 for (int k = 0; k < subsystems.getLength(); k++) {
-                    Node subsystem = subsystems.item(k);
-                    if (member.getNodeType() == Node.ELEMENT_NODE) {
-                        Element subsystemElement = (Element) subsystem;
-                        String subsystemCode = subsystemElement.getElementsByTagName(SUBSYSTEM_CODE).item(0)
-                                .getTextContent();
-
-                        descriptorInfos.add(DescriptorInfo.builder()
-                                .xRoadInstance(xRoadInstance)
-                                .memberCode(memberCode)
-                                .memberClass(memberClass)
-                                .memberName(name)
-                                .subsystemCode(subsystemCode)
-                                .subsystemName(SubsystemName.builder().en(DEFAULT_SUBSYSTEM_NAME_EN)
-                                        .et(DEFAULT_SUBSYSTEM_NAME_ET).build())
-                                .email(Lists.newArrayList(
-                                        Email.builder()
-                                                .name(DEFAULT_CONTACT_NAME)
-                                                .email(DEFAULT_CONTACT_EMAIL)
-                                                .build()))
-                                .build());
-                    }
+                    Element subsystemElement = (Element) subsystems.item(k);
+                    String subsystemCode = subsystemElement.getElementsByTagName(SUBSYSTEM_CODE).item(0)
+                            .getTextContent();
+                    subsystemsById.putIfAbsent(subsystemElement.getAttribute(ID),
+                            buildSubsystemInfo(memberClass, memberCode, subsystemCode, name));
+                    descriptorInfos.add(buildDescriptorInfo(xRoadInstance, memberClass, memberCode, name,
+                            subsystemCode));
                 }
+            }
+        }
 
+        Set<SecurityServerInfo> securityServerInfos = new HashSet<>();
+        List<SecurityServerData> securityServerList = new ArrayList<>();
+        NodeList securityServers = root.getElementsByTagName(SECURITY_SERVER);
+        for (int i = 0; i < securityServers.getLength(); i++) {
+            Node securityServer = securityServers.item(i);
+            if (securityServer.getNodeType() == Node.ELEMENT_NODE) {
+                Element securityServerElement = (Element) securityServer;
+                String ownerId = securityServerElement.getElementsByTagName(OWNER).item(0).getTextContent();
+                String serverCode = securityServerElement.getElementsByTagName(SERVER_CODE).item(0).getTextContent();
+                String address = securityServerElement.getElementsByTagName(ADDRESS).item(0).getTextContent();
+                MemberInfo owner = membersById.get(ownerId);
+                if (owner != null) {
+                    securityServerInfos.add(new SecurityServerInfo(xRoadInstance, serverCode, address,
+                            owner.getMemberClass(), owner.getMemberCode()));
+                }
+                securityServerList.add(SecurityServerData.builder()
+                        .owner(owner != null ? owner : MemberInfo.builder().build())
+                        .serverCode(serverCode)
+                        .address(address)
+                        .clients(getClients(securityServerElement.getElementsByTagName(CLIENT), membersById,
+                                subsystemsById))
+                        .build());
             }
         }
+        log.debug("Result set: {}", securityServerInfos.toString());
 
-        return descriptorInfos;
+        return new SharedParams(file.getPath(), lastModified, length,
+                Collections.unmodifiableSet(securityServerInfos),
+                SecurityServerDataList.builder()
+                        .securityServerDataList(Collections.unmodifiableList(securityServerList)).build(),
+                Collections.unmodifiableList(descriptorInfos));
     }
 
     private Document parseInputAndConvertToXmlDocument(File inputFile)
@@ -216,75 +235,41 @@ public class SharedParamsParser {
         return document;
     }
 
-    private List<SecurityServerData> getSecurityServerDataList(NodeList securityServers, NodeList members) {
-        List<SecurityServerData> securityServerList = new ArrayList<>();
-        for (int i = 0; i < securityServers.getLength(); i++) {
-            Node securityServer = securityServers.item(i);
-            if (securityServer.getNodeType() == Node.ELEMENT_NODE) {
-                securityServerList.add(getSecurityServerData(securityServer, members));
-            }
-        }
-        return securityServerList;
-    }
-
-    private SecurityServerData getSecurityServerData(Node securityServer, NodeList members) {
-        Element securityServerElement = (Element) securityServer;
-        String ownerId = securityServerElement.getElementsByTagName(OWNER).item(0).getTextContent();
-        String serverCode = securityServerElement.getElementsByTagName(SERVER_CODE).item(0).getTextContent();
-        String address = securityServerElement.getElementsByTagName(ADDRESS).item(0).getTextContent();
-        NodeList clientIds = securityServerElement.getElementsByTagName(CLIENT);
-
-        List<String> clientIdList = getClientIdList(clientIds);
-        MemberInfo ownerData = getOwnerData(members, ownerId);
-        List<MemberInfo> clients = getClients(members, clientIdList);
-
-        return SecurityServerData.builder()
-                .owner(ownerData)
-                .serverCode(serverCode)
-                .address(address)
-                .clients(clients).build();
-    }
-
-    private List<String> getClientIdList(NodeList clientIds) {
-        List<String> clientIdList = new ArrayList<>();
+    private List<MemberInfo> getClients(NodeList clientIds, Map<String, MemberInfo> membersById,
+            Map<String, MemberInfo> subsystemsById) {
+        List<MemberInfo> clients = new ArrayList<>();
         for (int j = 0; j < clientIds.getLength(); j++) {
-            Node member = clientIds.item(j);
-            clientIdList.add(member.getFirstChild().getNodeValue());
-        }
-        return clientIdList;
-    }
-
-    private MemberInfo getOwnerData(NodeList members, String ownerId) {
-        for (int j = 0; j < members.getLength(); j++) {
-            Node member = members.item(j);
-            if (member.getNodeType() == Node.ELEMENT_NODE) {
-                Element memberElement = (Element) member;
-                if (memberElement.getAttribute(ID).equals(ownerId)) {
-                    Element memberClassElement = (Element) memberElement.getElementsByTagName(MEMBER_CLASS).item(0);
-                    String memberClass = memberClassElement.getElementsByTagName(CODE).item(0).getTextContent();
-                    String memberCode = memberElement.getElementsByTagName(MEMBER_CODE).item(0).getTextContent();
-                    String name = memberElement.getElementsByTagName(NAME).item(0).getTextContent();
-                    return buildMemberInfo(memberClass, memberCode, name);
-                }
+            String clientId = clientIds.item(j).getFirstChild().getNodeValue();
+            MemberInfo client = membersById.containsKey(clientId)
+                    ? membersById.get(clientId)
+                    : subsystemsById.get(clientId);
+            if (client != null) {
+                clients.add(client);
             }
         }
-        return MemberInfo.builder().build();
-    }
-
-    private MemberInfo buildMemberInfo(Element memberElement) {
-        return buildSubsystemInfo(memberElement, null);
+        return Collections.unmodifiableList(clients);
     }
 
-    private MemberInfo buildSubsystemInfo(Element memberElement, Element subsystemElement) {
-        Element memberClassElement = (Element) memberElement.getElementsByTagName(MEMBER_CLASS).item(0);
-        String memberClass = memberClassElement.getElementsByTagName(CODE).item(0).getTextContent();
-        String memberCode = memberElement.getElementsByTagName(MEMBER_CODE).item(0).getTextContent();
-        String name = memberElement.getElementsByTagName(NAME).item(0).getTextContent();
-        if (subsystemElement == null) {
-            return buildMemberInfo(memberClass, memberCode, name);
-        }
-        String subsystemCode = subsystemElement.getElementsByTagName(SUBSYSTEM_CODE).item(0).getTextContent();
-        return buildSubsystemInfo(memberClass, memberCode, subsystemCode, name);
+    private DescriptorInfo buildDescriptorInfo(
+            String xRoadInstance,
+            String memberClass,
+            String memberCode,
+            String name,
+            String subsystemCode) {
+        return DescriptorInfo.builder()
+                .xRoadInstance(xRoadInstance)
+                .memberCode(memberCode)
+                .memberClass(memberClass)
+                .memberName(name)
+                .subsystemCode(subsystemCode)
+                .subsystemName(SubsystemName.builder().en(DEFAULT_SUBSYSTEM_NAME_EN)
+                        .et(DEFAULT_SUBSYSTEM_NAME_ET).build())
+                .email(Collections.singletonList(
+                        Email.builder()
+                                .name(DEFAULT_CONTACT_NAME)
+                                .email(DEFAULT_CONTACT_EMAIL)
+                                .build()))
+                .build();
     }
 
     private MemberInfo buildMemberInfo(
@@ -306,32 +291,22 @@ public class SharedParamsParser {
                 .name(name).build();
     }
 
-    private List<MemberInfo> getClients(NodeList members, List<String> clientIdList) {
-        List<MemberInfo> clients = new ArrayList<>();
-        clientIdList.forEach(clientId -> {
-            for (int j = 0; j < members.getLength(); j++) {
-                Node member = members.item(j);
-                if (member.getNodeType() == Node.ELEMENT_NODE) {
-                    Element memberElement = (Element) member;
-                    if (memberElement.getAttribute(ID).equals(clientId)) {
-                        clients.add(buildMemberInfo(memberElement));
-                        break;
-                    }
+    /**
+     * Results parsed from one version of shared-params.xml. The results are shared by all
+     * requests and must not be modified.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static final class SharedParams {
+        private final String path;
+        private final long lastModified;
+        private final long length;
+        private final Set<SecurityServerInfo> securityServerInfos;
+        private final SecurityServerDataList securityServerDataList;
+        private final List<DescriptorInfo> descriptorInfos;
 
-                    NodeList subsystems = memberElement.getElementsByTagName(SUBSYSTEM);
-                    for (int k = 0; k < subsystems.getLength(); k++) {
-                        Node subsystem = subsystems.item(k);
-                        if (member.getNodeType() == Node.ELEMENT_NODE) {
-                            Element subsystemElement = (Element) subsystem;
-                            if (subsystemElement.getAttribute(ID).equals(clientId)) {
-                                clients.add(buildSubsystemInfo(memberElement, subsystemElement));
-                                break;
-                            }
-                        }
-                    }
-                }
-            }
-        });
-        return clients;
+        boolean isReadFrom(File file) {
+            return path.equals(file.getPath()) && lastModified == file.lastModified() && length == file.length();
+        }
     }
 }
@@ -0,0 +1,253 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.lister;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.soap.SoapHeader;
+import org.springframework.ws.soap.SoapHeaderElement;
+import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.soap.SoapVersion;
+import org.springframework.ws.transport.context.TransportContextHolder;
+import org.springframework.ws.transport.http.HttpServletConnection;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.dom.DOMSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * Writes a SOAP response straight to the HTTP response with StAX, for operations whose
+ * payload is too large to be built as a SAAJ message first. The request SOAP headers are
+ * echoed in the response the same way ServiceEndpointInterceptor does for the other operations.
+ *
+ * Endpoint methods using this return void, so Spring-WS creates no response message of its
+ * own and the endpoint interceptors are not applied to the streamed response.
+ */
+public final class StreamingSoapResponse {
+
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    private static final String ENVELOPE_PREFIX = "SOAP-ENV";
+
+    private static final String CDATA_END = "]]>";
+
+    private StreamingSoapResponse() {
+
+    }
+
+    /**
+     * Writes the body content of a streamed SOAP response
+     */
+    @FunctionalInterface
+    public interface BodyWriter {
+
+        /**
+         * Writes the body content
+         *
+         * @param writer writer positioned inside the SOAP Body element
+         * @throws XMLStreamException if writing fails
+         */
+        void writeTo(XMLStreamWriter writer) throws XMLStreamException;
+    }
+
+    /**
+     * Writes a SOAP envelope with the request headers and the given body content to the HTTP response.
+     * The response is committed once the body writer has written enough, after that a failure can
+     * only truncate the response instead of turning it into a SOAP fault.
+     *
+     * @param messageContext message context of the request being handled
+     * @param bodyWriter     writes the content of the SOAP Body element
+     * @throws IOException        if the HTTP response cannot be written
+     * @throws XMLStreamException if writing the envelope fails
+     */
+    public static void write(MessageContext messageContext, BodyWriter bodyWriter)
+            throws IOException, XMLStreamException {
+        write(messageContext, HttpServletResponse.SC_OK, bodyWriter);
+    }
+
+    /**
+     * Writes a SOAP fault with the given HTTP status to the HTTP response, for rejecting a request
+     * before it reaches the endpoint
+     *
+     * @param messageContext message context of the request being handled
+     * @param status         HTTP status of the response
+     * @param faultString    description of the fault
+     * @throws IOException        if the HTTP response cannot be written
+     * @throws XMLStreamException if writing the envelope fails
+     */
+    public static void writeFault(MessageContext messageContext, int status, String faultString)
+            throws IOException, XMLStreamException {
+        SoapVersion soapVersion = ((SoapMessage) messageContext.getRequest()).getVersion();
+        String envelopeNamespace = soapVersion.getEnvelopeNamespaceUri();
+        write(messageContext, status, writer -> {
+            writer.writeStartElement(ENVELOPE_PREFIX, "Fault", envelopeNamespace);
+            if (soapVersion == SoapVersion.SOAP_11) {
+                writer.writeStartElement("faultcode");
+                writer.writeCharacters(ENVELOPE_PREFIX + ":Server");
+                writer.writeEndElement();
+                writer.writeStartElement("faultstring");
+                writer.writeCharacters(faultString);
+                writer.writeEndElement();
+            } else {
+                writer.writeStartElement(ENVELOPE_PREFIX, "Code", envelopeNamespace);
+                writer.writeStartElement(ENVELOPE_PREFIX, "Value", envelopeNamespace);
+                writer.writeCharacters(ENVELOPE_PREFIX + ":Receiver");
+                writer.writeEndElement();
+                writer.writeEndElement();
+                writer.writeStartElement(ENVELOPE_PREFIX, "Reason", envelopeNamespace);
+                writer.writeStartElement(ENVELOPE_PREFIX, "Text", envelopeNamespace);
+                writer.writeAttribute(XMLConstants.XML_NS_PREFIX, XMLConstants.XML_NS_URI, "lang", "en");
+                writer.writeCharacters(faultString);
+                writer.writeEndElement();
+                writer.writeEndElement();
+            }
+            writer.writeEndElement();
+        });
+    }
+
+    /**
+     * Returns the HTTP response of the SOAP request being handled
+     *
+     * @return HTTP response
+     */
+    public static HttpServletResponse getHttpServletResponse() {
+        return ((HttpServletConnection) TransportContextHolder.getTransportContext().getConnection())
+                .getHttpServletResponse();
+    }
+
+    private static void write(MessageContext messageContext, int status, BodyWriter bodyWriter)
+            throws IOException, XMLStreamException {
+        SoapMessage request = (SoapMessage) messageContext.getRequest();
+        SoapVersion soapVersion = request.getVersion();
+        String envelopeNamespace = soapVersion.getEnvelopeNamespaceUri();
+        HttpServletResponse httpResponse = getHttpServletResponse();
+        httpResponse.setStatus(status);
+        httpResponse.setContentType(soapVersion.getContentType());
+        httpResponse.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        XMLStreamWriter writer = XML_OUTPUT_FACTORY.createXMLStreamWriter(httpResponse.getOutputStream(),
+                StandardCharsets.UTF_8.name());
+        try {
+            writer.writeStartElement(ENVELOPE_PREFIX, "Envelope", envelopeNamespace);
+            writer.writeNamespace(ENVELOPE_PREFIX, envelopeNamespace);
+            writer.writeStartElement(ENVELOPE_PREFIX, "Header", envelopeNamespace);
+            SoapHeader requestHeader = request.getSoapHeader();
+            if (requestHeader != null) {
+                Iterator<SoapHeaderElement> iter = requestHeader.examineAllHeaderElements();
+                while (iter.hasNext()) {
+                    // the lister uses SAAJ messages, so the header elements are DOM nodes
+                    Node node = ((DOMSource) iter.next().getSource()).getNode();
+                    writeElement(writer, (Element) node);
+                }
+            }
+            writer.writeEndElement();
+            writer.writeStartElement(ENVELOPE_PREFIX, "Body", envelopeNamespace);
+            bodyWriter.writeTo(writer);
+            writer.writeEndElement();
+            writer.writeEndElement();
+            writer.flush();
+        } finally {
+            writer.close();
+        }
+        // commit the response, otherwise Spring-WS marks a response without a message as 202 Accepted
+        httpResponse.flushBuffer();
+    }
+
+    /**
+     * Writes the text as CDATA. A CDATA section cannot contain its own end marker, so the text is
+     * split into consecutive sections where the marker occurs.
+     *
+     * @param writer writer positioned inside the element of the text
+     * @param text   text to write
+     * @throws XMLStreamException if writing fails
+     */
+    public static void writeCData(XMLStreamWriter writer, String text) throws XMLStreamException {
+        int start = 0;
+        int end = text.indexOf(CDATA_END);
+        while (end >= 0) {
+            // "]]" closes one section and ">" opens the next one
+            writer.writeCData(text.substring(start, end + 2));
+            start = end + 2;
+            end = text.indexOf(CDATA_END, start);
+        }
+        writer.writeCData(text.substring(start));
+    }
+
+    private static void writeElement(XMLStreamWriter writer, Element element) throws XMLStreamException {
+        String prefix = Objects.toString(element.getPrefix(), XMLConstants.DEFAULT_NS_PREFIX);
+        String namespace = Objects.toString(element.getNamespaceURI(), XMLConstants.NULL_NS_URI);
+        // checked before writeStartElement, which binds the prefix of the element without declaring it
+        boolean declare = !isBound(writer, prefix, namespace);
+        writer.writeStartElement(prefix, element.getLocalName(), namespace);
+        if (declare) {
+            declareNamespace(writer, prefix, namespace);
+        }
+        NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Attr attr = (Attr) attributes.item(i);
+            if (XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attr.getNamespaceURI())) {
+                String declaredPrefix = attr.getPrefix() == null ? XMLConstants.DEFAULT_NS_PREFIX : attr.getLocalName();
+                if (!declaredPrefix.equals(prefix) && !isBound(writer, declaredPrefix, attr.getValue())) {
+                    declareNamespace(writer, declaredPrefix, attr.getValue());
+                }
+            }
+        }
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Attr attr = (Attr) attributes.item(i);
+            String attrNamespace = Objects.toString(attr.getNamespaceURI(), XMLConstants.NULL_NS_URI);
+            if (XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attrNamespace)) {
+                continue;
+            }
+            if (attrNamespace.isEmpty()) {
+                writer.writeAttribute(attr.getLocalName(), attr.getValue());
+            } else {
+                if (!isBound(writer, attr.getPrefix(), attrNamespace)) {
+                    declareNamespace(writer, attr.getPrefix(), attrNamespace);
+                }
+                writer.writeAttribute(attr.getPrefix(), attrNamespace, attr.getLocalName(), attr.getValue());
+            }
+        }
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                writeElement(writer, (Element) child);
+            } else if (child.getNodeType() == Node.TEXT_NODE || child.getNodeType() == Node.CDATA_SECTION_NODE) {
+                writer.writeCharacters(child.getNodeValue());
+            }
+        }
+        writer.writeEndElement();
+    }
+
+    private static boolean isBound(XMLStreamWriter writer, String prefix, String namespace) {
+        return namespace.equals(Objects.toString(writer.getNamespaceContext().getNamespaceURI(prefix),
+                XMLConstants.NULL_NS_URI));
+    }
+
+    private static void declareNamespace(XMLStreamWriter writer, String prefix, String namespace)
+            throws XMLStreamException {
+        if (prefix.isEmpty()) {
+            writer.writeDefaultNamespace(namespace);
+        } else {
+            writer.writeNamespace(prefix, namespace);
+        }
+    }
+}
@@ -12,12 +12,53 @@
  */
 package fi.vrk.xroad.catalog.lister;
 
+import fi.vrk.xroad.catalog.persistence.OrganizationService;
+import fi.vrk.xroad.catalog.persistence.dto.LastCollectionData;
+import fi.vrk.xroad.catalog.persistence.dto.LastOrganizationCollectionData;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.PathMatchConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.io.File;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+
 @Configuration
 public class WebMvcConfiguration implements WebMvcConfigurer {
+
+    // REST operations reading large parts of the catalog
+    private static final String[] REPORT_PATH_PATTERNS = { "/api/getListOfServices*", "/api/getServiceStatistics*",
+            "/api/getDistinctServiceStatistics", "/api/listErrors/**" };
+
+    @Value("${xroad-catalog.stream-timeout-ms:3600000}")
+    private long streamTimeoutMs;
+
+    @Value("${xroad-catalog.shared-params-file:}")
+    private String sharedParamsFile;
+
+    @Value("${xroad-catalog.cache-check-interval-ms:60000}")
+    private long checkIntervalMillis;
+
+    @Autowired
+    private ListerCache listerCache;
+
+    @Autowired
+    private OrganizationService organizationService;
+
+    @Autowired
+    private ListerBulkheads bulkheads;
+
+    private volatile LocalDateTime sharedParamsModified;
+
+    private volatile long nextSharedParamsCheckMillis;
+
     @Override
     public void configurePathMatch(PathMatchConfigurer configurer) {
         // This defaults to false in Spring 6, but to keep the previous behaviour we set
@@ -29,4 +70,57 @@ public class WebMvcConfiguration implements WebMvcConfigurer {
         // in the documentation that /path is not the same as /path/).
         configurer.setUseTrailingSlashMatch(true);
     }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // streamed reports are written asynchronously, and a large report can take
+        // longer than the default async request timeout of the servlet container
+        configurer.setDefaultTimeout(streamTimeoutMs);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // these responses only change when the collector writes or the global configuration is updated
+        registry.addInterceptor(new ConditionalRequestInterceptor(this::getCatalogChangeTimes))
+                .addPathPatterns("/api/getListOfServices", "/api/getServiceStatistics",
+                        "/api/listSecurityServers", "/api/getEndpoints/**");
+        registry.addInterceptor(new ConditionalRequestInterceptor(this::getOrganizationChangeTimes))
+                .addPathPatterns("/api/getOrganization/**");
+        // registered after the conditional requests, so that a 304 does not wait for the bulkheads
+        registry.addInterceptor(new BulkheadInterceptor(bulkheads.getReports(), bulkheads.getRetryAfterSeconds()))
+                .addPathPatterns(REPORT_PATH_PATTERNS);
+        registry.addInterceptor(new BulkheadInterceptor(bulkheads.getLookups(), bulkheads.getRetryAfterSeconds()))
+                .addPathPatterns("/api/**")
+                .excludePathPatterns(REPORT_PATH_PATTERNS)
+                .excludePathPatterns("/api/heartbeat", "/api/organizationHeartbeat");
+    }
+
+    private List<LocalDateTime> getCatalogChangeTimes() {
+        // both are read at most once per check interval, not on every conditional request
+        LastCollectionData data = listerCache.getLastCollectionData();
+        LocalDateTime sharedParamsTime = getSharedParamsModified();
+        if (data == null) {
+            return Arrays.asList(sharedParamsTime);
+        }
+        return Arrays.asList(data.getMembersLastFetched(), data.getSubsystemsLastFetched(),
+                data.getServicesLastFetched(), data.getWsdlsLastFetched(), data.getOpenapisLastFetched(),
+                sharedParamsTime);
+    }
+
+    private LocalDateTime getSharedParamsModified() {
+        long now = System.currentTimeMillis();
+        if (now >= nextSharedParamsCheckMillis) {
+            File file = new File(sharedParamsFile);
+            sharedParamsModified = file.isFile()
+                    ? LocalDateTime.ofInstant(Instant.ofEpochMilli(file.lastModified()), ZoneId.systemDefault())
+                    : null;
+            nextSharedParamsCheckMillis = now + checkIntervalMillis;
+        }
+        return sharedParamsModified;
+    }
+
+    private List<LocalDateTime> getOrganizationChangeTimes() {
+        LastOrganizationCollectionData data = organizationService.getLastOrganizationCollectionData();
+        return Arrays.asList(data.getOrganizationsLastFetched(), data.getCompaniesLastFetched());
+    }
 }
@@ -12,6 +12,7 @@
  */
 package fi.vrk.xroad.catalog.lister;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.servlet.ServletRegistrationBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
@@ -29,6 +30,10 @@ import java.util.List;
 @EnableWs
 @Configuration
 public class WebServiceConfig extends WsConfigurerAdapter {
+
+    @Autowired
+    private ListerBulkheads bulkheads;
+
     @Bean
     public ServletRegistrationBean messageDispatcherServlet(ApplicationContext applicationContext) {
         MessageDispatcherServlet servlet = new MessageDispatcherServlet();
@@ -47,7 +52,7 @@ public class WebServiceConfig extends WsConfigurerAdapter {
     @Override
     public void addInterceptors(List<EndpointInterceptor> interceptors) {
         interceptors.add(new SoapEnvelopeLoggingInterceptor());
+        interceptors.add(new BulkheadEndpointInterceptor(bulkheads));
         interceptors.add(new ServiceEndpointInterceptor());
-        interceptors.add(new WsdlCdataInterceptor());
     }
 }
@@ -0,0 +1,127 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.lister.util;
+
+import fi.vrk.xroad.catalog.lister.CatalogListerRuntimeException;
+import fi.vrk.xroad.catalog.persistence.entity.ErrorIncident;
+import lombok.Getter;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Position of a page of errors, the id of the last error of the previous page. Clients get it as
+ * an opaque continuation token.
+ */
+@Getter
+public final class ErrorLogCursor {
+
+    /**
+     * Maximum number of errors per page
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final char SEPARATOR = '_';
+
+    private static final ErrorLogCursor FIRST_PAGE = new ErrorLogCursor(0);
+
+    // 0 for the first page, incident ids start from 1
+    private final long id;
+
+    private ErrorLogCursor(long id) {
+        this.id = id;
+    }
+
+    /**
+     * Returns the position after the given error
+     *
+     * @param incident the last error of a page
+     * @return cursor
+     */
+    public static ErrorLogCursor after(ErrorIncident incident) {
+        return new ErrorLogCursor(incident.getId());
+    }
+
+    /**
+     * Decodes a continuation token
+     *
+     * @param token continuation token, null for the first page
+     * @return cursor
+     * @throws CatalogListerRuntimeException if the token is not valid
+     */
+    public static ErrorLogCursor decode(String token) {
+        if (token == null) {
+            return FIRST_PAGE;
+        }
+        try {
+            // tokens issued before paging by id also carry the last seen time before the id
+            String position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            long id = Long.parseLong(position.substring(position.lastIndexOf(SEPARATOR) + 1));
+            if (id < 0) {
+                throw new CatalogListerRuntimeException("Invalid cursor parameter: " + token);
+            }
+            return new ErrorLogCursor(id);
+        } catch (IllegalArgumentException e) {
+            throw new CatalogListerRuntimeException("Invalid cursor parameter: " + token);
+        }
+    }
+
+    /**
+     * Validates the requested number of errors per page and limits it to the maximum, so that
+     * fetching the one extra error telling whether there is a next page cannot overflow
+     *
+     * @param limit requested number of errors per page
+     * @return number of errors per page
+     * @throws CatalogListerRuntimeException if the limit is less than one
+     */
+    public static int pageSize(int limit) {
+        if (limit < 1) {
+            throw new CatalogListerRuntimeException("Invalid limit parameter: " + limit);
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Returns the continuation token of the page following the given errors. The errors are
+     * expected to be fetched with a limit one larger than the page size, the extra one only
+     * tells that there is a next page.
+     *
+     * @param incidents errors fetched with limit pageSize + 1
+     * @param pageSize  number of errors per page
+     * @return continuation token, null if there is no next page
+     */
+    public static String nextPage(List<ErrorIncident> incidents, int pageSize) {
+        return incidents.size() > pageSize ? after(incidents.get(pageSize - 1)).encode() : null;
+    }
+
+    /**
+     * Returns the page of the errors fetched with limit pageSize + 1
+     *
+     * @param incidents errors fetched with limit pageSize + 1
+     * @param pageSize  number of errors per page
+     * @return at most pageSize errors
+     */
+    public static List<ErrorIncident> page(List<ErrorIncident> incidents, int pageSize) {
+        return incidents.size() > pageSize ? incidents.subList(0, pageSize) : incidents;
+    }
+
+    /**
+     * Encodes the cursor as a continuation token
+     *
+     * @return continuation token
+     */
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -65,7 +65,6 @@ import fi.vrk.xroad.catalog.lister.generated.StreetAddressPostOffice;
 import fi.vrk.xroad.catalog.lister.generated.StreetAddressPostOfficeList;
 import fi.vrk.xroad.catalog.lister.generated.StreetList;
 import fi.vrk.xroad.catalog.lister.generated.WebPage;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -78,7 +77,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<OrganizationName> convertOrganizationNames(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.OrganizationName> organizationNames) {
-        List<OrganizationName> converted = new ArrayList<>();
+        List<OrganizationName> converted = JaxbServiceUtil.newConvertedList(organizationNames);
         for (fi.vrk.xroad.catalog.persistence.entity.OrganizationName organizationName : organizationNames) {
             OrganizationName co = new OrganizationName();
             co.setChanged(JaxbServiceUtil
@@ -99,7 +98,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<OrganizationDescription> convertOrganizationDescriptions(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.OrganizationDescription> organizationDescriptions) {
-        List<OrganizationDescription> converted = new ArrayList<>();
+        List<OrganizationDescription> converted = JaxbServiceUtil.newConvertedList(organizationDescriptions);
         for (fi.vrk.xroad.catalog.persistence.entity.OrganizationDescription organizationDescription : organizationDescriptions) {
             OrganizationDescription co = new OrganizationDescription();
             co.setChanged(JaxbServiceUtil
@@ -120,7 +119,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<Email> convertEmails(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.Email> emails) {
-        List<Email> converted = new ArrayList<>();
+        List<Email> converted = JaxbServiceUtil.newConvertedList(emails);
         for (fi.vrk.xroad.catalog.persistence.entity.Email email : emails) {
             Email co = new Email();
             co.setChanged(JaxbServiceUtil.toXmlGregorianCalendar(email.getStatusInfo().getChanged()));
@@ -137,7 +136,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<PhoneNumber> convertPhoneNumbers(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.PhoneNumber> phoneNumbers) {
-        List<PhoneNumber> converted = new ArrayList<>();
+        List<PhoneNumber> converted = JaxbServiceUtil.newConvertedList(phoneNumbers);
         for (fi.vrk.xroad.catalog.persistence.entity.PhoneNumber phoneNumber : phoneNumbers) {
             PhoneNumber co = new PhoneNumber();
             co.setChanged(JaxbServiceUtil.toXmlGregorianCalendar(phoneNumber.getStatusInfo().getChanged()));
@@ -158,7 +157,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<WebPage> convertWebPages(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.WebPage> webPages) {
-        List<WebPage> converted = new ArrayList<>();
+        List<WebPage> converted = JaxbServiceUtil.newConvertedList(webPages);
         for (fi.vrk.xroad.catalog.persistence.entity.WebPage webPage : webPages) {
             WebPage co = new WebPage();
             co.setChanged(JaxbServiceUtil.toXmlGregorianCalendar(webPage.getStatusInfo().getChanged()));
@@ -175,7 +174,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<Address> convertAddresses(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.Address> addresses) {
-        List<Address> converted = new ArrayList<>();
+        List<Address> converted = JaxbServiceUtil.newConvertedList(addresses);
         for (fi.vrk.xroad.catalog.persistence.entity.Address address : addresses) {
             Address co = new Address();
             co.setChanged(JaxbServiceUtil.toXmlGregorianCalendar(address.getStatusInfo().getChanged()));
@@ -209,7 +208,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<StreetAddress> convertStreetAddresses(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.StreetAddress> streetAddresses) {
-        List<StreetAddress> converted = new ArrayList<>();
+        List<StreetAddress> converted = JaxbServiceUtil.newConvertedList(streetAddresses);
         for (fi.vrk.xroad.catalog.persistence.entity.StreetAddress streetAddress : streetAddresses) {
             StreetAddress co = new StreetAddress();
             co.setChanged(JaxbServiceUtil
@@ -265,7 +264,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<Street> convertStreets(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.Street> streets) {
-        List<Street> converted = new ArrayList<>();
+        List<Street> converted = JaxbServiceUtil.newConvertedList(streets);
         for (fi.vrk.xroad.catalog.persistence.entity.Street street : streets) {
             Street co = new Street();
             co.setChanged(JaxbServiceUtil.toXmlGregorianCalendar(street.getStatusInfo().getChanged()));
@@ -281,7 +280,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<StreetAddressPostOffice> convertStreetAddressPostOffices(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.StreetAddressPostOffice> streetAddressPostOffices) {
-        List<StreetAddressPostOffice> converted = new ArrayList<>();
+        List<StreetAddressPostOffice> converted = JaxbServiceUtil.newConvertedList(streetAddressPostOffices);
         for (fi.vrk.xroad.catalog.persistence.entity.StreetAddressPostOffice streetAddressPostOffice : streetAddressPostOffices) {
             StreetAddressPostOffice co = new StreetAddressPostOffice();
             co.setChanged(JaxbServiceUtil
@@ -301,7 +300,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<StreetAddressMunicipality> convertStreetAddressMunicipalities(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.StreetAddressMunicipality> streetAddressMunicipalities) {
-        List<StreetAddressMunicipality> converted = new ArrayList<>();
+        List<StreetAddressMunicipality> converted = JaxbServiceUtil.newConvertedList(streetAddressMunicipalities);
         for (fi.vrk.xroad.catalog.persistence.entity.StreetAddressMunicipality streetAddressMunicipality : streetAddressMunicipalities) {
             StreetAddressMunicipality co = new StreetAddressMunicipality();
             co.setChanged(
@@ -334,7 +333,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<StreetAddressMunicipalityName> convertStreetAddressMunicipalityNames(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.StreetAddressMunicipalityName> streetAddressMunicipalityNames) {
-        List<StreetAddressMunicipalityName> converted = new ArrayList<>();
+        List<StreetAddressMunicipalityName> converted = JaxbServiceUtil.newConvertedList(streetAddressMunicipalityNames);
         for (fi.vrk.xroad.catalog.persistence.entity.StreetAddressMunicipalityName streetAddressMunicipalityName : streetAddressMunicipalityNames) {
             StreetAddressMunicipalityName co = new StreetAddressMunicipalityName();
             co.setChanged(
@@ -358,7 +357,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<StreetAddressAdditionalInformation> convertStreetAddressAdditionalInformation(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.StreetAddressAdditionalInformation> streetAddressAdditionalInformationList) {
-        List<StreetAddressAdditionalInformation> converted = new ArrayList<>();
+        List<StreetAddressAdditionalInformation> converted = JaxbServiceUtil.newConvertedList(streetAddressAdditionalInformationList);
         for (fi.vrk.xroad.catalog.persistence.entity.StreetAddressAdditionalInformation streetAddressAdditionalInformation : streetAddressAdditionalInformationList) {
             StreetAddressAdditionalInformation co = new StreetAddressAdditionalInformation();
             co.setChanged(JaxbServiceUtil
@@ -382,7 +381,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<PostOfficeBoxAddress> convertPostOfficeBoxAddresses(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.PostOfficeBoxAddress> postOfficeBoxAddresses) {
-        List<PostOfficeBoxAddress> converted = new ArrayList<>();
+        List<PostOfficeBoxAddress> converted = JaxbServiceUtil.newConvertedList(postOfficeBoxAddresses);
         for (fi.vrk.xroad.catalog.persistence.entity.PostOfficeBoxAddress postOfficeBoxAddress : postOfficeBoxAddresses) {
             PostOfficeBoxAddress co = new PostOfficeBoxAddress();
             co.setChanged(JaxbServiceUtil
@@ -436,7 +435,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<PostOfficeBoxAddressAdditionalInformation> convertPostOfficeBoxAddressAdditionalInformation(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.PostOfficeBoxAddressAdditionalInformation> postOfficeBoxAddressAdditionalInformationList) {
-        List<PostOfficeBoxAddressAdditionalInformation> converted = new ArrayList<>();
+        List<PostOfficeBoxAddressAdditionalInformation> converted = JaxbServiceUtil.newConvertedList(postOfficeBoxAddressAdditionalInformationList);
         for (fi.vrk.xroad.catalog.persistence.entity.PostOfficeBoxAddressAdditionalInformation postOfficeBoxAddressAdditionalInformation : postOfficeBoxAddressAdditionalInformationList) {
             PostOfficeBoxAddressAdditionalInformation co = new PostOfficeBoxAddressAdditionalInformation();
             co.setChanged(JaxbServiceUtil
@@ -460,7 +459,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<PostOfficeBoxAddressMunicipality> convertPostOfficeBoxAddressMunicipalities(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.PostOfficeBoxAddressMunicipality> postOfficeBoxAddressMunicipalities) {
-        List<PostOfficeBoxAddressMunicipality> converted = new ArrayList<>();
+        List<PostOfficeBoxAddressMunicipality> converted = JaxbServiceUtil.newConvertedList(postOfficeBoxAddressMunicipalities);
         for (fi.vrk.xroad.catalog.persistence.entity.PostOfficeBoxAddressMunicipality postOfficeBoxAddressMunicipality : postOfficeBoxAddressMunicipalities) {
             PostOfficeBoxAddressMunicipality co = new PostOfficeBoxAddressMunicipality();
             co.setChanged(JaxbServiceUtil
@@ -493,7 +492,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<PostOfficeBoxAddressMunicipalityName> convertPostOfficeBoxAddressMunicipalityNames(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.PostOfficeBoxAddressMunicipalityName> postOfficeBoxAddressMunicipalityNames) {
-        List<PostOfficeBoxAddressMunicipalityName> converted = new ArrayList<>();
+        List<PostOfficeBoxAddressMunicipalityName> converted = JaxbServiceUtil.newConvertedList(postOfficeBoxAddressMunicipalityNames);
         for (fi.vrk.xroad.catalog.persistence.entity.PostOfficeBoxAddressMunicipalityName postOfficeBoxAddressMunicipalityName : postOfficeBoxAddressMunicipalityNames) {
             PostOfficeBoxAddressMunicipalityName co = new PostOfficeBoxAddressMunicipalityName();
             co.setChanged(JaxbServiceUtil
@@ -517,7 +516,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<PostOffice> convertPostOffices(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.PostOffice> postOffices) {
-        List<PostOffice> converted = new ArrayList<>();
+        List<PostOffice> converted = JaxbServiceUtil.newConvertedList(postOffices);
         for (fi.vrk.xroad.catalog.persistence.entity.PostOffice postOffice : postOffices) {
             PostOffice co = new PostOffice();
             co.setChanged(JaxbServiceUtil.toXmlGregorianCalendar(postOffice.getStatusInfo().getChanged()));
@@ -533,7 +532,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<PostOfficeBox> convertPostOfficeBoxes(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.PostOfficeBox> postOfficeBoxes) {
-        List<PostOfficeBox> converted = new ArrayList<>();
+        List<PostOfficeBox> converted = JaxbServiceUtil.newConvertedList(postOfficeBoxes);
         for (fi.vrk.xroad.catalog.persistence.entity.PostOfficeBox postOfficeBox : postOfficeBoxes) {
             PostOfficeBox co = new PostOfficeBox();
             co.setChanged(JaxbServiceUtil
@@ -648,7 +647,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<BusinessAddress> convertBusinessAddresses(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.BusinessAddress> businessAddresses) {
-        List<BusinessAddress> converted = new ArrayList<>();
+        List<BusinessAddress> converted = JaxbServiceUtil.newConvertedList(businessAddresses);
         for (fi.vrk.xroad.catalog.persistence.entity.BusinessAddress businessAddress : businessAddresses) {
             BusinessAddress co = new BusinessAddress();
             co.setChanged(JaxbServiceUtil
@@ -678,7 +677,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<BusinessAuxiliaryName> convertBusinessAuxiliaryNames(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.BusinessAuxiliaryName> businessAuxiliaryNames) {
-        List<BusinessAuxiliaryName> converted = new ArrayList<>();
+        List<BusinessAuxiliaryName> converted = JaxbServiceUtil.newConvertedList(businessAuxiliaryNames);
         for (fi.vrk.xroad.catalog.persistence.entity.BusinessAuxiliaryName businessAuxiliaryName : businessAuxiliaryNames) {
             BusinessAuxiliaryName co = new BusinessAuxiliaryName();
             co.setChanged(JaxbServiceUtil
@@ -704,7 +703,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<BusinessIdChange> convertBusinessIdChanges(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.BusinessIdChange> businessIdChanges) {
-        List<BusinessIdChange> converted = new ArrayList<>();
+        List<BusinessIdChange> converted = JaxbServiceUtil.newConvertedList(businessIdChanges);
         for (fi.vrk.xroad.catalog.persistence.entity.BusinessIdChange businessIdChange : businessIdChanges) {
             BusinessIdChange co = new BusinessIdChange();
             co.setChanged(JaxbServiceUtil
@@ -730,7 +729,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<BusinessLine> convertBusinessLines(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.BusinessLine> businessLines) {
-        List<BusinessLine> converted = new ArrayList<>();
+        List<BusinessLine> converted = JaxbServiceUtil.newConvertedList(businessLines);
         for (fi.vrk.xroad.catalog.persistence.entity.BusinessLine businessLine : businessLines) {
             BusinessLine co = new BusinessLine();
             co.setChanged(JaxbServiceUtil
@@ -756,7 +755,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<BusinessName> convertBusinessNames(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.BusinessName> businessNames) {
-        List<BusinessName> converted = new ArrayList<>();
+        List<BusinessName> converted = JaxbServiceUtil.newConvertedList(businessNames);
         for (fi.vrk.xroad.catalog.persistence.entity.BusinessName businessName : businessNames) {
             BusinessName co = new BusinessName();
             co.setChanged(JaxbServiceUtil
@@ -782,7 +781,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<CompanyForm> convertCompanyForms(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.CompanyForm> companyForms) {
-        List<CompanyForm> converted = new ArrayList<>();
+        List<CompanyForm> converted = JaxbServiceUtil.newConvertedList(companyForms);
         for (fi.vrk.xroad.catalog.persistence.entity.CompanyForm companyForm : companyForms) {
             CompanyForm co = new CompanyForm();
             co.setChanged(JaxbServiceUtil.toXmlGregorianCalendar(companyForm.getStatusInfo().getChanged()));
@@ -804,7 +803,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<ContactDetail> convertContactDetails(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.ContactDetail> contactDetails) {
-        List<ContactDetail> converted = new ArrayList<>();
+        List<ContactDetail> converted = JaxbServiceUtil.newConvertedList(contactDetails);
         for (fi.vrk.xroad.catalog.persistence.entity.ContactDetail contactDetail : contactDetails) {
             ContactDetail co = new ContactDetail();
             co.setChanged(JaxbServiceUtil
@@ -830,7 +829,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<Language> convertLanguages(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.Language> languages) {
-        List<Language> converted = new ArrayList<>();
+        List<Language> converted = JaxbServiceUtil.newConvertedList(languages);
         for (fi.vrk.xroad.catalog.persistence.entity.Language language : languages) {
             Language co = new Language();
             co.setChanged(JaxbServiceUtil.toXmlGregorianCalendar(language.getStatusInfo().getChanged()));
@@ -850,7 +849,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<Liquidation> convertLiquidations(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.Liquidation> liquidations) {
-        List<Liquidation> converted = new ArrayList<>();
+        List<Liquidation> converted = JaxbServiceUtil.newConvertedList(liquidations);
         for (fi.vrk.xroad.catalog.persistence.entity.Liquidation liquidation : liquidations) {
             Liquidation co = new Liquidation();
             co.setChanged(JaxbServiceUtil.toXmlGregorianCalendar(liquidation.getStatusInfo().getChanged()));
@@ -872,7 +871,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<RegisteredEntry> convertRegisteredEntries(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.RegisteredEntry> registeredEntries) {
-        List<RegisteredEntry> converted = new ArrayList<>();
+        List<RegisteredEntry> converted = JaxbServiceUtil.newConvertedList(registeredEntries);
         for (fi.vrk.xroad.catalog.persistence.entity.RegisteredEntry registeredEntry : registeredEntries) {
             RegisteredEntry co = new RegisteredEntry();
             co.setChanged(JaxbServiceUtil
@@ -898,7 +897,7 @@ public final class JaxbOrganizationUtil {
 
     public static Collection<RegisteredOffice> convertRegisteredOffices(
             Iterable<fi.vrk.xroad.catalog.persistence.entity.RegisteredOffice> registeredOffices) {
-        List<RegisteredOffice> converted = new ArrayList<>();
+        List<RegisteredOffice> converted = JaxbServiceUtil.newConvertedList(registeredOffices);
         for (fi.vrk.xroad.catalog.persistence.entity.RegisteredOffice registeredOffice : registeredOffices) {
             RegisteredOffice co = new RegisteredOffice();
             co.setChanged(JaxbServiceUtil
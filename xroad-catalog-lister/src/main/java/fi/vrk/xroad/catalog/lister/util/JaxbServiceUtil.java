@@ -23,10 +23,21 @@ import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.XMLGregorianCalendar;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.GregorianCalendar;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 public final class JaxbServiceUtil {
 
+    private static final int NANOS_PER_MILLI = 1_000_000;
+
+    private static final int SECONDS_PER_MINUTE = 60;
+
+    // DatatypeFactory.newInstance() does a service loader lookup on every call, the JDK factory is
+    // stateless so one instance is shared by all conversions
+    private static final DatatypeFactory DATATYPE_FACTORY = newDatatypeFactory();
+
     private JaxbServiceUtil() {
 
     }
@@ -97,15 +108,31 @@ public final class JaxbServiceUtil {
     public static XMLGregorianCalendar toXmlGregorianCalendar(LocalDateTime localDateTime) {
         if (localDateTime == null) {
             return null;
-        } else {
-            GregorianCalendar cal = GregorianCalendar.from(localDateTime.atZone(ZoneId.systemDefault()));
-            XMLGregorianCalendar xc;
-            try {
-                xc = DatatypeFactory.newInstance().newXMLGregorianCalendar(cal);
-            } catch (DatatypeConfigurationException e) {
-                throw new CatalogListerRuntimeException("Cannot instantiate DatatypeFactory");
-            }
-            return xc;
+        }
+        // same fields and offset as GregorianCalendar.from(localDateTime.atZone(...)) would give,
+        // without creating the calendar
+        ZonedDateTime zoned = localDateTime.atZone(ZoneId.systemDefault());
+        return DATATYPE_FACTORY.newXMLGregorianCalendar(zoned.getYear(), zoned.getMonthValue(), zoned.getDayOfMonth(),
+                zoned.getHour(), zoned.getMinute(), zoned.getSecond(), zoned.getNano() / NANOS_PER_MILLI,
+                zoned.getOffset().getTotalSeconds() / SECONDS_PER_MINUTE);
+    }
+
+    /**
+     * Returns a list for the converted elements, presized when the number of source elements is known
+     *
+     * @param source elements to be converted
+     * @param <T>    type of the converted elements
+     * @return empty list
+     */
+    public static <T> List<T> newConvertedList(Iterable<?> source) {
+        return source instanceof Collection<?> collection ? new ArrayList<>(collection.size()) : new ArrayList<>();
+    }
+
+    private static DatatypeFactory newDatatypeFactory() {
+        try {
+            return DatatypeFactory.newInstance();
+        } catch (DatatypeConfigurationException e) {
+            throw new CatalogListerRuntimeException("Cannot instantiate DatatypeFactory");
         }
     }
 
@@ -17,6 +17,7 @@ import fi.vrk.xroad.catalog.lister.SharedParamsParser;
 import fi.vrk.xroad.catalog.persistence.dto.DescriptorInfo;
 import fi.vrk.xroad.catalog.persistence.dto.SecurityServerDataList;
 import fi.vrk.xroad.catalog.persistence.dto.SecurityServerInfo;
+import fi.vrk.xroad.catalog.persistence.dto.MemberData;
 import fi.vrk.xroad.catalog.persistence.dto.MemberDataList;
 import org.apache.commons.csv.CSVPrinter;
 import org.xml.sax.SAXException;
@@ -30,10 +31,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.regex.Pattern;
 import javax.xml.parsers.ParserConfigurationException;
 
 public final class ServiceUtil {
 
+    private static final String GZIP = "gzip";
+    private static final Pattern ZERO_QUALITY = Pattern.compile("q=0(\\.0{0,3})?", Pattern.CASE_INSENSITIVE);
+
     private ServiceUtil() {
 
     }
@@ -61,41 +66,49 @@ public final class ServiceUtil {
     public static void printListOfServicesCSV(CSVPrinter csvPrinter, List<MemberDataList> memberDataList,
             List<SecurityServerInfo> securityServerList) {
         memberDataList.forEach(memberList -> {
-            printCSVRecord(csvPrinter,
-                    Arrays.asList(memberList.getDate().toString(), "", "", "", "", "", "", "", "", "", "", "", ""));
-            memberList.getMemberDataList().forEach(memberData -> {
-                String memberCreated = memberData.getCreated().toString();
-                String xRoadInstance = memberData.getXRoadInstance();
-                String memberClass = memberData.getMemberClass();
-                String memberCode = memberData.getMemberCode();
-                String memberName = memberData.getName();
-
-                if (memberData.getSubsystemList().isEmpty() || memberData.getSubsystemList() == null) {
-                    printCSVRecord(csvPrinter, Arrays.asList("", xRoadInstance, memberClass, memberCode, memberName,
-                            memberCreated, "", "", "", "", "", "", ""));
-                }
-
-                memberData.getSubsystemList().forEach(subsystemData -> {
-
-                    if (subsystemData.getServiceList().isEmpty() || subsystemData.getServiceList() == null) {
-                        printCSVRecord(csvPrinter,
-                                Arrays.asList("", xRoadInstance, memberClass, memberCode, memberName, memberCreated,
-                                        subsystemData.getSubsystemCode(), subsystemData.getCreated().toString(),
-                                        subsystemData.getActive().toString(),
-                                        "", "", "", ""));
-                    }
-
-                    subsystemData.getServiceList().forEach(serviceData -> printCSVRecord(csvPrinter, Arrays.asList(
-                            "", xRoadInstance, memberClass, memberCode, memberName, memberCreated,
-                            subsystemData.getSubsystemCode(),
-                            subsystemData.getCreated().toString(), subsystemData.getActive().toString(),
-                            serviceData.getServiceCode(),
-                            serviceData.getServiceVersion(), serviceData.getCreated().toString(),
-                            serviceData.getActive().toString())));
-                });
-            });
+            printDateCSV(csvPrinter, memberList.getDate());
+            memberList.getMemberDataList().forEach(memberData -> printMemberDataCSV(csvPrinter, memberData));
         });
+        printSecurityServersCSV(csvPrinter, securityServerList);
+    }
+
+    public static void printDateCSV(CSVPrinter csvPrinter, LocalDateTime date) {
+        printCSVRecord(csvPrinter, Arrays.asList(date.toString(), "", "", "", "", "", "", "", "", "", "", "", ""));
+    }
 
+    public static void printMemberDataCSV(CSVPrinter csvPrinter, MemberData memberData) {
+        String memberCreated = memberData.getCreated().toString();
+        String xRoadInstance = memberData.getXRoadInstance();
+        String memberClass = memberData.getMemberClass();
+        String memberCode = memberData.getMemberCode();
+        String memberName = memberData.getName();
+
+        if (memberData.getSubsystemList().isEmpty() || memberData.getSubsystemList() == null) {
+            printCSVRecord(csvPrinter, Arrays.asList("", xRoadInstance, memberClass, memberCode, memberName,
+                    memberCreated, "", "", "", "", "", "", ""));
+        }
+
+        memberData.getSubsystemList().forEach(subsystemData -> {
+
+            if (subsystemData.getServiceList().isEmpty() || subsystemData.getServiceList() == null) {
+                printCSVRecord(csvPrinter,
+                        Arrays.asList("", xRoadInstance, memberClass, memberCode, memberName, memberCreated,
+                                subsystemData.getSubsystemCode(), subsystemData.getCreated().toString(),
+                                subsystemData.getActive().toString(),
+                                "", "", "", ""));
+            }
+
+            subsystemData.getServiceList().forEach(serviceData -> printCSVRecord(csvPrinter, Arrays.asList(
+                    "", xRoadInstance, memberClass, memberCode, memberName, memberCreated,
+                    subsystemData.getSubsystemCode(),
+                    subsystemData.getCreated().toString(), subsystemData.getActive().toString(),
+                    serviceData.getServiceCode(),
+                    serviceData.getServiceVersion(), serviceData.getCreated().toString(),
+                    serviceData.getActive().toString())));
+        });
+    }
+
+    public static void printSecurityServersCSV(CSVPrinter csvPrinter, List<SecurityServerInfo> securityServerList) {
         if (securityServerList != null && !securityServerList.isEmpty()) {
             printCSVRecord(csvPrinter,
                     Arrays.asList("", "Security server (SS) info:", "", "", "", "", "", "", "", "", "", "", ""));
@@ -147,4 +160,28 @@ public final class ServiceUtil {
         }
         return descriptorInfoList;
     }
+
+    /**
+     * Tells if an Accept-Encoding header value accepts gzip, by name or with a wildcard
+     *
+     * @param acceptEncoding Accept-Encoding header value, may be null
+     * @return true if gzip is accepted
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            boolean rejected = Arrays.stream(parts).skip(1)
+                    .anyMatch(part -> ZERO_QUALITY.matcher(part.trim()).matches());
+            if (GZIP.equalsIgnoreCase(parts[0].trim())) {
+                return !rejected;
+            } else if ("*".equals(parts[0].trim())) {
+                wildcard = !rejected;
+            }
+        }
+        return wildcard;
+    }
 }
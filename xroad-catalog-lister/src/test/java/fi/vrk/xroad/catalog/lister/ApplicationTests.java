@@ -14,15 +14,12 @@ package fi.vrk.xroad.catalog.lister;
 
 import fi.vrk.xroad.catalog.lister.util.JaxbServiceUtil;
 import fi.vrk.xroad.catalog.persistence.CatalogService;
-import fi.vrk.xroad.catalog.persistence.entity.OpenApi;
-import fi.vrk.xroad.catalog.persistence.entity.Service;
-import fi.vrk.xroad.catalog.persistence.entity.Subsystem;
-import fi.vrk.xroad.catalog.persistence.entity.Wsdl;
 import fi.vrk.xroad.catalog.lister.generated.ChangedValue;
 import fi.vrk.xroad.catalog.lister.generated.Company;
 import fi.vrk.xroad.catalog.lister.generated.Email;
 import fi.vrk.xroad.catalog.lister.generated.EmailList;
 import fi.vrk.xroad.catalog.lister.generated.ErrorLog;
+import fi.vrk.xroad.catalog.lister.generated.ErrorLogList;
 import fi.vrk.xroad.catalog.lister.generated.GetCompanies;
 import fi.vrk.xroad.catalog.lister.generated.GetCompaniesResponse;
 import fi.vrk.xroad.catalog.lister.generated.GetErrors;
@@ -68,11 +65,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.GregorianCalendar;
 import java.util.List;
-import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 
 @SpringBootTest(classes = ListerApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @ActiveProfiles({ "default", "fi" })
@@ -114,6 +112,9 @@ public class ApplicationTests {
                 "http://localhost:" + port + "/ws", request);
         assertNotNull(result);
         assertEquals(3, result.getMemberList().getMember().size());
+        assertEquals("DEV", result.getMemberList().getMember().get(0).getXRoadInstance());
+        assertEquals("5678", result.getMemberList().getMember().get(1).getMemberCode());
+        assertEquals("COM", result.getMemberList().getMember().get(2).getMemberClass());
     }
 
     @Test
@@ -200,14 +201,25 @@ public class ApplicationTests {
     public void testGetWsdl() {
         GetWsdl request = new GetWsdl();
         request.setExternalId("1000");
-        given(catalogService.getWsdl(request.getExternalId()))
-                .willReturn(new Wsdl(new Service(), "This is WSDL", request.getExternalId()));
+        given(catalogService.getWsdlData(request.getExternalId())).willReturn("This is WSDL");
         GetWsdlResponse result = (GetWsdlResponse) new WebServiceTemplate(marshaller).marshalSendAndReceive(
                 "http://localhost:" + port + "/ws/GetWsdl/", request);
         assertNotNull(result);
         assertEquals("This is WSDL", result.getWsdl());
     }
 
+    @Test
+    public void testGetWsdlWithCdataEnd() {
+        GetWsdl request = new GetWsdl();
+        request.setExternalId("1002");
+        String data = "<definitions><documentation><![CDATA[a & b]]></documentation></definitions>";
+        given(catalogService.getWsdlData(request.getExternalId())).willReturn(data);
+        GetWsdlResponse result = (GetWsdlResponse) new WebServiceTemplate(marshaller).marshalSendAndReceive(
+                "http://localhost:" + port + "/ws/GetWsdl/", request);
+        assertNotNull(result);
+        assertEquals(data, result.getWsdl());
+    }
+
     @Test
     public void testGetWsdlException() {
         boolean thrown = false;
@@ -229,14 +241,25 @@ public class ApplicationTests {
     public void testGetOpenApi() {
         GetOpenAPI request = new GetOpenAPI();
         request.setExternalId("3003");
-        given(catalogService.getOpenApi(request.getExternalId()))
-                .willReturn(new OpenApi(new Service(), "This is OpenAPI", request.getExternalId()));
+        given(catalogService.getOpenApiData(request.getExternalId())).willReturn("This is OpenAPI");
         GetOpenAPIResponse result = (GetOpenAPIResponse) new WebServiceTemplate(marshaller).marshalSendAndReceive(
                 "http://localhost:" + port + "/ws/GetOpenAPI/", request);
         assertNotNull(result);
         assertEquals("This is OpenAPI", result.getOpenapi());
     }
 
+    @Test
+    public void testGetOpenApiWithMarkup() {
+        GetOpenAPI request = new GetOpenAPI();
+        request.setExternalId("3005");
+        String data = "{\"description\": \"<b>a & b</b> ]]>\"}";
+        given(catalogService.getOpenApiData(request.getExternalId())).willReturn(data);
+        GetOpenAPIResponse result = (GetOpenAPIResponse) new WebServiceTemplate(marshaller).marshalSendAndReceive(
+                "http://localhost:" + port + "/ws/GetOpenAPI/", request);
+        assertNotNull(result);
+        assertEquals(data, result.getOpenapi());
+    }
+
     @Test
     public void testGetOpenApiException() {
         boolean thrown = false;
@@ -736,7 +759,11 @@ public class ApplicationTests {
         member3.setXRoadInstance("DEV");
         member3.setMemberClass("COM");
         member3.setMemberCode("1234");
-        given(jaxbCatalogService.getAllMembers(any(), any())).willReturn(Arrays.asList(member, member2, member3));
+        willAnswer(invocation -> {
+            Consumer<Member> consumer = invocation.getArgument(2);
+            Arrays.asList(member, member2, member3).forEach(consumer);
+            return null;
+        }).given(jaxbCatalogService).streamAllMembers(any(), any(), any());
     }
 
     private void mockErrors(XMLGregorianCalendar calStart, XMLGregorianCalendar calEnd) {
@@ -759,7 +786,11 @@ public class ApplicationTests {
             errors.add(errorLog);
         }
 
-        given(jaxbCatalogService.getErrorLog(calStart, calEnd)).willReturn(errors);
+        GetErrorsResponse response = new GetErrorsResponse();
+        response.setErrorLogList(new ErrorLogList());
+        response.getErrorLogList().getErrorLog().addAll(errors);
+        given(jaxbCatalogService.getErrors(calStart, calEnd, null, ServiceEndpoint.DEFAULT_ERRORS_LIMIT, false))
+                .willReturn(response);
     }
 
     private void mockServicesForGetServiceType(String xRoadInstance,
@@ -769,17 +800,9 @@ public class ApplicationTests {
             String serviceCode,
             String serviceVersion,
             String serviceType) {
-        Service service = new Service();
-        service.setServiceCode(serviceCode);
-        service.setServiceVersion(serviceVersion);
-        if (serviceType.equalsIgnoreCase("soap")) {
-            service.setWsdl(new Wsdl());
-        } else if (serviceType.equalsIgnoreCase("openapi")) {
-            service.setOpenApi(new OpenApi());
-        }
-        given(catalogService.getService(xRoadInstance, memberClass, memberCode, serviceCode, subsystemCode,
+        given(catalogService.getServiceType(xRoadInstance, memberClass, memberCode, serviceCode, subsystemCode,
                 serviceVersion))
-                .willReturn(service);
+                .willReturn(serviceType);
     }
 
     private void mockUnchangedCompany(String businessId, XMLGregorianCalendar calStart, XMLGregorianCalendar calEnd) {
@@ -855,32 +878,11 @@ public class ApplicationTests {
     }
 
     private void mockProvider(String xRoadInstance, String memberClass, String memberCode) {
-        fi.vrk.xroad.catalog.persistence.entity.Member member = new fi.vrk.xroad.catalog.persistence.entity.Member();
-        member.setXRoadInstance(xRoadInstance);
-        member.setMemberClass(memberClass);
-        member.setMemberCode(memberCode);
-        Subsystem subsystem = new Subsystem();
-        subsystem.setSubsystemCode("TestSubsystem");
-        Service service = new Service();
-        service.setServiceCode("TestService");
-        service.setWsdl(new Wsdl(service, "This is WSDL", "3242efdf34r"));
-        subsystem.setServices(Set.of(service));
-        member.setSubsystems(Set.of(subsystem));
-        given(catalogService.getMember(xRoadInstance, memberClass, memberCode)).willReturn(member);
+        given(catalogService.isProvider(xRoadInstance, memberClass, memberCode)).willReturn(Boolean.TRUE);
     }
 
     private void mockNoProvider(String xRoadInstance, String memberClass, String memberCode) {
-        fi.vrk.xroad.catalog.persistence.entity.Member member = new fi.vrk.xroad.catalog.persistence.entity.Member();
-        member.setXRoadInstance(xRoadInstance);
-        member.setMemberClass(memberClass);
-        member.setMemberCode(memberCode);
-        Subsystem subsystem = new Subsystem();
-        subsystem.setSubsystemCode("TestSubsystem");
-        Service service = new Service();
-        service.setServiceCode("TestService");
-        subsystem.setServices(Set.of(service));
-        member.setSubsystems(Set.of(subsystem));
-        given(catalogService.getMember(xRoadInstance, memberClass, memberCode)).willReturn(member);
+        given(catalogService.isProvider(xRoadInstance, memberClass, memberCode)).willReturn(Boolean.FALSE);
     }
 
     private void mockOrganizations(String businessCode, String emailAddress, String url) {
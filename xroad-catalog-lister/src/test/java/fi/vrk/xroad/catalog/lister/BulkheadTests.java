@@ -0,0 +1,94 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.lister;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BulkheadTests {
+
+    private static final long RETRY_AFTER_SECONDS = 10;
+    private static final long MAX_WAIT_MILLIS = 10000;
+
+    @Test
+    public void testRejectWhenQueueIsFull() throws InterruptedException {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1, MAX_WAIT_MILLIS);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        bulkhead.bindTo(meterRegistry);
+        assertTrue(bulkhead.tryAcquire());
+
+        AtomicBoolean queuedResult = new AtomicBoolean();
+        Thread queued = new Thread(() -> {
+            try {
+                queuedResult.set(bulkhead.tryAcquire());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        queued.start();
+        while (bulkhead.getQueued() == 0) {
+            Thread.yield();
+        }
+        // the only queue place is taken
+        assertFalse(bulkhead.tryAcquire());
+        assertEquals(1, bulkhead.getRejected());
+        assertEquals(1.0, meterRegistry.get(Bulkhead.REJECTED_METRIC).tag("bulkhead", "test")
+                .functionCounter().count());
+
+        bulkhead.release();
+        queued.join();
+        assertTrue(queuedResult.get());
+        assertEquals(1, bulkhead.getActive());
+        assertEquals(0, bulkhead.getQueued());
+    }
+
+    @Test
+    public void testRejectAfterWaiting() throws InterruptedException {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1, 1);
+        assertTrue(bulkhead.tryAcquire());
+        assertFalse(bulkhead.tryAcquire());
+        assertEquals(1, bulkhead.getRejected());
+        assertEquals(0, bulkhead.getQueued());
+    }
+
+    @Test
+    public void testInterceptorAnswersServiceUnavailable() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 0, 0);
+        BulkheadInterceptor interceptor = new BulkheadInterceptor(bulkhead, RETRY_AFTER_SECONDS);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/getListOfServices");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(request, response, null));
+        // the async dispatch of the same request does not take another permit
+        assertTrue(interceptor.preHandle(request, response, null));
+        assertEquals(1, bulkhead.getActive());
+
+        MockHttpServletRequest rejectedRequest = new MockHttpServletRequest("GET", "/api/getListOfServices");
+        MockHttpServletResponse rejectedResponse = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(rejectedRequest, rejectedResponse, null));
+        assertEquals(503, rejectedResponse.getStatus());
+        assertEquals("10", rejectedResponse.getHeader("Retry-After"));
+        interceptor.afterCompletion(rejectedRequest, rejectedResponse, null, null);
+        assertEquals(1, bulkhead.getActive());
+
+        interceptor.afterCompletion(request, response, null, null);
+        assertEquals(0, bulkhead.getActive());
+    }
+}
@@ -26,12 +26,15 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
+import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.XMLGregorianCalendar;
 import java.lang.reflect.InvocationTargetException;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -74,6 +77,17 @@ public class JaxbCatalogServiceTest {
         service.setCatalogService(catalogService);
     }
 
+    @Test
+    public void testToXmlGregorianCalendar() throws Exception {
+        for (LocalDateTime dateTime : Arrays.asList(DATETIME_2015, DATETIME_2016,
+                LocalDateTime.of(2023, 7, 1, 13, 45, 12, 345_678_000))) {
+            GregorianCalendar cal = GregorianCalendar.from(dateTime.atZone(ZoneId.systemDefault()));
+            assertEquals(DatatypeFactory.newInstance().newXMLGregorianCalendar(cal).toXMLFormat(),
+                    JaxbServiceUtil.toXmlGregorianCalendar(dateTime).toXMLFormat());
+        }
+        assertNull(JaxbServiceUtil.toXmlGregorianCalendar(null));
+    }
+
     @Test
     public void testGetAll() throws Exception {
         XMLGregorianCalendar calendar20150505 = JaxbServiceUtil
@@ -0,0 +1,195 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.lister;
+
+import fi.vrk.xroad.catalog.persistence.CatalogService;
+import fi.vrk.xroad.catalog.persistence.dto.LastCollectionData;
+import fi.vrk.xroad.catalog.persistence.dto.MemberData;
+import fi.vrk.xroad.catalog.persistence.dto.MemberDataList;
+import fi.vrk.xroad.catalog.persistence.dto.ServiceData;
+import fi.vrk.xroad.catalog.persistence.dto.SubsystemData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ListerCacheTests {
+
+    private static final LocalDateTime START = LocalDateTime.of(2022, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2022, 1, 31, 0, 0);
+
+    @Test
+    public void testCachedUntilCollectionChanges() {
+        CatalogService catalogService = mock(CatalogService.class);
+        LastCollectionData firstCollection = LastCollectionData.builder().membersLastFetched(START).build();
+        LastCollectionData secondCollection = LastCollectionData.builder().membersLastFetched(END).build();
+        given(catalogService.getLastCollectionData()).willReturn(firstCollection, firstCollection, firstCollection,
+                secondCollection);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ListerCache listerCache = new ListerCache(catalogService, meterRegistry, 1000, 0);
+        AtomicInteger loads = new AtomicInteger();
+
+        List<String> first = listerCache.get("operation", () -> Arrays.asList("a", "b" + loads.incrementAndGet()),
+                START, END);
+        List<String> second = listerCache.get("operation", () -> Arrays.asList("a", "b" + loads.incrementAndGet()),
+                START, END);
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", ListerCache.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", ListerCache.CACHE_NAME)
+                .tag("result", "miss").functionCounter().count());
+
+        // a different date range is a different result
+        listerCache.get("operation", () -> Arrays.asList("c" + loads.incrementAndGet()), START, null);
+        assertEquals(2, loads.get());
+        assertEquals(0, listerCache.getInvalidations());
+
+        // the collector has written since, so the results are computed again
+        List<String> third = listerCache.get("operation", () -> Arrays.asList("a", "b" + loads.incrementAndGet()),
+                START, END);
+        assertEquals(Arrays.asList("a", "b3"), third);
+        assertEquals(1, listerCache.getInvalidations());
+        assertEquals(1.0, meterRegistry.get(ListerCache.INVALIDATIONS_METRIC).functionCounter().count());
+    }
+
+    @Test
+    public void testLastCollectionDataReadOncePerInterval() {
+        CatalogService catalogService = mock(CatalogService.class);
+        LastCollectionData collection = LastCollectionData.builder().membersLastFetched(START).build();
+        given(catalogService.getLastCollectionData()).willReturn(collection);
+        ListerCache listerCache = new ListerCache(catalogService, new SimpleMeterRegistry(), 1000, 60000);
+
+        assertSame(collection, listerCache.getLastCollectionData());
+        assertSame(collection, listerCache.getLastCollectionData());
+        listerCache.get("operation", () -> Arrays.asList("a"), START, END);
+        verify(catalogService, times(1)).getLastCollectionData();
+    }
+
+    @Test
+    public void testStaleLoadIsNotReturnedAfterCollectionChanges() {
+        CatalogService catalogService = mock(CatalogService.class);
+        given(catalogService.getLastCollectionData()).willReturn(
+                LastCollectionData.builder().membersLastFetched(START).build(),
+                LastCollectionData.builder().membersLastFetched(END).build());
+        ListerCache listerCache = new ListerCache(catalogService, new SimpleMeterRegistry(), 1000, 0);
+        AtomicInteger loads = new AtomicInteger();
+
+        // the collector writes while the first result is computed
+        List<String> stale = listerCache.get("operation", () -> {
+            listerCache.get("other", () -> Arrays.asList("x"));
+            return Arrays.asList("a" + loads.incrementAndGet());
+        }, START, END);
+        assertEquals(Arrays.asList("a1"), stale);
+        assertEquals(1, listerCache.getInvalidations());
+
+        List<String> fresh = listerCache.get("operation", () -> Arrays.asList("a" + loads.incrementAndGet()),
+                START, END);
+        assertEquals(Arrays.asList("a2"), fresh);
+    }
+
+    @Test
+    public void testMemberDataWeighedByServices() {
+        CatalogService catalogService = mock(CatalogService.class);
+        given(catalogService.getLastCollectionData()).willReturn(LastCollectionData.builder().build());
+        // one member with one subsystem of ten services weighs 1 + 1 + 1 + 1 + 10
+        ListerCache listerCache = new ListerCache(catalogService, new SimpleMeterRegistry(), 13, 0);
+        List<ServiceData> services = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            services.add(ServiceData.builder().serviceCode("service" + i).build());
+        }
+        MemberDataList memberDataList = MemberDataList.builder().date(START)
+                .memberDataList(List.of(MemberData.builder().memberCode("1234")
+                        .subsystemList(List.of(SubsystemData.builder().subsystemCode("subsystem")
+                                .serviceList(services).build()))
+                        .build()))
+                .build();
+        AtomicInteger loads = new AtomicInteger();
+
+        listerCache.get("getMemberData", () -> {
+            loads.incrementAndGet();
+            return List.of(memberDataList);
+        }, START, END);
+        listerCache.get("getMemberData", () -> {
+            loads.incrementAndGet();
+            return List.of(memberDataList);
+        }, START, END);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testNotCachedWithZeroWeight() {
+        CatalogService catalogService = mock(CatalogService.class);
+        given(catalogService.getLastCollectionData()).willReturn(LastCollectionData.builder().build());
+        ListerCache listerCache = new ListerCache(catalogService, new SimpleMeterRegistry(), 0, 0);
+        AtomicInteger loads = new AtomicInteger();
+
+        listerCache.get("operation", () -> Arrays.asList(loads.incrementAndGet()), START, END);
+        listerCache.get("operation", () -> Arrays.asList(loads.incrementAndGet()), START, END);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testConcurrentLoadsAreCoalesced() throws InterruptedException {
+        CatalogService catalogService = mock(CatalogService.class);
+        given(catalogService.getLastCollectionData()).willReturn(LastCollectionData.builder().build());
+        // results are not kept, so the second caller can only get the first result while it is computed
+        ListerCache listerCache = new ListerCache(catalogService, new SimpleMeterRegistry(), 0, 0);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<List<Integer>> firstResult = new AtomicReference<>();
+        AtomicReference<List<Integer>> secondResult = new AtomicReference<>();
+
+        Thread first = new Thread(() -> firstResult.set(listerCache.get("operation", () -> {
+            loading.countDown();
+            awaitUninterruptibly(release);
+            return Arrays.asList(loads.incrementAndGet());
+        }, START, END)));
+        first.start();
+        loading.await();
+        Thread second = new Thread(() -> secondResult.set(listerCache.get("operation",
+                () -> Arrays.asList(loads.incrementAndGet()), START, END)));
+        second.start();
+        while (second.getState() != Thread.State.WAITING) {
+            Thread.yield();
+        }
+        release.countDown();
+        first.join();
+        second.join();
+
+        assertEquals(1, loads.get());
+        assertSame(firstResult.get(), secondResult.get());
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
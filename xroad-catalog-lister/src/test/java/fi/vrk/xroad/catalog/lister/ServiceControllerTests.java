@@ -12,20 +12,27 @@
  */
 package fi.vrk.xroad.catalog.lister;
 
+import fi.vrk.xroad.catalog.lister.util.ErrorLogCursor;
 import fi.vrk.xroad.catalog.lister.util.ServiceUtil;
+import fi.vrk.xroad.catalog.persistence.dto.DescriptorData;
+import fi.vrk.xroad.catalog.persistence.dto.MemberServiceRow;
 import fi.vrk.xroad.catalog.persistence.dto.EndpointData;
 import fi.vrk.xroad.catalog.persistence.dto.ServiceEndpointsResponse;
 import fi.vrk.xroad.catalog.persistence.entity.Endpoint;
-import fi.vrk.xroad.catalog.persistence.entity.ErrorLog;
+import fi.vrk.xroad.catalog.persistence.entity.ErrorIncident;
 import fi.vrk.xroad.catalog.persistence.entity.Member;
 import fi.vrk.xroad.catalog.persistence.entity.Rest;
 import fi.vrk.xroad.catalog.persistence.entity.Service;
+import fi.vrk.xroad.catalog.persistence.entity.ServiceStatisticsDaily;
 import fi.vrk.xroad.catalog.persistence.entity.StatusInfo;
 import fi.vrk.xroad.catalog.persistence.entity.Subsystem;
-import fi.vrk.xroad.catalog.persistence.repository.ErrorLogRepository;
+import fi.vrk.xroad.catalog.persistence.repository.ErrorIncidentRepository;
 import fi.vrk.xroad.catalog.persistence.repository.MemberRepository;
 import fi.vrk.xroad.catalog.persistence.repository.RestRepository;
 import fi.vrk.xroad.catalog.persistence.repository.ServiceRepository;
+import fi.vrk.xroad.catalog.persistence.repository.ServiceStatisticsDailyRepository;
+import fi.vrk.xroad.catalog.persistence.repository.WsdlRepository;
+import fi.vrk.xroad.catalog.persistence.util.GzipUtil;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -37,23 +44,34 @@ import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 
 @SpringBootTest(classes = ListerApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
-@TestPropertySource(properties = { "xroad-catalog.shared-params-file=src/test/resources/shared-params.xml" })
+// the repositories are mocked differently in each test, so neither the results nor the latest fetched
+// times must be cached between the tests
+@TestPropertySource(properties = { "xroad-catalog.shared-params-file=src/test/resources/shared-params.xml",
+        "xroad-catalog.cache-max-weight=0", "xroad-catalog.cache-check-interval-ms=0" })
 @ActiveProfiles({ "default", "fi" })
 public class ServiceControllerTests {
 
@@ -71,7 +89,7 @@ public class ServiceControllerTests {
     TestRestTemplate restTemplate;
 
     @MockBean
-    ErrorLogRepository errorLogRepository;
+    ErrorIncidentRepository errorIncidentRepository;
 
     @MockBean
     ServiceRepository serviceRepository;
@@ -82,6 +100,12 @@ public class ServiceControllerTests {
     @MockBean
     RestRepository restRepository;
 
+    @MockBean
+    ServiceStatisticsDailyRepository serviceStatisticsDailyRepository;
+
+    @MockBean
+    WsdlRepository wsdlRepository;
+
     @Test
     public void testListErrorsForSubsystem() throws JSONException {
         String startDate = "2014-01-01";
@@ -131,6 +155,52 @@ public class ServiceControllerTests {
         }
     }
 
+    @Test
+    public void testListErrorsWithCursor() throws JSONException {
+        String startDate = "2014-01-01";
+        String endDate = "2022-01-01";
+        LocalDateTime start = ServiceUtil.convertStringToLocalDateTime(startDate);
+        LocalDateTime end = ServiceUtil.convertStringToLocalDateTime(endDate);
+        LocalDateTime lastSeen = LocalDateTime.of(2021, 1, 1, 12, 0);
+        ErrorIncident first = ErrorIncident.builder().id(1).lastSeen(lastSeen).message(ERROR_MESSAGE).build();
+        ErrorIncident second = ErrorIncident.builder().id(2).lastSeen(lastSeen).message(ERROR_MESSAGE).build();
+        given(errorIncidentRepository.findAnyByParametersAfter(start, end, null, null, null, null, 0L,
+                PageRequest.of(0, 2))).willReturn(List.of(first, second));
+        given(errorIncidentRepository.findAnyByParametersAfter(start, end, null, null, null, null, 1L,
+                PageRequest.of(0, 2))).willReturn(List.of(second));
+
+        String url = "/api/listErrors?startDate=" + startDate + "&endDate=" + endDate + "&limit=1&count=false";
+        ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+        assertEquals(200, response.getStatusCodeValue());
+        JSONObject json = new JSONObject(response.getBody());
+        assertEquals(1, json.getJSONArray("errorLogList").length());
+        assertEquals(1, json.getJSONArray("errorLogList").getJSONObject(0).getLong("id"));
+        assertTrue(json.isNull("numberOfPages"));
+        String nextCursor = json.getString("nextCursor");
+
+        response = restTemplate.getForEntity(url + "&cursor=" + nextCursor, String.class);
+        assertEquals(200, response.getStatusCodeValue());
+        json = new JSONObject(response.getBody());
+        assertEquals(1, json.getJSONArray("errorLogList").length());
+        assertEquals(2, json.getJSONArray("errorLogList").getJSONObject(0).getLong("id"));
+        assertTrue(json.isNull("nextCursor"));
+
+        response = restTemplate.getForEntity(url + "&cursor=invalid", String.class);
+        assertEquals(400, response.getStatusCodeValue());
+
+        String baseUrl = "/api/listErrors?startDate=" + startDate + "&endDate=" + endDate + "&count=false";
+        response = restTemplate.getForEntity(baseUrl + "&limit=0", String.class);
+        assertEquals(400, response.getStatusCodeValue());
+
+        given(errorIncidentRepository.findAnyByParametersAfter(start, end, null, null, null, null, 0L,
+                PageRequest.of(0, ErrorLogCursor.MAX_PAGE_SIZE + 1))).willReturn(List.of(first, second));
+        response = restTemplate.getForEntity(baseUrl + "&limit=" + Integer.MAX_VALUE, String.class);
+        assertEquals(200, response.getStatusCodeValue());
+        json = new JSONObject(response.getBody());
+        assertEquals(ErrorLogCursor.MAX_PAGE_SIZE, json.getInt("pageSize"));
+        assertEquals(2, json.getJSONArray("errorLogList").length());
+    }
+
     @Test
     public void testListErrors() throws JSONException {
         String startDate = "2014-01-01";
@@ -221,7 +291,8 @@ public class ServiceControllerTests {
         url = "/api/listErrors?startDate=" + startDate + "&endDate=" + endDate;
         response = restTemplate.getForEntity(url, String.class);
         assertEquals(200, response.getStatusCodeValue());
-        assertEquals("{\"pageNumber\":0,\"pageSize\":100,\"numberOfPages\":1,\"errorLogList\":[]}", response.getBody());
+        assertEquals("{\"pageNumber\":0,\"pageSize\":100,\"numberOfPages\":1,\"errorLogList\":[],\"nextCursor\":null}",
+                response.getBody());
     }
 
     @Test
@@ -229,7 +300,7 @@ public class ServiceControllerTests {
         // testGetDistinctServiceStatistics
         String startDate = "2014-01-01";
         String endDate = "2023-01-01";
-        mockServices();
+        mockServiceStatistics();
         String url = "/api/getDistinctServiceStatistics?startDate=" + startDate + "&endDate=" + endDate;
         ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
         assertNotNull(response.getBody());
@@ -260,7 +331,7 @@ public class ServiceControllerTests {
         // testGetServiceStatistics
         String startDate = "2014-01-01";
         String endDate = "2023-01-01";
-        mockServices();
+        mockServiceStatistics();
         String url = "/api/getServiceStatistics?startDate=" + startDate + "&endDate=" + endDate;
         ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
         assertNotNull(response.getBody());
@@ -407,6 +478,119 @@ public class ServiceControllerTests {
         assertEquals(400, response.getStatusCodeValue());
     }
 
+    @Test
+    public void testGetListOfServicesStream() throws JSONException {
+        String startDate = "2022-01-01";
+        String endDate = "2022-01-03";
+        mockMemberServiceRows();
+        String url = "/api/getListOfServicesStream?startDate=" + startDate + "&endDate=" + endDate;
+        ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+        assertNotNull(response.getBody());
+        assertEquals(200, response.getStatusCodeValue());
+
+        List<String> lines = Arrays.asList(response.getBody().split("\n"));
+        assertEquals(6, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            JSONObject line = new JSONObject(lines.get(i));
+            assertEquals(LocalDateTime.of(2022, 1, 1 + i / 2, 0, 0).toString(), line.optString("date").substring(0, 16));
+            JSONObject memberData = line.getJSONObject("memberData");
+            if (i % 2 == 0) {
+                assertEquals(MEMBER_CODE, memberData.optString("memberCode"));
+                assertTrue(memberData.optBoolean("provider"));
+                JSONArray subsystemList = memberData.getJSONArray("subsystemList");
+                assertEquals(1, subsystemList.length());
+                assertEquals(2, subsystemList.optJSONObject(0).getJSONArray("serviceList").length());
+            } else {
+                assertEquals(ANOTHER_MEMBER_CODE, memberData.optString("memberCode"));
+                assertEquals(0, memberData.getJSONArray("subsystemList").length());
+            }
+        }
+
+        response = restTemplate.getForEntity("/api/getListOfServicesStream?startDate=01-01-2022", String.class);
+        assertEquals(400, response.getStatusCodeValue());
+    }
+
+    @Test
+    public void testGetListOfServicesCSVStream() {
+        String startDate = "2022-01-01";
+        String endDate = "2022-01-03";
+        mockMemberServiceRows();
+        String url = "/api/getListOfServicesCSVStream?startDate=" + startDate + "&endDate=" + endDate;
+        ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+        assertNotNull(response.getBody());
+        assertEquals(200, response.getStatusCodeValue());
+
+        List<String> csvContent = Arrays.asList(response.getBody().split("\r\n"));
+        List<String> csvHeader = Arrays.asList(csvContent.get(0).split(","));
+        assertEquals(13, csvHeader.size());
+        assertEquals("Date", csvHeader.get(0));
+        assertEquals("Service active", csvHeader.get(12));
+        // header, 3 days with a date row and 3 member rows each, and the security server rows
+        assertEquals(16, csvContent.size());
+        assertTrue(csvContent.get(1).startsWith("2022-01-01T00:00"));
+        assertTrue(csvContent.get(2).contains("aService"));
+        assertTrue(csvContent.get(3).contains("anotherService"));
+        assertTrue(csvContent.get(4).contains(ANOTHER_MEMBER_CODE));
+        assertTrue(csvContent.get(5).startsWith("2022-01-02T00:00"));
+
+        response = restTemplate.getForEntity("/api/getListOfServicesCSVStream?startDate=01-01-2022", String.class);
+        assertEquals(400, response.getStatusCodeValue());
+    }
+
+    @Test
+    public void testListSecurityServersNotModified() {
+        given(memberRepository.findLatestFetched()).willReturn(LocalDateTime.now().minusHours(1));
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/listSecurityServers", String.class);
+        assertEquals(200, response.getStatusCodeValue());
+        String etag = response.getHeaders().getETag();
+        assertNotNull(etag);
+        assertTrue(response.getHeaders().getLastModified() > 0);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        response = restTemplate.exchange("/api/listSecurityServers", HttpMethod.GET, new HttpEntity<>(headers),
+                String.class);
+        assertEquals(304, response.getStatusCodeValue());
+        assertNull(response.getBody());
+
+        headers = new HttpHeaders();
+        headers.setIfNoneMatch("\"other\"");
+        response = restTemplate.exchange("/api/listSecurityServers", HttpMethod.GET, new HttpEntity<>(headers),
+                String.class);
+        assertEquals(200, response.getStatusCodeValue());
+        assertNotNull(response.getBody());
+    }
+
+    @Test
+    public void testGetWsdl() throws IOException {
+        String wsdl = "<?xml version=\"1.0\" standalone=\"no\"?><wsdl/>";
+        byte[] gzip = GzipUtil.compress(wsdl);
+        given(wsdlRepository.findDataByExternalId("1000")).willReturn(List.of(new DescriptorData(null, gzip)));
+        given(wsdlRepository.findDataByExternalId("1001")).willReturn(List.of(new DescriptorData(wsdl, null)));
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/getWsdl/1000", String.class);
+        assertEquals(200, response.getStatusCodeValue());
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(wsdl, response.getBody());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip");
+        ResponseEntity<byte[]> gzipResponse = restTemplate.exchange("/api/getWsdl/1000", HttpMethod.GET,
+                new HttpEntity<>(headers), byte[].class);
+        assertEquals(200, gzipResponse.getStatusCodeValue());
+        assertEquals("gzip", gzipResponse.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(gzip, gzipResponse.getBody());
+
+        // rows saved before compression are compressed for the response
+        gzipResponse = restTemplate.exchange("/api/getWsdl/1001", HttpMethod.GET, new HttpEntity<>(headers),
+                byte[].class);
+        assertEquals("gzip", gzipResponse.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(wsdl, GzipUtil.decompress(gzipResponse.getBody()));
+
+        response = restTemplate.getForEntity("/api/getWsdl/1002", String.class);
+        assertEquals(404, response.getStatusCodeValue());
+    }
+
     @Test
     public void testListSecurityServers() throws JSONException {
         ResponseEntity<String> response = restTemplate.getForEntity("/api/listSecurityServers", String.class);
@@ -518,182 +702,283 @@ public class ServiceControllerTests {
     }
 
     private void mockErrorLogWithNoContent(String startDate, String endDate) {
-        List<ErrorLog> errorLogList = new ArrayList<>();
-        Page<ErrorLog> errors = new PageImpl<>(errorLogList, PageRequest.of(0, 100), 1);
-        given(errorLogRepository.findAnyByCreated(ServiceUtil.convertStringToLocalDateTime(startDate),
+        List<ErrorIncident> errorLogList = new ArrayList<>();
+        Page<ErrorIncident> errors = new PageImpl<>(errorLogList, PageRequest.of(0, 100), 1);
+        given(errorIncidentRepository.findAnyByParameters(ServiceUtil.convertStringToLocalDateTime(startDate),
                 ServiceUtil.convertStringToLocalDateTime(endDate),
+                null,
+                null,
+                null,
+                null,
                 PageRequest.of(0, 100))).willReturn(errors);
+        given(errorIncidentRepository.findAnyByParametersAfter(ServiceUtil.convertStringToLocalDateTime(startDate),
+                ServiceUtil.convertStringToLocalDateTime(endDate),
+                null,
+                null,
+                null,
+                null,
+                0L,
+                PageRequest.of(0, 101))).willReturn(errors.getContent());
+        given(errorIncidentRepository.countByParameters(ServiceUtil.convertStringToLocalDateTime(startDate),
+                ServiceUtil.convertStringToLocalDateTime(endDate),
+                null,
+                null,
+                null,
+                null)).willReturn(errors.getTotalElements());
     }
 
     private void mockFindErrorLogForSubsystem(String startDate, String endDate) {
-        List<ErrorLog> errorLogList = new ArrayList<>();
-        errorLogList.add(ErrorLog.builder()
+        List<ErrorIncident> errorLogList = new ArrayList<>();
+        errorLogList.add(ErrorIncident.builder()
                 .xRoadInstance(XROAD_INSTANCE)
                 .memberClass(MEMBER_CLASS)
                 .memberCode(MEMBER_CODE)
                 .subsystemCode(FIRST_SUBSYSTEM)
                 .message(ERROR_MESSAGE)
                 .build());
-        Page<ErrorLog> errors = new PageImpl<>(errorLogList, PageRequest.of(0, 100), 20);
-        given(errorLogRepository.findAnyByAllParameters(ServiceUtil.convertStringToLocalDateTime(startDate),
+        Page<ErrorIncident> errors = new PageImpl<>(errorLogList, PageRequest.of(0, 100), 20);
+        given(errorIncidentRepository.findAnyByParameters(ServiceUtil.convertStringToLocalDateTime(startDate),
                 ServiceUtil.convertStringToLocalDateTime(endDate),
                 XROAD_INSTANCE,
                 MEMBER_CLASS,
                 MEMBER_CODE,
                 FIRST_SUBSYSTEM,
                 PageRequest.of(0, 100))).willReturn(errors);
+        given(errorIncidentRepository.findAnyByParametersAfter(ServiceUtil.convertStringToLocalDateTime(startDate),
+                ServiceUtil.convertStringToLocalDateTime(endDate),
+                XROAD_INSTANCE,
+                MEMBER_CLASS,
+                MEMBER_CODE,
+                FIRST_SUBSYSTEM,
+                0L,
+                PageRequest.of(0, 101))).willReturn(errors.getContent());
+        given(errorIncidentRepository.countByParameters(ServiceUtil.convertStringToLocalDateTime(startDate),
+                ServiceUtil.convertStringToLocalDateTime(endDate),
+                XROAD_INSTANCE,
+                MEMBER_CLASS,
+                MEMBER_CODE,
+                FIRST_SUBSYSTEM)).willReturn(errors.getTotalElements());
     }
 
     private void mockFindErrorLogForMemberCode(String startDate, String endDate) {
-        List<ErrorLog> errorLogList = new ArrayList<>();
-        errorLogList.add(ErrorLog.builder()
+        List<ErrorIncident> errorLogList = new ArrayList<>();
+        errorLogList.add(ErrorIncident.builder()
                 .xRoadInstance(XROAD_INSTANCE)
                 .memberClass(MEMBER_CLASS)
                 .memberCode(MEMBER_CODE)
                 .subsystemCode(FIRST_SUBSYSTEM)
                 .message(ERROR_MESSAGE)
                 .build());
-        errorLogList.add(ErrorLog.builder()
+        errorLogList.add(ErrorIncident.builder()
                 .xRoadInstance(XROAD_INSTANCE)
                 .memberClass(MEMBER_CLASS)
                 .memberCode(MEMBER_CODE)
                 .subsystemCode(SECOND_SUBSYSTEM)
                 .message(ERROR_MESSAGE)
                 .build());
-        Page<ErrorLog> errors = new PageImpl<>(errorLogList, PageRequest.of(0, 100), 20);
-        given(errorLogRepository.findAnyByMemberCode(ServiceUtil.convertStringToLocalDateTime(startDate),
+        Page<ErrorIncident> errors = new PageImpl<>(errorLogList, PageRequest.of(0, 100), 20);
+        given(errorIncidentRepository.findAnyByParameters(ServiceUtil.convertStringToLocalDateTime(startDate),
                 ServiceUtil.convertStringToLocalDateTime(endDate),
                 XROAD_INSTANCE,
                 MEMBER_CLASS,
                 MEMBER_CODE,
+                null,
                 PageRequest.of(0, 100))).willReturn(errors);
+        given(errorIncidentRepository.findAnyByParametersAfter(ServiceUtil.convertStringToLocalDateTime(startDate),
+                ServiceUtil.convertStringToLocalDateTime(endDate),
+                XROAD_INSTANCE,
+                MEMBER_CLASS,
+                MEMBER_CODE,
+                null,
+                0L,
+                PageRequest.of(0, 101))).willReturn(errors.getContent());
+        given(errorIncidentRepository.countByParameters(ServiceUtil.convertStringToLocalDateTime(startDate),
+                ServiceUtil.convertStringToLocalDateTime(endDate),
+                XROAD_INSTANCE,
+                MEMBER_CLASS,
+                MEMBER_CODE,
+                null)).willReturn(errors.getTotalElements());
     }
 
     private void mockFindErrorLogForMemberClass(String startDate, String endDate) {
-        List<ErrorLog> errorLogList = new ArrayList<>();
-        errorLogList.add(ErrorLog.builder()
+        List<ErrorIncident> errorLogList = new ArrayList<>();
+        errorLogList.add(ErrorIncident.builder()
                 .xRoadInstance(XROAD_INSTANCE)
                 .memberClass(MEMBER_CLASS)
                 .memberCode(MEMBER_CODE)
                 .subsystemCode(FIRST_SUBSYSTEM)
                 .message(ERROR_MESSAGE)
                 .build());
-        errorLogList.add(ErrorLog.builder()
+        errorLogList.add(ErrorIncident.builder()
                 .xRoadInstance(XROAD_INSTANCE)
                 .memberClass(MEMBER_CLASS)
                 .memberCode(MEMBER_CODE)
                 .subsystemCode(SECOND_SUBSYSTEM)
                 .message(ERROR_MESSAGE)
                 .build());
-        errorLogList.add(ErrorLog.builder()
+        errorLogList.add(ErrorIncident.builder()
                 .xRoadInstance(XROAD_INSTANCE)
                 .memberClass(MEMBER_CLASS)
                 .memberCode(ANOTHER_MEMBER_CODE)
                 .subsystemCode(SECOND_SUBSYSTEM)
                 .message(ERROR_MESSAGE)
                 .build());
-        Page<ErrorLog> errors = new PageImpl<>(errorLogList, PageRequest.of(0, 100), 20);
-        given(errorLogRepository.findAnyByMemberClass(ServiceUtil.convertStringToLocalDateTime(startDate),
+        Page<ErrorIncident> errors = new PageImpl<>(errorLogList, PageRequest.of(0, 100), 20);
+        given(errorIncidentRepository.findAnyByParameters(ServiceUtil.convertStringToLocalDateTime(startDate),
                 ServiceUtil.convertStringToLocalDateTime(endDate),
                 XROAD_INSTANCE,
                 MEMBER_CLASS,
+                null,
+                null,
                 PageRequest.of(0, 100))).willReturn(errors);
+        given(errorIncidentRepository.findAnyByParametersAfter(ServiceUtil.convertStringToLocalDateTime(startDate),
+                ServiceUtil.convertStringToLocalDateTime(endDate),
+                XROAD_INSTANCE,
+                MEMBER_CLASS,
+                null,
+                null,
+                0L,
+                PageRequest.of(0, 101))).willReturn(errors.getContent());
+        given(errorIncidentRepository.countByParameters(ServiceUtil.convertStringToLocalDateTime(startDate),
+                ServiceUtil.convertStringToLocalDateTime(endDate),
+                XROAD_INSTANCE,
+                MEMBER_CLASS,
+                null,
+                null)).willReturn(errors.getTotalElements());
     }
 
     private void mockFindErrorLogForInstance(String startDate, String endDate) {
-        List<ErrorLog> errorLogList = new ArrayList<>();
-        errorLogList.add(ErrorLog.builder()
+        List<ErrorIncident> errorLogList = new ArrayList<>();
+        errorLogList.add(ErrorIncident.builder()
                 .xRoadInstance(XROAD_INSTANCE)
                 .memberClass(MEMBER_CLASS)
                 .memberCode(MEMBER_CODE)
                 .subsystemCode(FIRST_SUBSYSTEM)
                 .message(ERROR_MESSAGE)
                 .build());
-        errorLogList.add(ErrorLog.builder()
+        errorLogList.add(ErrorIncident.builder()
                 .xRoadInstance(XROAD_INSTANCE)
                 .memberClass(MEMBER_CLASS)
                 .memberCode(MEMBER_CODE)
                 .subsystemCode(SECOND_SUBSYSTEM)
                 .message(ERROR_MESSAGE)
                 .build());
-        errorLogList.add(ErrorLog.builder()
+        errorLogList.add(ErrorIncident.builder()
                 .xRoadInstance(XROAD_INSTANCE)
                 .memberClass(MEMBER_CLASS)
                 .memberCode(ANOTHER_MEMBER_CODE)
                 .subsystemCode(SECOND_SUBSYSTEM)
                 .message(ERROR_MESSAGE)
                 .build());
-        errorLogList.add(ErrorLog.builder()
+        errorLogList.add(ErrorIncident.builder()
                 .xRoadInstance(XROAD_INSTANCE)
                 .memberClass(OTHER_MEMBER_CLASS)
                 .memberCode(ANOTHER_MEMBER_CODE)
                 .subsystemCode(SECOND_SUBSYSTEM)
                 .message(ERROR_MESSAGE)
                 .build());
-        Page<ErrorLog> errors = new PageImpl<>(errorLogList, PageRequest.of(0, 100), 20);
-        given(errorLogRepository.findAnyByInstance(ServiceUtil.convertStringToLocalDateTime(startDate),
+        Page<ErrorIncident> errors = new PageImpl<>(errorLogList, PageRequest.of(0, 100), 20);
+        given(errorIncidentRepository.findAnyByParameters(ServiceUtil.convertStringToLocalDateTime(startDate),
                 ServiceUtil.convertStringToLocalDateTime(endDate),
                 XROAD_INSTANCE,
+                null,
+                null,
+                null,
                 PageRequest.of(0, 100))).willReturn(errors);
+        given(errorIncidentRepository.findAnyByParametersAfter(ServiceUtil.convertStringToLocalDateTime(startDate),
+                ServiceUtil.convertStringToLocalDateTime(endDate),
+                XROAD_INSTANCE,
+                null,
+                null,
+                null,
+                0L,
+                PageRequest.of(0, 101))).willReturn(errors.getContent());
+        given(errorIncidentRepository.countByParameters(ServiceUtil.convertStringToLocalDateTime(startDate),
+                ServiceUtil.convertStringToLocalDateTime(endDate),
+                XROAD_INSTANCE,
+                null,
+                null,
+                null)).willReturn(errors.getTotalElements());
     }
 
     private void mockFindErrorLogForAll(String startDate, String endDate) {
-        List<ErrorLog> errorLogList = new ArrayList<>();
-        errorLogList.add(ErrorLog.builder()
+        List<ErrorIncident> errorLogList = new ArrayList<>();
+        errorLogList.add(ErrorIncident.builder()
                 .xRoadInstance(XROAD_INSTANCE)
                 .memberClass(MEMBER_CLASS)
                 .memberCode(MEMBER_CODE)
                 .subsystemCode(FIRST_SUBSYSTEM)
                 .message(ERROR_MESSAGE)
                 .build());
-        errorLogList.add(ErrorLog.builder()
+        errorLogList.add(ErrorIncident.builder()
                 .xRoadInstance(XROAD_INSTANCE)
                 .memberClass(MEMBER_CLASS)
                 .memberCode(MEMBER_CODE)
                 .subsystemCode(SECOND_SUBSYSTEM)
                 .message(ERROR_MESSAGE)
                 .build());
-        errorLogList.add(ErrorLog.builder()
+        errorLogList.add(ErrorIncident.builder()
                 .xRoadInstance(XROAD_INSTANCE)
                 .memberClass(MEMBER_CLASS)
                 .memberCode(ANOTHER_MEMBER_CODE)
                 .subsystemCode(SECOND_SUBSYSTEM)
                 .message(ERROR_MESSAGE)
                 .build());
-        errorLogList.add(ErrorLog.builder()
+        errorLogList.add(ErrorIncident.builder()
                 .xRoadInstance(XROAD_INSTANCE)
                 .memberClass(OTHER_MEMBER_CLASS)
                 .memberCode(ANOTHER_MEMBER_CODE)
                 .subsystemCode(SECOND_SUBSYSTEM)
                 .message(ERROR_MESSAGE)
                 .build());
-        errorLogList.add(ErrorLog.builder()
+        errorLogList.add(ErrorIncident.builder()
                 .xRoadInstance(OTHER_INSTANCE)
                 .memberClass(OTHER_MEMBER_CLASS)
                 .memberCode(ANOTHER_MEMBER_CODE)
                 .subsystemCode(SECOND_SUBSYSTEM)
                 .message(ERROR_MESSAGE)
                 .build());
-        Page<ErrorLog> errors = new PageImpl<>(errorLogList, PageRequest.of(0, 100), 20);
-        given(errorLogRepository.findAnyByCreated(ServiceUtil.convertStringToLocalDateTime(startDate),
+        Page<ErrorIncident> errors = new PageImpl<>(errorLogList, PageRequest.of(0, 100), 20);
+        given(errorIncidentRepository.findAnyByParameters(ServiceUtil.convertStringToLocalDateTime(startDate),
                 ServiceUtil.convertStringToLocalDateTime(endDate),
+                null,
+                null,
+                null,
+                null,
                 PageRequest.of(0, 100))).willReturn(errors);
+        given(errorIncidentRepository.findAnyByParametersAfter(ServiceUtil.convertStringToLocalDateTime(startDate),
+                ServiceUtil.convertStringToLocalDateTime(endDate),
+                null,
+                null,
+                null,
+                null,
+                0L,
+                PageRequest.of(0, 101))).willReturn(errors.getContent());
+        given(errorIncidentRepository.countByParameters(ServiceUtil.convertStringToLocalDateTime(startDate),
+                ServiceUtil.convertStringToLocalDateTime(endDate),
+                null,
+                null,
+                null,
+                null)).willReturn(errors.getTotalElements());
     }
 
-    private void mockServices() {
-        List<Service> services = new ArrayList<>();
-        LocalDateTime created = LocalDateTime.of(2015, 1, 1, 1, 1);
-        LocalDateTime changed = LocalDateTime.of(2015, 1, 1, 1, 1);
-        LocalDateTime fetched = LocalDateTime.of(2015, 1, 1, 1, 1);
-        Member member = new Member(XROAD_INSTANCE, MEMBER_CLASS, MEMBER_CODE, "memberX");
-        Subsystem subsystem = new Subsystem(member, FIRST_SUBSYSTEM);
-        Service firstService = new Service(subsystem, "aService", "v1");
-        firstService.setStatusInfo(new StatusInfo(created, changed, fetched, null));
-        Service secondService = new Service(subsystem, "anotherService", "v1");
-        secondService.setStatusInfo(new StatusInfo(created.plusYears(1), changed, fetched, null));
-        services.add(firstService);
-        services.add(secondService);
-        given(serviceRepository.findAllActive()).willReturn(services);
+    private void mockServiceStatistics() {
+        List<ServiceStatisticsDaily> statistics = new ArrayList<>();
+        statistics.add(createServiceStatisticsDaily(LocalDate.of(2015, 1, 1), 1L));
+        statistics.add(createServiceStatisticsDaily(LocalDate.of(2016, 1, 1), 2L));
+        given(serviceStatisticsDailyRepository.findCoveringDates(any(LocalDate.class), any(LocalDate.class)))
+                .willReturn(statistics);
+    }
+
+    private ServiceStatisticsDaily createServiceStatisticsDaily(LocalDate statisticsDate, long numberOfServices) {
+        return ServiceStatisticsDaily.builder()
+                .statisticsDate(statisticsDate)
+                .numberOfSoapServices(numberOfServices)
+                .numberOfRestServices(0L)
+                .numberOfOpenApiServices(0L)
+                .numberOfDistinctServices(numberOfServices)
+                .updated(statisticsDate.atStartOfDay())
+                .build();
     }
 
     private void mockServicesWithEndpointsByMemberServiceAndSubsystem() {
@@ -756,4 +1041,15 @@ public class ServiceControllerTests {
         members.add(memberZ);
         given(memberRepository.findAll()).willReturn(new HashSet<>(members));
     }
+
+    private void mockMemberServiceRows() {
+        LocalDateTime created = LocalDateTime.of(2015, 1, 1, 1, 1);
+        given(memberRepository.streamMemberServiceRows(any(LocalDateTime.class))).willAnswer(invocation -> Stream.of(
+                new MemberServiceRow(1L, XROAD_INSTANCE, MEMBER_CLASS, MEMBER_CODE, "memberX", created,
+                        1L, FIRST_SUBSYSTEM, created, null, "aService", "v1", created, null, Boolean.TRUE),
+                new MemberServiceRow(1L, XROAD_INSTANCE, MEMBER_CLASS, MEMBER_CODE, "memberX", created,
+                        1L, FIRST_SUBSYSTEM, created, null, "anotherService", "v1", created, created, Boolean.FALSE),
+                new MemberServiceRow(2L, XROAD_INSTANCE, MEMBER_CLASS, ANOTHER_MEMBER_CODE, "memberZ", created,
+                        null, null, null, null, null, null, null, null, Boolean.FALSE)));
+    }
 }
@@ -14,8 +14,15 @@ package fi.vrk.xroad.catalog.lister;
 
 import fi.vrk.xroad.catalog.persistence.dto.SecurityServerDataList;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class SharedParamsParserTests {
 
@@ -92,4 +99,23 @@ public class SharedParamsParserTests {
 
         assertEquals(0, list.getSecurityServerDataList().get(3).getClients().size());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testParseDetailsReloadsChangedFile(@TempDir Path tempDir) throws Exception {
+        Path sharedParamsFile = tempDir.resolve("shared-params.xml");
+        String content = Files.readString(Paths.get("src/test/resources/shared-params-2.xml"), StandardCharsets.UTF_8);
+        Files.writeString(sharedParamsFile, content, StandardCharsets.UTF_8);
+        SharedParamsParser sharedParamsParser = new SharedParamsParser();
+
+        SecurityServerDataList list = sharedParamsParser.parseDetails(sharedParamsFile.toString());
+        assertEquals("10.0.0.1", list.getSecurityServerDataList().get(0).getAddress());
+        assertSame(list, sharedParamsParser.parseDetails(sharedParamsFile.toString()));
+        assertEquals(list.getSecurityServerDataList().size(),
+                sharedParamsParser.parseInfo(sharedParamsFile.toString()).size());
+
+        Files.writeString(sharedParamsFile, content.replace("10.0.0.1", "10.0.0.11"), StandardCharsets.UTF_8);
+        sharedParamsFile.toFile().setLastModified(sharedParamsFile.toFile().lastModified() + 1000);
+        list = sharedParamsParser.parseDetails(sharedParamsFile.toString());
+        assertEquals("10.0.0.11", list.getSecurityServerDataList().get(0).getAddress());
+    }
+}
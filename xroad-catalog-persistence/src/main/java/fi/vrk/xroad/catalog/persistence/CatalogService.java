@@ -12,17 +12,22 @@
  */
 package fi.vrk.xroad.catalog.persistence;
 
+import fi.vrk.xroad.catalog.persistence.dto.DescriptorData;
 import fi.vrk.xroad.catalog.persistence.dto.LastCollectionData;
 import fi.vrk.xroad.catalog.persistence.dto.DistinctServiceStatistics;
+import fi.vrk.xroad.catalog.persistence.dto.ErrorLogOccurrences;
+import fi.vrk.xroad.catalog.persistence.dto.MemberData;
 import fi.vrk.xroad.catalog.persistence.dto.MemberDataList;
 import fi.vrk.xroad.catalog.persistence.dto.ServiceStatistics;
 import fi.vrk.xroad.catalog.persistence.dto.XRoadData;
+import fi.vrk.xroad.catalog.persistence.entity.ErrorIncident;
 import fi.vrk.xroad.catalog.persistence.entity.ErrorLog;
 import fi.vrk.xroad.catalog.persistence.entity.Member;
 import fi.vrk.xroad.catalog.persistence.entity.OpenApi;
 import fi.vrk.xroad.catalog.persistence.entity.Rest;
 import fi.vrk.xroad.catalog.persistence.entity.Service;
 import fi.vrk.xroad.catalog.persistence.entity.ServiceId;
+import fi.vrk.xroad.catalog.persistence.entity.ServiceStatisticsDaily;
 import fi.vrk.xroad.catalog.persistence.entity.SubsystemId;
 import fi.vrk.xroad.catalog.persistence.entity.Wsdl;
 
@@ -31,6 +36,9 @@ import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * CRUD methods for catalog objects. no business logic (e.g. hash calculation),
@@ -84,6 +92,17 @@ public interface CatalogService {
      */
     Iterable<Member> getAllMembers(LocalDateTime startDateTime, LocalDateTime endDateTime);
 
+    /**
+     * Passes the same members as {@link #getAllMembers(LocalDateTime, LocalDateTime)} to the consumer
+     * one at a time. The members are read with a database cursor in small batches that are
+     * detached once consumed, so memory use does not depend on the number of members.
+     *
+     * @param startDateTime Only interested in member after this
+     * @param endDateTime   Only interested in member before this
+     * @param consumer      called once per member in id order, the member is only usable during the call
+     */
+    void streamAllMembers(LocalDateTime startDateTime, LocalDateTime endDateTime, Consumer<Member> consumer);
+
     /**
      * Returns full Member object
      * 
@@ -94,6 +113,17 @@ public interface CatalogService {
      */
     Member getMember(String xRoadInstance, String memberClass, String memberCode);
 
+    /**
+     * Tells if the member provides services, i.e. has a service with a wsdl, openapi or rest
+     * description. Does not load the member entity tree.
+     *
+     * @param xRoadInstance name of the instance
+     * @param memberClass   member class
+     * @param memberCode    member code
+     * @return true if the member provides services, null if the member is not found
+     */
+    Boolean isProvider(String xRoadInstance, String memberClass, String memberCode);
+
     /**
      * Returns the full Wsdl object. Only returns active ones, removed are not
      * found.
@@ -114,6 +144,46 @@ public interface CatalogService {
      */
     OpenApi getOpenApi(String externalId);
 
+    /**
+     * Returns only the data of a Wsdl, for serving it without loading the Wsdl and its
+     * service. Finds the same Wsdls as getWsdl.
+     *
+     * @param externalId id of a Wsdl
+     * @return data of the Wsdl, null if not found
+     * @throws RuntimeException if multiple matches found.
+     */
+    String getWsdlData(String externalId);
+
+    /**
+     * Returns only the data of an OpenApi, for serving it without loading the OpenApi and its
+     * service. Finds the same OpenApis as getOpenApi.
+     *
+     * @param externalId id of an OpenAPI
+     * @return data of the OpenApi, null if not found
+     * @throws RuntimeException if multiple matches found.
+     */
+    String getOpenApiData(String externalId);
+
+    /**
+     * Returns the stored, gzip compressed when possible, data of a Wsdl, for serving it
+     * without decompressing it. Finds the same Wsdls as getWsdl.
+     *
+     * @param externalId id of a Wsdl
+     * @return stored data of the Wsdl, null if not found
+     * @throws RuntimeException if multiple matches found.
+     */
+    DescriptorData getWsdlDescriptor(String externalId);
+
+    /**
+     * Returns the stored, gzip compressed when possible, data of an OpenApi, for serving it
+     * without decompressing it. Finds the same OpenApis as getOpenApi.
+     *
+     * @param externalId id of an OpenAPI
+     * @return stored data of the OpenApi, null if not found
+     * @throws RuntimeException if multiple matches found.
+     */
+    DescriptorData getOpenApiDescriptor(String externalId);
+
     /**
      * Returns the full Rest object. Only returns active ones, removed are not
      * found.
@@ -144,6 +214,25 @@ public interface CatalogService {
             String subsystemCode,
             String serviceVersion);
 
+    /**
+     * Returns the type of a service without loading the Service object:
+     * SOAP if it has a wsdl, OPENAPI if it has an openapi description, REST otherwise.
+     *
+     * @param xRoadInstance  X-Road instance identifier
+     * @param memberClass    X-Road member class
+     * @param memberCode     X-Road member code
+     * @param serviceCode    X-Road service code
+     * @param subsystemCode  X-Road subsystem code
+     * @param serviceVersion X-Road service version
+     * @return SOAP, OPENAPI or REST, null if not found
+     */
+    String getServiceType(String xRoadInstance,
+            String memberClass,
+            String memberCode,
+            String serviceCode,
+            String subsystemCode,
+            String serviceVersion);
+
     /**
      * Returns List of full Service objects. Only returns active ones, removed are
      * not found.
@@ -179,7 +268,65 @@ public interface CatalogService {
             LocalDateTime endDate);
 
     /**
-     * Returns a list of service statistics
+     * Returns a page of error incidents which occurred between the given dates, each incident
+     * standing for the repeated failures of one member, subsystem or service
+     * 
+     * @param xRoadData X-Road instance identifier, member class, member code and
+     *                  subsystem code
+     * @param page      page number of pageable result of error incidents
+     * @param limit     number of results per page
+     * @param startDate occurrences from
+     * @param endDate   occurrences to
+     * @return Page of ErrorIncident
+     */
+    Page<ErrorIncident> getErrorIncidents(XRoadData xRoadData,
+            int page,
+            int limit,
+            LocalDateTime startDate,
+            LocalDateTime endDate);
+
+    /**
+     * Returns the error incidents which occurred between the given dates
+     * 
+     * @param startDateTime occurrences from
+     * @param endDateTime   occurrences to
+     * @return List of ErrorIncident
+     */
+    List<ErrorIncident> getErrorIncidents(LocalDateTime startDateTime, LocalDateTime endDateTime);
+
+    /**
+     * Returns error incidents which occurred between the given dates in the order of id, starting
+     * after the given incident. Unlike a page number, the position does not make the database skip
+     * the preceding incidents, and it stays valid when incidents recur.
+     * 
+     * @param xRoadData     X-Road instance identifier, member class, member code and
+     *                      subsystem code
+     * @param startDate     occurrences from
+     * @param endDate       occurrences to
+     * @param afterId       id of the last incident of the previous page, 0 for the first page
+     * @param limit         maximum number of incidents
+     * @return List of ErrorIncident
+     */
+    List<ErrorIncident> getErrorIncidentsAfter(XRoadData xRoadData,
+            LocalDateTime startDate,
+            LocalDateTime endDate,
+            long afterId,
+            int limit);
+
+    /**
+     * Returns the number of error incidents which occurred between the given dates
+     * 
+     * @param xRoadData X-Road instance identifier, member class, member code and
+     *                  subsystem code
+     * @param startDate occurrences from
+     * @param endDate   occurrences to
+     * @return number of error incidents
+     */
+    long countErrorIncidents(XRoadData xRoadData, LocalDateTime startDate, LocalDateTime endDate);
+
+    /**
+     * Returns a list of service statistics, one per day, read from the daily statistics
+     * stored by the collector. Days before the first stored statistics are not included
      * 
      * @param startDateTime creation date from
      * @param endDateTime   creation date to
@@ -188,7 +335,8 @@ public interface CatalogService {
     List<ServiceStatistics> getServiceStatistics(LocalDateTime startDateTime, LocalDateTime endDateTime);
 
     /**
-     * Returns a list of distinct service statistics
+     * Returns a list of distinct service statistics, one per day, read from the daily
+     * statistics stored by the collector
      * 
      * @return List of DistinctServiceStatistics, null if not found
      */
@@ -204,6 +352,19 @@ public interface CatalogService {
      */
     List<MemberDataList> getMemberData(LocalDateTime startDateTime, LocalDateTime endDateTime);
 
+    /**
+     * Streams the same member data as getMemberData, but reads the members of each day with a
+     * database cursor and passes them on one member at a time instead of building the lists in memory
+     *
+     * @param startDateTime creation date from
+     * @param endDateTime   creation date to
+     * @param consumer      called once per day with the date and the members of that day,
+     *                      the stream is only usable during the call
+     */
+    void streamMemberData(LocalDateTime startDateTime,
+            LocalDateTime endDateTime,
+            BiConsumer<LocalDateTime, Stream<MemberData>> consumer);
+
     /**
      * Returns the full ErrorLog object.
      * 
@@ -327,20 +488,47 @@ public interface CatalogService {
     LastCollectionData getLastCollectionData();
 
     /**
-     * Saves given errorLog data.
+     * Saves given errorLog data, see saveErrorLogs.
      * 
      * @param errorLog the actual errorLog
-     * @return error log
+     * @return the error incident the error log was counted into
      */
-    ErrorLog saveErrorLog(ErrorLog errorLog);
+    ErrorIncident saveErrorLog(ErrorLog errorLog);
 
     /**
-     * Deletes old log entries
+     * Saves given errorLog entries in one transaction, see saveErrorLogOccurrences.
+     * 
+     * @param errorLogs the errorLog entries
+     */
+    void saveErrorLogs(Collection<ErrorLog> errorLogs);
+
+    /**
+     * Saves given errorLog entries in one transaction, inserts are sent in JDBC batches.
+     * Each entry is counted into its error incident as many times as it occurred, and only
+     * the entries opening a new incident are stored in the error log. The count of an existing
+     * incident is incremented in the database, so concurrent saves do not lose counts, but a
+     * concurrent save opening the same incident fails on its unique key and must be retried.
+     * 
+     * @param occurrences the errorLog entries with their numbers of occurrences
+     */
+    void saveErrorLogOccurrences(Collection<ErrorLogOccurrences> occurrences);
+
+    /**
+     * Deletes old log entries and error incidents. When error_log is partitioned, the partitions
+     * holding only old entries are dropped instead of deleting their entries row by row.
      * 
      * @param daysBefore older than daysBefore
      */
     void deleteOldErrorLogEntries(Integer daysBefore);
 
+    /**
+     * Stores the current service counts as the statistics of today,
+     * overwriting the counts stored earlier today
+     *
+     * @return the stored statistics
+     */
+    ServiceStatisticsDaily updateServiceStatisticsDaily();
+
     /**
      * Returns a batch of Member codes for members that haven't had their Company or
      * Organization data updated for
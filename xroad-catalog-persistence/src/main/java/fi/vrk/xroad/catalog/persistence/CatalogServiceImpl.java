@@ -12,15 +12,21 @@
  */
 package fi.vrk.xroad.catalog.persistence;
 
+import fi.vrk.xroad.catalog.persistence.dto.DescriptorData;
 import fi.vrk.xroad.catalog.persistence.dto.DistinctServiceStatistics;
+import fi.vrk.xroad.catalog.persistence.dto.ErrorLogOccurrences;
 import fi.vrk.xroad.catalog.persistence.dto.LastCollectionData;
 import fi.vrk.xroad.catalog.persistence.dto.MemberData;
 import fi.vrk.xroad.catalog.persistence.dto.MemberDataList;
+import fi.vrk.xroad.catalog.persistence.dto.MemberServiceRow;
+import fi.vrk.xroad.catalog.persistence.dto.MemberSubsystemSnapshot;
 import fi.vrk.xroad.catalog.persistence.dto.ServiceData;
 import fi.vrk.xroad.catalog.persistence.dto.ServiceStatistics;
 import fi.vrk.xroad.catalog.persistence.dto.SubsystemData;
 import fi.vrk.xroad.catalog.persistence.dto.XRoadData;
+import fi.vrk.xroad.catalog.persistence.entity.Descriptor;
 import fi.vrk.xroad.catalog.persistence.entity.Endpoint;
+import fi.vrk.xroad.catalog.persistence.entity.ErrorIncident;
 import fi.vrk.xroad.catalog.persistence.entity.ErrorLog;
 import fi.vrk.xroad.catalog.persistence.entity.Member;
 import fi.vrk.xroad.catalog.persistence.entity.MemberId;
@@ -28,34 +34,56 @@ import fi.vrk.xroad.catalog.persistence.entity.OpenApi;
 import fi.vrk.xroad.catalog.persistence.entity.Rest;
 import fi.vrk.xroad.catalog.persistence.entity.Service;
 import fi.vrk.xroad.catalog.persistence.entity.ServiceId;
+import fi.vrk.xroad.catalog.persistence.entity.ServiceStatisticsDaily;
 import fi.vrk.xroad.catalog.persistence.entity.StatusInfo;
 import fi.vrk.xroad.catalog.persistence.entity.Subsystem;
 import fi.vrk.xroad.catalog.persistence.entity.SubsystemId;
 import fi.vrk.xroad.catalog.persistence.entity.Wsdl;
+import fi.vrk.xroad.catalog.persistence.repository.DescriptorRepository;
 import fi.vrk.xroad.catalog.persistence.repository.EndpointRepository;
+import fi.vrk.xroad.catalog.persistence.repository.ErrorIncidentRepository;
 import fi.vrk.xroad.catalog.persistence.repository.ErrorLogRepository;
 import fi.vrk.xroad.catalog.persistence.repository.MemberRepository;
 import fi.vrk.xroad.catalog.persistence.repository.OpenApiRepository;
 import fi.vrk.xroad.catalog.persistence.repository.RestRepository;
 import fi.vrk.xroad.catalog.persistence.repository.ServiceRepository;
+import fi.vrk.xroad.catalog.persistence.repository.ServiceStatisticsDailyRepository;
 import fi.vrk.xroad.catalog.persistence.repository.SubsystemRepository;
 import fi.vrk.xroad.catalog.persistence.repository.WsdlRepository;
+import fi.vrk.xroad.catalog.persistence.util.DigestUtil;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.PeekingIterator;
+import com.google.common.util.concurrent.Striped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 /**
@@ -73,6 +101,17 @@ public class CatalogServiceImpl implements CatalogService {
 
     private static final String SERVICE_ID_REQUIRED = "serviceId is required";
 
+    private static final int UPDATE_BATCH_SIZE = 1000;
+
+    // members loaded with their entity trees at a time by streamAllMembers
+    private static final int MEMBER_STREAM_BATCH_SIZE = 100;
+
+    // monthly error_log partitions created ahead of time, so that inserts do not end up in the default partition
+    private static final int ERROR_LOG_PARTITIONS_AHEAD = 2;
+
+    // locks serializing the creation of identical descriptors, see replaceDescriptor
+    private static final int DESCRIPTOR_LOCK_STRIPES = 64;
+
     @Autowired
     MemberRepository memberRepository;
 
@@ -94,58 +133,135 @@ public class CatalogServiceImpl implements CatalogService {
     @Autowired
     WsdlRepository wsdlRepository;
 
+    @Autowired
+    DescriptorRepository descriptorRepository;
+
     @Autowired
     ErrorLogRepository errorLogRepository;
 
+    @Autowired
+    ErrorIncidentRepository errorIncidentRepository;
+
+    @Autowired
+    ServiceStatisticsDailyRepository serviceStatisticsDailyRepository;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    private final Striped<Lock> descriptorLocks = Striped.lock(DESCRIPTOR_LOCK_STRIPES);
+
+    // error_log is range partitioned by created in PostgreSQL, see create_tables_*.sql
+    @Value("${xroad-catalog.error-log-partitioned:false}")
+    boolean errorLogPartitioned;
+
     @Override
+    @Transactional(readOnly = true)
     public Iterable<Member> getActiveMembers() {
         return memberRepository.findAllActive();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Iterable<Member> getAllMembers() {
         return memberRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public Iterable<Member> getActiveMembers(LocalDateTime startDateTime, LocalDateTime endDateTime) {
         return memberRepository.findActiveChangedBetween(startDateTime, endDateTime);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Iterable<Member> getAllMembers(LocalDateTime startDateTime, LocalDateTime endDateTime) {
         return memberRepository.findAllChangedBetween(startDateTime, endDateTime);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public void streamAllMembers(LocalDateTime startDateTime, LocalDateTime endDateTime, Consumer<Member> consumer) {
+        try (Stream<Long> ids = memberRepository.streamIdsChangedBetween(startDateTime, endDateTime)) {
+            Iterator<List<Long>> batches = Iterators.partition(ids.iterator(), MEMBER_STREAM_BATCH_SIZE);
+            while (batches.hasNext()) {
+                memberRepository.findTreesByIds(batches.next()).forEach(consumer);
+                // nothing is written in a read-only transaction, so the batch can be dropped as is
+                entityManager.clear();
+            }
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Member getMember(String xRoadInstance, String memberClass, String memberCode) {
         return memberRepository.findActiveByNaturalKey(xRoadInstance, memberClass, memberCode);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Boolean isProvider(String xRoadInstance, String memberClass, String memberCode) {
+        return memberRepository.findProviderByNaturalKey(xRoadInstance, memberClass, memberCode);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Wsdl getWsdl(String externalId) {
         List<Wsdl> matches = wsdlRepository.findAnyByExternalId(externalId);
         if (matches.size() > 1) {
             throw new IllegalStateException(MULTIPLE_MATCHES_FOUND_TO + externalId + ": " + matches);
         } else if (matches.size() == 1) {
-            return matches.iterator().next();
+            Wsdl wsdl = matches.iterator().next();
+            // data is lazy loaded, read it while the transaction is still open
+            wsdl.getData();
+            return wsdl;
         } else {
             return null;
         }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public OpenApi getOpenApi(String externalId) {
         List<OpenApi> matches = openApiRepository.findAnyByExternalId(externalId);
         if (matches.size() > 1) {
             throw new IllegalStateException(MULTIPLE_MATCHES_FOUND_TO + externalId + ": " + matches);
         } else if (matches.size() == 1) {
-            return matches.iterator().next();
+            OpenApi openApi = matches.iterator().next();
+            // data is lazy loaded, read it while the transaction is still open
+            openApi.getData();
+            return openApi;
         } else {
             return null;
         }
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public String getWsdlData(String externalId) {
+        DescriptorData descriptor = getWsdlDescriptor(externalId);
+        return descriptor != null ? descriptor.getText() : null;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getOpenApiData(String externalId) {
+        DescriptorData descriptor = getOpenApiDescriptor(externalId);
+        return descriptor != null ? descriptor.getText() : null;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DescriptorData getWsdlDescriptor(String externalId) {
+        return getSingleData(externalId, wsdlRepository.findDataByExternalId(externalId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DescriptorData getOpenApiDescriptor(String externalId) {
+        return getSingleData(externalId, openApiRepository.findDataByExternalId(externalId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Rest getRest(Service service) {
         List<Rest> matches = restRepository.findAnyByService(service);
         if (matches.size() > 1) {
@@ -159,6 +275,7 @@ public class CatalogServiceImpl implements CatalogService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Service getService(String xRoadInstance,
             String memberClass,
             String memberCode,
@@ -174,6 +291,23 @@ public class CatalogServiceImpl implements CatalogService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public String getServiceType(String xRoadInstance,
+            String memberClass,
+            String memberCode,
+            String serviceCode,
+            String subsystemCode,
+            String serviceVersion) {
+        if (serviceVersion == null) {
+            return serviceRepository.findServiceTypeByMemberServiceAndSubsystemVersionNull(xRoadInstance,
+                    memberClass, memberCode, serviceCode, subsystemCode);
+        }
+        return serviceRepository.findServiceTypeByMemberServiceAndSubsystemAndVersion(xRoadInstance,
+                memberClass, memberCode, serviceCode, subsystemCode, serviceVersion);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<Service> getServices(String xRoadInstance,
             String memberClass,
             String memberCode,
@@ -187,46 +321,20 @@ public class CatalogServiceImpl implements CatalogService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ServiceStatistics> getServiceStatistics(LocalDateTime startDateTime, LocalDateTime endDateTime) {
         List<ServiceStatistics> serviceStatisticsList = new ArrayList<>();
-        List<Service> services = serviceRepository.findAllActive();
-        LocalDateTime dateInPast = startDateTime;
-        while (isDateBetweenDates(dateInPast, startDateTime, endDateTime)) {
-            ServiceStatistics serviceStatistics = createServiceStatistics(services, dateInPast, endDateTime);
-            serviceStatisticsList.add(serviceStatistics);
-            dateInPast = dateInPast.plusDays(1);
-        }
+        forEachStatisticsDay(startDateTime, endDateTime, (dateInPast, statistics) -> serviceStatisticsList.add(
+                ServiceStatistics.builder()
+                        .created(dateInPast)
+                        .numberOfRestServices(statistics.getNumberOfRestServices())
+                        .numberOfSoapServices(statistics.getNumberOfSoapServices())
+                        .numberOfOpenApiServices(statistics.getNumberOfOpenApiServices()).build()));
         return serviceStatisticsList;
     }
 
-    private ServiceStatistics createServiceStatistics(List<Service> services,
-            LocalDateTime dateInPast,
-            LocalDateTime endDateTime) {
-        AtomicLong numberOfSoapServices = new AtomicLong();
-        AtomicLong numberOfRestServices = new AtomicLong();
-        AtomicLong numberOfOpenApiServices = new AtomicLong();
-
-        services.forEach(service -> {
-            LocalDateTime creationDate = service.getStatusInfo().getCreated();
-            if (creationDate.isBefore(endDateTime)) {
-                if (service.hasOpenApi()) {
-                    numberOfOpenApiServices.getAndIncrement();
-                } else if (service.hasWsdl()) {
-                    numberOfSoapServices.getAndIncrement();
-                } else {
-                    numberOfRestServices.getAndIncrement();
-                }
-            }
-        });
-
-        return ServiceStatistics.builder()
-                .created(dateInPast)
-                .numberOfRestServices(numberOfRestServices.longValue())
-                .numberOfSoapServices(numberOfSoapServices.longValue())
-                .numberOfOpenApiServices(numberOfOpenApiServices.longValue()).build();
-    }
-
     @Override
+    @Transactional(readOnly = true)
     public Page<ErrorLog> getErrors(XRoadData xRoadData,
             int page,
             int limit,
@@ -280,31 +388,70 @@ public class CatalogServiceImpl implements CatalogService {
     }
 
     @Override
-    public List<DistinctServiceStatistics> getDistinctServiceStatistics(LocalDateTime startDateTime,
+    @Transactional(readOnly = true)
+    public Page<ErrorIncident> getErrorIncidents(XRoadData xRoadData,
+            int page,
+            int limit,
+            LocalDateTime startDateTime,
             LocalDateTime endDateTime) {
-        List<DistinctServiceStatistics> serviceStatisticsList = new ArrayList<>();
-        List<Service> services = serviceRepository.findAllActive();
-        LocalDateTime dateInPast = startDateTime;
-        while (isDateBetweenDates(dateInPast, startDateTime, endDateTime)) {
-            long totalDistinctServices = 0;
-            List<Service> servicesBetweenDates = services.stream()
-                    .filter(p -> p.getStatusInfo().getCreated().isBefore(endDateTime))
-                    .toList();
-            if (!servicesBetweenDates.isEmpty()) {
-                totalDistinctServices = servicesBetweenDates.stream().map(Service::getServiceCode).distinct().count();
+        XRoadData filter = toNestedFilter(xRoadData);
+        return errorIncidentRepository.findAnyByParameters(startDateTime, endDateTime, filter.getXRoadInstance(),
+                filter.getMemberClass(), filter.getMemberCode(), filter.getSubsystemCode(), PageRequest.of(page, limit));
+    }
 
-                DistinctServiceStatistics serviceStatistics = DistinctServiceStatistics.builder().created(dateInPast)
-                        .numberOfDistinctServices(totalDistinctServices).build();
+    @Override
+    @Transactional(readOnly = true)
+    public List<ErrorIncident> getErrorIncidentsAfter(XRoadData xRoadData,
+            LocalDateTime startDateTime,
+            LocalDateTime endDateTime,
+            long afterId,
+            int limit) {
+        XRoadData filter = toNestedFilter(xRoadData);
+        return errorIncidentRepository.findAnyByParametersAfter(startDateTime, endDateTime, filter.getXRoadInstance(),
+                filter.getMemberClass(), filter.getMemberCode(), filter.getSubsystemCode(), afterId,
+                PageRequest.of(0, limit));
+    }
 
-                serviceStatisticsList.add(serviceStatistics);
-            }
+    @Override
+    @Transactional(readOnly = true)
+    public long countErrorIncidents(XRoadData xRoadData, LocalDateTime startDateTime, LocalDateTime endDateTime) {
+        XRoadData filter = toNestedFilter(xRoadData);
+        return errorIncidentRepository.countByParameters(startDateTime, endDateTime, filter.getXRoadInstance(),
+                filter.getMemberClass(), filter.getMemberCode(), filter.getSubsystemCode());
+    }
 
-            dateInPast = dateInPast.plusDays(1);
-        }
+    // the filters are nested like in getErrors, e.g. member code is ignored without a member class
+    private static XRoadData toNestedFilter(XRoadData xRoadData) {
+        String xRoadInstance = xRoadData.getXRoadInstance();
+        String memberClass = xRoadInstance != null ? xRoadData.getMemberClass() : null;
+        String memberCode = memberClass != null ? xRoadData.getMemberCode() : null;
+        String subsystemCode = memberCode != null ? xRoadData.getSubsystemCode() : null;
+        return XRoadData.builder().xRoadInstance(xRoadInstance).memberClass(memberClass).memberCode(memberCode)
+                .subsystemCode(subsystemCode).build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ErrorIncident> getErrorIncidents(LocalDateTime startDateTime, LocalDateTime endDateTime) {
+        return errorIncidentRepository.findAny(startDateTime, endDateTime);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DistinctServiceStatistics> getDistinctServiceStatistics(LocalDateTime startDateTime,
+            LocalDateTime endDateTime) {
+        List<DistinctServiceStatistics> serviceStatisticsList = new ArrayList<>();
+        forEachStatisticsDay(startDateTime, endDateTime, (dateInPast, statistics) -> {
+            if (statistics.getNumberOfDistinctServices() > 0) {
+                serviceStatisticsList.add(DistinctServiceStatistics.builder().created(dateInPast)
+                        .numberOfDistinctServices(statistics.getNumberOfDistinctServices()).build());
+            }
+        });
         return serviceStatisticsList;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<MemberDataList> getMemberData(LocalDateTime startDateTime, LocalDateTime endDateTime) {
         List<MemberDataList> listOfMemberDataLists = new ArrayList<>();
         Set<Member> members = memberRepository.findAll();
@@ -359,6 +506,25 @@ public class CatalogServiceImpl implements CatalogService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public void streamMemberData(LocalDateTime startDateTime,
+            LocalDateTime endDateTime,
+            BiConsumer<LocalDateTime, Stream<MemberData>> consumer) {
+        LocalDateTime dateInPast = startDateTime;
+        // the cursor is opened again for every day instead of keeping the members of the first day,
+        // so that memory stays bounded by one member however long the range is
+        while (isDateBetweenDates(dateInPast, startDateTime, endDateTime)) {
+            try (Stream<MemberServiceRow> rows = memberRepository.streamMemberServiceRows(endDateTime)) {
+                Iterator<MemberData> memberData = new MemberDataIterator(rows.iterator());
+                consumer.accept(dateInPast, StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(memberData, Spliterator.ORDERED), false));
+            }
+            dateInPast = dateInPast.plusDays(1);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Iterable<ErrorLog> getErrorLog(LocalDateTime startDateTime, LocalDateTime endDateTime) {
         return errorLogRepository.findAny(startDateTime, endDateTime);
     }
@@ -366,14 +532,20 @@ public class CatalogServiceImpl implements CatalogService {
     @Override
     public Set<Member> saveAllMembersAndSubsystems(Collection<Member> members) {
         LocalDateTime now = LocalDateTime.now();
-        // process members
-        Map<MemberId, Member> unprocessedOldMembers = new HashMap<>();
-        StreamSupport.stream(memberRepository.findAll().spliterator(), false)
-                .forEach(member -> unprocessedOldMembers.put(member.createKey(), member));
+        // process members using natural key snapshots instead of the full entity tree
+        Map<MemberId, MemberSubsystemSnapshot> unprocessedOldMembers = new HashMap<>();
+        Map<SubsystemId, MemberSubsystemSnapshot> unprocessedOldSubsystems = new HashMap<>();
+        for (MemberSubsystemSnapshot snapshot : memberRepository.findAllSnapshots()) {
+            unprocessedOldMembers.putIfAbsent(snapshot.createMemberKey(), snapshot);
+            if (snapshot.getSubsystemId() != null) {
+                unprocessedOldSubsystems.put(snapshot.createSubsystemKey(), snapshot);
+            }
+        }
         Set<Member> newMembers = new HashSet<>();
+        MemberChanges changes = new MemberChanges();
 
         for (Member member : members) {
-            Member oldMember = unprocessedOldMembers.get(member.createKey());
+            MemberSubsystemSnapshot oldMember = unprocessedOldMembers.remove(member.createKey());
             if (oldMember == null) {
                 // brand new item
                 newMembers.add(member);
@@ -382,17 +554,22 @@ public class CatalogServiceImpl implements CatalogService {
                     subsystem.getStatusInfo().setTimestampsForNew(now);
                     subsystem.setMember(member);
                 }
-                member = memberRepository.save(member);
             } else {
-                handleOldMember(now, member, oldMember);
-
-                member = memberRepository.save(oldMember);
+                handleOldMember(now, member, oldMember, unprocessedOldSubsystems, changes);
             }
-            unprocessedOldMembers.remove(member.createKey());
         }
-        // now unprocessedOldMembers should all be removed (either already removed, or
-        // will be now)
-        removeUnprocessedOldMembers(now, unprocessedOldMembers);
+        // now unprocessedOldMembers and unprocessedOldSubsystems should all be removed
+        // (either already removed, or will be now)
+        unprocessedOldMembers.values().stream()
+                .filter(oldMember -> oldMember.getMemberRemoved() == null)
+                .forEach(oldMember -> changes.removedMembers.add(oldMember.getMemberId()));
+        unprocessedOldSubsystems.values().stream()
+                .filter(oldSubsystem -> oldSubsystem.getSubsystemRemoved() == null)
+                .forEach(oldSubsystem -> changes.removedSubsystems.add(oldSubsystem.getSubsystemId()));
+
+        memberRepository.saveAll(newMembers);
+        subsystemRepository.saveAll(changes.newSubsystems);
+        applyMemberChanges(now, changes);
         return newMembers;
     }
 
@@ -441,12 +618,17 @@ public class CatalogServiceImpl implements CatalogService {
     public void saveWsdl(SubsystemId subsystemId, ServiceId serviceId, String wsdlString) {
         Assert.notNull(subsystemId, SUBSYSTEM_ID_REQUIRED);
         Assert.notNull(serviceId, SERVICE_ID_REQUIRED);
-        Service oldService = getExistingService(subsystemId, serviceId);
         LocalDateTime now = LocalDateTime.now();
-        Wsdl wsdl = new Wsdl();
-        wsdl.setData(wsdlString);
+        String dataHash = DigestUtil.sha256Hex(wsdlString);
+        if (updateFetchedIfUnchangedWsdl(subsystemId, serviceId, dataHash, now)) {
+            // identical to the stored one, only fetched was updated
+            return;
+        }
+        Service oldService = getExistingService(subsystemId, serviceId);
         Wsdl oldWsdl = oldService.getWsdl();
         if (oldWsdl == null) {
+            Wsdl wsdl = new Wsdl();
+            wsdl.setDescriptor(replaceDescriptor(null, wsdlString, dataHash));
             wsdl.initializeExternalId();
             wsdl.getStatusInfo().setTimestampsForNew(now);
             oldService.setWsdl(wsdl);
@@ -455,19 +637,23 @@ public class CatalogServiceImpl implements CatalogService {
         } else {
             if (oldWsdl.getStatusInfo().isRemoved()) {
                 // resurrect
-                oldWsdl.setData(wsdl.getData());
                 oldWsdl.getStatusInfo().setChanged(now);
                 oldWsdl.getStatusInfo().setRemoved(null);
-                oldWsdl.getStatusInfo().setFetched(now);
             } else {
                 // update existing
-                boolean wsdlChanged = !oldWsdl.getData().equals(wsdl.getData());
+                // rows saved before data_hash was introduced are compared by content
+                boolean wsdlChanged = oldWsdl.getDataHash() != null
+                        ? !oldWsdl.getDataHash().equals(dataHash)
+                        : !oldWsdl.getData().equals(wsdlString);
                 if (wsdlChanged) {
                     oldWsdl.getStatusInfo().setChanged(now);
-                    oldWsdl.setData(wsdl.getData());
                 }
-                oldWsdl.getStatusInfo().setFetched(now);
             }
+            oldWsdl.getStatusInfo().setFetched(now);
+            // unchanged rows only get here when their data is not yet stored in a descriptor
+            Descriptor oldDescriptor = oldWsdl.getDescriptor();
+            oldWsdl.setDescriptor(replaceDescriptor(oldDescriptor, wsdlString, dataHash));
+            deleteIfUnreferenced(oldDescriptor);
         }
     }
 
@@ -475,12 +661,17 @@ public class CatalogServiceImpl implements CatalogService {
     public void saveOpenApi(SubsystemId subsystemId, ServiceId serviceId, String openApiString) {
         Assert.notNull(subsystemId, SUBSYSTEM_ID_REQUIRED);
         Assert.notNull(serviceId, SERVICE_ID_REQUIRED);
-        Service oldService = getExistingService(subsystemId, serviceId);
         LocalDateTime now = LocalDateTime.now();
-        OpenApi openApi = new OpenApi();
-        openApi.setData(openApiString);
+        String dataHash = DigestUtil.sha256Hex(openApiString);
+        if (updateFetchedIfUnchangedOpenApi(subsystemId, serviceId, dataHash, now)) {
+            // identical to the stored one, only fetched was updated
+            return;
+        }
+        Service oldService = getExistingService(subsystemId, serviceId);
         OpenApi oldOpenApi = oldService.getOpenApi();
         if (oldOpenApi == null) {
+            OpenApi openApi = new OpenApi();
+            openApi.setDescriptor(replaceDescriptor(null, openApiString, dataHash));
             openApi.initializeExternalId();
             openApi.getStatusInfo().setTimestampsForNew(now);
             oldService.setOpenApi(openApi);
@@ -489,19 +680,23 @@ public class CatalogServiceImpl implements CatalogService {
         } else {
             if (oldOpenApi.getStatusInfo().isRemoved()) {
                 // resurrect
-                oldOpenApi.setData(openApi.getData());
                 oldOpenApi.getStatusInfo().setChanged(now);
                 oldOpenApi.getStatusInfo().setRemoved(null);
-                oldOpenApi.getStatusInfo().setFetched(now);
             } else {
                 // update existing
-                boolean openApiChanged = !oldOpenApi.getData().equals(openApi.getData());
+                // rows saved before data_hash was introduced are compared by content
+                boolean openApiChanged = oldOpenApi.getDataHash() != null
+                        ? !oldOpenApi.getDataHash().equals(dataHash)
+                        : !oldOpenApi.getData().equals(openApiString);
                 if (openApiChanged) {
                     oldOpenApi.getStatusInfo().setChanged(now);
-                    oldOpenApi.setData(openApi.getData());
                 }
-                oldOpenApi.getStatusInfo().setFetched(now);
             }
+            oldOpenApi.getStatusInfo().setFetched(now);
+            // unchanged rows only get here when their data is not yet stored in a descriptor
+            Descriptor oldDescriptor = oldOpenApi.getDescriptor();
+            oldOpenApi.setDescriptor(replaceDescriptor(oldDescriptor, openApiString, dataHash));
+            deleteIfUnreferenced(oldDescriptor);
         }
     }
 
@@ -509,10 +704,14 @@ public class CatalogServiceImpl implements CatalogService {
     public void saveRest(SubsystemId subsystemId, ServiceId serviceId, String restString) {
         Assert.notNull(subsystemId, SUBSYSTEM_ID_REQUIRED);
         Assert.notNull(serviceId, SERVICE_ID_REQUIRED);
-        Service oldService = getExistingService(subsystemId, serviceId);
         LocalDateTime now = LocalDateTime.now();
         Rest rest = new Rest();
         rest.setData(restString);
+        if (updateFetchedIfUnchangedRest(subsystemId, serviceId, rest.getDataHash(), now)) {
+            // identical to the stored one, only fetched was updated
+            return;
+        }
+        Service oldService = getExistingService(subsystemId, serviceId);
         Rest oldRest = oldService.getRest();
         if (oldRest == null) {
             rest.initializeExternalId();
@@ -523,16 +722,22 @@ public class CatalogServiceImpl implements CatalogService {
         } else {
             if (oldRest.getStatusInfo().isRemoved()) {
                 // resurrect
-                oldRest.setData(rest.getData());
+                oldRest.setData(restString);
                 oldRest.getStatusInfo().setChanged(now);
                 oldRest.getStatusInfo().setRemoved(null);
                 oldRest.getStatusInfo().setFetched(now);
             } else {
                 // update existing
-                boolean restChanged = !oldRest.getData().equals(rest.getData());
+                // rows saved before data_hash was introduced are compared by content
+                boolean restChanged = oldRest.getDataHash() != null
+                        ? !oldRest.getDataHash().equals(rest.getDataHash())
+                        : !oldRest.getData().equals(rest.getData());
                 if (restChanged) {
                     oldRest.getStatusInfo().setChanged(now);
-                    oldRest.setData(rest.getData());
+                    oldRest.setData(restString);
+                } else {
+                    // sets the hash and compresses rows saved before compression was introduced
+                    oldRest.setData(restString);
                 }
                 oldRest.getStatusInfo().setFetched(now);
             }
@@ -579,22 +784,152 @@ public class CatalogServiceImpl implements CatalogService {
     }
 
     @Override
-    public ErrorLog saveErrorLog(ErrorLog errorLog) {
-        return errorLogRepository.save(errorLog);
+    public ErrorIncident saveErrorLog(ErrorLog errorLog) {
+        saveErrorLogs(List.of(errorLog));
+        return errorIncidentRepository.findByIncidentKey(ErrorIncident.toIncidentKey(errorLog));
+    }
+
+    @Override
+    public void saveErrorLogs(Collection<ErrorLog> errorLogs) {
+        saveErrorLogOccurrences(errorLogs.stream().map(errorLog -> new ErrorLogOccurrences(errorLog, 1)).toList());
+    }
+
+    @Override
+    public void saveErrorLogOccurrences(Collection<ErrorLogOccurrences> occurrences) {
+        // sorted, so that concurrent saves lock the incident rows in the same order
+        Map<String, List<ErrorLogOccurrences>> occurrencesByIncident = new TreeMap<>();
+        for (ErrorLogOccurrences occurrence : occurrences) {
+            occurrencesByIncident.computeIfAbsent(ErrorIncident.toIncidentKey(occurrence.getErrorLog()),
+                    key -> new ArrayList<>()).add(occurrence);
+        }
+        List<ErrorIncident> openedIncidents = new ArrayList<>();
+        List<ErrorLog> openingErrorLogs = new ArrayList<>();
+        occurrencesByIncident.forEach((key, incidentOccurrences) -> {
+            ErrorLog first = incidentOccurrences.get(0).getErrorLog();
+            ErrorLog latest = first;
+            long count = 0;
+            for (ErrorLogOccurrences occurrence : incidentOccurrences) {
+                ErrorLog errorLog = occurrence.getErrorLog();
+                if (errorLog.getCreated().isBefore(first.getCreated())) {
+                    first = errorLog;
+                }
+                if (!errorLog.getCreated().isBefore(latest.getCreated())) {
+                    latest = errorLog;
+                }
+                count += occurrence.getCount();
+            }
+            if (errorIncidentRepository.addOccurrences(key, count, first.getCreated(), latest.getCreated(),
+                    latest.getMessage()) == 0) {
+                openingErrorLogs.add(first);
+                openedIncidents.add(ErrorIncident.builder()
+                        .incidentKey(key)
+                        .xRoadInstance(first.getXRoadInstance())
+                        .memberClass(first.getMemberClass())
+                        .memberCode(first.getMemberCode())
+                        .subsystemCode(first.getSubsystemCode())
+                        .serviceCode(first.getServiceCode())
+                        .serviceVersion(first.getServiceVersion())
+                        .code(first.getCode())
+                        .messageTemplate(ErrorIncident.toMessageTemplate(first.getMessage()))
+                        .message(latest.getMessage())
+                        .firstSeen(first.getCreated())
+                        .lastSeen(latest.getCreated())
+                        .count(count)
+                        .build());
+            }
+        });
+        errorIncidentRepository.saveAll(openedIncidents);
+        errorLogRepository.saveAll(openingErrorLogs);
+    }
+
+    /**
+     * Moves a reference from the old descriptor, if any, to the descriptor of the payload, creating it if
+     * there is none yet. Saves of the same payload are serialized until the end of their transactions by an
+     * in-process lock, so that concurrent saves do not both create it. The lock is taken before any
+     * descriptor row is locked, and the reference counts of the two rows are then updated in the order of
+     * their digests. Two saves swapping payloads A to B and B to A thus lock the rows in the same order
+     * and do not deadlock in the database, also when they run in different processes. The old
+     * descriptor must be deleted with deleteIfUnreferenced once nothing refers to it anymore.
+     */
+    private Descriptor replaceDescriptor(Descriptor oldDescriptor, String data, String dataHash) {
+        Lock lock = descriptorLocks.get(dataHash);
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+        if (oldDescriptor != null && oldDescriptor.getDataHash().compareTo(dataHash) < 0) {
+            descriptorRepository.decrementRefCount(oldDescriptor.getId());
+            return acquireDescriptor(data, dataHash);
+        }
+        Descriptor descriptor = acquireDescriptor(data, dataHash);
+        if (oldDescriptor != null) {
+            descriptorRepository.decrementRefCount(oldDescriptor.getId());
+        }
+        return descriptor;
+    }
+
+    private Descriptor acquireDescriptor(String data, String dataHash) {
+        if (descriptorRepository.incrementRefCount(dataHash) == 0) {
+            return descriptorRepository.save(new Descriptor(data));
+        }
+        return descriptorRepository.findByDataHash(dataHash);
+    }
+
+    private void deleteIfUnreferenced(Descriptor descriptor) {
+        if (descriptor != null) {
+            descriptorRepository.deleteIfUnreferenced(descriptor.getId());
+        }
+    }
+
+    private static DescriptorData getSingleData(String externalId, List<DescriptorData> matches) {
+        if (matches.size() > 1) {
+            // the payloads are not worth putting in the message
+            throw new IllegalStateException(MULTIPLE_MATCHES_FOUND_TO + externalId + ": " + matches.size() + " items");
+        }
+        return matches.isEmpty() ? null : matches.get(0);
     }
 
     @Override
     public void deleteOldErrorLogEntries(Integer daysBefore) {
         LocalDateTime oldDate = LocalDateTime.now().minusDays(daysBefore);
+        if (errorLogPartitioned) {
+            errorLogRepository.createPartitions(ERROR_LOG_PARTITIONS_AHEAD);
+            errorLogRepository.dropPartitionsOlderThan(oldDate);
+        }
+        // with partitioning, only the partition holding oldDate is left to delete from
         errorLogRepository.deleteEntriesOlderThan(oldDate);
+        errorIncidentRepository.deleteEntriesOlderThan(oldDate);
     }
 
     @Override
+    public ServiceStatisticsDaily updateServiceStatisticsDaily() {
+        LocalDateTime now = LocalDateTime.now();
+        ServiceStatisticsDaily statistics = serviceStatisticsDailyRepository.findByStatisticsDate(now.toLocalDate());
+        if (statistics == null) {
+            statistics = ServiceStatisticsDaily.builder().statisticsDate(now.toLocalDate()).build();
+        }
+        long numberOfServices = serviceRepository.countActive();
+        long numberOfOpenApiServices = serviceRepository.countActiveWithOpenApi();
+        long numberOfSoapServices = serviceRepository.countActiveSoap();
+        statistics.setNumberOfOpenApiServices(numberOfOpenApiServices);
+        statistics.setNumberOfSoapServices(numberOfSoapServices);
+        statistics.setNumberOfRestServices(numberOfServices - numberOfOpenApiServices - numberOfSoapServices);
+        statistics.setNumberOfDistinctServices(serviceRepository.countActiveDistinctServiceCodes());
+        statistics.setUpdated(now);
+        return serviceStatisticsDailyRepository.save(statistics);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Boolean checkDatabaseConnection() {
         return Integer.valueOf(1).equals(memberRepository.checkConnection());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public LastCollectionData getLastCollectionData() {
         return LastCollectionData.builder()
                 .membersLastFetched(memberRepository.findLatestFetched())
@@ -605,53 +940,100 @@ public class CatalogServiceImpl implements CatalogService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Set<String> getMembersRequiringExternalUpdate(int daysSinceLastUpdate, int batchSize) {
         return memberRepository.findMembersRequiringExternalUpdate(daysSinceLastUpdate, batchSize);
     }
 
-    private void handleOldMember(LocalDateTime now, Member member, Member oldMember) {
-        oldMember.updateWithDataFrom(member, now);
-        // process subsystems for the old member
-        Map<SubsystemId, Subsystem> unprocessedOldSubsystems = new HashMap<>();
-        for (Subsystem subsystem : oldMember.getAllSubsystems()) {
-            unprocessedOldSubsystems.put(subsystem.createKey(), subsystem);
+    private void handleOldMember(LocalDateTime now,
+            Member member,
+            MemberSubsystemSnapshot oldMember,
+            Map<SubsystemId, MemberSubsystemSnapshot> unprocessedOldSubsystems,
+            MemberChanges changes) {
+        if (!Objects.equals(oldMember.getName(), member.getName())) {
+            changes.renamedMembers.put(oldMember.getMemberId(), member.getName());
+        } else if (oldMember.getMemberRemoved() != null) {
+            changes.resurrectedMembers.add(oldMember.getMemberId());
+        } else {
+            changes.fetchedMembers.add(oldMember.getMemberId());
         }
+        // process subsystems for the old member
         for (Subsystem subsystem : member.getAllSubsystems()) {
-            Subsystem oldSubsystem = unprocessedOldSubsystems.get(subsystem.createKey());
+            SubsystemId subsystemKey = new SubsystemId(member.getXRoadInstance(), member.getMemberClass(),
+                    member.getMemberCode(), subsystem.getSubsystemCode());
+            MemberSubsystemSnapshot oldSubsystem = unprocessedOldSubsystems.remove(subsystemKey);
             if (oldSubsystem == null) {
                 // brand new item, add it
                 subsystem.getStatusInfo().setTimestampsForNew(now);
-                subsystem.setMember(oldMember);
-                oldMember.getAllSubsystems().add(subsystem);
+                subsystem.setMember(entityManager.getReference(Member.class, oldMember.getMemberId()));
+                changes.newSubsystems.add(subsystem);
+            } else if (oldSubsystem.getSubsystemRemoved() != null) {
+                changes.resurrectedSubsystems.add(oldSubsystem.getSubsystemId());
             } else {
-                oldSubsystem.getStatusInfo().setTimestampsForFetched(now);
-            }
-            unprocessedOldSubsystems.remove(subsystem.createKey());
-        }
-        // remaining old subsystems - that were not included in member.subsystems -
-        // are removed (if not already)
-        for (Subsystem oldToRemove : unprocessedOldSubsystems.values()) {
-            StatusInfo status = oldToRemove.getStatusInfo();
-            if (!status.isRemoved()) {
-                status.setTimestampsForRemoved(now);
+                changes.fetchedSubsystems.add(oldSubsystem.getSubsystemId());
             }
         }
     }
 
-    private void removeUnprocessedOldMembers(LocalDateTime now, Map<MemberId, Member> unprocessedOldMembers) {
-        for (Member oldToRemove : unprocessedOldMembers.values()) {
-            StatusInfo status = oldToRemove.getStatusInfo();
-            if (!status.isRemoved()) {
-                status.setTimestampsForRemoved(now);
+    private void applyMemberChanges(LocalDateTime now, MemberChanges changes) {
+        changes.renamedMembers.forEach((id, name) -> memberRepository.updateName(id, name, now));
+        Lists.partition(changes.fetchedMembers, UPDATE_BATCH_SIZE)
+                .forEach(ids -> memberRepository.updateFetched(ids, now));
+        Lists.partition(changes.resurrectedMembers, UPDATE_BATCH_SIZE)
+                .forEach(ids -> memberRepository.updateResurrected(ids, now));
+        Lists.partition(changes.removedMembers, UPDATE_BATCH_SIZE)
+                .forEach(ids -> memberRepository.updateRemoved(ids, now));
+        Lists.partition(changes.fetchedSubsystems, UPDATE_BATCH_SIZE)
+                .forEach(ids -> subsystemRepository.updateFetched(ids, now));
+        Lists.partition(changes.resurrectedSubsystems, UPDATE_BATCH_SIZE)
+                .forEach(ids -> subsystemRepository.updateResurrected(ids, now));
+        Lists.partition(changes.removedSubsystems, UPDATE_BATCH_SIZE)
+                .forEach(ids -> subsystemRepository.updateRemoved(ids, now));
+    }
+
+    /**
+     * Calls the consumer for each day between the dates with the latest daily statistics
+     * stored on or before that day. Days before the first stored statistics, e.g. history from
+     * before the daily statistics were introduced, get the statistics counted from the services.
+     */
+    private void forEachStatisticsDay(LocalDateTime startDateTime,
+            LocalDateTime endDateTime,
+            BiConsumer<LocalDateTime, ServiceStatisticsDaily> consumer) {
+        Iterator<ServiceStatisticsDaily> rows = serviceStatisticsDailyRepository
+                .findCoveringDates(startDateTime.toLocalDate(), endDateTime.toLocalDate()).iterator();
+        ServiceStatisticsDaily current = null;
+        ServiceStatisticsDaily next = rows.hasNext() ? rows.next() : null;
+        ServiceStatisticsDaily counted = null;
+        LocalDateTime dateInPast = startDateTime;
+        while (isDateBetweenDates(dateInPast, startDateTime, endDateTime)) {
+            while (next != null && !next.getStatisticsDate().isAfter(dateInPast.toLocalDate())) {
+                current = next;
+                next = rows.hasNext() ? rows.next() : null;
             }
-            for (Subsystem subsystem : oldToRemove.getAllSubsystems()) {
-                if (!subsystem.getStatusInfo().isRemoved()) {
-                    subsystem.getStatusInfo().setTimestampsForRemoved(now);
-                }
+            if (current == null && counted == null) {
+                counted = countServiceStatistics(endDateTime);
             }
+            consumer.accept(dateInPast, current != null ? current : counted);
+            dateInPast = dateInPast.plusDays(1);
         }
     }
 
+    /**
+     * Counts the active services created before the given time, as the statistics were
+     * calculated before they were stored daily
+     */
+    private ServiceStatisticsDaily countServiceStatistics(LocalDateTime createdBefore) {
+        long numberOfServices = serviceRepository.countActiveCreatedBefore(createdBefore);
+        long numberOfOpenApiServices = serviceRepository.countActiveWithOpenApiCreatedBefore(createdBefore);
+        long numberOfSoapServices = serviceRepository.countActiveSoapCreatedBefore(createdBefore);
+        return ServiceStatisticsDaily.builder()
+                .numberOfOpenApiServices(numberOfOpenApiServices)
+                .numberOfSoapServices(numberOfSoapServices)
+                .numberOfRestServices(numberOfServices - numberOfOpenApiServices - numberOfSoapServices)
+                .numberOfDistinctServices(serviceRepository.countActiveDistinctServiceCodesCreatedBefore(createdBefore))
+                .build();
+    }
+
     private boolean isDateBetweenDates(LocalDateTime dateToBeChecked,
             LocalDateTime startDate,
             LocalDateTime endDate) {
@@ -660,6 +1042,54 @@ public class CatalogServiceImpl implements CatalogService {
                 && (dateToBeChecked.isBefore(LocalDateTime.now()) || dateToBeChecked.isEqual(LocalDateTime.now()));
     }
 
+    private boolean updateFetchedIfUnchangedWsdl(SubsystemId subsystemId, ServiceId serviceId, String dataHash,
+            LocalDateTime now) {
+        int updated;
+        if (serviceId.getServiceVersion() == null) {
+            updated = wsdlRepository.updateNullVersionFetchedIfUnchanged(subsystemId.getXRoadInstance(),
+                    subsystemId.getMemberClass(), subsystemId.getMemberCode(),
+                    subsystemId.getSubsystemCode(), serviceId.getServiceCode(), dataHash, now);
+        } else {
+            updated = wsdlRepository.updateFetchedIfUnchanged(subsystemId.getXRoadInstance(),
+                    subsystemId.getMemberClass(), subsystemId.getMemberCode(),
+                    subsystemId.getSubsystemCode(), serviceId.getServiceCode(),
+                    serviceId.getServiceVersion(), dataHash, now);
+        }
+        return updated > 0;
+    }
+
+    private boolean updateFetchedIfUnchangedOpenApi(SubsystemId subsystemId, ServiceId serviceId, String dataHash,
+            LocalDateTime now) {
+        int updated;
+        if (serviceId.getServiceVersion() == null) {
+            updated = openApiRepository.updateNullVersionFetchedIfUnchanged(subsystemId.getXRoadInstance(),
+                    subsystemId.getMemberClass(), subsystemId.getMemberCode(),
+                    subsystemId.getSubsystemCode(), serviceId.getServiceCode(), dataHash, now);
+        } else {
+            updated = openApiRepository.updateFetchedIfUnchanged(subsystemId.getXRoadInstance(),
+                    subsystemId.getMemberClass(), subsystemId.getMemberCode(),
+                    subsystemId.getSubsystemCode(), serviceId.getServiceCode(),
+                    serviceId.getServiceVersion(), dataHash, now);
+        }
+        return updated > 0;
+    }
+
+    private boolean updateFetchedIfUnchangedRest(SubsystemId subsystemId, ServiceId serviceId, String dataHash,
+            LocalDateTime now) {
+        int updated;
+        if (serviceId.getServiceVersion() == null) {
+            updated = restRepository.updateNullVersionFetchedIfUnchanged(subsystemId.getXRoadInstance(),
+                    subsystemId.getMemberClass(), subsystemId.getMemberCode(),
+                    subsystemId.getSubsystemCode(), serviceId.getServiceCode(), dataHash, now);
+        } else {
+            updated = restRepository.updateFetchedIfUnchanged(subsystemId.getXRoadInstance(),
+                    subsystemId.getMemberClass(), subsystemId.getMemberCode(),
+                    subsystemId.getSubsystemCode(), serviceId.getServiceCode(),
+                    serviceId.getServiceVersion(), dataHash, now);
+        }
+        return updated > 0;
+    }
+
     private Service getExistingService(SubsystemId subsystemId, ServiceId serviceId) {
         Service oldService;
         if (serviceId.getServiceVersion() == null) {
@@ -678,4 +1108,74 @@ public class CatalogServiceImpl implements CatalogService {
         }
         return oldService;
     }
+
+    /**
+     * Groups consecutive member-subsystem-service rows of the same member into one MemberData
+     */
+    private static final class MemberDataIterator implements Iterator<MemberData> {
+
+        private final PeekingIterator<MemberServiceRow> rows;
+
+        private MemberDataIterator(Iterator<MemberServiceRow> rows) {
+            this.rows = Iterators.peekingIterator(rows);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return rows.hasNext();
+        }
+
+        @Override
+        public MemberData next() {
+            MemberServiceRow memberRow = rows.next();
+            List<SubsystemData> subsystemDataList = new ArrayList<>();
+            List<ServiceData> serviceDataList = new ArrayList<>();
+            Long subsystemId = null;
+            boolean isProvider = false;
+            MemberServiceRow row = memberRow;
+            while (row != null) {
+                if (row.getSubsystemId() != null && !row.getSubsystemId().equals(subsystemId)) {
+                    subsystemId = row.getSubsystemId();
+                    serviceDataList = new ArrayList<>();
+                    subsystemDataList.add(SubsystemData.builder()
+                            .created(row.getSubsystemCreated())
+                            .subsystemCode(row.getSubsystemCode())
+                            .active(row.getSubsystemRemoved() == null)
+                            .serviceList(serviceDataList).build());
+                }
+                if (row.getServiceCode() != null) {
+                    serviceDataList.add(ServiceData.builder()
+                            .created(row.getServiceCreated())
+                            .serviceCode(row.getServiceCode())
+                            .active(row.getServiceRemoved() == null)
+                            .serviceVersion(row.getServiceVersion()).build());
+                    isProvider = isProvider || Boolean.TRUE.equals(row.getProvider());
+                }
+                row = rows.hasNext() && rows.peek().getMemberId() == memberRow.getMemberId() ? rows.next() : null;
+            }
+            return MemberData.builder()
+                    .created(memberRow.getMemberCreated())
+                    .provider(isProvider)
+                    .memberClass(memberRow.getMemberClass())
+                    .memberCode(memberRow.getMemberCode())
+                    .name(memberRow.getName())
+                    .xRoadInstance(memberRow.getXRoadInstance())
+                    .subsystemList(subsystemDataList).build();
+        }
+    }
+
+    /**
+     * Member and subsystem changes collected during one saveAllMembersAndSubsystems call,
+     * applied afterwards with set-based updates
+     */
+    private static final class MemberChanges {
+        private final Map<Long, String> renamedMembers = new HashMap<>();
+        private final List<Long> fetchedMembers = new ArrayList<>();
+        private final List<Long> resurrectedMembers = new ArrayList<>();
+        private final List<Long> removedMembers = new ArrayList<>();
+        private final List<Subsystem> newSubsystems = new ArrayList<>();
+        private final List<Long> fetchedSubsystems = new ArrayList<>();
+        private final List<Long> resurrectedSubsystems = new ArrayList<>();
+        private final List<Long> removedSubsystems = new ArrayList<>();
+    }
 }
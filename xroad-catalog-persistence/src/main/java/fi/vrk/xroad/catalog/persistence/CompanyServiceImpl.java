@@ -89,6 +89,7 @@ public class CompanyServiceImpl implements CompanyService {
     RegisteredOfficeRepository registeredOfficeRepository;
 
     @Override
+    @Transactional(readOnly = true)
     public Iterable<Company> getCompanies(String businessId) {
         return companyRepository.findAllByBusinessId(businessId);
     }
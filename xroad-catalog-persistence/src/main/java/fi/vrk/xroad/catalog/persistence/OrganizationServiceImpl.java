@@ -129,6 +129,7 @@ public class OrganizationServiceImpl implements OrganizationService {
     CompanyRepository companyRepository;
 
     @Override
+    @Transactional(readOnly = true)
     public LastOrganizationCollectionData getLastOrganizationCollectionData() {
         return LastOrganizationCollectionData.builder()
                 .organizationsLastFetched(organizationRepository.findLatestFetched())
@@ -136,11 +137,13 @@ public class OrganizationServiceImpl implements OrganizationService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Iterable<Organization> getOrganizations(String businessCode) {
         return organizationRepository.findAllByBusinessCode(businessCode);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Organization> getOrganization(String guid) {
         return organizationRepository.findAnyByOrganizationGuid(guid);
     }
@@ -0,0 +1,55 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.persistence.dto;
+
+import fi.vrk.xroad.catalog.persistence.util.GzipUtil;
+import lombok.AllArgsConstructor;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Stored payload of a wsdl, openapi or rest description, read without loading the entity.
+ * The payload is gzip compressed, except in rows saved before compression was introduced,
+ * which have only the plain text data.
+ */
+@AllArgsConstructor
+public class DescriptorData {
+
+    private String data;
+
+    private byte[] dataGzip;
+
+    /**
+     * @return the payload as text
+     */
+    public String getText() {
+        return data != null ? data : GzipUtil.decompress(dataGzip);
+    }
+
+    /**
+     * @return the payload as UTF-8 bytes, decompressed while the stream is read
+     */
+    public InputStream openText() {
+        return data != null ? new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8))
+                : GzipUtil.openDecompressing(dataGzip);
+    }
+
+    /**
+     * @return the payload gzip compressed, as stored when possible
+     */
+    public byte[] getGzip() {
+        return dataGzip != null ? dataGzip : GzipUtil.compress(data);
+    }
+}
@@ -12,7 +12,7 @@
  */
 package fi.vrk.xroad.catalog.persistence.dto;
 
-import fi.vrk.xroad.catalog.persistence.entity.ErrorLog;
+import fi.vrk.xroad.catalog.persistence.entity.ErrorIncident;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
@@ -38,5 +38,8 @@ public class ErrorLogResponse implements Serializable {
 
     private Integer numberOfPages;
 
-    private transient List<ErrorLog> errorLogList;
+    private transient List<ErrorIncident> errorLogList;
+
+    // continuation token of the next page, null on the last page
+    private String nextCursor;
 }
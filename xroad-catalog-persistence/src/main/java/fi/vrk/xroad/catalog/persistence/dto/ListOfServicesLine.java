@@ -10,7 +10,7 @@
  *
  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
  */
-package fi.vrk.xroad.catalog.collector.util;
+package fi.vrk.xroad.catalog.persistence.dto;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -18,21 +18,23 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import lombok.ToString;
+import java.io.Serializable;
+import java.time.LocalDateTime;
 
-@Getter
-@Setter
+/**
+ * One line of the streamed (NDJSON) list of services: a member on the given date
+ */
+@Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@ToString
 @EqualsAndHashCode
-@Builder
-public class SecurityServerMetadata {
-
-    private String xRoadInstance;
+@Getter
+@Setter
+public class ListOfServicesLine implements Serializable {
 
-    private String memberClass;
+    private static final long serialVersionUID = 4049861366368846282L;
 
-    private String memberCode;
+    private LocalDateTime date;
 
+    private MemberData memberData;
 }
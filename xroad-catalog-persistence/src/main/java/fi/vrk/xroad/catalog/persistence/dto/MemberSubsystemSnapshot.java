@@ -0,0 +1,58 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.persistence.dto;
+
+import fi.vrk.xroad.catalog.persistence.entity.MemberId;
+import fi.vrk.xroad.catalog.persistence.entity.SubsystemId;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight member-subsystem row, used for reconciling collected members
+ * without loading the member-subsystem-service-wsdl entity tree.
+ * Subsystem fields are null for members without subsystems.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class MemberSubsystemSnapshot {
+
+    private long memberId;
+
+    private String xRoadInstance;
+
+    private String memberClass;
+
+    private String memberCode;
+
+    private String name;
+
+    private LocalDateTime memberRemoved;
+
+    private Long subsystemId;
+
+    private String subsystemCode;
+
+    private LocalDateTime subsystemRemoved;
+
+    public MemberId createMemberKey() {
+        return new MemberId(xRoadInstance, memberClass, memberCode);
+    }
+
+    public SubsystemId createSubsystemKey() {
+        return new SubsystemId(xRoadInstance, memberClass, memberCode, subsystemCode);
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.persistence.entity;
+
+import fi.vrk.xroad.catalog.persistence.util.DigestUtil;
+import fi.vrk.xroad.catalog.persistence.util.GzipUtil;
+import lombok.Getter;
+import lombok.ToString;
+
+import jakarta.persistence.Basic;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+
+/**
+ * Content-addressed wsdl or openapi payload. Identical payloads are stored once, keyed by
+ * their digest, and shared by all the wsdls and openapis that refer to them.
+ */
+@Entity
+@Getter
+@ToString(exclude = { "dataGzip" })
+public class Descriptor {
+    @Id
+    @Column(nullable = false)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "DESCRIPTOR_GEN")
+    @SequenceGenerator(name = "DESCRIPTOR_GEN", sequenceName = "DESCRIPTOR_ID_SEQ", allocationSize = 1)
+    private long id;
+    // sha-256 of the payload, one row per payload
+    @Column(nullable = false, unique = true)
+    private String dataHash;
+    // lazy loaded with build-time bytecode enhancement (see build.gradle)
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "data_gzip", length = 40000, nullable = false)
+    private byte[] dataGzip;
+    // number of wsdls and openapis referring to this, only changed by the bulk updates
+    // of DescriptorRepository so that concurrent saves do not overwrite each other's counts
+    @Column(nullable = false, updatable = false)
+    private int refCount;
+
+    public Descriptor() {
+        // Empty constructor
+    }
+
+    public Descriptor(String data) {
+        this.dataHash = DigestUtil.sha256Hex(data);
+        this.dataGzip = GzipUtil.compress(data);
+        this.refCount = 1;
+    }
+
+    public String getData() {
+        return GzipUtil.decompress(dataGzip);
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.persistence.entity;
+
+import fi.vrk.xroad.catalog.persistence.util.DigestUtil;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.regex.Pattern;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+
+/**
+ * Repeated failures of one member, subsystem or service collapsed into a single counted row.
+ * The collector upserts an incident for every error, so that error queries go through one row
+ * per distinct failure instead of one row per failure per collection cycle.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode(exclude = { "id" })
+@Builder
+public class ErrorIncident {
+
+    private static final Pattern NUMBERS = Pattern.compile("\\d+");
+
+    @Id
+    @Column(nullable = false)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ERROR_INCIDENT_GEN")
+    @SequenceGenerator(name = "ERROR_INCIDENT_GEN", sequenceName = "ERROR_INCIDENT_ID_SEQ", allocationSize = 1)
+    private long id;
+    // sha-256 of the identity, code and message template, one row per key
+    @Column(nullable = false, unique = true)
+    private String incidentKey;
+    @Column
+    private String xRoadInstance;
+    @Column
+    private String memberClass;
+    @Column
+    private String memberCode;
+    @Column
+    private String subsystemCode;
+    @Column
+    private String serviceCode;
+    @Column
+    private String serviceVersion;
+    @Column(nullable = false)
+    private String code;
+    @Column(nullable = false)
+    private String messageTemplate;
+    // latest message of the incident
+    @Column(nullable = false)
+    private String message;
+    @Column(nullable = false)
+    private LocalDateTime firstSeen;
+    @Column(nullable = false)
+    private LocalDateTime lastSeen;
+    @Column(name = "error_count", nullable = false)
+    private long count;
+
+    /**
+     * Returns the time of the latest occurrence, listed as the creation time of the error for
+     * clients reading incidents as error log entries
+     *
+     * @return time of the latest occurrence
+     */
+    public LocalDateTime getCreated() {
+        return lastSeen;
+    }
+
+    /**
+     * Returns the message with the varying parts, such as ports, timeouts and ids, replaced, so
+     * that the same failure repeated with different numbers belongs to the same incident
+     *
+     * @param message error message
+     * @return message template
+     */
+    public static String toMessageTemplate(String message) {
+        return message == null ? "" : NUMBERS.matcher(message).replaceAll("#");
+    }
+
+    /**
+     * Returns the key of the incident the error belongs to: the failing member, subsystem or
+     * service, the error code and the message template
+     *
+     * @param errorLog error log entry
+     * @return incident key
+     */
+    public static String toIncidentKey(ErrorLog errorLog) {
+        return DigestUtil.sha256Hex(String.join("/", errorLog.getXRoadInstance(), errorLog.getMemberClass(),
+                errorLog.getMemberCode(), errorLog.getSubsystemCode(), errorLog.getServiceCode(),
+                errorLog.getServiceVersion(), errorLog.getCode(), toMessageTemplate(errorLog.getMessage())));
+    }
+}
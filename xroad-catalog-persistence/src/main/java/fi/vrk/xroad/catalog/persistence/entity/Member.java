@@ -63,6 +63,9 @@ import java.util.stream.Collectors;
         @NamedQuery(name = "Member.findActiveChangedSince", query = Member.FIND_ACTIVE_CHANGED_QUERY),
         @NamedQuery(name = "Member.findAllChangedBetween", query = Member.FIND_ALL_CHANGED_BETWEEN_QUERY),
         @NamedQuery(name = "Member.findActiveChangedBetween", query = Member.FIND_ACTIVE_CHANGED_BETWEEN_QUERY),
+        // ids of the members findAllChangedBetween would return, for reading them in batches
+        @NamedQuery(name = "Member.streamIdsChangedBetween", query = Member.STREAM_IDS_CHANGED_BETWEEN_QUERY),
+        @NamedQuery(name = "Member.findTreesByIds", query = Member.FIND_TREES_BY_IDS_QUERY),
 })
 // identity is based on xroad identity (instance, member code...)
 @EqualsAndHashCode(exclude = { "id", "subsystems", "statusInfo" })
@@ -119,6 +122,11 @@ public class Member {
             + "mem.statusInfo.removed IS NULL AND ("
             + FIND_CHANGED_QUERY_PART_3
             + ")";
+    static final String STREAM_IDS_CHANGED_BETWEEN_QUERY = "SELECT mem.id FROM Member mem WHERE "
+            + FIND_CHANGED_QUERY_PART_3
+            + "ORDER BY mem.id";
+    static final String FIND_TREES_BY_IDS_QUERY = FIND_CHANGED_QUERY_PART_1
+            + "mem.id IN :ids ORDER BY mem.id";
 
     @Id
     @Column(nullable = false)
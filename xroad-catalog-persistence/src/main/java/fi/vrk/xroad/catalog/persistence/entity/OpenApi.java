@@ -12,6 +12,8 @@
  */
 package fi.vrk.xroad.catalog.persistence.entity;
 
+import fi.vrk.xroad.catalog.persistence.util.DigestUtil;
+import fi.vrk.xroad.catalog.persistence.util.GzipUtil;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -33,7 +35,7 @@ import jakarta.persistence.SequenceGenerator;
 @Entity
 @Getter
 @Setter
-@ToString(exclude = "service")
+@ToString(exclude = { "service", "data", "dataGzip", "descriptor" })
 public class OpenApi {
     @Id
     @Column(nullable = false)
@@ -43,13 +45,22 @@ public class OpenApi {
     @ManyToOne
     @JoinColumn(name = "SERVICE_ID")
     private Service service;
-    // this is not lazy loaded since hibernate would need build-time bytecode
-    // enhancement
-    // this could be optimized e.g. by not mapping this data to JPA entity, and
-    // fetching it directly with a native query
+    // lazy loaded with build-time bytecode enhancement (see build.gradle), so that
+    // loading the member-subsystem-service tree does not read the payloads.
+    // Payloads are stored gzip compressed in dataGzip, data is only set in rows
+    // saved before compression was introduced
     @Basic(fetch = FetchType.LAZY)
-    @Column(length = 40000, nullable = false) // big enough so that autogenerated tables can fit test data
+    @Column(length = 40000) // big enough so that autogenerated tables can fit test data
     private String data;
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "data_gzip", length = 40000)
+    private byte[] dataGzip;
+    // payload shared with identical openapis, replaces data and dataGzip when set
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "DESCRIPTOR_ID")
+    private Descriptor descriptor;
+    // sha-256 of data, used for detecting changes without comparing the payloads
+    private String dataHash;
     @Column(nullable = false)
     private String externalId;
     @Embedded
@@ -61,11 +72,33 @@ public class OpenApi {
 
     public OpenApi(Service service, String data, String externalId) {
         this.service = service;
-        this.data = data;
+        setData(data);
         this.externalId = externalId;
         statusInfo.setTimestampsForNew(LocalDateTime.now());
     }
 
+    public String getData() {
+        if (descriptor != null) {
+            return descriptor.getData();
+        }
+        return data != null ? data : GzipUtil.decompress(dataGzip);
+    }
+
+    public void setData(String data) {
+        // stores the data in this row, a previous descriptor must be released by the caller
+        this.descriptor = null;
+        this.data = null;
+        this.dataGzip = GzipUtil.compress(data);
+        this.dataHash = DigestUtil.sha256Hex(data);
+    }
+
+    public void setDescriptor(Descriptor descriptor) {
+        this.descriptor = descriptor;
+        this.data = null;
+        this.dataGzip = null;
+        this.dataHash = descriptor.getDataHash();
+    }
+
     public void initializeExternalId() {
         externalId = System.currentTimeMillis() + "_" + UUID.randomUUID().toString();
     }
@@ -0,0 +1,48 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.persistence.repository;
+
+import fi.vrk.xroad.catalog.persistence.entity.Descriptor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+public interface DescriptorRepository extends CrudRepository<Descriptor, Long> {
+
+    Descriptor findByDataHash(String dataHash);
+
+    /**
+     * Adds a reference to the descriptor with the digest, if it exists. Flushes first, so that
+     * a descriptor created earlier in the same transaction is found.
+     *
+     * @return number of updated rows, 0 if there is no descriptor with the digest
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Descriptor d SET d.refCount = d.refCount + 1 WHERE d.dataHash = :dataHash")
+    int incrementRefCount(@Param("dataHash") String dataHash);
+
+    @Modifying
+    @Query("UPDATE Descriptor d SET d.refCount = d.refCount - 1 WHERE d.id = :id")
+    int decrementRefCount(@Param("id") long id);
+
+    /**
+     * Deletes the descriptor if nothing refers to it anymore. Flushes first, so that the
+     * wsdls and openapis moved to other descriptors no longer refer to it in the database.
+     *
+     * @return number of deleted rows
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Descriptor d WHERE d.id = :id AND d.refCount <= 0")
+    int deleteIfUnreferenced(@Param("id") long id);
+}
@@ -0,0 +1,176 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.persistence.repository;
+
+import fi.vrk.xroad.catalog.persistence.entity.ErrorIncident;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ErrorIncidentRepository extends CrudRepository<ErrorIncident, Long> {
+
+    ErrorIncident findByIncidentKey(String incidentKey);
+
+    /**
+     * Counts occurrences into an existing incident in one statement, so that concurrent saves do not
+     * lose each other's counts. The assignments all read the values before the update.
+     *
+     * @return number of incidents updated, 0 if there is no incident with the key yet
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ErrorIncident i SET i.count = i.count + :count, "
+            + "i.message = CASE WHEN i.lastSeen <= :lastSeen THEN :message ELSE i.message END, "
+            + "i.lastSeen = CASE WHEN i.lastSeen < :lastSeen THEN :lastSeen ELSE i.lastSeen END, "
+            + "i.firstSeen = CASE WHEN i.firstSeen > :firstSeen THEN :firstSeen ELSE i.firstSeen END "
+            + "WHERE i.incidentKey = :incidentKey")
+    int addOccurrences(@Param("incidentKey") String incidentKey,
+                       @Param("count") long count,
+                       @Param("firstSeen") LocalDateTime firstSeen,
+                       @Param("lastSeen") LocalDateTime lastSeen,
+                       @Param("message") String message);
+
+    /**
+     * Returns the incidents which occurred between the given dates, null filters match any value
+     */
+    @Query("SELECT i FROM ErrorIncident i WHERE i.lastSeen >= :startDate AND i.firstSeen <= :endDate "
+            + "AND (:xRoadInstance IS NULL OR i.xRoadInstance = :xRoadInstance) "
+            + "AND (:memberClass IS NULL OR i.memberClass = :memberClass) "
+            + "AND (:memberCode IS NULL OR i.memberCode = :memberCode) "
+            + "AND (:subsystemCode IS NULL OR i.subsystemCode = :subsystemCode) "
+            + "ORDER BY i.lastSeen, i.id")
+    Page<ErrorIncident> findAnyByParameters(@Param("startDate") LocalDateTime startDate,
+                                            @Param("endDate") LocalDateTime endDate,
+                                            @Param("xRoadInstance") String xRoadInstance,
+                                            @Param("memberClass") String memberClass,
+                                            @Param("memberCode") String memberCode,
+                                            @Param("subsystemCode") String subsystemCode,
+                                            Pageable pageable);
+
+    /**
+     * Returns the incidents which occurred between the given dates and come after the given incident
+     * in the order of id, null filters match any value. The position is given by the id of the
+     * previous incident, so that each page costs the same as the first. Unlike the last seen time,
+     * the id does not change when an incident recurs, so no incident is skipped or listed twice
+     * while the pages are read. The filters must be nested, e.g. no member code without a member
+     * class, and each combination has its own query, so that the database can read a page with a
+     * range scan of the primary key or idx_error_incident_member instead of a catch-all predicate.
+     */
+    default List<ErrorIncident> findAnyByParametersAfter(LocalDateTime startDate,
+                                                         LocalDateTime endDate,
+                                                         String xRoadInstance,
+                                                         String memberClass,
+                                                         String memberCode,
+                                                         String subsystemCode,
+                                                         long afterId,
+                                                         Pageable pageable) {
+        if (xRoadInstance == null) {
+            return findAnyAfter(startDate, endDate, afterId, pageable);
+        } else if (memberClass == null) {
+            return findAnyByInstanceAfter(startDate, endDate, xRoadInstance, afterId, pageable);
+        } else if (memberCode == null) {
+            return findAnyByMemberClassAfter(startDate, endDate, xRoadInstance, memberClass, afterId, pageable);
+        } else if (subsystemCode == null) {
+            return findAnyByMemberCodeAfter(startDate, endDate, xRoadInstance, memberClass, memberCode, afterId,
+                    pageable);
+        }
+        return findAnyBySubsystemCodeAfter(startDate, endDate, xRoadInstance, memberClass, memberCode,
+                subsystemCode, afterId, pageable);
+    }
+
+    @Query("SELECT i FROM ErrorIncident i WHERE i.id > :afterId "
+            + "AND i.lastSeen >= :startDate AND i.firstSeen <= :endDate "
+            + "ORDER BY i.id")
+    List<ErrorIncident> findAnyAfter(@Param("startDate") LocalDateTime startDate,
+                                     @Param("endDate") LocalDateTime endDate,
+                                     @Param("afterId") long afterId,
+                                     Pageable pageable);
+
+    @Query("SELECT i FROM ErrorIncident i WHERE i.xRoadInstance = :xRoadInstance "
+            + "AND i.id > :afterId "
+            + "AND i.lastSeen >= :startDate AND i.firstSeen <= :endDate "
+            + "ORDER BY i.id")
+    List<ErrorIncident> findAnyByInstanceAfter(@Param("startDate") LocalDateTime startDate,
+                                               @Param("endDate") LocalDateTime endDate,
+                                               @Param("xRoadInstance") String xRoadInstance,
+                                               @Param("afterId") long afterId,
+                                               Pageable pageable);
+
+    @Query("SELECT i FROM ErrorIncident i WHERE i.xRoadInstance = :xRoadInstance "
+            + "AND i.memberClass = :memberClass "
+            + "AND i.id > :afterId "
+            + "AND i.lastSeen >= :startDate AND i.firstSeen <= :endDate "
+            + "ORDER BY i.id")
+    List<ErrorIncident> findAnyByMemberClassAfter(@Param("startDate") LocalDateTime startDate,
+                                                  @Param("endDate") LocalDateTime endDate,
+                                                  @Param("xRoadInstance") String xRoadInstance,
+                                                  @Param("memberClass") String memberClass,
+                                                  @Param("afterId") long afterId,
+                                                  Pageable pageable);
+
+    @Query("SELECT i FROM ErrorIncident i WHERE i.xRoadInstance = :xRoadInstance "
+            + "AND i.memberClass = :memberClass "
+            + "AND i.memberCode = :memberCode "
+            + "AND i.id > :afterId "
+            + "AND i.lastSeen >= :startDate AND i.firstSeen <= :endDate "
+            + "ORDER BY i.id")
+    List<ErrorIncident> findAnyByMemberCodeAfter(@Param("startDate") LocalDateTime startDate,
+                                                 @Param("endDate") LocalDateTime endDate,
+                                                 @Param("xRoadInstance") String xRoadInstance,
+                                                 @Param("memberClass") String memberClass,
+                                                 @Param("memberCode") String memberCode,
+                                                 @Param("afterId") long afterId,
+                                                 Pageable pageable);
+
+    @Query("SELECT i FROM ErrorIncident i WHERE i.xRoadInstance = :xRoadInstance "
+            + "AND i.memberClass = :memberClass "
+            + "AND i.memberCode = :memberCode "
+            + "AND i.subsystemCode = :subsystemCode "
+            + "AND i.id > :afterId "
+            + "AND i.lastSeen >= :startDate AND i.firstSeen <= :endDate "
+            + "ORDER BY i.id")
+    List<ErrorIncident> findAnyBySubsystemCodeAfter(@Param("startDate") LocalDateTime startDate,
+                                                    @Param("endDate") LocalDateTime endDate,
+                                                    @Param("xRoadInstance") String xRoadInstance,
+                                                    @Param("memberClass") String memberClass,
+                                                    @Param("memberCode") String memberCode,
+                                                    @Param("subsystemCode") String subsystemCode,
+                                                    @Param("afterId") long afterId,
+                                                    Pageable pageable);
+
+    @Query("SELECT COUNT(i) FROM ErrorIncident i WHERE i.lastSeen >= :startDate AND i.firstSeen <= :endDate "
+            + "AND (:xRoadInstance IS NULL OR i.xRoadInstance = :xRoadInstance) "
+            + "AND (:memberClass IS NULL OR i.memberClass = :memberClass) "
+            + "AND (:memberCode IS NULL OR i.memberCode = :memberCode) "
+            + "AND (:subsystemCode IS NULL OR i.subsystemCode = :subsystemCode)")
+    long countByParameters(@Param("startDate") LocalDateTime startDate,
+                           @Param("endDate") LocalDateTime endDate,
+                           @Param("xRoadInstance") String xRoadInstance,
+                           @Param("memberClass") String memberClass,
+                           @Param("memberCode") String memberCode,
+                           @Param("subsystemCode") String subsystemCode);
+
+    @Query("SELECT i FROM ErrorIncident i WHERE i.lastSeen >= :startDate AND i.firstSeen <= :endDate "
+            + "ORDER BY i.lastSeen, i.id")
+    List<ErrorIncident> findAny(@Param("startDate") LocalDateTime startDate,
+                                @Param("endDate") LocalDateTime endDate);
+
+    @Modifying
+    @Query("DELETE FROM ErrorIncident i WHERE i.lastSeen < :oldDate")
+    void deleteEntriesOlderThan(@Param("oldDate") LocalDateTime oldDate);
+}
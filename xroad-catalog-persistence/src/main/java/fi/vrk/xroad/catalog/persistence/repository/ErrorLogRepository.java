@@ -81,4 +81,17 @@ public interface ErrorLogRepository extends CrudRepository<ErrorLog, Long>, Pagi
     @Modifying
     @Query("DELETE FROM ErrorLog e WHERE e.created < :oldDate")
     void deleteEntriesOlderThan(@Param("oldDate") LocalDateTime oldDate);
+
+    /**
+     * Creates the monthly partitions of error_log from the current month up to monthsAhead months
+     * ahead, PostgreSQL only
+     */
+    @Query(value = "SELECT error_log_create_partitions(:monthsAhead)", nativeQuery = true)
+    int createPartitions(@Param("monthsAhead") int monthsAhead);
+
+    /**
+     * Detaches and drops the monthly partitions of error_log which end before oldDate, PostgreSQL only
+     */
+    @Query(value = "SELECT error_log_drop_partitions(CAST(:oldDate AS TIMESTAMP WITH TIME ZONE))", nativeQuery = true)
+    int dropPartitionsOlderThan(@Param("oldDate") LocalDateTime oldDate);
 }
@@ -12,14 +12,23 @@
  */
 package fi.vrk.xroad.catalog.persistence.repository;
 
+import fi.vrk.xroad.catalog.persistence.dto.MemberServiceRow;
+import fi.vrk.xroad.catalog.persistence.dto.MemberSubsystemSnapshot;
 import fi.vrk.xroad.catalog.persistence.entity.Member;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Basic CRUD for member
@@ -51,6 +60,28 @@ public interface MemberRepository extends CrudRepository<Member, Long> {
     Set<Member> findActiveChangedBetween(@Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate);
 
+    /**
+     * Streams the ids of the members findAllChangedBetween returns, in id order.
+     * Must be called inside a transaction and the stream must be closed after use.
+     * uses named query Member.streamIdsChangedBetween
+     *
+     * @param startDate changed from
+     * @param endDate   changed to
+     * @return Stream of member ids
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Long> streamIdsChangedBetween(@Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Returns the given members with their subsystems, services and wsdls, in id order.
+     * uses named query Member.findTreesByIds
+     *
+     * @param ids member ids
+     * @return List of members
+     */
+    List<Member> findTreesByIds(@Param("ids") Collection<Long> ids);
+
     /**
      * Returns only active items (non-deleted)
      * 
@@ -67,6 +98,78 @@ public interface MemberRepository extends CrudRepository<Member, Long> {
             @Param("memberClass") String memberClass,
             @Param("memberCode") String memberCode);
 
+    /**
+     * Tells if an active member has a service with a wsdl, openapi or rest description,
+     * without loading the member entity tree
+     *
+     * @param xRoadInstance X-Road instance parameter, for example FI
+     * @param memberClass   X-Road member class, for example GOF
+     * @param memberCode    X-Road member class, for example Company code
+     * @return true if the member provides services, null if the member is not found
+     */
+    @Query("SELECT CASE WHEN EXISTS (SELECT s FROM Service s WHERE s.subsystem.member = m "
+            + "AND (EXISTS (SELECT w FROM Wsdl w WHERE w.service = s) "
+            + "OR EXISTS (SELECT o FROM OpenApi o WHERE o.service = s) "
+            + "OR EXISTS (SELECT r FROM Rest r WHERE r.service = s))) THEN true ELSE false END "
+            + "FROM Member m WHERE m.xRoadInstance = :xRoadInstance "
+            + "AND m.memberClass = :memberClass "
+            + "AND m.memberCode = :memberCode "
+            + "AND m.statusInfo.removed IS NULL")
+    Boolean findProviderByNaturalKey(@Param("xRoadInstance") String xRoadInstance,
+            @Param("memberClass") String memberClass,
+            @Param("memberCode") String memberCode);
+
+    /**
+     * Returns one row per member-subsystem pair (also removed items), without loading
+     * the entity tree. Members without subsystems are returned with null subsystem fields.
+     *
+     * @return List of member-subsystem snapshots
+     */
+    @Query("SELECT new fi.vrk.xroad.catalog.persistence.dto.MemberSubsystemSnapshot("
+            + "m.id, m.xRoadInstance, m.memberClass, m.memberCode, m.name, m.statusInfo.removed, "
+            + "s.id, s.subsystemCode, s.statusInfo.removed) "
+            + "FROM Member m LEFT JOIN m.subsystems s")
+    List<MemberSubsystemSnapshot> findAllSnapshots();
+
+    /**
+     * Streams member-subsystem-service rows of the members created before the given time,
+     * ordered so that the rows of one member and one subsystem are consecutive.
+     * Must be called inside a transaction and the stream must be closed after use.
+     *
+     * @param createdBefore members created before this
+     * @return Stream of member-subsystem-service rows
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new fi.vrk.xroad.catalog.persistence.dto.MemberServiceRow("
+            + "m.id, m.xRoadInstance, m.memberClass, m.memberCode, m.name, m.statusInfo.created, "
+            + "sub.id, sub.subsystemCode, sub.statusInfo.created, sub.statusInfo.removed, "
+            + "s.serviceCode, s.serviceVersion, s.statusInfo.created, s.statusInfo.removed, "
+            + "CASE WHEN EXISTS (SELECT w FROM Wsdl w WHERE w.service = s) "
+            + "OR EXISTS (SELECT o FROM OpenApi o WHERE o.service = s) THEN true ELSE false END) "
+            + "FROM Member m LEFT JOIN m.subsystems sub LEFT JOIN sub.services s "
+            + "WHERE m.statusInfo.created < :createdBefore "
+            + "ORDER BY m.id, sub.id, s.id")
+    Stream<MemberServiceRow> streamMemberServiceRows(@Param("createdBefore") LocalDateTime createdBefore);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Member m SET m.statusInfo.fetched = :timestamp WHERE m.id IN :ids")
+    int updateFetched(@Param("ids") Collection<Long> ids, @Param("timestamp") LocalDateTime timestamp);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Member m SET m.statusInfo.changed = :timestamp, m.statusInfo.fetched = :timestamp, "
+            + "m.statusInfo.removed = NULL WHERE m.id IN :ids")
+    int updateResurrected(@Param("ids") Collection<Long> ids, @Param("timestamp") LocalDateTime timestamp);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Member m SET m.name = :name, m.statusInfo.changed = :timestamp, m.statusInfo.fetched = :timestamp, "
+            + "m.statusInfo.removed = NULL WHERE m.id = :id")
+    int updateName(@Param("id") long id, @Param("name") String name, @Param("timestamp") LocalDateTime timestamp);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Member m SET m.statusInfo.changed = :timestamp, m.statusInfo.fetched = :timestamp, "
+            + "m.statusInfo.removed = :timestamp WHERE m.id IN :ids")
+    int updateRemoved(@Param("ids") Collection<Long> ids, @Param("timestamp") LocalDateTime timestamp);
+
     @Query(value = "SELECT 1", nativeQuery = true)
     Integer checkConnection();
 
@@ -12,9 +12,12 @@
  */
 package fi.vrk.xroad.catalog.persistence.repository;
 
+import fi.vrk.xroad.catalog.persistence.dto.DescriptorData;
 import fi.vrk.xroad.catalog.persistence.entity.OpenApi;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -25,6 +28,63 @@ public interface OpenApiRepository extends CrudRepository<OpenApi, Long> {
      */
     List<OpenApi> findAnyByExternalId(String externalId);
 
+    /**
+     * Returns only the stored data of the openapis with the external id (also removed ones), through the
+     * external id index and without loading the entities or their services
+     */
+    @Query("SELECT new fi.vrk.xroad.catalog.persistence.dto.DescriptorData(o.data, COALESCE(d.dataGzip, o.dataGzip)) "
+            + "FROM OpenApi o LEFT JOIN o.descriptor d WHERE o.externalId = :externalId")
+    List<DescriptorData> findDataByExternalId(@Param("externalId") String externalId);
+
+    /**
+     * Updates only the fetched timestamp of an active openapi whose data digest matches,
+     * so that unchanged payloads are never loaded or rewritten. Rows not yet stored in a descriptor
+     * are not matched, so that the save moves their payload to one
+     *
+     * @return number of updated rows, 0 if the openapi is new, changed or removed
+     */
+    @Modifying
+    @Query("UPDATE OpenApi o SET o.statusInfo.fetched = :fetched WHERE o.dataHash = :dataHash "
+            + "AND o.descriptor IS NOT NULL AND o.statusInfo.removed IS NULL "
+            + "AND o.service IN (SELECT s FROM Service s WHERE "
+            + "s.serviceVersion = :serviceVersion "
+            + "AND s.serviceCode = :serviceCode "
+            + "AND s.subsystem.subsystemCode = :subsystemCode "
+            + "AND s.subsystem.member.memberCode = :memberCode "
+            + "AND s.subsystem.member.memberClass = :memberClass "
+            + "AND s.subsystem.member.xRoadInstance = :xRoadInstance "
+            + "AND s.statusInfo.removed IS NULL)")
+    int updateFetchedIfUnchanged(@Param("xRoadInstance") String xRoadInstance,
+            @Param("memberClass") String memberClass,
+            @Param("memberCode") String memberCode,
+            @Param("subsystemCode") String subsystemCode,
+            @Param("serviceCode") String serviceCode,
+            @Param("serviceVersion") String serviceVersion,
+            @Param("dataHash") String dataHash,
+            @Param("fetched") LocalDateTime fetched);
+
+    /**
+     * Same as updateFetchedIfUnchanged, for services without a version
+     */
+    @Modifying
+    @Query("UPDATE OpenApi o SET o.statusInfo.fetched = :fetched WHERE o.dataHash = :dataHash "
+            + "AND o.descriptor IS NOT NULL AND o.statusInfo.removed IS NULL "
+            + "AND o.service IN (SELECT s FROM Service s WHERE "
+            + "s.serviceVersion IS NULL "
+            + "AND s.serviceCode = :serviceCode "
+            + "AND s.subsystem.subsystemCode = :subsystemCode "
+            + "AND s.subsystem.member.memberCode = :memberCode "
+            + "AND s.subsystem.member.memberClass = :memberClass "
+            + "AND s.subsystem.member.xRoadInstance = :xRoadInstance "
+            + "AND s.statusInfo.removed IS NULL)")
+    int updateNullVersionFetchedIfUnchanged(@Param("xRoadInstance") String xRoadInstance,
+            @Param("memberClass") String memberClass,
+            @Param("memberCode") String memberCode,
+            @Param("subsystemCode") String subsystemCode,
+            @Param("serviceCode") String serviceCode,
+            @Param("dataHash") String dataHash,
+            @Param("fetched") LocalDateTime fetched);
+
     @Query(value = "SELECT MAX(fetched) FROM open_api", nativeQuery = true)
     LocalDateTime findLatestFetched();
 }
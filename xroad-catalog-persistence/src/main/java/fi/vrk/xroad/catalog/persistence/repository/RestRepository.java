@@ -14,8 +14,10 @@ package fi.vrk.xroad.catalog.persistence.repository;
 
 import fi.vrk.xroad.catalog.persistence.entity.Rest;
 import fi.vrk.xroad.catalog.persistence.entity.Service;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -28,6 +30,55 @@ public interface RestRepository extends CrudRepository<Rest, Long> {
 
     List<Rest> findAnyByService(Service service);
 
+    /**
+     * Updates only the fetched timestamp of an active rest whose data digest matches,
+     * so that unchanged payloads are never loaded or rewritten. Rows saved before compression
+     * was introduced are not matched, so that the save rewrites them compressed
+     *
+     * @return number of updated rows, 0 if the rest is new, changed or removed
+     */
+    @Modifying
+    @Query("UPDATE Rest r SET r.statusInfo.fetched = :fetched WHERE r.dataHash = :dataHash "
+            + "AND r.data IS NULL AND r.statusInfo.removed IS NULL "
+            + "AND r.service IN (SELECT s FROM Service s WHERE "
+            + "s.serviceVersion = :serviceVersion "
+            + "AND s.serviceCode = :serviceCode "
+            + "AND s.subsystem.subsystemCode = :subsystemCode "
+            + "AND s.subsystem.member.memberCode = :memberCode "
+            + "AND s.subsystem.member.memberClass = :memberClass "
+            + "AND s.subsystem.member.xRoadInstance = :xRoadInstance "
+            + "AND s.statusInfo.removed IS NULL)")
+    int updateFetchedIfUnchanged(@Param("xRoadInstance") String xRoadInstance,
+            @Param("memberClass") String memberClass,
+            @Param("memberCode") String memberCode,
+            @Param("subsystemCode") String subsystemCode,
+            @Param("serviceCode") String serviceCode,
+            @Param("serviceVersion") String serviceVersion,
+            @Param("dataHash") String dataHash,
+            @Param("fetched") LocalDateTime fetched);
+
+    /**
+     * Same as updateFetchedIfUnchanged, for services without a version
+     */
+    @Modifying
+    @Query("UPDATE Rest r SET r.statusInfo.fetched = :fetched WHERE r.dataHash = :dataHash "
+            + "AND r.data IS NULL AND r.statusInfo.removed IS NULL "
+            + "AND r.service IN (SELECT s FROM Service s WHERE "
+            + "s.serviceVersion IS NULL "
+            + "AND s.serviceCode = :serviceCode "
+            + "AND s.subsystem.subsystemCode = :subsystemCode "
+            + "AND s.subsystem.member.memberCode = :memberCode "
+            + "AND s.subsystem.member.memberClass = :memberClass "
+            + "AND s.subsystem.member.xRoadInstance = :xRoadInstance "
+            + "AND s.statusInfo.removed IS NULL)")
+    int updateNullVersionFetchedIfUnchanged(@Param("xRoadInstance") String xRoadInstance,
+            @Param("memberClass") String memberClass,
+            @Param("memberCode") String memberCode,
+            @Param("subsystemCode") String subsystemCode,
+            @Param("serviceCode") String serviceCode,
+            @Param("dataHash") String dataHash,
+            @Param("fetched") LocalDateTime fetched);
+
     @Query(value = "SELECT MAX(fetched) FROM rest", nativeQuery = true)
     LocalDateTime findLatestFetched();
 }
@@ -45,6 +45,43 @@ public interface ServiceRepository extends CrudRepository<Service, Long> {
     @Query("SELECT s FROM Service s WHERE s.statusInfo.removed IS NULL")
     List<Service> findAllActive();
 
+    @Query("SELECT COUNT(s) FROM Service s WHERE s.statusInfo.removed IS NULL")
+    long countActive();
+
+    @Query("SELECT COUNT(s) FROM Service s WHERE s.statusInfo.removed IS NULL "
+            + "AND EXISTS (SELECT o FROM OpenApi o WHERE o.service = s)")
+    long countActiveWithOpenApi();
+
+    /**
+     * Services having both an openapi and a wsdl are counted as openapi services
+     */
+    @Query("SELECT COUNT(s) FROM Service s WHERE s.statusInfo.removed IS NULL "
+            + "AND EXISTS (SELECT w FROM Wsdl w WHERE w.service = s) "
+            + "AND NOT EXISTS (SELECT o FROM OpenApi o WHERE o.service = s)")
+    long countActiveSoap();
+
+    @Query("SELECT COUNT(DISTINCT s.serviceCode) FROM Service s WHERE s.statusInfo.removed IS NULL")
+    long countActiveDistinctServiceCodes();
+
+    @Query("SELECT COUNT(s) FROM Service s WHERE s.statusInfo.removed IS NULL "
+            + "AND s.statusInfo.created < :createdBefore")
+    long countActiveCreatedBefore(@Param("createdBefore") LocalDateTime createdBefore);
+
+    @Query("SELECT COUNT(s) FROM Service s WHERE s.statusInfo.removed IS NULL "
+            + "AND s.statusInfo.created < :createdBefore "
+            + "AND EXISTS (SELECT o FROM OpenApi o WHERE o.service = s)")
+    long countActiveWithOpenApiCreatedBefore(@Param("createdBefore") LocalDateTime createdBefore);
+
+    @Query("SELECT COUNT(s) FROM Service s WHERE s.statusInfo.removed IS NULL "
+            + "AND s.statusInfo.created < :createdBefore "
+            + "AND EXISTS (SELECT w FROM Wsdl w WHERE w.service = s) "
+            + "AND NOT EXISTS (SELECT o FROM OpenApi o WHERE o.service = s)")
+    long countActiveSoapCreatedBefore(@Param("createdBefore") LocalDateTime createdBefore);
+
+    @Query("SELECT COUNT(DISTINCT s.serviceCode) FROM Service s WHERE s.statusInfo.removed IS NULL "
+            + "AND s.statusInfo.created < :createdBefore")
+    long countActiveDistinctServiceCodesCreatedBefore(@Param("createdBefore") LocalDateTime createdBefore);
+
     /**
      * Only returns non-removed services
      */
@@ -124,6 +161,45 @@ public interface ServiceRepository extends CrudRepository<Service, Long> {
             @Param("subsystemCode") String subsystemCode,
             @Param("serviceVersion") String serviceVersion);
 
+    /**
+     * Returns the type of a service without null version, without loading the service entity tree
+     *
+     * @return SOAP, OPENAPI or REST, null if the service is not found
+     */
+    @Query("SELECT CASE WHEN EXISTS (SELECT w FROM Wsdl w WHERE w.service = s) THEN 'SOAP' "
+            + "WHEN EXISTS (SELECT o FROM OpenApi o WHERE o.service = s) THEN 'OPENAPI' ELSE 'REST' END "
+            + "FROM Service s WHERE s.serviceCode = :serviceCode "
+            + "AND s.subsystem.subsystemCode = :subsystemCode "
+            + "AND s.subsystem.member.memberCode = :memberCode "
+            + "AND s.subsystem.member.memberClass = :memberClass "
+            + "AND s.subsystem.member.xRoadInstance = :xRoadInstance "
+            + "AND s.serviceVersion IS NULL")
+    String findServiceTypeByMemberServiceAndSubsystemVersionNull(@Param("xRoadInstance") String xRoadInstance,
+            @Param("memberClass") String memberClass,
+            @Param("memberCode") String memberCode,
+            @Param("serviceCode") String serviceCode,
+            @Param("subsystemCode") String subsystemCode);
+
+    /**
+     * Returns the type of a service with the given version, without loading the service entity tree
+     *
+     * @return SOAP, OPENAPI or REST, null if the service is not found
+     */
+    @Query("SELECT CASE WHEN EXISTS (SELECT w FROM Wsdl w WHERE w.service = s) THEN 'SOAP' "
+            + "WHEN EXISTS (SELECT o FROM OpenApi o WHERE o.service = s) THEN 'OPENAPI' ELSE 'REST' END "
+            + "FROM Service s WHERE s.serviceCode = :serviceCode "
+            + "AND s.subsystem.subsystemCode = :subsystemCode "
+            + "AND s.subsystem.member.memberCode = :memberCode "
+            + "AND s.subsystem.member.memberClass = :memberClass "
+            + "AND s.subsystem.member.xRoadInstance = :xRoadInstance "
+            + "AND s.serviceVersion = :serviceVersion")
+    String findServiceTypeByMemberServiceAndSubsystemAndVersion(@Param("xRoadInstance") String xRoadInstance,
+            @Param("memberClass") String memberClass,
+            @Param("memberCode") String memberCode,
+            @Param("serviceCode") String serviceCode,
+            @Param("subsystemCode") String subsystemCode,
+            @Param("serviceVersion") String serviceVersion);
+
     @Query(value = "SELECT MAX(fetched) FROM service", nativeQuery = true)
     LocalDateTime findLatestFetched();
 }
@@ -0,0 +1,38 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.persistence.repository;
+
+import fi.vrk.xroad.catalog.persistence.entity.ServiceStatisticsDaily;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ServiceStatisticsDailyRepository extends CrudRepository<ServiceStatisticsDaily, Long> {
+
+    @Query("SELECT d FROM ServiceStatisticsDaily d WHERE d.statisticsDate = :statisticsDate")
+    ServiceStatisticsDaily findByStatisticsDate(@Param("statisticsDate") LocalDate statisticsDate);
+
+    /**
+     * Returns the rows between the given dates, and also the latest row before startDate
+     * since the counts of that day are still valid until the next row
+     */
+    @Query("SELECT d FROM ServiceStatisticsDaily d WHERE d.statisticsDate <= :endDate "
+            + "AND d.statisticsDate >= COALESCE((SELECT MAX(p.statisticsDate) FROM ServiceStatisticsDaily p "
+            + "WHERE p.statisticsDate <= :startDate), :startDate) "
+            + "ORDER BY d.statisticsDate")
+    List<ServiceStatisticsDaily> findCoveringDates(@Param("startDate") LocalDate startDate,
+                                                   @Param("endDate") LocalDate endDate);
+}
@@ -13,11 +13,13 @@
 package fi.vrk.xroad.catalog.persistence.repository;
 
 import fi.vrk.xroad.catalog.persistence.entity.Subsystem;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 
 public interface SubsystemRepository extends CrudRepository<Subsystem, Long> {
 
@@ -31,6 +33,20 @@ public interface SubsystemRepository extends CrudRepository<Subsystem, Long> {
                                      @Param("memberCode") String memberCode,
                                      @Param("subsystemCode") String subsystemCode);
 
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Subsystem s SET s.statusInfo.fetched = :timestamp WHERE s.id IN :ids")
+    int updateFetched(@Param("ids") Collection<Long> ids, @Param("timestamp") LocalDateTime timestamp);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Subsystem s SET s.statusInfo.changed = :timestamp, s.statusInfo.fetched = :timestamp, "
+            + "s.statusInfo.removed = NULL WHERE s.id IN :ids")
+    int updateResurrected(@Param("ids") Collection<Long> ids, @Param("timestamp") LocalDateTime timestamp);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Subsystem s SET s.statusInfo.changed = :timestamp, s.statusInfo.fetched = :timestamp, "
+            + "s.statusInfo.removed = :timestamp WHERE s.id IN :ids")
+    int updateRemoved(@Param("ids") Collection<Long> ids, @Param("timestamp") LocalDateTime timestamp);
+
     @Query(value = "SELECT MAX(fetched) FROM subsystem", nativeQuery = true)
     LocalDateTime findLatestFetched();
 }
@@ -12,9 +12,12 @@
  */
 package fi.vrk.xroad.catalog.persistence.repository;
 
+import fi.vrk.xroad.catalog.persistence.dto.DescriptorData;
 import fi.vrk.xroad.catalog.persistence.entity.Wsdl;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -25,6 +28,63 @@ public interface WsdlRepository extends CrudRepository<Wsdl, Long> {
      */
     List<Wsdl> findAnyByExternalId(String externalId);
 
+    /**
+     * Returns only the stored data of the wsdls with the external id (also removed ones), through the
+     * external id index and without loading the entities or their services
+     */
+    @Query("SELECT new fi.vrk.xroad.catalog.persistence.dto.DescriptorData(w.data, COALESCE(d.dataGzip, w.dataGzip)) "
+            + "FROM Wsdl w LEFT JOIN w.descriptor d WHERE w.externalId = :externalId")
+    List<DescriptorData> findDataByExternalId(@Param("externalId") String externalId);
+
+    /**
+     * Updates only the fetched timestamp of an active wsdl whose data digest matches,
+     * so that unchanged payloads are never loaded or rewritten. Rows not yet stored in a descriptor
+     * are not matched, so that the save moves their payload to one
+     *
+     * @return number of updated rows, 0 if the wsdl is new, changed or removed
+     */
+    @Modifying
+    @Query("UPDATE Wsdl w SET w.statusInfo.fetched = :fetched WHERE w.dataHash = :dataHash "
+            + "AND w.descriptor IS NOT NULL AND w.statusInfo.removed IS NULL "
+            + "AND w.service IN (SELECT s FROM Service s WHERE "
+            + "s.serviceVersion = :serviceVersion "
+            + "AND s.serviceCode = :serviceCode "
+            + "AND s.subsystem.subsystemCode = :subsystemCode "
+            + "AND s.subsystem.member.memberCode = :memberCode "
+            + "AND s.subsystem.member.memberClass = :memberClass "
+            + "AND s.subsystem.member.xRoadInstance = :xRoadInstance "
+            + "AND s.statusInfo.removed IS NULL)")
+    int updateFetchedIfUnchanged(@Param("xRoadInstance") String xRoadInstance,
+            @Param("memberClass") String memberClass,
+            @Param("memberCode") String memberCode,
+            @Param("subsystemCode") String subsystemCode,
+            @Param("serviceCode") String serviceCode,
+            @Param("serviceVersion") String serviceVersion,
+            @Param("dataHash") String dataHash,
+            @Param("fetched") LocalDateTime fetched);
+
+    /**
+     * Same as updateFetchedIfUnchanged, for services without a version
+     */
+    @Modifying
+    @Query("UPDATE Wsdl w SET w.statusInfo.fetched = :fetched WHERE w.dataHash = :dataHash "
+            + "AND w.descriptor IS NOT NULL AND w.statusInfo.removed IS NULL "
+            + "AND w.service IN (SELECT s FROM Service s WHERE "
+            + "s.serviceVersion IS NULL "
+            + "AND s.serviceCode = :serviceCode "
+            + "AND s.subsystem.subsystemCode = :subsystemCode "
+            + "AND s.subsystem.member.memberCode = :memberCode "
+            + "AND s.subsystem.member.memberClass = :memberClass "
+            + "AND s.subsystem.member.xRoadInstance = :xRoadInstance "
+            + "AND s.statusInfo.removed IS NULL)")
+    int updateNullVersionFetchedIfUnchanged(@Param("xRoadInstance") String xRoadInstance,
+            @Param("memberClass") String memberClass,
+            @Param("memberCode") String memberCode,
+            @Param("subsystemCode") String subsystemCode,
+            @Param("serviceCode") String serviceCode,
+            @Param("dataHash") String dataHash,
+            @Param("fetched") LocalDateTime fetched);
+
     @Query(value = "SELECT MAX(fetched) FROM wsdl", nativeQuery = true)
     LocalDateTime findLatestFetched();
 }
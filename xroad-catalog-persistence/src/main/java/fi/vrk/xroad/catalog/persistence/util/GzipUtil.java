@@ -0,0 +1,79 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.persistence.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public final class GzipUtil {
+
+    private GzipUtil() {
+
+    }
+
+    /**
+     * Compresses the given descriptor payload with gzip
+     *
+     * @param data descriptor payload (wsdl, openapi or rest)
+     * @return gzip compressed UTF-8 bytes, or null if data is null
+     */
+    public static byte[] compress(String data) {
+        if (data == null) {
+            return null;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(data.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("Compressing descriptor failed", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decompresses a descriptor payload compressed with {@link #compress(String)}
+     *
+     * @param gzip gzip compressed UTF-8 bytes
+     * @return descriptor payload, or null if gzip is null
+     */
+    public static String decompress(byte[] gzip) {
+        if (gzip == null) {
+            return null;
+        }
+        try (InputStream in = openDecompressing(gzip)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Decompressing descriptor failed", e);
+        }
+    }
+
+    /**
+     * Opens a stream that decompresses the given bytes while they are read,
+     * so that large descriptors can be written out without decompressing them into memory first
+     *
+     * @param gzip gzip compressed UTF-8 bytes
+     * @return stream of the UTF-8 bytes of the descriptor payload
+     */
+    public static InputStream openDecompressing(byte[] gzip) {
+        try {
+            return new GZIPInputStream(new ByteArrayInputStream(gzip));
+        } catch (IOException e) {
+            throw new IllegalStateException("Invalid gzip data", e);
+        }
+    }
+}
@@ -69,11 +69,30 @@ CREATE SEQUENCE IF NOT EXISTS service_id_seq
 
 ALTER SEQUENCE service_id_seq OWNED BY service.id;
 
+CREATE TABLE IF NOT EXISTS descriptor (
+    id BIGSERIAL PRIMARY KEY NOT NULL,
+    data_hash TEXT NOT NULL,
+    data_gzip BYTEA NOT NULL,
+    ref_count INTEGER NOT NULL
+);
+
+CREATE SEQUENCE IF NOT EXISTS descriptor_id_seq
+    START WITH 1
+    INCREMENT BY 1
+    NO MINVALUE
+    NO MAXVALUE
+    CACHE 1;
+
+ALTER SEQUENCE descriptor_id_seq OWNED BY descriptor.id;
+
 CREATE TABLE IF NOT EXISTS wsdl (
     id BIGSERIAL PRIMARY KEY NOT NULL,
     service_id BIGSERIAL NOT NULL REFERENCES service(id),
-    data TEXT NOT NULL,
+    data TEXT,
     external_id TEXT NOT NULL,
+    data_hash TEXT,
+    data_gzip BYTEA,
+    descriptor_id BIGINT REFERENCES descriptor(id),
     created TIMESTAMP WITH TIME ZONE NOT NULL,
     changed TIMESTAMP WITH TIME ZONE NOT NULL,
     fetched TIMESTAMP WITH TIME ZONE NOT NULL,
@@ -101,8 +120,11 @@ ALTER SEQUENCE wsdl_external_id_seq OWNED BY wsdl.external_id;
 CREATE TABLE IF NOT EXISTS open_api (
     id BIGSERIAL PRIMARY KEY NOT NULL,
     service_id BIGSERIAL NOT NULL REFERENCES service(id),
-    data TEXT NOT NULL,
+    data TEXT,
     external_id TEXT NOT NULL,
+    data_hash TEXT,
+    data_gzip BYTEA,
+    descriptor_id BIGINT REFERENCES descriptor(id),
     created TIMESTAMP WITH TIME ZONE NOT NULL,
     changed TIMESTAMP WITH TIME ZONE NOT NULL,
     fetched TIMESTAMP WITH TIME ZONE NOT NULL,
@@ -130,8 +152,10 @@ ALTER SEQUENCE open_api_external_id_seq OWNED BY open_api.external_id;
 CREATE TABLE IF NOT EXISTS rest (
     id BIGSERIAL PRIMARY KEY NOT NULL,
     service_id BIGSERIAL NOT NULL REFERENCES service(id),
-    data TEXT NOT NULL,
+    data TEXT,
     external_id TEXT NOT NULL,
+    data_hash TEXT,
+    data_gzip BYTEA,
     created TIMESTAMP WITH TIME ZONE NOT NULL,
     changed TIMESTAMP WITH TIME ZONE NOT NULL,
     fetched TIMESTAMP WITH TIME ZONE NOT NULL,
@@ -176,8 +200,27 @@ CREATE SEQUENCE IF NOT EXISTS endpoint_id_seq
 
 ALTER SEQUENCE endpoint_id_seq OWNED BY endpoint.id;
 
+-- error_log is range partitioned by month of created, so that the retention drops whole partitions
+-- instead of deleting the entries row by row. A not partitioned error_log of an earlier version is
+-- renamed here and attached below as the partition holding its entries.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class WHERE relname = 'error_log' AND relkind = 'r') THEN
+        ALTER TABLE error_log RENAME TO error_log_legacy;
+        ALTER INDEX IF EXISTS error_log_pkey RENAME TO error_log_legacy_pkey;
+    END IF;
+END
+$$;
+
+CREATE SEQUENCE IF NOT EXISTS error_log_id_seq
+    START WITH 1
+    INCREMENT BY 1
+    NO MINVALUE
+    NO MAXVALUE
+    CACHE 1;
+
 CREATE TABLE IF NOT EXISTS error_log (
-    id BIGSERIAL PRIMARY KEY NOT NULL,
+    id BIGINT DEFAULT nextval('error_log_id_seq') NOT NULL,
     message TEXT NOT NULL,
     code TEXT NOT NULL,
     x_road_instance TEXT,
@@ -189,17 +232,133 @@ CREATE TABLE IF NOT EXISTS error_log (
     service_version TEXT,
     security_category_code TEXT,
     server_code TEXT,
-    created TIMESTAMP WITH TIME ZONE NOT NULL
+    created TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (id, created)
+) PARTITION BY RANGE (created);
+
+ALTER SEQUENCE error_log_id_seq OWNED BY error_log.id;
+
+-- entries outside of the monthly partitions, e.g. when the collector has not run for months
+CREATE TABLE IF NOT EXISTS error_log_default PARTITION OF error_log DEFAULT;
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class WHERE relname = 'error_log_legacy' AND NOT relispartition) THEN
+        EXECUTE format('ALTER TABLE error_log ATTACH PARTITION error_log_legacy FOR VALUES FROM (MINVALUE) TO (%L)',
+            date_trunc('month', GREATEST(now(), (SELECT max(created) FROM error_log_legacy))) + INTERVAL '1 month');
+    END IF;
+END
+$$;
+
+-- creates the monthly partitions error_log_pYYYYMM from the current month up to months_ahead months ahead
+CREATE OR REPLACE FUNCTION error_log_create_partitions(months_ahead INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    partition_start DATE := date_trunc('month', now());
+    partition_name TEXT;
+    created_partitions INTEGER := 0;
+BEGIN
+    FOR i IN 0..months_ahead LOOP
+        partition_name := 'error_log_p' || to_char(partition_start, 'YYYYMM');
+        IF to_regclass(partition_name) IS NULL THEN
+            BEGIN
+                EXECUTE format('CREATE TABLE %I PARTITION OF error_log FOR VALUES FROM (%L) TO (%L)',
+                    partition_name, partition_start, partition_start + INTERVAL '1 month');
+                EXECUTE format('ALTER TABLE %I OWNER TO %I', partition_name,
+                    (SELECT pg_get_userbyid(relowner) FROM pg_class WHERE oid = 'error_log'::regclass));
+                created_partitions := created_partitions + 1;
+            EXCEPTION
+                -- the month is covered by error_log_legacy or has entries in the default partition already
+                WHEN invalid_object_definition OR check_violation THEN
+                    NULL;
+            END;
+        END IF;
+        partition_start := partition_start + INTERVAL '1 month';
+    END LOOP;
+    RETURN created_partitions;
+END;
+$$ LANGUAGE plpgsql;
+
+-- detaches and drops the monthly partitions ending before old_date, and error_log_legacy once it is empty
+CREATE OR REPLACE FUNCTION error_log_drop_partitions(old_date TIMESTAMP WITH TIME ZONE) RETURNS INTEGER AS $$
+DECLARE
+    partition_name TEXT;
+    dropped_partitions INTEGER := 0;
+BEGIN
+    FOR partition_name IN SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'error_log'::regclass AND c.relname ~ '^error_log_p[0-9]{6}$' LOOP
+        IF to_date(substr(partition_name, 12), 'YYYYMM') + INTERVAL '1 month' <= old_date THEN
+            EXECUTE format('ALTER TABLE error_log DETACH PARTITION %I', partition_name);
+            EXECUTE format('DROP TABLE %I', partition_name);
+            dropped_partitions := dropped_partitions + 1;
+        END IF;
+    END LOOP;
+    IF to_regclass('error_log_legacy') IS NOT NULL THEN
+        IF NOT EXISTS (SELECT 1 FROM error_log_legacy) THEN
+            ALTER TABLE error_log DETACH PARTITION error_log_legacy;
+            DROP TABLE error_log_legacy;
+            dropped_partitions := dropped_partitions + 1;
+        END IF;
+    END IF;
+    RETURN dropped_partitions;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TABLE IF NOT EXISTS error_incident (
+    id BIGSERIAL PRIMARY KEY NOT NULL,
+    incident_key TEXT NOT NULL,
+    x_road_instance TEXT,
+    member_class TEXT,
+    member_code TEXT,
+    subsystem_code TEXT,
+    service_code TEXT,
+    service_version TEXT,
+    code TEXT NOT NULL,
+    message_template TEXT NOT NULL,
+    message TEXT NOT NULL,
+    first_seen TIMESTAMP WITH TIME ZONE NOT NULL,
+    last_seen TIMESTAMP WITH TIME ZONE NOT NULL,
+    error_count BIGINT NOT NULL
 );
 
-CREATE SEQUENCE IF NOT EXISTS error_log_id_seq
+CREATE SEQUENCE IF NOT EXISTS error_incident_id_seq
     START WITH 1
     INCREMENT BY 1
     NO MINVALUE
     NO MAXVALUE
     CACHE 1;
 
-ALTER SEQUENCE error_log_id_seq OWNED BY error_log.id;
+ALTER SEQUENCE error_incident_id_seq OWNED BY error_incident.id;
+
+CREATE TABLE IF NOT EXISTS service_statistics_daily (
+    id BIGSERIAL PRIMARY KEY NOT NULL,
+    statistics_date DATE NOT NULL,
+    number_of_soap_services BIGINT NOT NULL,
+    number_of_rest_services BIGINT NOT NULL,
+    number_of_open_api_services BIGINT NOT NULL,
+    number_of_distinct_services BIGINT NOT NULL,
+    updated TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE SEQUENCE IF NOT EXISTS service_statistics_daily_id_seq
+    START WITH 1
+    INCREMENT BY 1
+    NO MINVALUE
+    NO MAXVALUE
+    CACHE 1;
+
+ALTER SEQUENCE service_statistics_daily_id_seq OWNED BY service_statistics_daily.id;
+
+ALTER TABLE wsdl ADD COLUMN IF NOT EXISTS data_hash TEXT;
+ALTER TABLE open_api ADD COLUMN IF NOT EXISTS data_hash TEXT;
+ALTER TABLE rest ADD COLUMN IF NOT EXISTS data_hash TEXT;
+ALTER TABLE wsdl ADD COLUMN IF NOT EXISTS data_gzip BYTEA;
+ALTER TABLE open_api ADD COLUMN IF NOT EXISTS data_gzip BYTEA;
+ALTER TABLE rest ADD COLUMN IF NOT EXISTS data_gzip BYTEA;
+ALTER TABLE wsdl ALTER COLUMN data DROP NOT NULL;
+ALTER TABLE open_api ALTER COLUMN data DROP NOT NULL;
+ALTER TABLE rest ALTER COLUMN data DROP NOT NULL;
+ALTER TABLE wsdl ADD COLUMN IF NOT EXISTS descriptor_id BIGINT REFERENCES descriptor(id);
+ALTER TABLE open_api ADD COLUMN IF NOT EXISTS descriptor_id BIGINT REFERENCES descriptor(id);
 
 CREATE UNIQUE INDEX IF NOT EXISTS idx_wsdl_external_id ON wsdl USING btree (external_id);
 CREATE UNIQUE INDEX IF NOT EXISTS idx_open_api_external_id ON open_api USING btree (external_id);
@@ -207,6 +366,9 @@ CREATE UNIQUE INDEX IF NOT EXISTS idx_rest_external_id ON rest USING btree (exte
 CREATE UNIQUE INDEX IF NOT EXISTS idx_member_natural_keys ON member(member_code, member_class, x_road_instance);
 CREATE UNIQUE INDEX IF NOT EXISTS idx_service_unique_fields ON service(subsystem_id, service_code, service_version);
 CREATE UNIQUE INDEX IF NOT EXISTS idx_subsystem_unique_fields ON subsystem(member_id, subsystem_code);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_service_statistics_daily_date ON service_statistics_daily(statistics_date);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_error_incident_key ON error_incident(incident_key);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_descriptor_data_hash ON descriptor USING btree (data_hash);
 
 CREATE INDEX IF NOT EXISTS idx_wsdl_changed ON wsdl(changed);
 CREATE INDEX IF NOT EXISTS idx_open_api_changed ON open_api(changed);
@@ -215,12 +377,28 @@ CREATE INDEX IF NOT EXISTS idx_endpoint_changed ON endpoint(changed);
 CREATE INDEX IF NOT EXISTS idx_service_changed ON service(changed);
 CREATE INDEX IF NOT EXISTS idx_subsystem_changed ON subsystem(changed);
 CREATE INDEX IF NOT EXISTS idx_member_changed ON member(changed);
+-- keyset pages of error incidents are read in the order of id, so the last seen time is only
+-- needed by the retention and the numbered pages
+DROP INDEX IF EXISTS idx_error_incident_last_seen;
+CREATE INDEX IF NOT EXISTS idx_error_incident_seen ON error_incident(last_seen);
+CREATE INDEX IF NOT EXISTS idx_error_incident_member ON error_incident(x_road_instance, member_class, member_code,
+    subsystem_code, id);
+CREATE INDEX IF NOT EXISTS idx_error_log_created ON error_log(created);
+CREATE INDEX IF NOT EXISTS idx_wsdl_descriptor_id ON wsdl(descriptor_id);
+CREATE INDEX IF NOT EXISTS idx_open_api_descriptor_id ON open_api(descriptor_id);
 
 ALTER TABLE member OWNER TO xroad_catalog;
 ALTER TABLE service OWNER TO xroad_catalog;
 ALTER TABLE subsystem OWNER TO xroad_catalog;
+ALTER TABLE descriptor OWNER TO xroad_catalog;
 ALTER TABLE wsdl OWNER TO xroad_catalog;
 ALTER TABLE open_api OWNER TO xroad_catalog;
 ALTER TABLE rest OWNER TO xroad_catalog;
 ALTER TABLE endpoint OWNER TO xroad_catalog;
-ALTER TABLE error_log OWNER TO xroad_catalog;
\ No newline at end of file
+ALTER TABLE error_log OWNER TO xroad_catalog;
+ALTER TABLE error_log_default OWNER TO xroad_catalog;
+ALTER TABLE error_incident OWNER TO xroad_catalog;
+ALTER TABLE service_statistics_daily OWNER TO xroad_catalog;
+
+-- after the owner of error_log is set, the partitions take it over
+SELECT error_log_create_partitions(2);
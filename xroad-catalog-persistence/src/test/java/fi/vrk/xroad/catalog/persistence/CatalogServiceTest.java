@@ -12,42 +12,55 @@
  */
 package fi.vrk.xroad.catalog.persistence;
 
+import fi.vrk.xroad.catalog.persistence.dto.DescriptorData;
 import fi.vrk.xroad.catalog.persistence.dto.DistinctServiceStatistics;
+import fi.vrk.xroad.catalog.persistence.dto.ErrorLogOccurrences;
 import fi.vrk.xroad.catalog.persistence.dto.LastCollectionData;
 import fi.vrk.xroad.catalog.persistence.dto.MemberDataList;
 import fi.vrk.xroad.catalog.persistence.dto.ServiceStatistics;
 import fi.vrk.xroad.catalog.persistence.dto.XRoadData;
+import fi.vrk.xroad.catalog.persistence.entity.Descriptor;
 import fi.vrk.xroad.catalog.persistence.entity.Endpoint;
+import fi.vrk.xroad.catalog.persistence.entity.ErrorIncident;
 import fi.vrk.xroad.catalog.persistence.entity.ErrorLog;
 import fi.vrk.xroad.catalog.persistence.entity.Member;
 import fi.vrk.xroad.catalog.persistence.entity.OpenApi;
 import fi.vrk.xroad.catalog.persistence.entity.Rest;
 import fi.vrk.xroad.catalog.persistence.entity.Service;
 import fi.vrk.xroad.catalog.persistence.entity.ServiceId;
+import fi.vrk.xroad.catalog.persistence.entity.ServiceStatisticsDaily;
 import fi.vrk.xroad.catalog.persistence.entity.Subsystem;
 import fi.vrk.xroad.catalog.persistence.entity.SubsystemId;
 import fi.vrk.xroad.catalog.persistence.entity.Wsdl;
+import fi.vrk.xroad.catalog.persistence.repository.DescriptorRepository;
 import fi.vrk.xroad.catalog.persistence.repository.EndpointRepository;
+import fi.vrk.xroad.catalog.persistence.repository.ErrorIncidentRepository;
 import fi.vrk.xroad.catalog.persistence.repository.ErrorLogRepository;
 import fi.vrk.xroad.catalog.persistence.repository.MemberRepository;
 import fi.vrk.xroad.catalog.persistence.repository.OpenApiRepository;
 import fi.vrk.xroad.catalog.persistence.repository.RestRepository;
 import fi.vrk.xroad.catalog.persistence.repository.ServiceRepository;
+import fi.vrk.xroad.catalog.persistence.repository.ServiceStatisticsDailyRepository;
 import fi.vrk.xroad.catalog.persistence.repository.SubsystemRepository;
 import fi.vrk.xroad.catalog.persistence.repository.WsdlRepository;
+import fi.vrk.xroad.catalog.persistence.util.DigestUtil;
+import fi.vrk.xroad.catalog.persistence.util.GzipUtil;
 
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
 import org.json.JSONException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
+import org.springframework.test.util.AopTestUtils;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Month;
 import java.util.ArrayList;
@@ -59,6 +72,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
@@ -91,18 +105,27 @@ public class CatalogServiceTest {
     @Autowired
     WsdlRepository wsdlRepository;
 
+    @Autowired
+    DescriptorRepository descriptorRepository;
+
     @Autowired
     OpenApiRepository openApiRepository;
 
     @Autowired
     RestRepository restRepository;
 
+    @Autowired
+    ServiceStatisticsDailyRepository serviceStatisticsDailyRepository;
+
     @Autowired
     EndpointRepository endpointRepository;
 
     @Autowired
     ErrorLogRepository errorLogRepository;
 
+    @Autowired
+    ErrorIncidentRepository errorIncidentRepository;
+
     @Autowired
     TestUtil testUtil;
 
@@ -114,6 +137,16 @@ public class CatalogServiceTest {
         assertEquals(7, wsdl.getService().getSubsystem().getId());
     }
 
+    @Test
+    public void testWsdlDataIsNotLoadedWithServiceTree() {
+        Service service = serviceRepository.findById(4L).get();
+        assertFalse(Hibernate.isPropertyInitialized(service.getWsdl(), "data"));
+        testUtil.entityManagerClear();
+
+        Wsdl wsdl = catalogService.getWsdl("1000");
+        assertTrue(Hibernate.isPropertyInitialized(wsdl, "data"));
+    }
+
     @Test
     public void testGetWsdlNotFound() {
         Wsdl wsdl = catalogService.getWsdl("9899");
@@ -129,6 +162,21 @@ public class CatalogServiceTest {
         }
     }
 
+    @Test
+    public void testGetWsdlData() {
+        assertEquals("<?xml version=\"1.0\" standalone=\"no\"?><wsdl-6-1-1-1-changed/>",
+                catalogService.getWsdlData("1000"));
+        assertNull(catalogService.getWsdlData("9899"));
+    }
+
+    @Test
+    public void testIsProvider() {
+        assertTrue(catalogService.isProvider("dev-cs", "PUB", "14151328"));
+        assertFalse(catalogService.isProvider("dev-cs", "PUB", "88855888"));
+        assertNull(catalogService.isProvider("dev-cs", "PUB", "14151329"));
+        assertNull(catalogService.isProvider("dev-cs", "PUB", "123"));
+    }
+
     @Test
     public void testGetOpenApi() {
         OpenApi openApi = catalogService.getOpenApi("3003");
@@ -152,6 +200,13 @@ public class CatalogServiceTest {
         }
     }
 
+    @Test
+    public void testGetOpenApiData() {
+        // removed ones are found too, like with getOpenApi
+        assertEquals("<openapi>", catalogService.getOpenApiData("3003"));
+        assertNull(catalogService.getOpenApiData("9899"));
+    }
+
     @Test
     public void testGetRest() {
         Service service = serviceRepository.findById(13L).get();
@@ -246,8 +301,109 @@ public class CatalogServiceTest {
     public void testSaveErrorLog() {
         ErrorLog errorLog = ErrorLog.builder().message("Error").code("500")
                 .created(LocalDateTime.now()).build();
-        ErrorLog savedErrorLog = catalogService.saveErrorLog(errorLog);
-        assertNotNull(savedErrorLog);
+        ErrorIncident incident = catalogService.saveErrorLog(errorLog);
+        assertNotNull(incident);
+        assertTrue(incident.getId() > 0);
+        assertEquals(ErrorIncident.toIncidentKey(errorLog), incident.getIncidentKey());
+    }
+
+    @Test
+    public void testSaveErrorLogOccurrences() {
+        long count = errorLogRepository.count();
+        LocalDateTime firstSeen = LocalDateTime.of(2023, Month.APRIL, 1, 10, 0, 0);
+        ErrorLog first = ErrorLog.builder().message("Connection refused").code("500").created(firstSeen)
+                .xRoadInstance("DEV").memberClass("GOV").memberCode("6789").build();
+        ErrorLog latest = ErrorLog.builder().message("Connection refused").code("500").created(firstSeen.plusHours(1))
+                .xRoadInstance("DEV").memberClass("GOV").memberCode("6789").build();
+        catalogService.saveErrorLogOccurrences(List.of(new ErrorLogOccurrences(first, 1),
+                new ErrorLogOccurrences(latest, 1000)));
+        catalogService.saveErrorLogOccurrences(List.of(new ErrorLogOccurrences(latest, 500)));
+
+        assertEquals(count + 1, errorLogRepository.count());
+        ErrorIncident incident = catalogService.saveErrorLog(latest);
+        assertEquals(1502, incident.getCount());
+        assertEquals(firstSeen, incident.getFirstSeen());
+        assertEquals(firstSeen.plusHours(1), incident.getLastSeen());
+    }
+
+    @Test
+    public void testSaveErrorLogs() {
+        long count = errorLogRepository.count();
+        List<ErrorLog> errorLogs = List.of(
+                ErrorLog.builder().message("Error").code("500").created(LocalDateTime.now()).build(),
+                ErrorLog.builder().message("Other error").code("500").created(LocalDateTime.now()).build());
+        catalogService.saveErrorLogs(errorLogs);
+        assertEquals(count + 2, errorLogRepository.count());
+    }
+
+    @Test
+    public void testSaveErrorLogsAggregatesIncidents() {
+        long count = errorLogRepository.count();
+        LocalDateTime firstSeen = LocalDateTime.of(2023, Month.MARCH, 1, 10, 0, 0);
+        LocalDateTime lastSeen = firstSeen.plusHours(2);
+        catalogService.saveErrorLogs(List.of(
+                ErrorLog.builder().message("Read timed out after 10000 ms").code("500").created(firstSeen)
+                        .xRoadInstance("DEV").memberClass("GOV").memberCode("5678").build(),
+                ErrorLog.builder().message("Read timed out after 20000 ms").code("500").created(firstSeen.plusHours(1))
+                        .xRoadInstance("DEV").memberClass("GOV").memberCode("5678").build()));
+        catalogService.saveErrorLog(ErrorLog.builder().message("Read timed out after 30000 ms").code("500")
+                .created(lastSeen).xRoadInstance("DEV").memberClass("GOV").memberCode("5678").build());
+
+        assertEquals(count + 1, errorLogRepository.count());
+        List<ErrorIncident> incidents = catalogService.getErrorIncidents(firstSeen, lastSeen).stream()
+                .filter(incident -> "5678".equals(incident.getMemberCode())).toList();
+        assertEquals(1, incidents.size());
+        ErrorIncident incident = incidents.get(0);
+        assertEquals(3, incident.getCount());
+        assertEquals(firstSeen, incident.getFirstSeen());
+        assertEquals(lastSeen, incident.getLastSeen());
+        assertEquals("Read timed out after 30000 ms", incident.getMessage());
+        assertEquals("Read timed out after # ms", incident.getMessageTemplate());
+    }
+
+    @Test
+    public void testGetErrorIncidents() {
+        LocalDateTime startDate = LocalDateTime.parse("2020-01-01T00:00:00");
+        XRoadData xRoadData = XRoadData.builder().xRoadInstance("DEV").memberClass("GOV").memberCode("1234")
+                .subsystemCode("TestSubsystem").build();
+        Page<ErrorIncident> incidents = catalogService.getErrorIncidents(xRoadData, 0, 100, startDate,
+                LocalDateTime.now());
+        assertEquals(1, incidents.getNumberOfElements());
+        assertEquals(12, incidents.getContent().get(0).getCount());
+
+        xRoadData = XRoadData.builder().xRoadInstance("DEV").memberClass("GOV").memberCode("1234").build();
+        incidents = catalogService.getErrorIncidents(xRoadData, 0, 100, startDate, LocalDateTime.now());
+        assertEquals(2, incidents.getNumberOfElements());
+
+        // subsystem code is ignored without a member code
+        xRoadData = XRoadData.builder().xRoadInstance("DEV").subsystemCode("TestSubsystem").build();
+        incidents = catalogService.getErrorIncidents(xRoadData, 0, 100, startDate, LocalDateTime.now());
+        assertEquals(3, incidents.getNumberOfElements());
+
+        // an incident overlapping the range is returned although it started before it
+        assertEquals(1, catalogService.getErrorIncidents(LocalDateTime.parse("2021-01-01T00:00:00"),
+                LocalDateTime.now()).size());
+    }
+
+    @Test
+    public void testGetErrorIncidentsAfter() {
+        LocalDateTime startDate = LocalDateTime.parse("2020-01-01T00:00:00");
+        LocalDateTime endDate = LocalDateTime.parse("2022-06-01T00:00:00");
+        XRoadData xRoadData = XRoadData.builder().xRoadInstance("DEV").build();
+        List<ErrorIncident> incidents = catalogService.getErrorIncidentsAfter(xRoadData, startDate, endDate, 0, 2);
+        assertEquals(List.of(1L, 2L), incidents.stream().map(ErrorIncident::getId).toList());
+        incidents = catalogService.getErrorIncidentsAfter(xRoadData, startDate, endDate, 2, 2);
+        assertEquals(List.of(3L), incidents.stream().map(ErrorIncident::getId).toList());
+
+        xRoadData = XRoadData.builder().xRoadInstance("DEV").memberClass("GOV").build();
+        assertEquals(2, catalogService.getErrorIncidentsAfter(xRoadData, startDate, endDate, 0, 100).size());
+        xRoadData = XRoadData.builder().xRoadInstance("DEV").memberClass("GOV").memberCode("1234").build();
+        assertEquals(1, catalogService.getErrorIncidentsAfter(xRoadData, startDate, endDate, 1, 100).size());
+        xRoadData = XRoadData.builder().xRoadInstance("DEV").memberClass("GOV").memberCode("1234")
+                .subsystemCode("TestSubsystem").build();
+        assertEquals(1, catalogService.getErrorIncidentsAfter(xRoadData, startDate, endDate, 0, 100).size());
+        assertEquals(3, catalogService.getErrorIncidentsAfter(XRoadData.builder().build(), startDate, endDate, 0, 100)
+                .size());
     }
 
     @Test
@@ -362,6 +518,50 @@ public class CatalogServiceTest {
         assertNotEquals(changed, member3.getStatusInfo().getChanged());
     }
 
+    @Test
+    public void testRemovedMemberAndSubsystemAreResurrected() {
+        Member removedMember = memberRepository.findById(8L).get();
+        LocalDateTime changed = removedMember.getStatusInfo().getChanged();
+        Member resurrected = new Member(removedMember.getXRoadInstance(), removedMember.getMemberClass(),
+                removedMember.getMemberCode(), removedMember.getName());
+        Subsystem subsystem = new Subsystem(resurrected, "removed_subsystem");
+        resurrected.setSubsystems(Sets.newHashSet(subsystem));
+        testUtil.entityManagerClear();
+
+        Set<Member> newMembers = catalogService.saveAllMembersAndSubsystems(Arrays.asList(resurrected));
+        testUtil.entityManagerClear();
+
+        assertTrue(newMembers.isEmpty());
+        Member checkedMember = memberRepository.findById(8L).get();
+        assertFalse(checkedMember.getStatusInfo().isRemoved());
+        assertNotEquals(changed, checkedMember.getStatusInfo().getChanged());
+        assertEquals(Arrays.asList(11L), new ArrayList<>(testUtil.getIds(checkedMember.getActiveSubsystems())));
+        assertTrue(memberRepository.findById(1L).get().getStatusInfo().isRemoved());
+        assertTrue(subsystemRepository.findById(1L).get().getStatusInfo().isRemoved());
+    }
+
+    @Test
+    public void testNewSubsystemIsAddedToExistingMember() {
+        Member member1 = memberRepository.findById(1L).get();
+        Member updated = new Member(member1.getXRoadInstance(), member1.getMemberClass(),
+                member1.getMemberCode(), member1.getName());
+        Subsystem oldSubsystem = new Subsystem(updated, "subsystem_a1");
+        Subsystem newSubsystem = new Subsystem(updated, "subsystem_a4_new");
+        updated.setSubsystems(Sets.newHashSet(oldSubsystem, newSubsystem));
+        testUtil.entityManagerClear();
+
+        catalogService.saveAllMembersAndSubsystems(Arrays.asList(updated));
+        testUtil.entityManagerFlush();
+        testUtil.entityManagerClear();
+
+        Member checkedMember = memberRepository.findById(1L).get();
+        testUtil.assertFetchedIsOnlyDifferent(member1.getStatusInfo(), checkedMember.getStatusInfo());
+        assertEquals(Set.of("subsystem_a1", "subsystem_a4_new"), checkedMember.getActiveSubsystems().stream()
+                .map(Subsystem::getSubsystemCode)
+                .collect(Collectors.toSet()));
+        assertEquals(TEST_DATA_SUBSYSTEMS + 1, Iterables.size(subsystemRepository.findAll()));
+    }
+
     @Test
     public void testGetMember() {
         Member member = memberRepository.findById(1L).get();
@@ -393,6 +593,24 @@ public class CatalogServiceTest {
                 new ArrayList<Long>(testUtil.getIds(members)));
     }
 
+    @Test
+    public void testStreamAllMembersSince() {
+        LocalDateTime startDate = testUtil.createDate(1, 1, 2017);
+        LocalDateTime endDate = testUtil.createDate(1, 1, 2022);
+        int expectedSubsystems = 0;
+        for (Member member : catalogService.getAllMembers(startDate, endDate)) {
+            expectedSubsystems += member.getAllSubsystems().size();
+        }
+        List<Long> ids = new ArrayList<>();
+        List<Integer> subsystems = new ArrayList<>();
+        catalogService.streamAllMembers(startDate, endDate, member -> {
+            ids.add(member.getId());
+            subsystems.add(member.getAllSubsystems().size());
+        });
+        assertEquals(Arrays.asList(3L, 4L, 5L, 6L, 7L, 8L), ids);
+        assertEquals(expectedSubsystems, subsystems.stream().mapToInt(Integer::intValue).sum());
+    }
+
     @Test
     public void testGetAllMembers() {
         Iterable<Member> members = catalogService.getAllMembers();
@@ -591,6 +809,17 @@ public class CatalogServiceTest {
         assertNotNull(foundService);
     }
 
+    @Test
+    public void testGetServiceType() {
+        Service soapService = serviceRepository.findById(4L).get();
+        assertEquals("SOAP", getServiceType(soapService));
+        Service openApiService = serviceRepository.findById(12L).get();
+        assertEquals("OPENAPI", getServiceType(openApiService));
+        Service restService = serviceRepository.findById(1L).get();
+        assertEquals("REST", getServiceType(restService));
+        assertNull(catalogService.getServiceType("FI", "GOV", "1234", "nonExistentService", "subsystem", null));
+    }
+
     @Test
     public void testGetServices() {
         Service service = serviceRepository.findById(1L).get();
@@ -723,6 +952,129 @@ public class CatalogServiceTest {
         testUtil.assertAllSame(originalService.getStatusInfo(), checkedRest.getService().getStatusInfo());
     }
 
+    @Test
+    public void testOverwriteIdenticalWsdlByDataHash() {
+        // first save stores the digest of legacy row, second one only touches fetched
+        Wsdl originalWsdl = wsdlRepository.findById(4L).get();
+        ServiceId originalServiceId = originalWsdl.getService().createKey();
+        SubsystemId originalSubsystemId = originalWsdl.getService().getSubsystem().createKey();
+        assertNull(originalWsdl.getDataHash());
+        testUtil.entityManagerClear();
+
+        catalogService.saveWsdl(originalSubsystemId, originalServiceId, originalWsdl.getData());
+        testUtil.entityManagerFlush();
+        testUtil.entityManagerClear();
+        assertEquals(DigestUtil.sha256Hex(originalWsdl.getData()), wsdlRepository.findById(4L).get().getDataHash());
+
+        catalogService.saveWsdl(originalSubsystemId, originalServiceId, originalWsdl.getData());
+        testUtil.entityManagerFlush();
+        testUtil.entityManagerClear();
+
+        Wsdl checkedWsdl = wsdlRepository.findById(4L).get();
+        assertEquals(originalWsdl.getData(), checkedWsdl.getData());
+        assertEquals(DigestUtil.sha256Hex(originalWsdl.getData()), checkedWsdl.getDataHash());
+        testUtil.assertFetchedIsOnlyDifferent(originalWsdl.getStatusInfo(), checkedWsdl.getStatusInfo());
+
+        catalogService.saveWsdl(originalSubsystemId, originalServiceId, originalWsdl.getData() + "-modification");
+        testUtil.entityManagerFlush();
+        testUtil.entityManagerClear();
+
+        checkedWsdl = wsdlRepository.findById(4L).get();
+        assertEquals(DigestUtil.sha256Hex(originalWsdl.getData() + "-modification"), checkedWsdl.getDataHash());
+        testUtil.assertEqualities(originalWsdl.getStatusInfo(), checkedWsdl.getStatusInfo(),
+                true, false, true, false);
+    }
+
+    @Test
+    public void testSaveMovesWsdlToDescriptor() {
+        // legacy row is stored in the wsdl row, saving it unchanged moves the payload to a descriptor
+        Wsdl originalWsdl = wsdlRepository.findById(4L).get();
+        String data = originalWsdl.getData();
+        assertNull(originalWsdl.getDescriptor());
+        catalogService.saveWsdl(originalWsdl.getService().getSubsystem().createKey(),
+                originalWsdl.getService().createKey(), data);
+        testUtil.entityManagerFlush();
+        testUtil.entityManagerClear();
+
+        Wsdl checkedWsdl = wsdlRepository.findById(4L).get();
+        assertNotNull(checkedWsdl.getDescriptor());
+        assertNull(checkedWsdl.getDataGzip());
+        assertEquals(DigestUtil.sha256Hex(data), checkedWsdl.getDescriptor().getDataHash());
+        assertEquals(1, checkedWsdl.getDescriptor().getRefCount());
+        assertEquals(data, checkedWsdl.getData());
+        DescriptorData descriptorData = catalogService.getWsdlDescriptor(checkedWsdl.getExternalId());
+        assertArrayEquals(checkedWsdl.getDescriptor().getDataGzip(), descriptorData.getGzip());
+        assertEquals(data, GzipUtil.decompress(descriptorData.getGzip()));
+        assertEquals(data, descriptorData.getText());
+        assertEquals(data, catalogService.getWsdlData(checkedWsdl.getExternalId()));
+    }
+
+    @Test
+    public void testSaveIdenticalWsdlsShareDescriptor() {
+        // member (5) -> subsystem (6) -> service (3) -> wsdl (*new*), and the service of wsdl (4)
+        Service service = serviceRepository.findById(3L).get();
+        Service otherService = wsdlRepository.findById(4L).get().getService();
+        String sharedData = "<sharedwsdl/>";
+        String otherData = "<otherwsdl/>";
+        catalogService.saveWsdl(service.getSubsystem().createKey(), service.createKey(), sharedData);
+        catalogService.saveWsdl(otherService.getSubsystem().createKey(), otherService.createKey(), sharedData);
+        testUtil.entityManagerFlush();
+        testUtil.entityManagerClear();
+
+        Descriptor sharedDescriptor = descriptorRepository.findByDataHash(DigestUtil.sha256Hex(sharedData));
+        assertEquals(2, sharedDescriptor.getRefCount());
+        assertEquals(sharedData, sharedDescriptor.getData());
+        assertEquals(sharedDescriptor.getId(), serviceRepository.findById(3L).get().getWsdl().getDescriptor().getId());
+        assertEquals(sharedDescriptor.getId(), wsdlRepository.findById(4L).get().getDescriptor().getId());
+        testUtil.entityManagerClear();
+
+        catalogService.saveWsdl(otherService.getSubsystem().createKey(), otherService.createKey(), otherData);
+        testUtil.entityManagerFlush();
+        testUtil.entityManagerClear();
+        assertEquals(1, descriptorRepository.findByDataHash(DigestUtil.sha256Hex(sharedData)).getRefCount());
+        assertEquals(1, descriptorRepository.findByDataHash(DigestUtil.sha256Hex(otherData)).getRefCount());
+        assertEquals(otherData, wsdlRepository.findById(4L).get().getData());
+        testUtil.entityManagerClear();
+
+        // the shared descriptor is deleted when nothing refers to it anymore
+        catalogService.saveWsdl(service.getSubsystem().createKey(), service.createKey(), otherData);
+        testUtil.entityManagerFlush();
+        testUtil.entityManagerClear();
+        assertNull(descriptorRepository.findByDataHash(DigestUtil.sha256Hex(sharedData)));
+        assertEquals(2, descriptorRepository.findByDataHash(DigestUtil.sha256Hex(otherData)).getRefCount());
+        assertEquals(otherData, serviceRepository.findById(3L).get().getWsdl().getData());
+    }
+
+    @Test
+    public void testSwapWsdlDescriptors() {
+        // the reference counts are updated in the order of the digests, which differs between the two swaps
+        Service service = serviceRepository.findById(3L).get();
+        Service otherService = wsdlRepository.findById(4L).get().getService();
+        String firstData = "<firstwsdl/>";
+        String secondData = "<secondwsdl/>";
+        catalogService.saveWsdl(service.getSubsystem().createKey(), service.createKey(), firstData);
+        catalogService.saveWsdl(otherService.getSubsystem().createKey(), otherService.createKey(), secondData);
+        testUtil.entityManagerFlush();
+        testUtil.entityManagerClear();
+
+        catalogService.saveWsdl(service.getSubsystem().createKey(), service.createKey(), secondData);
+        catalogService.saveWsdl(otherService.getSubsystem().createKey(), otherService.createKey(), firstData);
+        testUtil.entityManagerFlush();
+        testUtil.entityManagerClear();
+        assertEquals(1, descriptorRepository.findByDataHash(DigestUtil.sha256Hex(firstData)).getRefCount());
+        assertEquals(1, descriptorRepository.findByDataHash(DigestUtil.sha256Hex(secondData)).getRefCount());
+        assertEquals(secondData, serviceRepository.findById(3L).get().getWsdl().getData());
+        assertEquals(firstData, wsdlRepository.findById(4L).get().getData());
+        testUtil.entityManagerClear();
+
+        // the old descriptor is deleted when nothing refers to it anymore
+        catalogService.saveWsdl(service.getSubsystem().createKey(), service.createKey(), firstData);
+        testUtil.entityManagerFlush();
+        testUtil.entityManagerClear();
+        assertNull(descriptorRepository.findByDataHash(DigestUtil.sha256Hex(secondData)));
+        assertEquals(2, descriptorRepository.findByDataHash(DigestUtil.sha256Hex(firstData)).getRefCount());
+    }
+
     @Test
     public void testOverwriteModifiedWsdl() {
         // "changed" is updated
@@ -1041,19 +1393,68 @@ public class CatalogServiceTest {
 
     @Test
     public void testGetServiceStatistics() throws JSONException {
+        saveServiceStatisticsDaily(LocalDate.of(2013, 12, 1), 1L);
+        saveServiceStatisticsDaily(LocalDate.of(2020, 1, 1), 5L);
+        LocalDateTime startDateTime = LocalDateTime.of(2014, 1, 1, 0, 0);
+        LocalDateTime endDateTime = LocalDateTime.of(2022, 1, 1, 0, 0);
+        List<ServiceStatistics> serviceStatistics = catalogService.getServiceStatistics(startDateTime, endDateTime);
+        assertEquals(2923, serviceStatistics.size());
+        assertEquals(startDateTime, serviceStatistics.get(0).getCreated());
+        assertEquals(1L, serviceStatistics.get(0).getNumberOfSoapServices().longValue());
+        assertEquals(1L, serviceStatistics.get(2190).getNumberOfSoapServices().longValue());
+        assertEquals(LocalDateTime.of(2020, 1, 1, 0, 0), serviceStatistics.get(2191).getCreated());
+        assertEquals(5L, serviceStatistics.get(2191).getNumberOfSoapServices().longValue());
+        assertEquals(5L, serviceStatistics.get(2922).getNumberOfSoapServices().longValue());
+    }
+
+    @Test
+    public void testGetServiceStatisticsCountsDaysBeforeFirstStatistics() {
+        saveServiceStatisticsDaily(LocalDate.of(2021, 12, 30), 1L);
         LocalDateTime startDateTime = LocalDateTime.of(2014, 1, 1, 0, 0);
         LocalDateTime endDateTime = LocalDateTime.of(2022, 1, 1, 0, 0);
+        List<Service> services = serviceRepository.findAllActive().stream()
+                .filter(s -> s.getStatusInfo().getCreated().isBefore(endDateTime)).toList();
+        long openApiServices = services.stream().filter(Service::hasOpenApi).count();
+        long soapServices = services.stream().filter(s -> !s.hasOpenApi() && s.hasWsdl()).count();
         List<ServiceStatistics> serviceStatistics = catalogService.getServiceStatistics(startDateTime, endDateTime);
         assertEquals(2923, serviceStatistics.size());
+        assertEquals(startDateTime, serviceStatistics.get(0).getCreated());
+        assertEquals(openApiServices, serviceStatistics.get(0).getNumberOfOpenApiServices().longValue());
+        assertEquals(soapServices, serviceStatistics.get(0).getNumberOfSoapServices().longValue());
+        assertEquals(services.size() - openApiServices - soapServices,
+                serviceStatistics.get(2919).getNumberOfRestServices().longValue());
+        assertEquals(LocalDateTime.of(2021, 12, 30, 0, 0), serviceStatistics.get(2920).getCreated());
+        assertEquals(1L, serviceStatistics.get(2920).getNumberOfSoapServices().longValue());
     }
 
     @Test
     public void testGetDistinctServiceStatistics() throws JSONException {
+        saveServiceStatisticsDaily(LocalDate.of(2013, 12, 1), 1L);
         LocalDateTime startDateTime = LocalDateTime.of(2014, 1, 1, 0, 0);
         LocalDateTime endDateTime = LocalDateTime.of(2022, 1, 1, 0, 0);
         List<DistinctServiceStatistics> distinctServiceStatistics = catalogService
                 .getDistinctServiceStatistics(startDateTime, endDateTime);
         assertEquals(2923, distinctServiceStatistics.size());
+        assertEquals(1L, distinctServiceStatistics.get(0).getNumberOfDistinctServices().longValue());
+    }
+
+    @Test
+    public void testUpdateServiceStatisticsDaily() {
+        List<Service> services = serviceRepository.findAllActive();
+        long openApiServices = services.stream().filter(Service::hasOpenApi).count();
+        long soapServices = services.stream().filter(s -> !s.hasOpenApi() && s.hasWsdl()).count();
+        long distinctServices = services.stream().map(Service::getServiceCode).distinct().count();
+
+        ServiceStatisticsDaily statistics = catalogService.updateServiceStatisticsDaily();
+        assertEquals(LocalDate.now(), statistics.getStatisticsDate());
+        assertEquals(openApiServices, statistics.getNumberOfOpenApiServices());
+        assertEquals(soapServices, statistics.getNumberOfSoapServices());
+        assertEquals(services.size() - openApiServices - soapServices, statistics.getNumberOfRestServices());
+        assertEquals(distinctServices, statistics.getNumberOfDistinctServices());
+
+        ServiceStatisticsDaily updated = catalogService.updateServiceStatisticsDaily();
+        assertEquals(statistics.getId(), updated.getId());
+        assertEquals(1, Iterables.size(serviceStatisticsDailyRepository.findAll()));
     }
 
     @Test
@@ -1064,6 +1465,24 @@ public class CatalogServiceTest {
         assertEquals(2923, members.size());
     }
 
+    @Test
+    public void testStreamMemberData() {
+        LocalDateTime startDateTime = LocalDateTime.of(2021, 12, 30, 0, 0);
+        LocalDateTime endDateTime = LocalDateTime.of(2022, 1, 1, 0, 0);
+        List<MemberDataList> members = catalogService.getMemberData(startDateTime, endDateTime);
+        List<MemberDataList> streamedMembers = new ArrayList<>();
+        catalogService.streamMemberData(startDateTime, endDateTime, (date, memberData) -> streamedMembers
+                .add(MemberDataList.builder().date(date).memberDataList(memberData.toList()).build()));
+
+        assertEquals(3, streamedMembers.size());
+        assertEquals(members.size(), streamedMembers.size());
+        for (int i = 0; i < members.size(); i++) {
+            assertEquals(members.get(i).getDate(), streamedMembers.get(i).getDate());
+            assertEquals(members.get(i).getMemberDataList().size(), streamedMembers.get(i).getMemberDataList().size());
+            assertEquals(flattenMemberData(members.get(i)), flattenMemberData(streamedMembers.get(i)));
+        }
+    }
+
     @Test
     public void testSaveServices() {
         Service oldService = serviceRepository.findById(14L).get();
@@ -1208,9 +1627,83 @@ public class CatalogServiceTest {
         assertEquals(0, foundErrorLogs.size());
     }
 
+    @Test
+    public void testDeleteOldErrorLogEntriesWithoutPartitions() {
+        assertOldErrorLogEntriesDeleted();
+    }
+
+    @Test
+    public void testDeleteOldErrorLogEntriesWithPartitions() {
+        CatalogServiceImpl target = AopTestUtils.getTargetObject(catalogService);
+        target.errorLogPartitioned = true;
+        try {
+            // the entries of the partition holding the cutoff are still deleted row by row
+            assertOldErrorLogEntriesDeleted();
+        } finally {
+            target.errorLogPartitioned = false;
+        }
+    }
+
     @Test
     public void testCheckDatabaseConnection() {
         assertTrue(catalogService.checkDatabaseConnection());
     }
 
+    private void assertOldErrorLogEntriesDeleted() {
+        LocalDateTime now = LocalDateTime.now();
+        catalogService.saveErrorLog(ErrorLog.builder().message("Old error").code("500")
+                .created(now.minusDays(40)).build());
+        catalogService.saveErrorLog(ErrorLog.builder().message("Recent error").code("500")
+                .created(now.minusDays(10)).build());
+
+        catalogService.deleteOldErrorLogEntries(30);
+
+        LocalDateTime oldDate = now.minusDays(30);
+        assertEquals(0, errorLogRepository.findAny(now.minusYears(10), oldDate).size());
+        Set<String> errorLogs = errorLogRepository.findAny(oldDate, now).stream()
+                .map(ErrorLog::getMessage).collect(Collectors.toSet());
+        assertTrue(errorLogs.contains("Recent error"));
+        assertEquals(0, errorIncidentRepository.findAny(now.minusYears(10), oldDate).size());
+        List<String> incidents = errorIncidentRepository.findAny(oldDate, now).stream()
+                .map(ErrorIncident::getMessage).toList();
+        assertTrue(incidents.contains("Recent error"));
+        assertFalse(incidents.contains("Old error"));
+    }
+
+    private void saveServiceStatisticsDaily(LocalDate statisticsDate, long numberOfServices) {
+        serviceStatisticsDailyRepository.save(ServiceStatisticsDaily.builder()
+                .statisticsDate(statisticsDate)
+                .numberOfSoapServices(numberOfServices)
+                .numberOfRestServices(numberOfServices)
+                .numberOfOpenApiServices(numberOfServices)
+                .numberOfDistinctServices(numberOfServices)
+                .updated(LocalDateTime.now())
+                .build());
+    }
+
+    private Set<String> flattenMemberData(MemberDataList memberDataList) {
+        Set<String> rows = new HashSet<>();
+        memberDataList.getMemberDataList().forEach(memberData -> {
+            String member = memberData.getXRoadInstance() + "/" + memberData.getMemberClass() + "/"
+                    + memberData.getMemberCode() + "/" + memberData.getName() + "/" + memberData.getProvider();
+            rows.add(member);
+            memberData.getSubsystemList().forEach(subsystemData -> {
+                String subsystem = member + "/" + subsystemData.getSubsystemCode() + "/" + subsystemData.getActive();
+                rows.add(subsystem);
+                subsystemData.getServiceList().forEach(serviceData -> rows.add(subsystem + "/"
+                        + serviceData.getServiceCode() + "/" + serviceData.getServiceVersion() + "/"
+                        + serviceData.getActive() + "/" + serviceData.getCreated()));
+            });
+        });
+        return rows;
+    }
+
+    private String getServiceType(Service service) {
+        return catalogService.getServiceType(service.getSubsystem().getMember().getXRoadInstance(),
+                service.getSubsystem().getMember().getMemberClass(),
+                service.getSubsystem().getMember().getMemberCode(),
+                service.getServiceCode(),
+                service.getSubsystem().getSubsystemCode(),
+                service.getServiceVersion());
+    }
 }
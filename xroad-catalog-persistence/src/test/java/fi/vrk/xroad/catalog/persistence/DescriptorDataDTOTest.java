@@ -0,0 +1,53 @@
+/**
+ * The MIT License
+ *
+ * Copyright (c) 2023- Nordic Institute for Interoperability Solutions (NIIS)
+ * Copyright (c) 2016-2023 Finnish Digital Agency
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fi.vrk.xroad.catalog.persistence;
+
+import fi.vrk.xroad.catalog.persistence.dto.DescriptorData;
+import fi.vrk.xroad.catalog.persistence.util.GzipUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@SpringBootTest
+public class DescriptorDataDTOTest {
+
+    private static final String WSDL = "<?xml version=\"1.0\" standalone=\"no\"?><wsdl>äö</wsdl>";
+
+    @Test
+    public void testCompressedDescriptorData() throws IOException {
+        byte[] gzip = GzipUtil.compress(WSDL);
+        DescriptorData descriptorData = new DescriptorData(null, gzip);
+        assertEquals(WSDL, descriptorData.getText());
+        assertSame(gzip, descriptorData.getGzip());
+        try (InputStream in = descriptorData.openText()) {
+            assertEquals(WSDL, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testUncompressedDescriptorData() throws IOException {
+        DescriptorData descriptorData = new DescriptorData(WSDL, null);
+        assertEquals(WSDL, descriptorData.getText());
+        assertEquals(WSDL, GzipUtil.decompress(descriptorData.getGzip()));
+        try (InputStream in = descriptorData.openText()) {
+            assertArrayEquals(WSDL.getBytes(StandardCharsets.UTF_8), in.readAllBytes());
+        }
+    }
+}
@@ -28,14 +28,17 @@ public class ErrorLogResponseDTOTest {
         Integer pageNumber = 1;
         Integer pageSize = 10;
         Integer numberOfPages = 2;
+        String nextCursor = "cursor";
         ErrorLogResponse errorLogResponse1 = new ErrorLogResponse();
         errorLogResponse1.setPageNumber(pageNumber);
         errorLogResponse1.setPageSize(pageSize);
         errorLogResponse1.setNumberOfPages(numberOfPages);
         errorLogResponse1.setErrorLogList(new ArrayList<>());
-        ErrorLogResponse errorLogResponse2 = new ErrorLogResponse(pageNumber, pageSize, numberOfPages, new ArrayList<>());
+        errorLogResponse1.setNextCursor(nextCursor);
+        ErrorLogResponse errorLogResponse2 = new ErrorLogResponse(pageNumber, pageSize, numberOfPages, new ArrayList<>(),
+                nextCursor);
         ErrorLogResponse errorLogResponse3 = ErrorLogResponse.builder().pageNumber(pageNumber).pageSize(pageSize)
-                .numberOfPages(numberOfPages).errorLogList(new ArrayList<>()).build();
+                .numberOfPages(numberOfPages).errorLogList(new ArrayList<>()).nextCursor(nextCursor).build();
         assertEquals(errorLogResponse1, errorLogResponse2);
         assertEquals(errorLogResponse1, errorLogResponse3);
         assertEquals(errorLogResponse2, errorLogResponse3);
@@ -43,6 +46,7 @@ public class ErrorLogResponseDTOTest {
         assertEquals(pageSize, errorLogResponse1.getPageSize());
         assertEquals(numberOfPages, errorLogResponse1.getNumberOfPages());
         assertEquals(0, errorLogResponse1.getErrorLogList().size());
+        assertEquals(nextCursor, errorLogResponse1.getNextCursor());
         assertNotEquals(0, errorLogResponse1.hashCode());
         assertEquals(true, errorLogResponse1.equals(errorLogResponse2));
         assertEquals(pageNumber, errorLogResponse2.getPageNumber());
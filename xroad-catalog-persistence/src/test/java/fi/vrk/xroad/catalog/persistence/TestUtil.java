@@ -24,6 +24,7 @@ import fi.vrk.xroad.catalog.persistence.entity.Wsdl;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Optional;
@@ -50,6 +51,16 @@ public class TestUtil {
         assertNull(statusInfo.getRemoved());
     }
 
+    // stands in for the PostgreSQL function error_log_create_partitions in H2, see schema.sql
+    public static int createErrorLogPartitions(int monthsAhead) {
+        return 0;
+    }
+
+    // stands in for the PostgreSQL function error_log_drop_partitions in H2, see schema.sql
+    public static int dropErrorLogPartitions(OffsetDateTime oldDate) {
+        return 0;
+    }
+
     public Optional getEntity(Iterable entities, Long l) {
         return StreamSupport.stream(entities.spliterator(), false)
                 .filter(e -> getIdentifier(e).equals(l))
@@ -3,6 +3,8 @@ ALTER SEQUENCE member_id_seq RESTART WITH 1000;
 ALTER SEQUENCE subsystem_id_seq RESTART WITH 1000;
 ALTER SEQUENCE service_id_seq RESTART WITH 1000;
 ALTER SEQUENCE wsdl_id_seq RESTART WITH 1000;
+ALTER SEQUENCE error_log_id_seq RESTART WITH 1000;
+ALTER SEQUENCE error_incident_id_seq RESTART WITH 1000;
 
 INSERT INTO member (id, x_road_instance, member_class, member_code, name, created, changed, fetched,  removed)
 VALUES (1, 'dev-cs', 'PUB', '14151328', 'Nahka-Albert', '2016-01-01 00:00:00+02', '2016-01-01 00:00:00+02', '2016-01-01 00:00:00+02', NULL);
@@ -254,6 +256,21 @@ VALUES (6, 'Service not found6', '500', '2020-05-04 11:41:24.792+03');
 INSERT INTO error_log(id, message, code, created)
 VALUES (7, 'Service not found7', '500', '2022-01-01 11:41:24.792+03');
 
+INSERT INTO error_incident(id, incident_key, x_road_instance, member_class, member_code, subsystem_code, code,
+                           message_template, message, first_seen, last_seen, error_count)
+VALUES (1, 'incident-1', 'DEV', 'GOV', '1234', 'TestSubsystem', '500', 'Service not found', 'Service not found',
+        '2020-05-04 11:41:24.792+03', '2020-05-06 11:41:24.792+03', 12);
+
+INSERT INTO error_incident(id, incident_key, x_road_instance, member_class, member_code, code,
+                           message_template, message, first_seen, last_seen, error_count)
+VALUES (2, 'incident-2', 'DEV', 'GOV', '1234', '500', 'Service not found#', 'Service not found2',
+        '2020-05-04 11:41:24.792+03', '2020-05-04 11:41:24.792+03', 1);
+
+INSERT INTO error_incident(id, incident_key, x_road_instance, code, message_template, message, first_seen, last_seen,
+                           error_count)
+VALUES (3, 'incident-3', 'DEV', '500', 'Service not found#', 'Service not found6', '2020-05-04 11:41:24.792+03',
+        '2022-01-01 11:41:24.792+03', 5);
+
 INSERT INTO wsdl (id, service_id, data, external_id, created, changed, fetched,  removed)
 VALUES (1, 1, '<?xml version="1.0" standalone="no"?>
 <wsdl:definitions xmlns:soap="http://schemas.xmlsoap.org/wsdl/soap/"
@@ -32,11 +32,21 @@ CREATE TABLE IF NOT EXISTS service (
     removed TIMESTAMP WITH TIME ZONE
 );
 
+CREATE TABLE IF NOT EXISTS descriptor (
+    id INT AUTO_INCREMENT PRIMARY KEY NOT NULL,
+    data_hash TEXT NOT NULL,
+    data_gzip BYTEA NOT NULL,
+    ref_count INT NOT NULL
+);
+
 CREATE TABLE IF NOT EXISTS wsdl (
     id INT AUTO_INCREMENT PRIMARY KEY NOT NULL,
     service_id INT NOT NULL REFERENCES service(id),
-    data TEXT NOT NULL,
+    data TEXT,
     external_id TEXT NOT NULL,
+    data_hash TEXT,
+    data_gzip BYTEA,
+    descriptor_id INT REFERENCES descriptor(id),
     created TIMESTAMP WITH TIME ZONE NOT NULL,
     changed TIMESTAMP WITH TIME ZONE NOT NULL,
     fetched TIMESTAMP WITH TIME ZONE NOT NULL,
@@ -46,8 +56,11 @@ CREATE TABLE IF NOT EXISTS wsdl (
 CREATE TABLE IF NOT EXISTS open_api (
     id INT AUTO_INCREMENT PRIMARY KEY NOT NULL,
     service_id INT NOT NULL REFERENCES service(id),
-    data TEXT NOT NULL,
+    data TEXT,
     external_id TEXT NOT NULL,
+    data_hash TEXT,
+    data_gzip BYTEA,
+    descriptor_id INT REFERENCES descriptor(id),
     created TIMESTAMP WITH TIME ZONE NOT NULL,
     changed TIMESTAMP WITH TIME ZONE NOT NULL,
     fetched TIMESTAMP WITH TIME ZONE NOT NULL,
@@ -57,8 +70,10 @@ CREATE TABLE IF NOT EXISTS open_api (
 CREATE TABLE IF NOT EXISTS rest (
     id INT AUTO_INCREMENT PRIMARY KEY NOT NULL,
     service_id INT NOT NULL REFERENCES service(id),
-    data TEXT NOT NULL,
+    data TEXT,
     external_id TEXT NOT NULL,
+    data_hash TEXT,
+    data_gzip BYTEA,
     created TIMESTAMP WITH TIME ZONE NOT NULL,
     changed TIMESTAMP WITH TIME ZONE NOT NULL,
     fetched TIMESTAMP WITH TIME ZONE NOT NULL,
@@ -503,4 +518,35 @@ CREATE TABLE IF NOT EXISTS error_log (
     security_category_code TEXT,
     server_code TEXT,
     created TIMESTAMP WITH TIME ZONE NOT NULL
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS error_incident (
+    id INT AUTO_INCREMENT PRIMARY KEY NOT NULL,
+    incident_key VARCHAR(64) NOT NULL UNIQUE,
+    x_road_instance TEXT,
+    member_class TEXT,
+    member_code TEXT,
+    subsystem_code TEXT,
+    service_code TEXT,
+    service_version TEXT,
+    code TEXT NOT NULL,
+    message_template TEXT NOT NULL,
+    message TEXT NOT NULL,
+    first_seen TIMESTAMP WITH TIME ZONE NOT NULL,
+    last_seen TIMESTAMP WITH TIME ZONE NOT NULL,
+    error_count BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS service_statistics_daily (
+    id INT AUTO_INCREMENT PRIMARY KEY NOT NULL,
+    statistics_date DATE NOT NULL UNIQUE,
+    number_of_soap_services BIGINT NOT NULL,
+    number_of_rest_services BIGINT NOT NULL,
+    number_of_open_api_services BIGINT NOT NULL,
+    number_of_distinct_services BIGINT NOT NULL,
+    updated TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- the partition maintenance of error_log exists only in PostgreSQL, these stand in for it in H2
+CREATE ALIAS IF NOT EXISTS error_log_create_partitions FOR "fi.vrk.xroad.catalog.persistence.TestUtil.createErrorLogPartitions";
+CREATE ALIAS IF NOT EXISTS error_log_drop_partitions FOR "fi.vrk.xroad.catalog.persistence.TestUtil.dropErrorLogPartitions";